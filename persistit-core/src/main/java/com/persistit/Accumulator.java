@@ -222,6 +222,7 @@ public abstract class Accumulator {
         public void add(final long value) {
             final Transaction txn = _tree.getPersistit().getTransaction();
             txn.checkActive();
+            txn.checkWritable();
             update(value, txn.getTransactionStatus(), txn.getStep());
         }
 
@@ -272,6 +273,7 @@ public abstract class Accumulator {
         public void minimum(final long min) {
             final Transaction txn = _tree.getPersistit().getTransaction();
             txn.checkActive();
+            txn.checkWritable();
             update(min, txn.getTransactionStatus(), txn.getStep());
         }
 
@@ -322,6 +324,7 @@ public abstract class Accumulator {
         public void maximum(final long max) {
             final Transaction txn = _tree.getPersistit().getTransaction();
             txn.checkActive();
+            txn.checkWritable();
             update(max, txn.getTransactionStatus(), txn.getStep());
         }
 
@@ -391,6 +394,7 @@ public abstract class Accumulator {
          */
         public long allocate() {
             final Transaction txn = _tree.getPersistit().getTransaction();
+            txn.checkWritable();
             return update(1, txn.getTransactionStatus(), txn.getStep());
         }
 
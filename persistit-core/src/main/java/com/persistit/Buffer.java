@@ -24,6 +24,7 @@ import static com.persistit.VolumeHeader.getId;
 import static com.persistit.VolumeHeader.getNextAvailablePage;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -283,6 +284,11 @@ public class Buffer extends SharedResource {
 
         }
 
+        /**
+         * Visit a data record. The value is supplied as a copy in
+         * <code>bytes</code> starting at <code>offset</code>; the copy is
+         * valid only for the duration of the call.
+         */
         protected void visitDataRecord(final Key key, final int foundAt, final int tail, final int klength,
                 final int offset, final int length, final byte[] bytes) throws PersistitException {
         }
@@ -318,7 +324,8 @@ public class Buffer extends SharedResource {
     private volatile long _timestamp;
 
     /**
-     * A ByteBuffer facade for this Buffer used in NIO operations
+     * A ByteBuffer facade for this Buffer used in NIO operations. Its position
+     * and limit are changed by I/O operations, which must hold a writer claim.
      */
     private final ByteBuffer _byteBuffer;
 
@@ -328,10 +335,12 @@ public class Buffer extends SharedResource {
     private final int _bufferSize;
 
     /**
-     * The bytes in this buffer. Note these bytes are also the backing store of
-     * _byteBuffer.
+     * A view of the same memory as _byteBuffer through which all page
+     * contents are read and written using absolute get and put operations.
+     * Its position and limit are never changed. The memory is either a heap
+     * ByteBuffer or a slice of a direct arena owned by the BufferPool.
      */
-    private final byte[] _bytes;
+    private final ByteBuffer _bytes;
 
     /**
      * FastIndex structure used for rapid page searching
@@ -385,31 +394,55 @@ public class Buffer extends SharedResource {
     private volatile boolean _enqueuedForAntiValuePruning;
 
     /**
-     * Construct a new buffer.
+     * Copy of the page image most recently written to the journal as a full
+     * page record, retained as the base against which the JournalManager
+     * encodes page deltas. Allocated on first use and reused thereafter.
+     */
+    private byte[] _deltaBase;
+
+    /**
+     * Journal address of the full page record held in {@link #_deltaBase}, or
+     * -1 if there is none for the page currently in this buffer.
+     */
+    private long _deltaBaseAddress = -1;
+
+    /**
+     * Construct a new buffer whose page memory is allocated on the heap.
      *
      * @param size
      *            The buffer size, in bytes.
      */
-    Buffer(int size, final int index, final BufferPool pool, final Persistit persistit) {
+    Buffer(final int size, final int index, final BufferPool pool, final Persistit persistit) {
+        this(ByteBuffer.allocate(checkSize(size)), index, pool, persistit);
+    }
+
+    /**
+     * Construct a new buffer whose page memory is the supplied ByteBuffer,
+     * which may be direct. The buffer size is the capacity of the ByteBuffer.
+     *
+     * @param memory
+     *            The page memory
+     */
+    Buffer(final ByteBuffer memory, final int index, final BufferPool pool, final Persistit persistit) {
         super(persistit);
-        boolean ok = false;
-        for (int s = MIN_BUFFER_SIZE; !ok && s <= MAX_BUFFER_SIZE; s *= 2) {
-            if (s == size) {
-                ok = true;
-            }
-        }
-        if (!ok) {
-            throw new IllegalArgumentException("Invalid buffer size: " + size);
-        }
-        size &= KEYBLOCK_MASK;
+        final int size = checkSize(memory.capacity()) & KEYBLOCK_MASK;
         _pool = pool;
         _poolIndex = index;
-        _byteBuffer = ByteBuffer.allocate(size);
-        _bytes = _byteBuffer.array();
+        _byteBuffer = memory;
+        _bytes = memory.duplicate().order(Persistit.BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
         _bufferSize = size;
         _fastIndex = new FastIndex(this, 1 + (size - HEADER_SIZE) / MAX_KEY_RATIO);
     }
 
+    private static int checkSize(final int size) {
+        for (int s = MIN_BUFFER_SIZE; s <= MAX_BUFFER_SIZE; s *= 2) {
+            if (s == size) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("Invalid buffer size: " + size);
+    }
+
     Buffer(final Buffer original) {
         this(original._bufferSize, original._poolIndex, original._pool, original._persistit);
         setStatus(original);
@@ -423,7 +456,7 @@ public class Buffer extends SharedResource {
         _mvvCount = original._mvvCount;
         setKeyBlockEnd(original._keyBlockEnd);
         _tailHeaderSize = original._tailHeaderSize;
-        System.arraycopy(original._bytes, 0, _bytes, 0, _bytes.length);
+        Util.copyBytes(original._bytes, 0, _bytes, 0, _bufferSize);
     }
 
     /**
@@ -466,6 +499,15 @@ public class Buffer extends SharedResource {
         load();
     }
 
+    void load(final Volume vol, final long page, final ByteBuffer image) throws PersistitIOException,
+            InvalidPageAddressException, InvalidPageStructureException, VolumeClosedException, InUseException,
+            PersistitInterruptedException {
+        _vol = vol;
+        _page = page;
+        vol.getStorage().readPage(this, image);
+        load();
+    }
+
     void load() throws InvalidPageStructureException {
         Debug.$assert0.t(isOwnedAsWriterByMe());
 
@@ -737,6 +779,41 @@ public class Buffer extends SharedResource {
     public void setPageAddressAndVolume(final long pageAddress, final Volume volume) {
         _page = pageAddress;
         _vol = volume;
+        _deltaBaseAddress = -1;
+    }
+
+    /**
+     * Retain a copy of the page as just written to the journal in a full page
+     * record at the supplied address. Bytes between the key block and the
+     * tail block are retained as zeros, as they are when the page is rebuilt
+     * from the record. Caller must hold a writer claim.
+     *
+     * @param address
+     *            journal address of the full page record
+     */
+    void setDeltaBase(final long address) {
+        Debug.$assert0.t(isOwnedAsWriterByMe());
+        if (_deltaBase == null) {
+            _deltaBase = new byte[_bufferSize];
+        }
+        getBytes(0, _deltaBase, 0, _bufferSize);
+        Util.clearBytes(_deltaBase, _keyBlockEnd, _alloc);
+        _deltaBaseAddress = address;
+    }
+
+    /**
+     * @return the page image retained by {@link #setDeltaBase(long)}
+     */
+    byte[] getDeltaBase() {
+        return _deltaBase;
+    }
+
+    /**
+     * @return the journal address of the retained page image, or -1 if there
+     *         is none
+     */
+    long getDeltaBaseAddress() {
+        return _deltaBaseAddress;
     }
 
     /**
@@ -816,7 +893,10 @@ public class Buffer extends SharedResource {
      * @throws PersistitInterruptedException
      */
     int findKey(final Key key) throws PersistitInterruptedException {
-        final FastIndex fastIndex = getFastIndex();
+        return findKey(key, getFastIndex());
+    }
+
+    private int findKey(final Key key, final FastIndex fastIndex) {
         final byte[] kbytes = key.getEncodedBytes();
         final int klength = key.getEncodedSize();
         int depth = 0;
@@ -1021,11 +1101,11 @@ public class Buffer extends SharedResource {
                 if (++depth < qlength) {
                     int q = tail + tailHeaderSize;
                     kb = kbytes[depth];
-                    db = _bytes[q++];
+                    db = _bytes.get(q++);
 
                     while (kb == db && ++depth < qlength) {
                         kb = kbytes[depth];
-                        db = _bytes[q++];
+                        db = _bytes.get(q++);
                     }
 
                     if (kb != db) {
@@ -1093,7 +1173,7 @@ public class Buffer extends SharedResource {
                 final int size = decodeTailBlockSize(tbData);
                 final int offset = tail + _tailHeaderSize + klength;
                 final int valueSize = size - klength - _tailHeaderSize;
-                return valueSize == 1 && _bytes[offset] == MVV.TYPE_ANTIVALUE;
+                return valueSize == 1 && getByte(offset) == MVV.TYPE_ANTIVALUE;
             }
         }
         return false;
@@ -1136,7 +1216,7 @@ public class Buffer extends SharedResource {
                 final int klength = decodeTailBlockKLength(tbData);
                 final byte[] keyBytes = key.getEncodedBytes();
                 keyBytes[ebc] = (byte) db;
-                System.arraycopy(_bytes, tail + _tailHeaderSize, keyBytes, ebc + 1, klength);
+                getBytes(tail + _tailHeaderSize, keyBytes, ebc + 1, klength);
                 key.setEncodedSize(ebc + klength + 1);
             }
         }
@@ -1171,7 +1251,7 @@ public class Buffer extends SharedResource {
         if (valueSize != LONGREC_SIZE) {
             return 0;
         }
-        if ((_bytes[tail + _tailHeaderSize + klength] & 0xFF) != LONGREC_TYPE) {
+        if (getByte(tail + _tailHeaderSize + klength) != LONGREC_TYPE) {
             return 0;
         }
 
@@ -1190,7 +1270,7 @@ public class Buffer extends SharedResource {
         if (valueSize != LONGREC_SIZE) {
             return;
         }
-        if ((_bytes[tail + _tailHeaderSize + klength] & 0xFF) != LONGREC_TYPE) {
+        if (getByte(tail + _tailHeaderSize + klength) != LONGREC_TYPE) {
             return;
         }
         /*
@@ -1208,6 +1288,74 @@ public class Buffer extends SharedResource {
         return getInt(tail + 4);
     }
 
+    /**
+     * Copy the child page addresses held in this index page, in key order.
+     * The caller must hold a claim on the buffer.
+     *
+     * @param pages
+     *            array to receive the addresses
+     * @return the number of addresses copied, limited by the array length
+     * @throws PersistitException
+     *             if this is not an index page
+     */
+    int getChildPages(final long[] pages) throws PersistitException {
+        int count = 0;
+        for (int p = KEY_BLOCK_START; p < _keyBlockEnd && count < pages.length; p += KEYBLOCK_LENGTH) {
+            final long pointer = getPointer(p);
+            if (pointer > 0) {
+                pages[count++] = pointer;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Search this index page for the child page covering the supplied key
+     * without holding a claim on the buffer. The caller must obtain a stamp
+     * from {@link #optimisticStamp()} before calling this method and must
+     * discard the result unless {@link #validateStamp(long)} subsequently
+     * succeeds, because a concurrent writer may be changing the page.
+     *
+     * @param volume
+     *            the volume the page is expected to belong to
+     * @param page
+     *            the expected page address
+     * @param level
+     *            the expected tree level of the page
+     * @param key
+     *            the key to seek
+     * @return the address of the child page, or -1 if this buffer does not
+     *         hold the expected valid index page, the key lies at or outside
+     *         an edge of the page, or the page could not be read consistently
+     */
+    long findChildPageOptimistically(final Volume volume, final long page, final int level, final Key key) {
+        try {
+            if (_vol != volume || _page != page || _type != level + PAGE_TYPE_DATA || !isIndexPage() || !isValid()) {
+                return -1;
+            }
+            final FastIndex fastIndex = _fastIndex;
+            if (!fastIndex.isValid()) {
+                return -1;
+            }
+            final int foundAt = findKey(key, fastIndex);
+            if (isBeforeLeftEdge(foundAt) || isAfterRightEdge(foundAt)) {
+                return -1;
+            }
+            int p = foundAt & P_MASK;
+            if ((foundAt & EXACT_MASK) == 0) {
+                p -= KEYBLOCK_LENGTH;
+            }
+            final long child = getInt(decodeKeyBlockTail(getInt(p)) + 4);
+            return child > 0 ? child : -1;
+        } catch (final RuntimeException e) {
+            //
+            // A writer modified the page while it was being read; the
+            // stamp validation would fail anyway.
+            //
+            return -1;
+        }
+    }
+
     /**
      * Internal implementation of getKey using a previously computed result from
      * the findKey() method.
@@ -1286,7 +1434,7 @@ public class Buffer extends SharedResource {
                 kbytes[ebc] = (byte) decodeKeyBlockDb(kbData);
                 final int more = unknown - ebc - 1;
                 if (more > 0) {
-                    System.arraycopy(_bytes, tail + _tailHeaderSize, kbytes, ebc + 1, more);
+                    getBytes(tail + _tailHeaderSize, kbytes, ebc + 1, more);
                 }
                 unknown = ebc;
             }
@@ -1333,7 +1481,7 @@ public class Buffer extends SharedResource {
         // keyblock whose first ebc bytes match the supplied key.
         //
         kbytes[ebc] = (byte) decodeKeyBlockDb(kbData);
-        System.arraycopy(_bytes, tail + _tailHeaderSize, kbytes, ebc + 1, klength);
+        getBytes(tail + _tailHeaderSize, kbytes, ebc + 1, klength);
 
         return result;
     }
@@ -1354,7 +1502,7 @@ public class Buffer extends SharedResource {
             final int klength = decodeTailBlockKLength(tbData);
             final int size = decodeTailBlockSize(tbData);
             final int valueSize = size - klength - _tailHeaderSize;
-            if ((valueSize > 0) && ((_bytes[tail + _tailHeaderSize + klength] & 0xFF) == LONGREC_TYPE)) {
+            if ((valueSize > 0) && (getByte(tail + _tailHeaderSize + klength) == LONGREC_TYPE)) {
                 value.putEncodedBytes(_bytes, tail + _tailHeaderSize + klength, valueSize);
                 return p;
             }
@@ -1480,8 +1628,8 @@ public class Buffer extends SharedResource {
                 // Write updated successor tail block
                 putInt(successorTail, encodeTailBlock(successorTailSize - delta, successorKeyLength - delta));
 
-                System.arraycopy(_bytes, successorTail + _tailHeaderSize + delta, _bytes, successorTail
-                        + _tailHeaderSize, successorTailSize - _tailHeaderSize - delta);
+                moveBytes(successorTail + _tailHeaderSize + delta, successorTail + _tailHeaderSize, successorTailSize
+                        - _tailHeaderSize - delta);
 
                 if (free2 < free1) {
                     deallocTail(successorTail + free2, free1 - free2);
@@ -1509,7 +1657,7 @@ public class Buffer extends SharedResource {
             }
 
             // Shift the subsequent key blocks
-            System.arraycopy(_bytes, p, _bytes, p + KEYBLOCK_LENGTH, _keyBlockEnd - p - KEYBLOCK_LENGTH);
+            moveBytes(p, p + KEYBLOCK_LENGTH, _keyBlockEnd - p - KEYBLOCK_LENGTH);
 
             // Write new key block
             final int newKeyBlock = encodeKeyBlock(ebcNew, dbNew, newTail);
@@ -1519,9 +1667,9 @@ public class Buffer extends SharedResource {
             putInt(newTail, encodeTailBlock(newTailSize, klength));
 
             Debug.$assert0.t(klength >= 0 && ebcNew + 1 >= 0 && ebcNew + 1 + klength <= kbytes.length
-                    && newTail + _tailHeaderSize >= 0 && newTail + _tailHeaderSize + klength <= _bytes.length);
+                    && newTail + _tailHeaderSize >= 0 && newTail + _tailHeaderSize + klength <= _bufferSize);
 
-            System.arraycopy(kbytes, ebcNew + 1, _bytes, newTail + _tailHeaderSize, klength);
+            putBytes(newTail + _tailHeaderSize, kbytes, ebcNew + 1, klength);
 
             if (isIndexPage()) {
                 final int pointer = (int) valueHelper.getPointerValue();
@@ -1530,11 +1678,11 @@ public class Buffer extends SharedResource {
                 putInt(newTail + TAILBLOCK_POINTER, pointer);
             } else {
                 final int offset = newTail + _tailHeaderSize + klength;
-                final int storedLength = valueHelper.storeVersion(_bytes, offset, -1, _bytes.length); // TODO
+                final int storedLength = valueHelper.storeVersion(_bytes, offset, -1, _bufferSize); // TODO
                 // limit
-                incCountIfMvv(_bytes, offset, storedLength & MVV.STORE_LENGTH_MASK);
+                incCountIfMvv(offset, storedLength & MVV.STORE_LENGTH_MASK);
 
-                Debug.$assert0.t(MVV.verify(_persistit.getTransactionIndex(), _bytes, offset, storedLength
+                Debug.$assert0.t(verifyMVV(_persistit.getTransactionIndex(), offset, storedLength
                         & MVV.STORE_LENGTH_MASK));
             }
             //
@@ -1591,7 +1739,7 @@ public class Buffer extends SharedResource {
             final int klength1 = decodeTailBlockKLength(tbData1);
             int db = -1;
             if (klength1 >= ebc2 - ebc1) {
-                db = _bytes[tail1 + _tailHeaderSize + ebc2 - ebc1 - 1] & DB_MASK;
+                db = getByte(tail1 + _tailHeaderSize + ebc2 - ebc1 - 1) & DB_MASK;
                 if (db2 > db)
                     return true;
                 return false; // Can set breakpoint here
@@ -1619,7 +1767,7 @@ public class Buffer extends SharedResource {
         } else {
             length = valueHelper.requiredLength(_bytes, tail + _tailHeaderSize + klength, oldTailSize - _tailHeaderSize
                     - klength);
-            wasMVV = isValueMVV(_bytes, tail + _tailHeaderSize + klength, oldTailSize - _tailHeaderSize - klength);
+            wasMVV = isValueMVV(tail + _tailHeaderSize + klength, oldTailSize - _tailHeaderSize - klength);
         }
 
         final int newTailSize = klength + length + _tailHeaderSize;
@@ -1652,8 +1800,7 @@ public class Buffer extends SharedResource {
         }
         putInt(newTail, encodeTailBlock(newTailSize, klength));
         if (newTail != tail) {
-            System.arraycopy(key.getEncodedBytes(), key.getEncodedSize() - klength, _bytes, newTail + _tailHeaderSize,
-                    klength);
+            putBytes(newTail + _tailHeaderSize, key.getEncodedBytes(), key.getEncodedSize() - klength, klength);
         }
 
         if (isIndexPage()) {
@@ -1663,10 +1810,10 @@ public class Buffer extends SharedResource {
         } else {
             final int offset = newTail + _tailHeaderSize + klength;
             final int storedLength = valueHelper.storeVersion(_bytes, offset, oldTailSize - _tailHeaderSize - klength,
-                    _bytes.length); // TODO - limit
-            isMVV = isValueMVV(_bytes, offset, storedLength & MVV.STORE_LENGTH_MASK);
+                    _bufferSize); // TODO - limit
+            isMVV = isValueMVV(offset, storedLength & MVV.STORE_LENGTH_MASK);
 
-            Debug.$assert0.t(MVV.verify(_persistit.getTransactionIndex(), _bytes, offset, storedLength
+            Debug.$assert0.t(verifyMVV(_persistit.getTransactionIndex(), offset, storedLength
                     & MVV.STORE_LENGTH_MASK));
 
         }
@@ -1729,7 +1876,7 @@ public class Buffer extends SharedResource {
             final int klength = decodeTailBlockKLength(tbData);
             spareBytes[ebcCandidate] = (byte) db;
             if (klength > 0) {
-                System.arraycopy(_bytes, tail + _tailHeaderSize, spareBytes, ebcCandidate + 1, klength);
+                getBytes(tail + _tailHeaderSize, spareBytes, ebcCandidate + 1, klength);
             }
             keySize = klength + ebcCandidate + 1;
             final int size = (decodeTailBlockSize(tbData) + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
@@ -1739,7 +1886,7 @@ public class Buffer extends SharedResource {
         //
         // Remove the deleted key blocks
         //
-        System.arraycopy(_bytes, p2, _bytes, p1, _keyBlockEnd - p2);
+        moveBytes(p2, p1, _keyBlockEnd - p2);
 
         _keyBlockEnd -= (p2 - p1);
 
@@ -1813,16 +1960,16 @@ public class Buffer extends SharedResource {
                 if (isIndexPage()) {
                     putInt(newNextTail + TAILBLOCK_POINTER, getInt(tailNext + TAILBLOCK_POINTER));
                 }
-                System.arraycopy(_bytes, tailNext + _tailHeaderSize, _bytes, newNextTail + _tailHeaderSize + ebcNext
-                        - ebc, nextTailSize - _tailHeaderSize);
+                moveBytes(tailNext + _tailHeaderSize, newNextTail + _tailHeaderSize + ebcNext - ebc, nextTailSize
+                        - _tailHeaderSize);
 
-                _bytes[newNextTail + _tailHeaderSize + ebcNext - ebc - 1] = (byte) dbNext;
+                putByte(newNextTail + _tailHeaderSize + ebcNext - ebc - 1, dbNext);
 
                 //
                 // Next copy copy the additional bytes of key that are to be
                 // removed.
                 //
-                System.arraycopy(spareBytes, ebc + 1, _bytes, newNextTail + _tailHeaderSize, ebcNext - ebc - 1);
+                putBytes(newNextTail + _tailHeaderSize, spareBytes, ebc + 1, ebcNext - ebc - 1);
                 //
                 // Now construct the new tail block
                 //
@@ -1872,7 +2019,7 @@ public class Buffer extends SharedResource {
             return -1;
         }
 
-        System.arraycopy(_bytes, _alloc, _bytes, _alloc - delta, tail - _alloc);
+        moveBytes(_alloc, _alloc - delta, tail - _alloc);
         _alloc -= delta;
 
         for (int p = KEY_BLOCK_START; p < _keyBlockEnd; p += KEYBLOCK_LENGTH) {
@@ -2127,7 +2274,7 @@ public class Buffer extends SharedResource {
                 final int tbData = getInt(tail);
                 final int klength = decodeTailBlockKLength(tbData);
 
-                System.arraycopy(_bytes, tail + _tailHeaderSize, indexKeyBytes, indexKeyDepth, klength);
+                getBytes(tail + _tailHeaderSize, indexKeyBytes, indexKeyDepth, klength);
                 indexKeyDepth += klength;
             }
         }
@@ -2190,22 +2337,19 @@ public class Buffer extends SharedResource {
             rightSibling.putInt(newTailBlock, encodeTailBlock(newTailBlockSize, newKeyLength));
 
             if (p == splitAtPosition && ebc > 0) {
-                System.arraycopy(indexKeyBytes, 1, // Note: byte 0 is the
-                                                   // discriminator byte
-                        rightSibling._bytes, newTailBlock + _tailHeaderSize, ebc - 1);
+                // Note: byte 0 is the discriminator byte
+                rightSibling.putBytes(newTailBlock + _tailHeaderSize, indexKeyBytes, 1, ebc - 1);
 
                 rightSibling.putByte(newTailBlock + _tailHeaderSize + ebc - 1, db);
 
-                System.arraycopy(_bytes, tail + _tailHeaderSize, rightSibling._bytes, newTailBlock + _tailHeaderSize
-                        + ebc, klength);
+                copyBytes(tail + _tailHeaderSize, rightSibling, newTailBlock + _tailHeaderSize + ebc, klength);
             } else {
-                System.arraycopy(_bytes, tail + _tailHeaderSize, rightSibling._bytes, newTailBlock + _tailHeaderSize,
-                        klength);
+                copyBytes(tail + _tailHeaderSize, rightSibling, newTailBlock + _tailHeaderSize, klength);
             }
 
             if (isDataPage()) {
-                System.arraycopy(_bytes, tail + _tailHeaderSize + klength, rightSibling._bytes, newTailBlock
-                        + _tailHeaderSize + newKeyLength, dataSize);
+                copyBytes(tail + _tailHeaderSize + klength, rightSibling, newTailBlock + _tailHeaderSize + newKeyLength,
+                        dataSize);
             } else {
                 rightSibling.putInt(newTailBlock + TAILBLOCK_POINTER, getInt(tail + TAILBLOCK_POINTER));
             }
@@ -2287,7 +2431,7 @@ public class Buffer extends SharedResource {
             }
             putInt(edgeTail, encodeTailBlock(edgeTailBlockSize, edgeKeyLength));
 
-            System.arraycopy(indexKeyBytes, depth + 1, _bytes, edgeTail + _tailHeaderSize, edgeKeyLength);
+            putBytes(edgeTail + _tailHeaderSize, indexKeyBytes, depth + 1, edgeKeyLength);
 
             putInt(splitAtPosition, encodeKeyBlock(depth, db, edgeTail));
         }
@@ -2582,7 +2726,7 @@ public class Buffer extends SharedResource {
 
                 moveRecords(buffer, foundAt2, joinOffset, _keyBlockEnd, true);
 
-                System.arraycopy(buffer._bytes, joinOffset, buffer._bytes, KEY_BLOCK_START, rightSize);
+                buffer.moveBytes(joinOffset, KEY_BLOCK_START, rightSize);
                 buffer.clearBytes(KEY_BLOCK_START + rightSize, buffer._keyBlockEnd);
                 buffer.setKeyBlockEnd(KEY_BLOCK_START + rightSize);
                 buffer.reduceEbc(KEY_BLOCK_START, 0, indexKeyBytes);
@@ -2599,7 +2743,7 @@ public class Buffer extends SharedResource {
                 buffer.joinDeallocateTails(KEY_BLOCK_START, foundAt2);
 
                 final int rightSize = buffer._keyBlockEnd - foundAt2;
-                System.arraycopy(buffer._bytes, foundAt2, buffer._bytes, KEY_BLOCK_START, rightSize);
+                buffer.moveBytes(foundAt2, KEY_BLOCK_START, rightSize);
                 buffer.clearBytes(KEY_BLOCK_START + rightSize, buffer._keyBlockEnd);
                 buffer.setKeyBlockEnd(KEY_BLOCK_START + rightSize);
                 buffer.reduceEbc(KEY_BLOCK_START, newEbc, spareKeyBytes);
@@ -2928,12 +3072,11 @@ public class Buffer extends SharedResource {
         if (newTail != tail && isIndexPage()) {
             putInt(newTail + TAILBLOCK_POINTER, getInt(tail + TAILBLOCK_POINTER));
         }
-        System.arraycopy(_bytes, tail + _tailHeaderSize, _bytes, newTail + _tailHeaderSize + oldEbc - newEbc, size
-                - _tailHeaderSize);
+        moveBytes(tail + _tailHeaderSize, newTail + _tailHeaderSize + oldEbc - newEbc, size - _tailHeaderSize);
 
-        _bytes[newTail + _tailHeaderSize + oldEbc - newEbc - 1] = (byte) oldDb;
+        putByte(newTail + _tailHeaderSize + oldEbc - newEbc - 1, oldDb);
 
-        System.arraycopy(indexKeyBytes, newEbc + 1, _bytes, newTail + _tailHeaderSize, oldEbc - newEbc - 1);
+        putBytes(newTail + _tailHeaderSize, indexKeyBytes, newEbc + 1, oldEbc - newEbc - 1);
 
         if (newTail != tail && !wedged) {
             deallocTail(tail, size);
@@ -2962,7 +3105,7 @@ public class Buffer extends SharedResource {
             repack();
         }
         if (insertAt < _keyBlockEnd) {
-            System.arraycopy(_bytes, insertAt, _bytes, insertAt + p2 - p1, _keyBlockEnd - insertAt);
+            moveBytes(insertAt, insertAt + p2 - p1, _keyBlockEnd - insertAt);
 
         }
         clearBytes(insertAt, insertAt + p2 - p1);
@@ -2997,7 +3140,7 @@ public class Buffer extends SharedResource {
                         .fatal("Insufficient space to move records in " + this + "from " + buffer + " at =" + p, null);
             }
 
-            System.arraycopy(buffer._bytes, tail + 4, _bytes, newTail + 4, newSize - 4);
+            buffer.copyBytes(tail + 4, this, newTail + 4, newSize - 4);
 
             putInt(newTail, encodeTailBlock(newSize, klength));
 
@@ -3122,7 +3265,7 @@ public class Buffer extends SharedResource {
             plan[tail / TAILBLOCK_FACTOR] = free + tail;
             final int deltaFree = planData & 0xFFFF;
             if (deltaFree > 0 && moveSize > 0 && free > 0) {
-                System.arraycopy(_bytes, moveFrom, _bytes, moveFrom + free, moveSize);
+                moveBytes(moveFrom, moveFrom + free, moveSize);
                 moveSize = 0;
             }
 
@@ -3130,7 +3273,7 @@ public class Buffer extends SharedResource {
             tail = planData >>> 16;
         }
         if (moveSize > 0 && free > 0) {
-            System.arraycopy(_bytes, moveFrom, _bytes, moveFrom + free, moveSize);
+            moveBytes(moveFrom, moveFrom + free, moveSize);
         }
         _alloc = alloc;
         _slack = 0;
@@ -3192,107 +3335,128 @@ public class Buffer extends SharedResource {
     }
 
     // ------------------------------------------------------------------------
-    byte[] getBytes() {
-        return _bytes;
-    }
-
+    //
+    // Page contents are accessed only through the methods below, which use
+    // absolute operations on _bytes. The byte order of _bytes is set from
+    // Persistit.BIG_ENDIAN when the Buffer is constructed.
+    //
     int getByte(final int index) {
-        return (_bytes[index] & 0xFF);
+        return (_bytes.get(index) & 0xFF);
     }
 
     int getChar(final int index) {
-        if (Persistit.BIG_ENDIAN) {
-            return (_bytes[index + 1] & 0xFF) | (_bytes[index] & 0xFF) << 8;
-        } else {
-            return (_bytes[index] & 0xFF) | (_bytes[index + 1] & 0xFF) << 8;
-        }
+        return _bytes.getChar(index);
     }
 
     int getInt(final int index) {
-        if (Persistit.BIG_ENDIAN) {
-            return (_bytes[index + 3] & 0xFF) | (_bytes[index + 2] & 0xFF) << 8 | (_bytes[index + 1] & 0xFF) << 16
-                    | (_bytes[index] & 0xFF) << 24;
-        } else {
-            return (_bytes[index] & 0xFF) | (_bytes[index + 1] & 0xFF) << 8 | (_bytes[index + 2] & 0xFF) << 16
-                    | (_bytes[index + 3] & 0xFF) << 24;
-        }
+        return _bytes.getInt(index);
     }
 
     long getLong(final int index) {
-        if (Persistit.BIG_ENDIAN) {
-            return _bytes[index + 7] & 0xFF | (long) (_bytes[index + 6] & 0xFF) << 8
-                    | (long) (_bytes[index + 5] & 0xFF) << 16 | (long) (_bytes[index + 4] & 0xFF) << 24
-                    | (long) (_bytes[index + 3] & 0xFF) << 32 | (long) (_bytes[index + 2] & 0xFF) << 40
-                    | (long) (_bytes[index + 1] & 0xFF) << 48 | (long) (_bytes[index] & 0xFF) << 56;
-        } else {
-            return _bytes[index] & 0xFF | (long) (_bytes[index + 1] & 0xFF) << 8
-                    | (long) (_bytes[index + 2] & 0xFF) << 16 | (long) (_bytes[index + 3] & 0xFF) << 24
-                    | (long) (_bytes[index + 4] & 0xFF) << 32 | (long) (_bytes[index + 5] & 0xFF) << 40
-                    | (long) (_bytes[index + 6] & 0xFF) << 48 | (long) (_bytes[index + 7] & 0xFF) << 56;
-        }
+        return _bytes.getLong(index);
     }
 
     int getDb(final int index) {
         if (Persistit.BIG_ENDIAN) {
-            return _bytes[index + 3] & 0xFF;
+            return _bytes.get(index + 3) & 0xFF;
         } else {
-            return _bytes[index] & 0xFF;
+            return _bytes.get(index) & 0xFF;
         }
     }
 
     void putByte(final int index, final int value) {
-        Debug.$assert0.t(index >= 0 && index + 1 <= _bytes.length);
-        _bytes[index] = (byte) (value);
+        Debug.$assert0.t(index >= 0 && index + 1 <= _bufferSize);
+        _bytes.put(index, (byte) value);
     }
 
     void putChar(final int index, final int value) {
-        Debug.$assert0.t(index >= 0 && index + 2 <= _bytes.length);
-        if (Persistit.BIG_ENDIAN) {
-            _bytes[index + 1] = (byte) (value);
-            _bytes[index] = (byte) (value >>> 8);
-        } else {
-            _bytes[index] = (byte) (value);
-            _bytes[index + 1] = (byte) (value >>> 8);
-        }
+        Debug.$assert0.t(index >= 0 && index + 2 <= _bufferSize);
+        _bytes.putChar(index, (char) value);
     }
 
     void putInt(final int index, final int value) {
-        Debug.$assert0.t(index >= 0 && index + 4 <= _bytes.length);
-        if (Persistit.BIG_ENDIAN) {
-            _bytes[index + 3] = (byte) (value);
-            _bytes[index + 2] = (byte) (value >>> 8);
-            _bytes[index + 1] = (byte) (value >>> 16);
-            _bytes[index] = (byte) (value >>> 24);
-        } else {
-            _bytes[index] = (byte) (value);
-            _bytes[index + 1] = (byte) (value >>> 8);
-            _bytes[index + 2] = (byte) (value >>> 16);
-            _bytes[index + 3] = (byte) (value >>> 24);
-        }
+        Debug.$assert0.t(index >= 0 && index + 4 <= _bufferSize);
+        _bytes.putInt(index, value);
     }
 
     void putLong(final int index, final long value) {
-        Debug.$assert0.t(index >= 0 && index + 8 <= _bytes.length);
+        Debug.$assert0.t(index >= 0 && index + 8 <= _bufferSize);
+        _bytes.putLong(index, value);
+    }
 
-        if (Persistit.BIG_ENDIAN) {
-            _bytes[index + 7] = (byte) (value);
-            _bytes[index + 6] = (byte) (value >>> 8);
-            _bytes[index + 5] = (byte) (value >>> 16);
-            _bytes[index + 4] = (byte) (value >>> 24);
-            _bytes[index + 3] = (byte) (value >>> 32);
-            _bytes[index + 2] = (byte) (value >>> 40);
-            _bytes[index + 1] = (byte) (value >>> 48);
-            _bytes[index] = (byte) (value >>> 56);
-        } else {
-            _bytes[index] = (byte) (value);
-            _bytes[index + 1] = (byte) (value >>> 8);
-            _bytes[index + 2] = (byte) (value >>> 16);
-            _bytes[index + 3] = (byte) (value >>> 24);
-            _bytes[index + 4] = (byte) (value >>> 32);
-            _bytes[index + 5] = (byte) (value >>> 40);
-            _bytes[index + 6] = (byte) (value >>> 48);
-            _bytes[index + 7] = (byte) (value >>> 56);
-        }
+    /**
+     * Copy bytes from the page into a byte array
+     *
+     * @param index
+     *            offset of the first byte within the page
+     * @param bytes
+     *            the target array
+     * @param offset
+     *            offset within the target array
+     * @param length
+     *            number of bytes to copy
+     */
+    void getBytes(final int index, final byte[] bytes, final int offset, final int length) {
+        Util.getBytes(_bytes, index, bytes, offset, length);
+    }
+
+    /**
+     * Copy bytes from a byte array into the page
+     *
+     * @param index
+     *            offset of the first byte within the page
+     * @param bytes
+     *            the source array
+     * @param offset
+     *            offset within the source array
+     * @param length
+     *            number of bytes to copy
+     */
+    void putBytes(final int index, final byte[] bytes, final int offset, final int length) {
+        Debug.$assert0.t(index >= 0 && index + length <= _bufferSize);
+        Util.putBytes(_bytes, index, bytes, offset, length);
+    }
+
+    /**
+     * Copy bytes from the page into a ByteBuffer at its current position,
+     * advancing the position by <code>length</code>.
+     *
+     * @param index
+     *            offset of the first byte within the page
+     * @param target
+     *            the target ByteBuffer
+     * @param length
+     *            number of bytes to copy
+     */
+    void getBytes(final int index, final ByteBuffer target, final int length) {
+        final ByteBuffer source = _bytes.duplicate();
+        source.limit(index + length).position(index);
+        target.put(source);
+    }
+
+    /**
+     * Copy bytes from this page to another
+     */
+    private void copyBytes(final int from, final Buffer buffer, final int to, final int length) {
+        Util.copyBytes(_bytes, from, buffer._bytes, to, length);
+    }
+
+    /**
+     * Move bytes within the page; the ranges may overlap
+     */
+    private void moveBytes(final int from, final int to, final int length) {
+        Util.moveBytes(_bytes, from, to, length);
+    }
+
+    /**
+     * Copy a value from the page into a thread-local array so that methods
+     * of {@link MVV}, which operate on byte arrays, can examine or rewrite
+     * it. The array is valid only until the thread next calls this method.
+     */
+    private byte[] valueBytes(final int offset, final int length) {
+        final byte[] bytes = _persistit.getThreadLocalByteArray(_bufferSize);
+        getBytes(offset, bytes, 0, length);
+        return bytes;
     }
 
     static void writeLongRecordDescriptor(final byte[] bytes, final int size, final long pageAddr) {
@@ -3483,7 +3647,7 @@ public class Buffer extends SharedResource {
                         size = klength + 1;
                     compare = (kb[0] & 0xFF) - db;
                     while (compare == 0 && ++index < size) {
-                        compare = (kb[index] & 0xFF) - (_bytes[tail + _tailHeaderSize + index - 1] & 0xFF);
+                        compare = (kb[index] & 0xFF) - getByte(tail + _tailHeaderSize + index - 1);
                     }
                     if (compare != 0) {
                         final String s = compare < 0 ? "too big" : "too small";
@@ -3518,11 +3682,12 @@ public class Buffer extends SharedResource {
                     final int size = decodeTailBlockSize(tbData);
                     final int offset = tail + _tailHeaderSize + klength;
                     final int length = size - klength - _tailHeaderSize;
+                    final byte[] bytes = valueBytes(offset, length);
                     if (visitor != null) {
-                        visitor.visitDataRecord(key, p, tail, klength, offset, length, getBytes());
+                        visitor.visitDataRecord(key, p, tail, klength, 0, length, bytes);
                     }
 
-                    if (!MVV.verify(_bytes, offset, length)) {
+                    if (!MVV.verify(bytes, 0, length)) {
                         throw new InvalidPageStructureException("invalid MVV record at offset/length=" + offset + "/"
                                 + length);
                     }
@@ -3535,7 +3700,7 @@ public class Buffer extends SharedResource {
                 }
 
                 kb[ebc] = (byte) db;
-                System.arraycopy(_bytes, tail + _tailHeaderSize, kb, ebc + 1, klength);
+                getBytes(tail + _tailHeaderSize, kb, ebc + 1, klength);
                 key.setEncodedSize(ebc + klength + 1);
                 plan[tail / TAILBLOCK_FACTOR] = p;
             }
@@ -3628,7 +3793,7 @@ public class Buffer extends SharedResource {
                         changed = true;
                         final long copyTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
                         writePageOnCheckpoint(copyTimestamp);
-                        System.arraycopy(copy._bytes, 0, _bytes, 0, _bufferSize);
+                        copy.copyBytes(0, this, 0, _bufferSize);
                         _alloc = copy._alloc;
                         _slack = copy._slack;
                         _mvvCount = copy._mvvCount;
@@ -3674,8 +3839,8 @@ public class Buffer extends SharedResource {
             final int oldSize = oldTailSize - klength - _tailHeaderSize;
 
             if (oldSize > 0) {
-                int valueByte = _bytes[offset] & 0xFF;
-                if (isLongMVV(_bytes, offset, oldSize)) {
+                int valueByte = getByte(offset);
+                if (isLongMVV(offset, oldSize)) {
                     /*
                      * Can't prune in this pass because of long record timestamp
                      * management. Simply remember that there are long records
@@ -3684,10 +3849,12 @@ public class Buffer extends SharedResource {
                     hasLongMvvRecords = true;
                 }
                 if (valueByte == MVV.TYPE_MVV) {
-                    final int newSize = MVV.prune(_bytes, offset, oldSize, _persistit.getTransactionIndex(), true,
+                    final byte[] bytes = valueBytes(offset, oldSize);
+                    final int newSize = MVV.prune(bytes, 0, oldSize, _persistit.getTransactionIndex(), true,
                             prunedVersions);
                     if (newSize != oldSize) {
                         changed = true;
+                        putBytes(offset, bytes, 0, newSize);
                         final int newTailSize = klength + newSize + _tailHeaderSize;
                         final int oldNext = (tail + oldTailSize + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
                         final int newNext = (tail + newTailSize + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
@@ -3699,10 +3866,10 @@ public class Buffer extends SharedResource {
                         }
                         // Rewrite the tail block header
                         putInt(tail, encodeTailBlock(newTailSize, klength));
-                        Debug.$assert0.t(MVV.verify(_bytes, offset, newSize));
+                        Debug.$assert0.t(MVV.verify(bytes, 0, newSize));
                     }
-                    valueByte = newSize > 0 ? _bytes[offset] & 0xFF : -1;
-                    incCountIfMvv(_bytes, offset, newSize);
+                    valueByte = newSize > 0 ? getByte(offset) : -1;
+                    incCountIfMvv(offset, newSize);
                 }
 
                 if (pruneAntiValue(valueByte, p, tree, cleanupActions)) {
@@ -3737,12 +3904,12 @@ public class Buffer extends SharedResource {
             final int oldSize = oldTailSize - klength - _tailHeaderSize;
 
             if (oldSize > 0) {
-                int valueByte = _bytes[offset] & 0xFF;
-                if (isLongMVV(_bytes, offset, oldSize)) {
+                int valueByte = getByte(offset);
+                if (isLongMVV(offset, oldSize)) {
                     final Value value = _persistit.getThreadLocalValue();
                     boolean pruned = false;
                     try {
-                        pruned = pruneLongMvv(_bytes, offset, oldSize, value, prunedVersions, toDeallocate);
+                        pruned = pruneLongMvv(offset, oldSize, value, prunedVersions, toDeallocate);
                     } catch (final PersistitException pe) {
                         deferredExceptions.add(pe);
                     }
@@ -3750,7 +3917,7 @@ public class Buffer extends SharedResource {
                         changed = true;
                         final int newSize = value.getEncodedSize();
                         assert newSize <= oldSize : "Pruned long value overflow";
-                        System.arraycopy(value.getEncodedBytes(), 0, _bytes, offset, newSize);
+                        putBytes(offset, value.getEncodedBytes(), 0, newSize);
                         final int newTailSize = klength + newSize + _tailHeaderSize;
                         final int oldNext = (tail + oldTailSize + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
                         final int newNext = (tail + newTailSize + ~TAILBLOCK_MASK) & TAILBLOCK_MASK;
@@ -3762,7 +3929,7 @@ public class Buffer extends SharedResource {
                         }
                         // Rewrite the tail block header
                         putInt(tail, encodeTailBlock(newTailSize, klength));
-                        valueByte = newSize > 0 ? _bytes[offset] & 0xFF : -1;
+                        valueByte = newSize > 0 ? getByte(offset) : -1;
                         value.changeLongRecordMode(false);
                     }
                 }
@@ -3807,14 +3974,12 @@ public class Buffer extends SharedResource {
         return false;
     }
 
-    private boolean pruneLongMvv(final byte[] bytes, final int offset, final int oldSize, final Value value,
+    private boolean pruneLongMvv(final int offset, final int oldSize, final Value value,
             final List<PrunedVersion> prunedVersions, final List<Long> toDeallocate) throws PersistitException {
-        assert isLongMVV(bytes, offset, oldSize) : "Not a long MVV";
-        final long oldLongRecordChain = decodeLongRecordDescriptorPointer(bytes, offset);
+        assert isLongMVV(offset, oldSize) : "Not a long MVV";
         value.changeLongRecordMode(false);
-        value.ensureFit(oldSize);
-        System.arraycopy(bytes, offset, value.getEncodedBytes(), 0, oldSize);
-        value.setEncodedSize(oldSize);
+        value.putEncodedBytes(_bytes, offset, oldSize);
+        final long oldLongRecordChain = decodeLongRecordDescriptorPointer(value.getEncodedBytes(), 0);
         final LongRecordHelper helper = new LongRecordHelper(_persistit, _vol);
         helper.fetchLongRecord(value, Integer.MAX_VALUE, SharedResource.DEFAULT_MAX_WAIT_TIME);
         final byte[] rawBytes = value.getEncodedBytes();
@@ -3955,11 +4120,13 @@ public class Buffer extends SharedResource {
                 sb.append(" - " + e);
             }
         } else if (isHeadPage()) {
+            final byte[] header = new byte[VolumeHeader.SIZE];
+            getBytes(0, header, 0, header.length);
             sb.append(String.format("\n  type=%,d  " + "timestamp=%,d generation=%,d right=%,d hash=%,d", _type,
                     getTimestamp(), getGeneration(), getRightSibling(), _pool.hashIndex(_vol, _page)));
             sb.append(String.format("\n  nextAvailablePage=%,d extendedPageCount=%,d "
-                    + " directoryRootPage=%,d garbageRootPage=%,d id=%,d ", getNextAvailablePage(_bytes),
-                    getExtendedPageCount(_bytes), getDirectoryRoot(_bytes), getGarbageRoot(_bytes), getId(_bytes)));
+                    + " directoryRootPage=%,d garbageRootPage=%,d id=%,d ", getNextAvailablePage(header),
+                    getExtendedPageCount(header), getDirectoryRoot(header), getGarbageRoot(header), getId(header)));
         } else if (isGarbagePage()) {
             sb.append(String.format("\n  type=%,d  " + "timestamp=%,d generation=%,d right=%,d hash=%,d", _type,
                     getTimestamp(), getGeneration(), getRightSibling(), _pool.hashIndex(_vol, _page)));
@@ -4036,7 +4203,7 @@ public class Buffer extends SharedResource {
 
                     final byte[] kbytes = key.getEncodedBytes();
                     kbytes[ebc] = (byte) db;
-                    System.arraycopy(_bytes, tail + _tailHeaderSize, kbytes, ebc + 1, klength);
+                    getBytes(tail + _tailHeaderSize, kbytes, ebc + 1, klength);
                     key.setEncodedSize(ebc + 1 + klength);
                     rec._key = new KeyState(key);
 
@@ -4253,7 +4420,7 @@ public class Buffer extends SharedResource {
             volume = _vol;
             rightSibling = _rightSibling;
             timestamp = _timestamp;
-            System.arraycopy(_bytes, 0, bytes, 0, bufferSize);
+            getBytes(0, bytes, 0, bufferSize);
         } finally {
             if (claimed) {
                 release();
@@ -4429,8 +4596,37 @@ public class Buffer extends SharedResource {
         return MVV.isArrayMVV(bytes, offset, length) || isLongMVV(bytes, offset, length);
     }
 
-    private void incCountIfMvv(final byte[] bytes, final int offset, final int length) {
-        if (isValueMVV(bytes, offset, length)) {
+    /*
+     * The following methods examine a value held in this page. They look at
+     * the type bytes in place and copy the value out only when the MVV
+     * structure itself must be examined.
+     */
+
+    private boolean isLongMVV(final int offset, final int length) {
+        return length > LONGREC_PREFIX_OFFSET && getByte(offset) == LONGREC_TYPE
+                && _bytes.get(offset + LONGREC_PREFIX_OFFSET) == MVV.TYPE_MVV_BYTE;
+    }
+
+    private boolean isValueMVV(final int offset, final int length) {
+        return length > 0 && _bytes.get(offset) == MVV.TYPE_MVV_BYTE || isLongMVV(offset, length);
+    }
+
+    private boolean verifyMVV(final int offset, final int length) {
+        if (length <= 0 || _bytes.get(offset) != MVV.TYPE_MVV_BYTE) {
+            return true;
+        }
+        return MVV.verify(valueBytes(offset, length), 0, length);
+    }
+
+    private boolean verifyMVV(final TransactionIndex ti, final int offset, final int length) {
+        if (length <= 0 || _bytes.get(offset) != MVV.TYPE_MVV_BYTE) {
+            return true;
+        }
+        return MVV.verify(ti, valueBytes(offset, length), 0, length);
+    }
+
+    private void incCountIfMvv(final int offset, final int length) {
+        if (isValueMVV(offset, length)) {
             ++_mvvCount;
         }
     }
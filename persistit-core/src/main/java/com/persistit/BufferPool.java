@@ -28,6 +28,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -61,6 +63,42 @@ public class BufferPool {
 
     private final static int PAGE_WRITER_TRANCHE_SIZE = 5000;
 
+    /**
+     * Default polling interval for PageCleaner. The cleaner is normally woken
+     * by the buffer allocator long before this interval elapses.
+     */
+    private final static long DEFAULT_CLEANER_POLL_INTERVAL = 1000;
+
+    /**
+     * Default ratio of buffer count to the low-water mark of clean buffers
+     * PAGE_CLEANER tries to maintain ahead of the clock hand
+     */
+    private final static int DEFAULT_CLEAN_LOW_WATER_RATIO = 32;
+
+    /**
+     * Default polling interval for PagePrefetcher. The prefetcher is normally
+     * woken as soon as a read-ahead request is queued.
+     */
+    private final static long DEFAULT_PREFETCHER_POLL_INTERVAL = 1000;
+
+    /**
+     * Default upper bound on the number of pages read ahead of a sequential
+     * scan
+     */
+    public final static int DEFAULT_MAXIMUM_READ_AHEAD = 32;
+
+    /**
+     * Maximum number of pending read-ahead requests. Requests that do not fit
+     * are dropped.
+     */
+    private final static int READ_AHEAD_QUEUE_SIZE = 64;
+
+    /**
+     * Maximum number of index pages PAGE_PREFETCHER walks right while looking
+     * for the parent of the page a scan has reached
+     */
+    private final static int READ_AHEAD_PARENT_WALK = 4;
+
     /**
      * Sleep time when buffers are exhausted
      */
@@ -107,28 +145,34 @@ public class BufferPool {
     private final static long INVENTORY_PRELOAD_LOG_MESSAGE_NS = 60L * NS_PER_S;
 
     /**
-     * The Persistit instance that references this BufferPool.
+     * Maximum number of bytes read from a Volume in one operation while
+     * preloading the buffer inventory
      */
-    private final Persistit _persistit;
+    private final static int PRELOAD_MAXIMUM_READ_SIZE = 1024 * 1024;
 
     /**
-     * Hash table - fast access to buffer by hash of address.
+     * Maximum size, in bytes, of one direct memory arena from which the pages
+     * of an off-heap pool are carved
      */
-    private final Buffer[] _hashTable;
+    private final static int MAXIMUM_ARENA_SIZE = 1024 * 1024 * 1024;
 
     /**
-     * Locks used to lock hashtable entries.
+     * The Persistit instance that references this BufferPool.
      */
-    private final ReentrantLock[] _hashLocks;
+    private final Persistit _persistit;
 
     /**
-     * All Buffers in this pool
+     * All Buffers in this pool. The array is replaced, never modified, when
+     * the pool is resized; a Buffer keeps its index for its lifetime. While a
+     * resize is in progress the array may hold more than
+     * <code>_bufferCount</code> buffers.
      */
-    private final Buffer[] _buffers;
+    private volatile Buffer[] _buffers;
     /**
-     * Count of Buffers allocated to this pool.
+     * Count of Buffers allocated to this pool. Buffers having an index at or
+     * above this count are being retired and must not be allocated.
      */
-    private final int _bufferCount;
+    private volatile int _bufferCount;
 
     /**
      * Size of each buffer
@@ -136,44 +180,19 @@ public class BufferPool {
     private final int _bufferSize;
 
     /**
-     * Bit map for invalidated pages. Elements in this array, one bit per page,
-     * indicate buffers that have been invalidated and are therefore able to be
-     * allocated without evicting a valid page.
+     * Independent partitions of this pool. Each page maps to exactly one
+     * partition by a hash of its volume and address. With N partitions,
+     * partition <i>p</i> owns every buffer whose index is congruent to
+     * <i>p</i> modulo N, so that buffers added or removed at the end of the
+     * pool are shared evenly among the partitions.
      */
-    private final AtomicLongArray _availablePagesBits;
-
-    private final AtomicBoolean _availablePages = new AtomicBoolean();
+    private final Partition[] _partitions;
 
     /**
      * The maximum number of keys allowed Buffers in this pool
      */
     private final int _maxKeys;
 
-    /**
-     * Pointer to next location to look for a replacement buffer
-     */
-    private final AtomicInteger _clock = new AtomicInteger();
-
-    /**
-     * Count of buffer pool misses (buffer not found in pool)
-     */
-    private final AtomicLong _missCounter = new AtomicLong();
-
-    /**
-     * Count of buffer pool hits (buffer found in pool)
-     */
-    private final AtomicLong _hitCounter = new AtomicLong();
-
-    /**
-     * Count of newly created pages
-     */
-    private final AtomicLong _newCounter = new AtomicLong();
-
-    /**
-     * Count of valid buffers evicted to make room for another page.
-     */
-    private final AtomicLong _evictCounter = new AtomicLong();
-
     /**
      * Count of dirty pages
      */
@@ -189,6 +208,17 @@ public class BufferPool {
      */
     private final AtomicLong _forcedWriteCounter = new AtomicLong();
 
+    /**
+     * Count of pages written by PAGE_CLEANER to replenish clean buffers ahead
+     * of the clock hand.
+     */
+    private final AtomicLong _cleanerWriteCounter = new AtomicLong();
+
+    /**
+     * Count of pages read by PAGE_PREFETCHER ahead of sequential scans
+     */
+    private final AtomicLong _prefetchCounter = new AtomicLong();
+
     /**
      * (with n Count of pages written due to being dirty before a checkpoint
      */
@@ -216,11 +246,56 @@ public class BufferPool {
 
     private volatile int _pageWriterTrancheSize = PAGE_WRITER_TRANCHE_SIZE;
 
+    /**
+     * Number of clean, evictable buffers PAGE_CLEANER tries to maintain ahead
+     * of the clock hand
+     */
+    private volatile int _cleanLowWaterMark;
+
+    /**
+     * Maximum number of pages read ahead of a sequential scan; zero disables
+     * read-ahead
+     */
+    private volatile int _maximumReadAhead;
+
+    /**
+     * Read-ahead requests waiting for PAGE_PREFETCHER
+     */
+    private final BlockingQueue<ReadAheadRequest> _readAheadQueue = new ArrayBlockingQueue<ReadAheadRequest>(
+            READ_AHEAD_QUEUE_SIZE);
+
     /**
      * The PAGE_WRITER IOTaskRunnable
      */
     private PageWriter _writer;
 
+    /**
+     * The PAGE_CLEANER IOTaskRunnable
+     */
+    private PageCleaner _cleaner;
+
+    /**
+     * The PAGE_PREFETCHER IOTaskRunnable
+     */
+    private PagePrefetcher _prefetcher;
+
+    /**
+     * Optional second-tier cache of compressed pages evicted from this pool;
+     * <code>null</code> if disabled
+     */
+    private volatile PageCache _pageCache;
+
+    /**
+     * Threads started by {@link #preloadBufferInventory(int, boolean)}
+     */
+    private final List<Thread> _preloadThreads = new ArrayList<Thread>();
+
+    /**
+     * Allocator of page memory outside the heap; <code>null</code> if the
+     * pages of this pool are allocated on the heap
+     */
+    private final Arena _arena;
+
     /**
      * Construct a BufferPool with the specified count of <code>Buffer</code>s
      * of the specified size.
@@ -231,6 +306,69 @@ public class BufferPool {
      *            The size (in bytes) of each buffer
      */
     BufferPool(final int count, final int size, final Persistit persistit) {
+        this(count, size, EvictionPolicy.DEFAULT_POLICY, persistit);
+    }
+
+    /**
+     * Construct a BufferPool with the specified count of <code>Buffer</code>s
+     * of the specified size, replacing pages according to the named
+     * {@link EvictionPolicy}.
+     *
+     * @param count
+     *            The number of buffers in the pool
+     * @param size
+     *            The size (in bytes) of each buffer
+     * @param evictionPolicy
+     *            Name of the eviction policy
+     */
+    BufferPool(final int count, final int size, final String evictionPolicy, final Persistit persistit) {
+        this(count, size, evictionPolicy, 1, persistit);
+    }
+
+    /**
+     * Construct a BufferPool with the specified count of <code>Buffer</code>s
+     * of the specified size, divided into the specified number of partitions.
+     * Each partition has its own clock hand, hash table, hash locks and
+     * eviction policy state so that threads loading different pages rarely
+     * contend with each other. The number of partitions is reduced if
+     * necessary so that each has at least {@value #MINIMUM_POOL_COUNT}
+     * buffers.
+     *
+     * @param count
+     *            The number of buffers in the pool
+     * @param size
+     *            The size (in bytes) of each buffer
+     * @param evictionPolicy
+     *            Name of the eviction policy
+     * @param partitions
+     *            Number of partitions
+     */
+    BufferPool(final int count, final int size, final String evictionPolicy, final int partitions,
+            final Persistit persistit) {
+        this(count, size, evictionPolicy, partitions, false, persistit);
+    }
+
+    /**
+     * Construct a BufferPool with the specified count of <code>Buffer</code>s
+     * of the specified size, divided into the specified number of partitions,
+     * whose page memory is optionally allocated outside the heap. Off-heap
+     * pages are carved from direct memory arenas of up to
+     * {@value #MAXIMUM_ARENA_SIZE} bytes so that the garbage collector has
+     * neither to trace nor to copy them.
+     *
+     * @param count
+     *            The number of buffers in the pool
+     * @param size
+     *            The size (in bytes) of each buffer
+     * @param evictionPolicy
+     *            Name of the eviction policy
+     * @param partitions
+     *            Number of partitions
+     * @param offHeap
+     *            <code>true</code> to allocate pages in direct memory
+     */
+    BufferPool(final int count, final int size, final String evictionPolicy, final int partitions,
+            final boolean offHeap, final Persistit persistit) {
         _persistit = persistit;
         if (count < MINIMUM_POOL_COUNT) {
             throw new IllegalArgumentException("Buffer pool count too small: " + count);
@@ -238,6 +376,9 @@ public class BufferPool {
         if (count > MAXIMUM_POOL_COUNT) {
             throw new IllegalArgumentException("Buffer pool count too large: " + count);
         }
+        if (partitions < 1) {
+            throw new IllegalArgumentException("Buffer pool partition count too small: " + partitions);
+        }
 
         int possibleSize = Buffer.MIN_BUFFER_SIZE;
         boolean ok = false;
@@ -252,14 +393,15 @@ public class BufferPool {
 
         _bufferCount = count;
         _bufferSize = size;
+        _arena = offHeap ? new Arena(size) : null;
         _buffers = new Buffer[_bufferCount];
-        _availablePagesBits = new AtomicLongArray((count + 63) / 64);
-        _hashTable = new Buffer[_bufferCount * HASH_MULTIPLE];
-        _hashLocks = new ReentrantLock[HASH_LOCKS];
         _maxKeys = (_bufferSize - Buffer.HEADER_SIZE) / Buffer.MAX_KEY_RATIO;
-
-        for (int index = 0; index < HASH_LOCKS; index++) {
-            _hashLocks[index] = new ReentrantLock();
+        _partitions = new Partition[Math.min(partitions, count / MINIMUM_POOL_COUNT)];
+        final int hashLocks = Math.max(1, HASH_LOCKS / _partitions.length);
+        for (int index = 0; index < _partitions.length; index++) {
+            final int partitionCount = Partition.count(index, _partitions.length, count);
+            _partitions[index] = new Partition(index, _partitions.length, partitionCount, hashLocks,
+                    EvictionPolicy.newPolicy(evictionPolicy, _partitions.length, partitionCount));
         }
 
         int buffers = 0;
@@ -270,7 +412,7 @@ public class BufferPool {
         byte[] reserve = new byte[1024 * 1024];
         try {
             for (int index = 0; index < _bufferCount; index++) {
-                final Buffer buffer = new Buffer(size, index, this, _persistit);
+                final Buffer buffer = newBuffer(index, _bufferCount - index);
                 _buffers[index] = buffer;
                 buffers++;
             }
@@ -290,15 +432,29 @@ public class BufferPool {
             System.err.println(_persistit.getAvailableHeap());
             throw e;
         }
+        _cleanLowWaterMark = defaultCleanLowWaterMark(count);
+        _maximumReadAhead = Math.min(DEFAULT_MAXIMUM_READ_AHEAD, count / 4);
         _writer = new PageWriter();
+        _cleaner = new PageCleaner();
+        _prefetcher = new PagePrefetcher();
     }
 
     void startThreads() throws PersistitException {
         _writer.start();
+        _cleaner.start();
+        _prefetcher.start();
     }
 
     void close() {
         _closed.set(true);
+        _readAheadQueue.clear();
+        try {
+            waitForPreload();
+        } catch (final PersistitInterruptedException e) {
+            // proceed with close
+        }
+        _persistit.waitForIOTaskStop(_prefetcher);
+        _persistit.waitForIOTaskStop(_cleaner);
         _persistit.waitForIOTaskStop(_writer);
         _writer = null;
     }
@@ -308,9 +464,15 @@ public class BufferPool {
      * collector threads. This method should be used only by tests.
      */
     void crash() {
+        IOTaskRunnable.crash(_prefetcher);
+        IOTaskRunnable.crash(_cleaner);
         IOTaskRunnable.crash(_writer);
     }
 
+    static int defaultCleanLowWaterMark(final int count) {
+        return Math.max(1, Math.min(count / DEFAULT_CLEAN_LOW_WATER_RATIO, PAGE_WRITER_TRANCHE_SIZE));
+    }
+
     void flush(final long timestamp) throws PersistitInterruptedException {
         setFlushTimestamp(timestamp);
         _writer.kick();
@@ -324,13 +486,43 @@ public class BufferPool {
     }
 
     int hashIndex(final Volume vol, final long page) {
-        return (int) (((page ^ vol.hashCode()) & Integer.MAX_VALUE) % _hashTable.length);
+        return partition(vol, page).hashIndex(vol, page);
+    }
+
+    /**
+     * @return the partition to which the specified page maps
+     */
+    private Partition partition(final Volume vol, final long page) {
+        if (_partitions.length == 1) {
+            return _partitions[0];
+        }
+        /*
+         * Mix the bits so that the choice of partition is independent of the
+         * choice of hash table slot within the partition.
+         */
+        final long hash = (page ^ vol.hashCode()) * 0x9E3779B97F4A7C15L;
+        return _partitions[(int) ((hash >>> 33) % _partitions.length)];
+    }
+
+    /**
+     * @return the partition that owns the buffer at the specified index
+     */
+    private Partition partition(final int index) {
+        return _partitions[index % _partitions.length];
+    }
+
+    /**
+     * @return The number of partitions in this pool
+     */
+    public int getPartitionCount() {
+        return _partitions.length;
     }
 
     int countInUse(final Volume vol, final boolean writer) {
         int count = 0;
-        for (int i = 0; i < _bufferCount; i++) {
-            final Buffer buffer = _buffers[i];
+        final Buffer[] buffers = _buffers;
+        for (int i = 0; i < buffers.length; i++) {
+            final Buffer buffer = buffers[i];
             if ((vol == null || buffer.getVolume() == vol)
                     && ((buffer.getStatus() & SharedResource.CLAIMED_MASK) != 0 && (!writer || (buffer.getStatus() & SharedResource.WRITER_MASK) != 0))) {
                 count++;
@@ -342,20 +534,32 @@ public class BufferPool {
     void populateBufferPoolInfo(final ManagementImpl.BufferPoolInfo info) {
         info.bufferCount = _bufferCount;
         info.bufferSize = _bufferSize;
-        info.missCount = _missCounter.get();
-        info.hitCount = _hitCounter.get();
-        info.newCount = _newCounter.get();
-        info.evictCount = _evictCounter.get();
+        info.missCount = getMissCounter();
+        info.hitCount = getHitCounter();
+        info.newCount = getNewCounter();
+        info.evictCount = getEvictCounter();
+        info.ghostHitCount = getGhostHitCounter();
+        info.hotPageCount = getHotPageCount();
+        info.evictionPolicy = getEvictionPolicy();
+        info.partitionCount = _partitions.length;
         info.dirtyPageCount = _dirtyPageCount.get();
         info.writeCount = _writeCounter.get();
         info.forcedCheckpointWriteCount = _forcedCheckpointWriteCounter.get();
         info.forcedWriteCount = _forcedWriteCounter.get();
+        info.cleanerWriteCount = _cleanerWriteCounter.get();
+        info.cleanLowWaterMark = _cleanLowWaterMark;
+        info.pageCacheHitCount = getPageCacheHitCounter();
+        info.pageCacheMissCount = getPageCacheMissCounter();
+        info.pageCacheSize = getPageCacheSize();
+        info.pageCacheMemory = getPageCacheMemory();
+        info.offHeap = isOffHeap();
         int validPages = 0;
         int readerClaimedPages = 0;
         int writerClaimedPages = 0;
 
-        for (int index = 0; index < _bufferCount; index++) {
-            final Buffer buffer = _buffers[index];
+        final Buffer[] buffers = _buffers;
+        for (int index = 0; index < buffers.length; index++) {
+            final Buffer buffer = buffers[index];
             final int status = buffer.getStatus();
             if ((status & SharedResource.VALID_MASK) != 0)
                 validPages++;
@@ -377,8 +581,9 @@ public class BufferPool {
         int index = 0;
         switch (traveralType) {
         case 0:
-            for (int i = 0; i < _bufferCount; i++) {
-                final Buffer buffer = _buffers[i];
+            final Buffer[] buffers = _buffers;
+            for (int i = 0; i < buffers.length; i++) {
+                final Buffer buffer = buffers[i];
                 if (selected(buffer, includeMask, excludeMask)) {
                     populateInfo1(array, index, buffer);
                     index++;
@@ -420,6 +625,160 @@ public class BufferPool {
         return _bufferCount;
     }
 
+    /**
+     * <p>
+     * Change the number of buffers in this pool while it is in use.
+     * </p>
+     * <p>
+     * Growing the pool creates the new buffers, adds them to the partitions'
+     * clocks and rebuilds each partition's hash table in turn. Threads looking
+     * up pages in a partition wait only while its hash table is relinked.
+     * </p>
+     * <p>
+     * Shrinking the pool first stops the buffers being removed from being
+     * allocated, then evicts their pages in turn, writing dirty pages first.
+     * A buffer holding a volume's head page cannot be removed, nor can one
+     * held by another thread for longer than
+     * {@value SharedResource#DEFAULT_MAX_WAIT_TIME} milliseconds. In either
+     * case the pool is left larger than requested and the count actually
+     * achieved is returned.
+     * </p>
+     *
+     * @param count
+     *            the desired number of buffers
+     * @return the number of buffers in the pool after resizing
+     * @throws IllegalArgumentException
+     *             if the count would leave a partition with fewer than
+     *             {@value #MINIMUM_POOL_COUNT} buffers
+     * @throws PersistitException
+     *             if a dirty page could not be written while shrinking the
+     *             pool
+     */
+    public synchronized int resize(final int count) throws PersistitException {
+        if (count < MINIMUM_POOL_COUNT * _partitions.length) {
+            throw new IllegalArgumentException("Buffer pool count too small: " + count);
+        }
+        final int previous = _bufferCount;
+        if (_closed.get() || count == previous) {
+            return previous;
+        }
+        if (count > previous) {
+            grow(count);
+        } else {
+            shrink(count);
+        }
+        _cleanLowWaterMark = Math.min(_cleanLowWaterMark, _bufferCount);
+        _maximumReadAhead = Math.min(_maximumReadAhead, _bufferCount);
+        _persistit.getLogBase().resizeBuffers.log(_bufferSize, previous, _bufferCount);
+        return _bufferCount;
+    }
+
+    private void grow(final int count) {
+        final Buffer[] buffers = Arrays.copyOf(_buffers, count);
+        for (int index = _bufferCount; index < count; index++) {
+            buffers[index] = newBuffer(index, count - index);
+        }
+        for (final Partition partition : _partitions) {
+            partition.resize(partition.count(count));
+        }
+        final int previous = _bufferCount;
+        _buffers = buffers;
+        _bufferCount = count;
+        for (int index = previous; index < count; index++) {
+            partition(index).markAvailable(buffers[index]);
+        }
+    }
+
+    private void shrink(final int count) throws PersistitException {
+        final Buffer[] buffers = _buffers;
+        int remaining = buffers.length;
+        //
+        // Let the policies adjust to the smaller number of buffers the clock
+        // hands will visit while the others are being retired.
+        //
+        for (final Partition partition : _partitions) {
+            partition._evictionPolicy.resize(partition.count(count));
+        }
+        _bufferCount = count;
+        try {
+            while (remaining > count && retire(buffers[remaining - 1])) {
+                remaining--;
+            }
+        } finally {
+            _bufferCount = remaining;
+            _buffers = Arrays.copyOf(buffers, remaining);
+            for (final Partition partition : _partitions) {
+                partition.resize(partition.count(remaining));
+            }
+        }
+    }
+
+    /**
+     * Evict the page held by a buffer that is being removed from the pool.
+     *
+     * @return <code>true</code> if the buffer no longer holds a page,
+     *         <code>false</code> if it holds a fixed page or could not be
+     *         claimed
+     */
+    private boolean retire(final Buffer buffer) throws PersistitException {
+        final Partition partition = partition(buffer.getIndex());
+        partition.clearAvailable(buffer);
+        if (buffer.isFixed() || !buffer.claim(true, SharedResource.DEFAULT_MAX_WAIT_TIME)) {
+            return false;
+        }
+        try {
+            if (buffer.isFixed()) {
+                return false;
+            }
+            if (buffer.isValid()) {
+                if (buffer.isDirty()) {
+                    buffer.writePage();
+                }
+                partition._evictionPolicy.evicted(buffer);
+                invalidate(buffer);
+            } else {
+                buffer.clearDirty();
+            }
+            return true;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * @return <code>true</code> if the buffer is being removed from the pool
+     *         and must not be allocated
+     */
+    private boolean isRetired(final Buffer buffer) {
+        return buffer.getIndex() >= _bufferCount;
+    }
+
+    /**
+     * @return <code>true</code> if the pages of this pool are allocated
+     *         outside the heap
+     */
+    public boolean isOffHeap() {
+        return _arena != null;
+    }
+
+    /**
+     * Create a Buffer for this pool, allocating its page memory from the
+     * current arena if the pool is off-heap.
+     *
+     * @param index
+     *            index of the new Buffer
+     * @param remaining
+     *            number of Buffers, including this one, still to be created,
+     *            used to size a new arena
+     */
+    private Buffer newBuffer(final int index, final int remaining) {
+        if (_arena == null) {
+            return new Buffer(_bufferSize, index, this, _persistit);
+        } else {
+            return new Buffer(_arena.allocate(remaining), index, this, _persistit);
+        }
+    }
+
     /**
      * @return The count of lookup operations for pages images in this pool that
      *         required a physical read operation. This number, in comparison
@@ -427,7 +786,11 @@ public class BufferPool {
      *         reducing disk I/O.
      */
     public long getMissCounter() {
-        return _missCounter.get();
+        long count = 0;
+        for (final Partition partition : _partitions) {
+            count += partition._missCounter.get();
+        }
+        return count;
     }
 
     /**
@@ -438,7 +801,11 @@ public class BufferPool {
      *         I/O.
      */
     public long getHitCounter() {
-        return _hitCounter.get();
+        long count = 0;
+        for (final Partition partition : _partitions) {
+            count += partition._hitCounter.get();
+        }
+        return count;
     }
 
     /**
@@ -446,7 +813,57 @@ public class BufferPool {
      *         page is added to a Volume, this counter is incremented.
      */
     public long getNewCounter() {
-        return _newCounter.get();
+        long count = 0;
+        for (final Partition partition : _partitions) {
+            count += partition._newCounter.get();
+        }
+        return count;
+    }
+
+    /**
+     * @return The count of valid pages evicted from this pool to make room for
+     *         other pages.
+     */
+    public long getEvictCounter() {
+        long count = 0;
+        for (final Partition partition : _partitions) {
+            count += partition._evictCounter.get();
+        }
+        return count;
+    }
+
+    /**
+     * @return The count of misses for pages that the eviction policy
+     *         remembered as having been evicted recently. Such pages are
+     *         re-admitted as hot pages by a scan-resistant policy. A high
+     *         ratio of ghost hits to misses indicates the pool is too small
+     *         for the working set.
+     */
+    public long getGhostHitCounter() {
+        long count = 0;
+        for (final Partition partition : _partitions) {
+            count += partition._ghostHitCounter.get();
+        }
+        return count;
+    }
+
+    /**
+     * @return The count of buffers the eviction policy currently protects as
+     *         holding hot pages
+     */
+    public int getHotPageCount() {
+        int count = 0;
+        for (final Partition partition : _partitions) {
+            count += partition._evictionPolicy.getHotPageCount();
+        }
+        return count;
+    }
+
+    /**
+     * @return The name of the {@link EvictionPolicy} used by this pool
+     */
+    public String getEvictionPolicy() {
+        return _partitions[0]._evictionPolicy.getName();
     }
 
     /**
@@ -462,69 +879,198 @@ public class BufferPool {
     }
 
     /**
-     * This counter is incremented each time a application modifies a buffer
-     * that is (a) dirty, and (b) required to be written as part of a
-     * checkpoint. An abnormally large count indicates that the PAGE_WRITER
-     * thread is falling behind.
+     * This counter is incremented each time the PAGE_CLEANER thread writes a
+     * dirty buffer lying ahead of the clock hand so that the eviction
+     * algorithm will find a clean buffer there.
      *
-     * @return The count of buffers written to disk due to a checkpoint.
+     * @return The count of buffers written by PAGE_CLEANER
      */
-    public long getForcedCheckpointWriteCounter() {
-        return _forcedCheckpointWriteCounter.get();
+    public long getCleanerWriteCounter() {
+        return _cleanerWriteCounter.get();
     }
 
     /**
-     * Resets the get and hit counters to zero.
+     * @return The number of clean, evictable buffers the PAGE_CLEANER thread
+     *         tries to maintain ahead of the clock hand
      */
-    public void resetCounters() {
-        _missCounter.set(0);
-        _hitCounter.set(0);
-        _newCounter.set(0);
-        _evictCounter.set(0);
-    }
-
-    int getMaxKeys() {
-        return _maxKeys;
+    public int getCleanLowWaterMark() {
+        return _cleanLowWaterMark;
     }
 
-    private void bumpHitCounter() {
-        _hitCounter.incrementAndGet();
+    /**
+     * Set the number of clean, evictable buffers the PAGE_CLEANER thread tries
+     * to maintain ahead of the clock hand. A value of zero disables
+     * PAGE_CLEANER, in which case the eviction algorithm writes dirty pages
+     * itself.
+     *
+     * @param count
+     *            the low-water mark
+     */
+    public void setCleanLowWaterMark(final int count) {
+        if (count < 0 || count > _bufferCount) {
+            throw new IllegalArgumentException("Clean buffer low-water mark out of range: " + count);
+        }
+        _cleanLowWaterMark = count;
     }
 
-    private void bumpMissCounter() {
-        _missCounter.incrementAndGet();
+    /**
+     * @return The count of pages read into this pool by the PAGE_PREFETCHER
+     *         thread ahead of sequential scans
+     */
+    public long getPrefetchCounter() {
+        return _prefetchCounter.get();
     }
 
-    private void bumpNewCounter() {
-        _newCounter.incrementAndGet();
+    /**
+     * @return The maximum number of pages read ahead of a sequential scan
+     */
+    public int getMaximumReadAhead() {
+        return _maximumReadAhead;
     }
 
-    void bumpWriteCounter() {
-        _writeCounter.incrementAndGet();
+    /**
+     * Set the maximum number of pages read ahead of a sequential scan. An
+     * {@link Exchange} that walks from one data page to its right sibling
+     * several times in succession asks the PAGE_PREFETCHER thread to read the
+     * following pages, doubling the distance with each request up to this
+     * limit. A value of zero disables read-ahead.
+     *
+     * @param count
+     *            the maximum read-ahead distance in pages
+     */
+    public void setMaximumReadAhead(final int count) {
+        if (count < 0 || count > _bufferCount) {
+            throw new IllegalArgumentException("Maximum read-ahead out of range: " + count);
+        }
+        _maximumReadAhead = count;
     }
 
-    void bumpForcedCheckpointWrites() {
-        _forcedCheckpointWriteCounter.incrementAndGet();
+    /**
+     * @return The maximum size in bytes of the compressed page cache, or zero
+     *         if it is disabled
+     */
+    public long getPageCacheMemory() {
+        final PageCache pageCache = _pageCache;
+        return pageCache == null ? 0 : pageCache.getMaximumSize();
     }
 
     /**
-     * Get the "hit ratio" - the number of hits divided by the number of overall
-     * gets. A value close to 1.0 indicates that most attempts to find data in
-     * the <code>BufferPool</code> are successful - i.e., that the cache is
-     * effectively reducing the need for disk read operations.
+     * Set the maximum size in bytes of the second-tier cache that holds
+     * compressed images of clean pages evicted from this pool. A page missing
+     * from the pool is loaded from this cache, if present, rather than from
+     * the journal or Volume. A value of zero disables the cache and discards
+     * its contents.
      *
-     * @return The ratio
+     * @param size
+     *            the maximum heap space occupied by cached pages
      */
-    public double getHitRatio() {
-        final long hitCounter = _hitCounter.get();
-        final long getCounter = hitCounter + _missCounter.get() + _newCounter.get();
-        if (getCounter == 0)
-            return 0.0;
-        else
-            return ((double) hitCounter) / ((double) getCounter);
+    public synchronized void setPageCacheMemory(final long size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("Page cache size out of range: " + size);
+        }
+        if (size == 0) {
+            _pageCache = null;
+        } else if (_pageCache == null) {
+            _pageCache = new PageCache(_bufferSize, size);
+        } else {
+            _pageCache.setMaximumSize(size);
+        }
     }
 
-    void incrementDirtyPageCount() {
+    /**
+     * @return The count of pages missing from this pool that were found in
+     *         the compressed page cache
+     */
+    public long getPageCacheHitCounter() {
+        final PageCache pageCache = _pageCache;
+        return pageCache == null ? 0 : pageCache.getHitCounter();
+    }
+
+    /**
+     * @return The count of pages missing from this pool that were also
+     *         missing from the compressed page cache
+     */
+    public long getPageCacheMissCounter() {
+        final PageCache pageCache = _pageCache;
+        return pageCache == null ? 0 : pageCache.getMissCounter();
+    }
+
+    /**
+     * @return The approximate number of bytes occupied by the compressed page
+     *         cache
+     */
+    public long getPageCacheSize() {
+        final PageCache pageCache = _pageCache;
+        return pageCache == null ? 0 : pageCache.getSize();
+    }
+
+    /**
+     * @return The number of pages held in the compressed page cache
+     */
+    public int getPageCachePageCount() {
+        final PageCache pageCache = _pageCache;
+        return pageCache == null ? 0 : pageCache.getPageCount();
+    }
+
+    /**
+     * This counter is incremented each time a application modifies a buffer
+     * that is (a) dirty, and (b) required to be written as part of a
+     * checkpoint. An abnormally large count indicates that the PAGE_WRITER
+     * thread is falling behind.
+     *
+     * @return The count of buffers written to disk due to a checkpoint.
+     */
+    public long getForcedCheckpointWriteCounter() {
+        return _forcedCheckpointWriteCounter.get();
+    }
+
+    /**
+     * Resets the get and hit counters to zero.
+     */
+    public void resetCounters() {
+        for (final Partition partition : _partitions) {
+            partition._missCounter.set(0);
+            partition._hitCounter.set(0);
+            partition._newCounter.set(0);
+            partition._evictCounter.set(0);
+            partition._ghostHitCounter.set(0);
+        }
+        final PageCache pageCache = _pageCache;
+        if (pageCache != null) {
+            pageCache.resetCounters();
+        }
+    }
+
+    int getMaxKeys() {
+        return _maxKeys;
+    }
+
+    void bumpWriteCounter() {
+        _writeCounter.incrementAndGet();
+    }
+
+    void bumpForcedCheckpointWrites() {
+        _forcedCheckpointWriteCounter.incrementAndGet();
+    }
+
+    /**
+     * Get the "hit ratio" - the number of hits divided by the number of overall
+     * gets. A value close to 1.0 indicates that most attempts to find data in
+     * the <code>BufferPool</code> are successful - i.e., that the cache is
+     * effectively reducing the need for disk read operations.
+     *
+     * @return The ratio
+     */
+    public double getHitRatio() {
+        final long hitCounter = getHitCounter();
+        final long getCounter = hitCounter + getMissCounter() + getNewCounter();
+        if (getCounter == 0)
+            return 0.0;
+        else
+            return ((double) hitCounter) / ((double) getCounter);
+    }
+
+    void incrementDirtyPageCount() {
         _dirtyPageCount.incrementAndGet();
     }
 
@@ -545,25 +1091,41 @@ public class BufferPool {
      */
     boolean invalidate(final Volume volume) throws PersistitException {
         final float ratio = (float) volume.getStorage().getNextAvailablePage() / (float) _bufferCount;
+        final boolean result;
         if (ratio < SMALL_VOLUME_RATIO) {
-            return invalidateSmallVolume(volume, false);
+            result = invalidateSmallVolume(volume, false);
         } else {
-            return invalidateLargeVolume(volume, false);
+            result = invalidateLargeVolume(volume, false);
         }
+        invalidatePageCache(volume);
+        return result;
     }
 
     boolean evict(final Volume volume) throws PersistitException {
-        return invalidateSmallVolume(volume, true);
+        final boolean result = invalidateSmallVolume(volume, true);
+        invalidatePageCache(volume);
+        return result;
+    }
+
+    /**
+     * Discard cached images of pages belonging to a Volume. Called after the
+     * Volume's buffers have been invalidated so that no page of the Volume
+     * can be stored in the page cache afterward.
+     */
+    private void invalidatePageCache(final Volume volume) {
+        final PageCache pageCache = _pageCache;
+        if (pageCache != null) {
+            pageCache.invalidate(volume);
+        }
     }
 
     boolean invalidateSmallVolume(final Volume volume, final boolean mustWrite) throws PersistitException {
         boolean result = true;
-        int markedAvailable = 0;
         for (long page = 1; page < volume.getStorage().getNextAvailablePage(); page++) {
-            final int hashIndex = hashIndex(volume, page);
-            _hashLocks[hashIndex % HASH_LOCKS].lock();
+            final Partition partition = partition(volume, page);
+            final int hashIndex = partition.lock(volume, page);
             try {
-                for (Buffer buffer = _hashTable[hashIndex]; buffer != null; buffer = buffer.getNext()) {
+                for (Buffer buffer = partition._hashTable[hashIndex]; buffer != null; buffer = buffer.getNext()) {
                     if ((buffer.getVolume() == volume || volume == null) && !buffer.isFixed() && buffer.isValid()) {
                         if (buffer.claim(true, 0)) {
                             // re-check after claim
@@ -581,12 +1143,7 @@ public class BufferPool {
                                 buffer.release();
                             }
                             if (invalidated) {
-                                final int q = buffer.getIndex() / 64;
-                                final int p = buffer.getIndex() % 64;
-                                final long bits = _availablePagesBits.get(q);
-                                if (_availablePagesBits.compareAndSet(q, bits, bits | (1L << p))) {
-                                    markedAvailable++;
-                                }
+                                partition.markAvailable(buffer);
                             }
                         } else {
                             result = false;
@@ -594,21 +1151,18 @@ public class BufferPool {
                     }
                 }
             } finally {
-                _hashLocks[hashIndex % HASH_LOCKS].unlock();
+                partition.unlock(hashIndex);
             }
         }
-        if (markedAvailable > 0) {
-            _availablePages.set(true);
-        }
         return result;
 
     }
 
     boolean invalidateLargeVolume(final Volume volume, final boolean mustWrite) throws PersistitException {
         boolean result = true;
-        int markedAvailable = 0;
-        for (int index = 0; index < _bufferCount; index++) {
-            final Buffer buffer = _buffers[index];
+        final Buffer[] buffers = _buffers;
+        for (int index = 0; index < buffers.length; index++) {
+            final Buffer buffer = buffers[index];
             if ((buffer.getVolume() == volume || volume == null) && !buffer.isFixed() && buffer.isValid()) {
                 if (buffer.claim(true, 0)) {
                     // re-check after claim
@@ -625,21 +1179,13 @@ public class BufferPool {
                         buffer.release();
                     }
                     if (invalidated) {
-                        final int q = buffer.getIndex() / 64;
-                        final int p = buffer.getIndex() % 64;
-                        final long bits = _availablePagesBits.get(q);
-                        if (_availablePagesBits.compareAndSet(q, bits, bits | (1L << p))) {
-                            markedAvailable++;
-                        }
+                        partition(index).markAvailable(buffer);
                     }
                 } else {
                     result = false;
                 }
             }
         }
-        if (markedAvailable > 0) {
-            _availablePages.set(true);
-        }
         return result;
     }
 
@@ -665,19 +1211,40 @@ public class BufferPool {
         buffer.setPageAddressAndVolume(0, null);
     }
 
+    /**
+     * Detach a clean page chosen for eviction, first storing its image in the
+     * page cache if there is one. The image is stored while the page is still
+     * attached so that a thread looking for the page either finds it in the
+     * pool or, after it is detached, in the page cache.
+     */
+    private boolean detachEvicted(final Buffer buffer) {
+        final PageCache pageCache = _pageCache;
+        if (pageCache == null || buffer.isTemporary() || buffer.isDirty() || buffer.getPageAddress() == 0) {
+            return detach(buffer);
+        }
+        pageCache.put(buffer);
+        if (detach(buffer)) {
+            return true;
+        }
+        pageCache.remove(buffer.getVolume(), buffer.getPageAddress());
+        return false;
+    }
+
     private boolean detach(final Buffer buffer) {
-        final int hash = hashIndex(buffer.getVolume(), buffer.getPageAddress());
-        if (!_hashLocks[hash % HASH_LOCKS].tryLock()) {
+        final Partition partition = partition(buffer.getVolume(), buffer.getPageAddress());
+        final int hash = partition.tryLock(buffer.getVolume(), buffer.getPageAddress());
+        if (hash < 0) {
             return false;
         }
         try {
 
             // Detach this buffer from the hash table.
             //
-            if (_hashTable[hash] == buffer) {
-                _hashTable[hash] = buffer.getNext();
+            final Buffer[] hashTable = partition._hashTable;
+            if (hashTable[hash] == buffer) {
+                hashTable[hash] = buffer.getNext();
             } else {
-                Buffer prev = _hashTable[hash];
+                Buffer prev = hashTable[hash];
                 for (Buffer next = prev.getNext();; next = prev.getNext()) {
                     assert next != null : "Attempting to detach an unattached Buffer";
                     if (next == buffer) {
@@ -688,7 +1255,7 @@ public class BufferPool {
                 }
             }
         } finally {
-            _hashLocks[hash % HASH_LOCKS].unlock();
+            partition.unlock(hash);
         }
         return true;
     }
@@ -741,14 +1308,30 @@ public class BufferPool {
      */
     Buffer get(final Volume vol, final long page, final boolean writer, final boolean wantRead, final long timeout)
             throws PersistitException {
-        final int hash = hashIndex(vol, page);
+        return get(vol, page, writer, wantRead, timeout, null);
+    }
+
+    /**
+     * Find or load a page as {@link #get(Volume, long, boolean, boolean, long)}
+     * does, but if the page is not already in the pool load it from the
+     * supplied image rather than reading it from the Volume.
+     *
+     * @param image
+     *            page image read by
+     *            {@link VolumeStorage#readPages(long, ByteBuffer)}, or
+     *            <code>null</code> to read the page from the Volume
+     */
+    private Buffer get(final Volume vol, final long page, final boolean writer, final boolean wantRead,
+            final long timeout, final ByteBuffer image) throws PersistitException {
+        final Partition partition = partition(vol, page);
         Buffer buffer = null;
 
         for (;;) {
             boolean mustClaim = false;
-            _hashLocks[hash % HASH_LOCKS].lock();
+            final int hash = partition.lock(vol, page);
+            final Buffer[] hashTable = partition._hashTable;
             try {
-                buffer = _hashTable[hash];
+                buffer = hashTable[hash];
                 //
                 // Search for the page
                 //
@@ -760,7 +1343,7 @@ public class BufferPool {
                         //
                         if (buffer.claim(writer, 0)) {
                             vol.getStatistics().bumpGetCounter();
-                            bumpHitCounter();
+                            partition._hitCounter.incrementAndGet();
                             assert !buffer.isOwnedAsWriterByOther();
                             return buffer;
                         } else {
@@ -776,14 +1359,17 @@ public class BufferPool {
                     // Page not found. Allocate an available buffer and read
                     // in the page from the Volume.
                     //
-                    buffer = allocBuffer();
+                    buffer = allocBuffer(partition);
                     Debug.$assert1.t(!buffer.isDirty());
-                    Debug.$assert0.t(buffer != _hashTable[hash]);
+                    Debug.$assert0.t(buffer != hashTable[hash]);
                     Debug.$assert0.t(buffer.getNext() != buffer);
 
                     buffer.setPageAddressAndVolume(page, vol);
-                    buffer.setNext(_hashTable[hash]);
-                    _hashTable[hash] = buffer;
+                    if (partition._evictionPolicy.admitted(buffer)) {
+                        partition._ghostHitCounter.incrementAndGet();
+                    }
+                    buffer.setNext(hashTable[hash]);
+                    hashTable[hash] = buffer;
                     //
                     // It's not really valid yet, but it does have a writer
                     // claim on it so no other Thread can access it. In the
@@ -799,7 +1385,7 @@ public class BufferPool {
                     Debug.$assert0.t(buffer.getNext() != buffer);
                 }
             } finally {
-                _hashLocks[hash % HASH_LOCKS].unlock();
+                partition.unlock(hash);
             }
             if (mustClaim) {
                 boolean claimed = false;
@@ -828,7 +1414,7 @@ public class BufferPool {
                         // If so, then we're done.
                         //
                         vol.getStatistics().bumpGetCounter();
-                        bumpHitCounter();
+                        partition._hitCounter.incrementAndGet();
                         assert !buffer.isOwnedAsWriterByOther();
                         return buffer;
                     } else {
@@ -854,15 +1440,22 @@ public class BufferPool {
                  * also need to demote the writer claim to a reader claim unless
                  * the caller originally asked for a writer claim.
                  */
+                final PageCache pageCache = _pageCache;
                 if (wantRead) {
                     boolean loaded = false;
                     try {
-                        Debug.$assert0.t(buffer.getPageAddress() == page && buffer.getVolume() == vol
-                                && hashIndex(buffer.getVolume(), buffer.getPageAddress()) == hash);
-                        buffer.load(vol, page);
+                        Debug.$assert0.t(buffer.getPageAddress() == page && buffer.getVolume() == vol);
+                        if (pageCache != null && !vol.isTemporary() && !vol.isLockVolume()
+                                && pageCache.load(buffer)) {
+                            buffer.load();
+                        } else if (image == null) {
+                            buffer.load(vol, page);
+                        } else {
+                            buffer.load(vol, page, image);
+                        }
                         loaded = true;
                         vol.getStatistics().bumpGetCounter();
-                        bumpMissCounter();
+                        partition._missCounter.incrementAndGet();
                     } finally {
                         if (!loaded) {
                             invalidate(buffer);
@@ -870,9 +1463,16 @@ public class BufferPool {
                         }
                     }
                 } else {
+                    //
+                    // A page being reallocated must not later be loaded from
+                    // an image of its former content.
+                    //
+                    if (pageCache != null) {
+                        pageCache.remove(vol, page);
+                    }
                     buffer.clear();
                     buffer.init(Buffer.PAGE_TYPE_UNALLOCATED);
-                    bumpNewCounter();
+                    partition._newCounter.incrementAndGet();
                 }
                 if (!writer) {
                     buffer.releaseWriterClaim();
@@ -902,11 +1502,11 @@ public class BufferPool {
     public Buffer getBufferCopy(final Volume vol, final long page) throws InvalidPageAddressException,
             InvalidPageStructureException, VolumeClosedException, InUseException, PersistitIOException,
             PersistitInterruptedException {
-        final int hash = hashIndex(vol, page);
+        final Partition partition = partition(vol, page);
         Buffer buffer = null;
-        _hashLocks[hash % HASH_LOCKS].lock();
+        final int hash = partition.lock(vol, page);
         try {
-            buffer = _hashTable[hash];
+            buffer = partition._hashTable[hash];
             //
             // Search for the page
             //
@@ -923,7 +1523,7 @@ public class BufferPool {
                 buffer = buffer.getNext();
             }
         } finally {
-            _hashLocks[hash % HASH_LOCKS].unlock();
+            partition.unlock(hash);
         }
         //
         // Didn't find it in the pool, so we'll read a copy.
@@ -938,18 +1538,27 @@ public class BufferPool {
     }
 
     public Buffer getBufferCopy(final int index) throws IllegalArgumentException {
-        if (index < 0 || index >= _bufferCount) {
+        final Buffer[] buffers = _buffers;
+        if (index < 0 || index >= buffers.length) {
             throw new IllegalArgumentException("Index " + index + " is out of range in " + this);
         }
-        return new Buffer(_buffers[index]);
+        return new Buffer(buffers[index]);
     }
 
     /**
-     * Returns an available buffer. The replacement policy is to return a buffer
-     * that's already been marked invalid, if available. Otherwise use the Clock
-     * algorithm to choose a page for replacement that is approximately the
-     * least-recently-used page.
+     * Returns an available buffer from the specified partition. The
+     * replacement policy is to return a buffer that's already been marked
+     * invalid, if available. Otherwise advance the partition's clock hand and
+     * let the {@link EvictionPolicy} choose a page for replacement; after a
+     * full revolution without success the policy is asked to
+     * {@link EvictionPolicy#reclaim(Buffer) reclaim} buffers it would
+     * otherwise protect. Dirty pages are passed over and left for the
+     * PAGE_CLEANER thread to write, but only as many as the cleaner writes in
+     * one pass; once that many have been passed over the next dirty page
+     * chosen is written here.
      *
+     * @param partition
+     *            the partition to which the page being loaded maps
      * @return Buffer An available buffer, or <i>null</i> if no buffer is
      *         currently available. The buffer has a writer claim.
      * @throws PersistitException
@@ -957,31 +1566,36 @@ public class BufferPool {
      *             if there is no available buffer.
      */
 
-    private Buffer allocBuffer() throws PersistitException {
+    private Buffer allocBuffer(final Partition partition) throws PersistitException {
+        final Buffer[] buffers = _buffers;
+        final int count = partition.count(Math.min(_bufferCount, buffers.length));
+        final AtomicInteger clockHand = partition._clock;
+        final AtomicLongArray availablePagesBits = partition._availablePagesBits;
+        final EvictionPolicy evictionPolicy = partition._evictionPolicy;
         //
         // Start by searching for an invalid page. It's preferable
         // since no valid page will need to be evicted.
         //
-        if (_availablePages.get()) {
-            final int start = (_clock.get() / 64) * 64;
+        if (partition._availablePages.get()) {
+            final int start = (Math.min(clockHand.get(), count - 1) / 64) * 64;
             for (int q = start;;) {
                 q += 64;
-                if (q >= _bufferCount) {
+                if (q >= count) {
                     q = 0;
                 }
-                long bits = _availablePagesBits.get(q / 64);
+                long bits = availablePagesBits.get(q / 64);
                 if (bits != 0) {
-                    for (int p = 0; p < 64; p++) {
+                    for (int p = 0; p < 64 && q + p < count; p++) {
                         if ((bits & (1L << p)) != 0) {
-                            final Buffer buffer = _buffers[q + p];
+                            final Buffer buffer = buffers[partition.bufferIndex(q + p)];
                             //
                             // Note: need to verify that there are no claims -
                             // including those of the current thread.
                             //
                             if ((buffer.getStatus() & SharedResource.CLAIMED_MASK) == 0 && buffer.claim(true, 0)) {
-                                if (!buffer.isValid()) {
-                                    bits = _availablePagesBits.get(q / 64);
-                                    if (_availablePagesBits.compareAndSet(q / 64, bits, bits & ~(1L << p))) {
+                                if (!buffer.isValid() && !isRetired(buffer)) {
+                                    bits = availablePagesBits.get(q / 64);
+                                    if (availablePagesBits.compareAndSet(q / 64, bits, bits & ~(1L << p))) {
                                         buffer.clearDirty();
                                         return buffer;
                                     }
@@ -996,28 +1610,62 @@ public class BufferPool {
                 }
 
             }
-            _availablePages.set(false);
+            partition._availablePages.set(false);
         }
         //
         // Look for a page to evict.
         //
-        for (int retry = 0; retry < _bufferCount * 2;) {
-            final int clock = _clock.get();
-            assert clock < _bufferCount;
-            if (!_clock.compareAndSet(clock, (clock + 1) % _bufferCount)) {
+        final int limit = count * evictionPolicy.revolutions();
+        final boolean cleaning = _cleanLowWaterMark > 0;
+        //
+        // Passing over more dirty pages than the cleaner can write in one
+        // pass would only prolong the search when most of the pool is dirty.
+        //
+        final int maximumSkipped = Math.min(_cleanLowWaterMark, _pageWriterTrancheSize);
+        int skipped = 0;
+        boolean kicked = false;
+        if (cleaning && _bufferCount - _dirtyPageCount.get() < _cleanLowWaterMark) {
+            _cleaner.kick();
+            kicked = true;
+        }
+        for (int retry = 0; retry < limit + count;) {
+            final int clock = clockHand.get();
+            //
+            // The hand may lie beyond the end of a partition that has just
+            // been shrunk.
+            //
+            final int hand = clock < count ? clock : 0;
+            if (!clockHand.compareAndSet(clock, (hand + 1) % count)) {
                 continue;
             }
-            final Buffer buffer = _buffers[clock];
-            if (buffer.isTouched()) {
-                buffer.clearTouched();
-            } else {
+            final Buffer buffer = buffers[partition.bufferIndex(hand)];
+            //
+            // After a full revolution without an eviction, let the policy
+            // offer buffers it would otherwise protect.
+            //
+            if (retry < count ? evictionPolicy.sweep(buffer) : evictionPolicy.reclaim(buffer)) {
+                //
+                // Leave a dirty valid page for PAGE_CLEANER unless too many
+                // have been passed over already.
+                //
+                if (cleaning && skipped < maximumSkipped && buffer.isDirty() && buffer.isValid()) {
+                    if (!kicked) {
+                        _cleaner.kick();
+                        kicked = true;
+                    }
+                    skipped++;
+                    retry++;
+                    continue;
+                }
                 //
                 // Note: need to verify that there are no claims - including
                 // those of the current thread.
                 //
                 if (!buffer.isFixed() && (buffer.getStatus() & SharedResource.CLAIMED_MASK) == 0
                         && buffer.claim(true, 0)) {
-                    if (buffer.isDirty()) {
+                    if (isRetired(buffer)) {
+                        buffer.release();
+                    } else if (buffer.isDirty()) {
                         // An invalid dirty buffer is available and does not
                         // need to be written.
                         if (!buffer.isValid()) {
@@ -1029,10 +1677,11 @@ public class BufferPool {
                         // this context
                         try {
                             buffer.writePage();
-                            if (detach(buffer)) {
+                            if (detachEvicted(buffer)) {
                                 buffer.clearValid();
+                                evictionPolicy.evicted(buffer);
                                 _forcedWriteCounter.incrementAndGet();
-                                _evictCounter.incrementAndGet();
+                                partition._evictCounter.incrementAndGet();
                                 _persistit.getIOMeter().chargeEvictPageFromPool(buffer.getVolume(),
                                         buffer.getPageAddress(), buffer.getBufferSize(), buffer.getIndex());
                             }
@@ -1044,9 +1693,10 @@ public class BufferPool {
                             }
                         }
                     } else {
-                        if (buffer.isValid() && detach(buffer)) {
+                        if (buffer.isValid() && detachEvicted(buffer)) {
                             buffer.clearValid();
-                            _evictCounter.incrementAndGet();
+                            evictionPolicy.evicted(buffer);
+                            partition._evictCounter.incrementAndGet();
                             _persistit.getIOMeter().chargeEvictPageFromPool(buffer.getVolume(),
                                     buffer.getPageAddress(), buffer.getBufferSize(), buffer.getIndex());
                         }
@@ -1131,10 +1781,88 @@ public class BufferPool {
         }
     }
 
+    /**
+     * Write dirty buffers lying just ahead of the clock hand so that the
+     * eviction algorithm finds clean buffers there. Buffers are selected in
+     * clock order until the number of clean, evictable buffers plus the number
+     * selected reaches the low-water mark, and are then written in page
+     * address order.
+     *
+     * @param holders
+     *            array in which to record the selected buffers; its length
+     *            bounds the number written by one call
+     * @return count of buffers written
+     * @throws PersistitException
+     */
+    int cleanBuffers(final BufferHolder[] holders) throws PersistitException {
+        final int count = selectBuffersToClean(holders);
+        int written = 0;
+        if (count > 0) {
+            Arrays.sort(holders, 0, count);
+            for (int index = 0; index < count; index++) {
+                final BufferHolder holder = holders[index];
+                final Buffer buffer = holder._buffer;
+                if (buffer.claim(true, 0)) {
+                    try {
+                        if (holder.matches(buffer) && buffer.isDirty() && buffer.isValid()) {
+                            buffer.writePage();
+                            written++;
+                        }
+                    } finally {
+                        buffer.release();
+                    }
+                }
+            }
+            _cleanerWriteCounter.addAndGet(written);
+        }
+        return written;
+    }
+
+    int selectBuffersToClean(final BufferHolder[] holders) {
+        int count = 0;
+        final int target = (Math.min(_cleanLowWaterMark, holders.length) + _partitions.length - 1)
+                / _partitions.length;
+        for (final Partition partition : _partitions) {
+            count = selectBuffersToClean(partition, target, holders, count);
+        }
+        return count;
+    }
+
+    private int selectBuffersToClean(final Partition partition, final int target, final BufferHolder[] holders,
+            final int initialCount) {
+        final Buffer[] buffers = _buffers;
+        final int partitionCount = partition.count(Math.min(_bufferCount, buffers.length));
+        final int clock = partition._clock.get();
+        int clean = 0;
+        int count = initialCount;
+        for (int index = clock; index < clock + partitionCount && clean + count - initialCount < target
+                && count < holders.length; index++) {
+            final Buffer buffer = buffers[partition.bufferIndex(index % partitionCount)];
+            final int status = buffer.getStatus();
+            if ((status & SharedResource.VALID_MASK) == 0) {
+                clean++;
+            } else if ((status & (SharedResource.FIXED_MASK | SharedResource.TOUCHED_MASK)) != 0) {
+                //
+                // Not a candidate for eviction on this pass of the hand.
+                // Writing a recently touched page is likely to be wasted
+                // since it will probably be modified again before it is
+                // evicted.
+                //
+                continue;
+            } else if ((status & SharedResource.DIRTY_MASK) == 0) {
+                clean++;
+            } else {
+                holders[count++].set(buffer);
+            }
+        }
+        return count;
+    }
+
     int selectDirtyBuffers(final int[] priorities, final BufferHolder[] holders) throws PersistitException {
         Debug.suspend();
         int count = 0;
-        final int clock = _clock.get();
+        final Buffer[] buffers = _buffers;
+        final int clock = _partitions[0]._clock.get() * _partitions.length;
 
         final long checkpointTimestamp = _persistit.getCurrentCheckpoint().getTimestamp();
         final long currentTimestamp = _persistit.getCurrentTimestamp();
@@ -1143,8 +1871,8 @@ public class BufferPool {
         final long flushTimestamp = _flushTimestamp.get();
 
         boolean flushed = true;
-        for (int index = clock; index < clock + _bufferCount; index++) {
-            final Buffer buffer = _buffers[index % _bufferCount];
+        for (int index = clock; index < clock + buffers.length; index++) {
+            final Buffer buffer = buffers[index % buffers.length];
             long timestamp = buffer.getTimestamp();
             /*
              * The following is subtle timing dance. If the buffer claim is
@@ -1247,7 +1975,10 @@ public class BufferPool {
         // compute "distance" between this buffer and the clock. A larger
         // distance results in lower priority.
         //
-        int distance = (buffer.getIndex() - _clock.get() + _bufferCount) % _bufferCount;
+        final Partition partition = partition(buffer.getIndex());
+        final int count = Math.max(1, partition.count(_bufferCount));
+        int distance = ((partition.localIndex(buffer) - partition._clock.get()) % count + count) % count
+                * _partitions.length;
         int age = 0;
         //
         // If this buffer has been touched, then it won't be evicted for at
@@ -1287,6 +2018,308 @@ public class BufferPool {
         return _bufferCount * 2 - distance + age;
     }
 
+    /**
+     * A subset of the buffers in a pool together with the structures used to
+     * find and replace pages in them. A pool has one or more partitions; every
+     * page maps to exactly one of them, so threads loading pages that map to
+     * different partitions share no hash locks, clock hand or counters.
+     */
+    private static class Partition {
+
+        /**
+         * Index of this partition. The partition owns every buffer whose
+         * index is congruent to this value modulo <code>_stride</code>.
+         */
+        private final int _stripe;
+
+        /**
+         * Number of partitions in the pool
+         */
+        private final int _stride;
+
+        /**
+         * Hash table - fast access to buffer by hash of address. Replaced
+         * while all of <code>_hashLocks</code> are held when the pool is
+         * resized.
+         */
+        private volatile Buffer[] _hashTable;
+
+        /**
+         * Locks used to lock hashtable entries.
+         */
+        private final ReentrantLock[] _hashLocks;
+
+        /**
+         * Bit map for invalidated pages. Elements in this array, one bit per
+         * page, indicate buffers that have been invalidated and are therefore
+         * able to be allocated without evicting a valid page. Bit
+         * <i>n</i> represents the <i>n</i>th buffer of the partition. The
+         * array is replaced by a larger copy when the pool grows and is never
+         * made smaller.
+         */
+        private volatile AtomicLongArray _availablePagesBits;
+
+        private final AtomicBoolean _availablePages = new AtomicBoolean();
+
+        /**
+         * Position, counted in buffers of this partition, of the next location
+         * to look for a replacement buffer
+         */
+        private final AtomicInteger _clock = new AtomicInteger();
+
+        /**
+         * Policy that selects pages for eviction as the clock hand advances
+         */
+        private final EvictionPolicy _evictionPolicy;
+
+        /**
+         * Count of buffer pool misses (buffer not found in pool)
+         */
+        private final AtomicLong _missCounter = new AtomicLong();
+
+        /**
+         * Count of buffer pool hits (buffer found in pool)
+         */
+        private final AtomicLong _hitCounter = new AtomicLong();
+
+        /**
+         * Count of newly created pages
+         */
+        private final AtomicLong _newCounter = new AtomicLong();
+
+        /**
+         * Count of valid buffers evicted to make room for another page.
+         */
+        private final AtomicLong _evictCounter = new AtomicLong();
+
+        /**
+         * Count of misses for pages the eviction policy remembered as having
+         * been recently evicted.
+         */
+        private final AtomicLong _ghostHitCounter = new AtomicLong();
+
+        private Partition(final int stripe, final int stride, final int count, final int hashLocks,
+                final EvictionPolicy evictionPolicy) {
+            _stripe = stripe;
+            _stride = stride;
+            _hashTable = new Buffer[count * HASH_MULTIPLE];
+            _hashLocks = new ReentrantLock[hashLocks];
+            for (int index = 0; index < hashLocks; index++) {
+                _hashLocks[index] = new ReentrantLock();
+            }
+            _availablePagesBits = new AtomicLongArray((count + 63) / 64);
+            _evictionPolicy = evictionPolicy;
+        }
+
+        /**
+         * @return the number of buffers partition <code>stripe</code> of
+         *         <code>stride</code> partitions owns in a pool of
+         *         <code>bufferCount</code> buffers
+         */
+        private static int count(final int stripe, final int stride, final int bufferCount) {
+            return (bufferCount - stripe + stride - 1) / stride;
+        }
+
+        /**
+         * @return the number of buffers this partition owns in a pool of
+         *         <code>bufferCount</code> buffers
+         */
+        private int count(final int bufferCount) {
+            return count(_stripe, _stride, bufferCount);
+        }
+
+        /**
+         * @return pool index of the <i>n</i>th buffer of this partition
+         */
+        private int bufferIndex(final int n) {
+            return _stripe + n * _stride;
+        }
+
+        /**
+         * @return position of the buffer within this partition
+         */
+        private int localIndex(final Buffer buffer) {
+            return buffer.getIndex() / _stride;
+        }
+
+        private int hashIndex(final Volume vol, final long page) {
+            return hashIndex(_hashTable, vol, page);
+        }
+
+        private static int hashIndex(final Buffer[] hashTable, final Volume vol, final long page) {
+            return (int) (((page ^ vol.hashCode()) & Integer.MAX_VALUE) % hashTable.length);
+        }
+
+        /**
+         * Lock the hash table entry for a page. The hash table cannot be
+         * replaced while the lock is held.
+         *
+         * @return index of the entry in <code>_hashTable</code>
+         */
+        private int lock(final Volume vol, final long page) {
+            for (;;) {
+                final Buffer[] hashTable = _hashTable;
+                final int hashIndex = hashIndex(hashTable, vol, page);
+                final ReentrantLock lock = _hashLocks[hashIndex % _hashLocks.length];
+                lock.lock();
+                if (hashTable == _hashTable) {
+                    return hashIndex;
+                }
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Lock the hash table entry for a page if its lock is immediately
+         * available.
+         *
+         * @return index of the entry in <code>_hashTable</code>, or -1 if the
+         *         lock was not acquired
+         */
+        private int tryLock(final Volume vol, final long page) {
+            final Buffer[] hashTable = _hashTable;
+            final int hashIndex = hashIndex(hashTable, vol, page);
+            final ReentrantLock lock = _hashLocks[hashIndex % _hashLocks.length];
+            if (!lock.tryLock()) {
+                return -1;
+            }
+            if (hashTable != _hashTable) {
+                lock.unlock();
+                return -1;
+            }
+            return hashIndex;
+        }
+
+        private void unlock(final int hashIndex) {
+            _hashLocks[hashIndex % _hashLocks.length].unlock();
+        }
+
+        /**
+         * Acquire every hash lock of this partition. A thread allocating a
+         * buffer holds one hash lock while trying to acquire another, and
+         * fails to evict the page if it cannot; therefore no lock is held
+         * here while waiting for another thread to release one.
+         */
+        private void lockAll() {
+            for (;;) {
+                int locked = 0;
+                while (locked < _hashLocks.length && _hashLocks[locked].tryLock()) {
+                    locked++;
+                }
+                if (locked == _hashLocks.length) {
+                    return;
+                }
+                for (int index = 0; index < locked; index++) {
+                    _hashLocks[index].unlock();
+                }
+                _hashLocks[locked].lock();
+                _hashLocks[locked].unlock();
+            }
+        }
+
+        /**
+         * Mark an invalidated buffer as available for allocation without
+         * eviction.
+         */
+        private void markAvailable(final Buffer buffer) {
+            final AtomicLongArray availablePagesBits = _availablePagesBits;
+            final int q = localIndex(buffer) / 64;
+            final int p = localIndex(buffer) % 64;
+            while (true) {
+                final long bits = availablePagesBits.get(q);
+                if (availablePagesBits.compareAndSet(q, bits, bits | (1L << p))) {
+                    break;
+                }
+            }
+            _availablePages.set(true);
+        }
+
+        /**
+         * Remove a buffer from the set available for allocation without
+         * eviction.
+         */
+        private void clearAvailable(final Buffer buffer) {
+            final AtomicLongArray availablePagesBits = _availablePagesBits;
+            final int q = localIndex(buffer) / 64;
+            final int p = localIndex(buffer) % 64;
+            while (true) {
+                final long bits = availablePagesBits.get(q);
+                if ((bits & (1L << p)) == 0 || availablePagesBits.compareAndSet(q, bits, bits & ~(1L << p))) {
+                    break;
+                }
+            }
+        }
+
+        /**
+         * Prepare this partition to hold <code>count</code> buffers. When
+         * growing this must be called before the new buffers can be
+         * allocated. The hash table is rebuilt for the new count while every
+         * hash lock of the partition is held; lookups of pages mapping to
+         * other partitions are unaffected.
+         *
+         * @param count
+         *            the new number of buffers in this partition
+         */
+        private void resize(final int count) {
+            final AtomicLongArray availablePagesBits = _availablePagesBits;
+            if ((count + 63) / 64 > availablePagesBits.length()) {
+                final AtomicLongArray larger = new AtomicLongArray((count + 63) / 64);
+                for (int index = 0; index < availablePagesBits.length(); index++) {
+                    larger.set(index, availablePagesBits.get(index));
+                }
+                _availablePagesBits = larger;
+            }
+            _evictionPolicy.resize(count);
+
+            lockAll();
+            try {
+                final Buffer[] hashTable = new Buffer[count * HASH_MULTIPLE];
+                for (Buffer buffer : _hashTable) {
+                    while (buffer != null) {
+                        final Buffer next = buffer.getNext();
+                        final int hashIndex = hashIndex(hashTable, buffer.getVolume(), buffer.getPageAddress());
+                        buffer.setNext(hashTable[hashIndex]);
+                        hashTable[hashIndex] = buffer;
+                        buffer = next;
+                    }
+                }
+                _hashTable = hashTable;
+            } finally {
+                for (final ReentrantLock lock : _hashLocks) {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Carves page-sized slices from large direct ByteBuffers. Each arena holds
+     * at most {@value BufferPool#MAXIMUM_ARENA_SIZE} bytes and no more pages
+     * than remain to be allocated. The memory of an arena is released only
+     * when no Buffer refers to any of its pages, so buffers removed by
+     * shrinking the pool may not return memory to the system.
+     */
+    private static class Arena {
+        private final int _pageSize;
+        private ByteBuffer _memory;
+
+        Arena(final int pageSize) {
+            _pageSize = pageSize;
+        }
+
+        ByteBuffer allocate(final int remaining) {
+            if (_memory == null || !_memory.hasRemaining()) {
+                final int pages = Math.min(remaining, MAXIMUM_ARENA_SIZE / _pageSize);
+                _memory = ByteBuffer.allocateDirect(pages * _pageSize);
+            }
+            final int position = _memory.position();
+            _memory.limit(position + _pageSize);
+            final ByteBuffer page = _memory.slice();
+            _memory.limit(_memory.capacity()).position(position + _pageSize);
+            return page;
+        }
+    }
+
     static class BufferHolder implements Comparable<BufferHolder> {
 
         long _page;
@@ -1391,6 +2424,254 @@ public class BufferPool {
         }
     }
 
+    /**
+     * Queue a request to read the pages following a page reached by a
+     * sequential scan, or the data pages about to be visited by a multi-key
+     * fetch. The request is dropped if it is already queued, if the queue is
+     * full or if read-ahead is disabled.
+     *
+     * @param request
+     *            the request, owned by the {@link Exchange} performing the
+     *            scan or fetch and reused for each of its requests
+     * @return <code>true</code> if the request was queued
+     */
+    boolean readAhead(final ReadAheadRequest request) {
+        if (_maximumReadAhead <= 0 || _closed.get() || !request._pending.compareAndSet(false, true)) {
+            return false;
+        }
+        if (!_readAheadQueue.offer(request)) {
+            request._pending.set(false);
+            return false;
+        }
+        _prefetcher.kick();
+        return true;
+    }
+
+    /**
+     * Read the pages listed in <code>request._pages</code> if it is not
+     * <code>null</code>, otherwise the pages that follow
+     * <code>request._page</code> in key order.
+     * They are found in the parent index page, or in one of its right
+     * siblings if the scan has moved on since the caller last descended the
+     * tree. Index pages visited are themselves brought into the pool.
+     *
+     * @param request
+     * @param children
+     *            working array large enough to hold every pointer in an index
+     *            page
+     */
+    void readAhead(final ReadAheadRequest request, final long[] children) throws PersistitException {
+        final Volume volume = request._volume;
+        final long page = request._page;
+        final int depth = Math.min(request._depth, _maximumReadAhead);
+        if (request._pages != null) {
+            for (int index = 0; index < depth; index++) {
+                if (prefetch(volume, request._pages[index])) {
+                    _persistit.getIOMeter().chargePrefetchPage(volume, request._pages[index], _bufferSize, depth);
+                }
+            }
+            return;
+        }
+        long parentPage = request._parentPage;
+        boolean found = false;
+        int prefetched = 0;
+        for (int walk = 0; parentPage > 0 && walk < READ_AHEAD_PARENT_WALK && prefetched < depth; walk++) {
+            final Buffer parent = get(volume, parentPage, false, true);
+            long rightSibling;
+            int count;
+            try {
+                if (parent.getPageType() != Buffer.PAGE_TYPE_INDEX_MIN) {
+                    break;
+                }
+                count = parent.getChildPages(children);
+                rightSibling = parent.getRightSibling();
+            } finally {
+                parent.release();
+            }
+            for (int index = 0; index < count && prefetched < depth; index++) {
+                if (found) {
+                    if (prefetch(volume, children[index])) {
+                        _persistit.getIOMeter().chargePrefetchPage(volume, children[index], _bufferSize, depth);
+                    }
+                    prefetched++;
+                } else if (children[index] == page) {
+                    found = true;
+                    request._parentPage = parentPage;
+                }
+            }
+            parentPage = rightSibling;
+        }
+    }
+
+    /**
+     * Bring a page into the pool if it is not already present, without
+     * marking it as recently used.
+     *
+     * @return <code>true</code> if the page was read
+     */
+    private boolean prefetch(final Volume volume, final long page) throws PersistitException {
+        if (volume.isClosed() || page <= 0 || page >= volume.getStorage().getNextAvailablePage()
+                || isResident(volume, page)) {
+            return false;
+        }
+        get(volume, page, false, true).release();
+        _prefetchCounter.incrementAndGet();
+        return true;
+    }
+
+    boolean isResident(final Volume volume, final long page) {
+        final Partition partition = partition(volume, page);
+        final int hash = partition.lock(volume, page);
+        try {
+            for (Buffer buffer = partition._hashTable[hash]; buffer != null; buffer = buffer.getNext()) {
+                if (buffer.getPageAddress() == page && buffer.getVolume() == volume) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            partition.unlock(hash);
+        }
+    }
+
+    /**
+     * A request to read ahead of a sequential scan. Each {@link Exchange}
+     * owns one instance which it re-submits as the scan progresses; the
+     * PAGE_PREFETCHER updates the parent page hint so that later requests
+     * start from the right place in the index.
+     */
+    static class ReadAheadRequest {
+        private final AtomicBoolean _pending = new AtomicBoolean();
+        private volatile Volume _volume;
+        private volatile long _parentPage;
+        private volatile long _page;
+        private volatile int _depth;
+        private volatile long[] _pages;
+
+        /**
+         * Set the parameters of the next request. Has no effect while a
+         * previous request is still pending.
+         *
+         * @param parentPage
+         *            address of an index page at or to the left of the
+         *            parent of <code>page</code>, or zero to start from the
+         *            parent found by the previous request
+         * @return <code>false</code> if a previous request is still pending
+         */
+        boolean set(final Volume volume, final long parentPage, final long page, final int depth) {
+            if (_pending.get()) {
+                return false;
+            }
+            _volume = volume;
+            if (parentPage > 0) {
+                _parentPage = parentPage;
+            }
+            _page = page;
+            _depth = depth;
+            _pages = null;
+            return true;
+        }
+
+        /**
+         * Set the next request to read a list of pages in the order given.
+         * Has no effect while a previous request is still pending.
+         *
+         * @param pages
+         *            addresses of the pages to read; the array is retained
+         *            by the request until it has been performed
+         * @param count
+         *            number of addresses in <code>pages</code>
+         * @return <code>false</code> if a previous request is still pending
+         */
+        boolean set(final Volume volume, final long[] pages, final int count) {
+            if (_pending.get()) {
+                return false;
+            }
+            _volume = volume;
+            _pages = pages;
+            _depth = count;
+            return true;
+        }
+    }
+
+    /**
+     * Implementation of PAGE_PREFETCHER thread.
+     */
+    class PagePrefetcher extends IOTaskRunnable {
+
+        long[] _children = new long[0];
+
+        PagePrefetcher() {
+            super(BufferPool.this._persistit);
+        }
+
+        void start() {
+            start("PAGE_PREFETCHER:" + _bufferSize, DEFAULT_PREFETCHER_POLL_INTERVAL);
+        }
+
+        @Override
+        public void runTask() throws PersistitException {
+            if (_children.length <= _maxKeys) {
+                _children = new long[_maxKeys + 1];
+            }
+            ReadAheadRequest request;
+            while (!_closed.get() && (request = _readAheadQueue.poll()) != null) {
+                try {
+                    readAhead(request, _children);
+                } catch (final PersistitException e) {
+                    //
+                    // Read-ahead is advisory only. The volume may have been
+                    // closed, or a page may be held too long by another
+                    // thread; the scan will read the page itself if needed.
+                    //
+                } finally {
+                    request._pending.set(false);
+                }
+            }
+        }
+
+        @Override
+        protected boolean shouldStop() {
+            return _closed.get();
+        }
+    }
+
+    /**
+     * Implementation of PAGE_CLEANER thread.
+     */
+    class PageCleaner extends IOTaskRunnable {
+
+        BufferHolder[] _selectedBuffers = new BufferHolder[0];
+
+        PageCleaner() {
+            super(BufferPool.this._persistit);
+        }
+
+        void start() {
+            start("PAGE_CLEANER:" + _bufferSize, DEFAULT_CLEANER_POLL_INTERVAL);
+        }
+
+        @Override
+        public void runTask() throws PersistitException {
+            final int size = Math.min(_cleanLowWaterMark, _pageWriterTrancheSize);
+            if (size <= 0) {
+                return;
+            }
+            if (size != _selectedBuffers.length) {
+                _selectedBuffers = new BufferHolder[size];
+                for (int index = 0; index < size; index++) {
+                    _selectedBuffers[index] = new BufferHolder();
+                }
+            }
+            cleanBuffers(_selectedBuffers);
+        }
+
+        @Override
+        protected boolean shouldStop() {
+            return _closed.get();
+        }
+    }
+
     @Override
     public String toString() {
         return "BufferPool[" + _bufferCount + "@" + _bufferSize + (_closed.get() ? ":closed" : "") + "]";
@@ -1402,10 +2683,11 @@ public class BufferPool {
      * @return toString value for buffer at index <code>i</code>.
      */
     String toString(final int i, final boolean detail) {
+        final Buffer buffer = _buffers[i];
         if (detail) {
-            return _buffers[i].toStringDetail();
+            return buffer.toStringDetail();
         } else {
-            return _buffers[i].toString();
+            return buffer.toString();
         }
     }
 
@@ -1456,15 +2738,18 @@ public class BufferPool {
             int total = 0;
             exchange.clear().append(_bufferSize).append(timestamp).append(Key.BEFORE);
             final Value value = exchange.getValue();
-            final int clockValueBefore = _clock.get();
-            for (int index = 0; index < _buffers.length; index++) {
-                final Buffer buffer = _buffers[index];
+            final int clockValueBefore = _partitions[0]._clock.get();
+            final Buffer[] buffers = _buffers;
+            for (int index = 0; index < buffers.length; index++) {
+                final Buffer buffer = buffers[index];
                 long page1 = -1, page2 = -1;
                 Volume volume1 = null, volume2 = null;
+                int type = Buffer.PAGE_TYPE_UNALLOCATED;
                 if (buffer != null && buffer.isValid()) {
                     while (true) {
                         page1 = buffer.getPageAddress();
                         volume1 = buffer.getVolume();
+                        type = buffer.getPageType();
                         page2 = buffer.getPageAddress();
                         volume2 = buffer.getVolume();
                         if (page1 == page2 && volume1 == volume2) {
@@ -1476,12 +2761,13 @@ public class BufferPool {
                         value.clear().setStreamMode(true);
                         value.put(volume1.getHandle());
                         value.put(page1);
+                        value.put(type);
                         exchange.to(index).store();
                         total++;
                     }
                 }
             }
-            final int clockValueAfter = _clock.get();
+            final int clockValueAfter = _partitions[0]._clock.get();
             exchange.cut();
             value.clear().setStreamMode(true);
             value.put(_bufferCount);
@@ -1501,17 +2787,27 @@ public class BufferPool {
         }
     }
 
-    void preloadBufferInventory() {
-        int count = 0;
+    /**
+     * Load the pages named in the most recently recorded buffer inventory.
+     * Pages are sorted by Volume and page address and adjacent pages are read
+     * together. Index pages are read before all other pages so that they are
+     * present early if the application starts while the preload continues.
+     *
+     * @param threadCount
+     *            number of threads that load pages
+     * @param background
+     *            <code>true</code> to return as soon as the preload threads
+     *            have started
+     */
+    void preloadBufferInventory(final int threadCount, final boolean background) {
+        final List<PreloadRun> runs = new ArrayList<PreloadRun>();
         int total = 0;
-        final long startTime = System.nanoTime();
-        long reportTime = startTime;
-
         try {
             final JournalManager jman = _persistit.getJournalManager();
             final Exchange exchange = getBufferInventoryExchange();
             final Value value = exchange.getValue();
-            final List<PageNode> pageNodes = new ArrayList<PageNode>();
+            final List<PageNode> indexPages = new ArrayList<PageNode>();
+            final List<PageNode> otherPages = new ArrayList<PageNode>();
             boolean foundInventory = false;
             exchange.clear().append(_bufferSize).append(Key.AFTER);
             while (exchange.previous()) {
@@ -1538,42 +2834,191 @@ public class BufferPool {
                 value.setStreamMode(true);
                 final int volumeHandle = value.getInt();
                 final long pageAddress = value.getLong();
+                //
+                // Inventories recorded by earlier versions do not include the
+                // page type
+                //
+                final int type = value.hasMoreItems() ? value.getInt() : Buffer.PAGE_TYPE_UNALLOCATED;
                 final PageNode pn = new PageNode(volumeHandle, pageAddress);
-                pageNodes.add(pn);
+                if (type >= Buffer.PAGE_TYPE_INDEX_MIN && type <= Buffer.PAGE_TYPE_INDEX_MAX) {
+                    indexPages.add(pn);
+                } else {
+                    otherPages.add(pn);
+                }
+            }
+            addPreloadRuns(runs, indexPages, jman);
+            addPreloadRuns(runs, otherPages, jman);
+        } catch (final PersistitException e) {
+            _persistit.getLogBase().bufferInventoryException.log(e);
+            return;
+        }
+
+        final int count = Math.max(1, Math.min(threadCount, runs.size()));
+        final Preloader preloader = new Preloader(runs, total, count);
+        if (count == 1 && !background) {
+            preloader.run();
+            return;
+        }
+        synchronized (_preloadThreads) {
+            for (int index = 0; index < count; index++) {
+                final Thread thread = new Thread(preloader, "BUFFER_PRELOADER:" + _bufferSize + ":" + index);
+                thread.setDaemon(true);
+                _preloadThreads.add(thread);
+                thread.start();
+            }
+        }
+        if (!background) {
+            try {
+                waitForPreload();
+            } catch (final PersistitInterruptedException e) {
+                _persistit.getLogBase().bufferInventoryException.log(e);
             }
+        }
+    }
 
-            Collections.sort(pageNodes, PageNode.READ_COMPARATOR);
-            for (final PageNode pn : pageNodes) {
-                final Volume vol = jman.volumeForHandle(pn.getVolumeHandle());
-                if (vol == null) {
+    /**
+     * Wait for threads started by {@link #preloadBufferInventory(int, boolean)}
+     * to finish.
+     *
+     * @throws PersistitInterruptedException
+     */
+    void waitForPreload() throws PersistitInterruptedException {
+        final List<Thread> threads;
+        synchronized (_preloadThreads) {
+            threads = new ArrayList<Thread>(_preloadThreads);
+        }
+        for (final Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (final InterruptedException e) {
+                throw new PersistitInterruptedException(e);
+            }
+        }
+        synchronized (_preloadThreads) {
+            _preloadThreads.removeAll(threads);
+        }
+    }
+
+    /**
+     * Divide the supplied pages, sorted by Volume and page address, into runs
+     * of adjacent pages no larger than {@link #PRELOAD_MAXIMUM_READ_SIZE}.
+     */
+    private void addPreloadRuns(final List<PreloadRun> runs, final List<PageNode> pageNodes,
+            final JournalManager jman) throws PersistitException {
+        Collections.sort(pageNodes, PageNode.WRITE_COMPARATOR);
+        final int maximumPages = Math.max(1, PRELOAD_MAXIMUM_READ_SIZE / _bufferSize);
+        PreloadRun run = null;
+        for (final PageNode pn : pageNodes) {
+            final Volume volume = jman.volumeForHandle(pn.getVolumeHandle());
+            if (volume == null) {
+                continue;
+            }
+            final long page = pn.getPageAddress();
+            if (run != null && run._volume == volume) {
+                if (page < run._page + run._count) {
+                    continue;
+                }
+                if (page == run._page + run._count && run._count < maximumPages) {
+                    run._count++;
                     continue;
                 }
+            }
+            run = new PreloadRun(volume, page);
+            runs.add(run);
+        }
+    }
+
+    /**
+     * A run of adjacent pages in one Volume to be preloaded together
+     */
+    private static class PreloadRun {
+        private final Volume _volume;
+        private final long _page;
+        private int _count = 1;
+
+        PreloadRun(final Volume volume, final long page) {
+            _volume = volume;
+            _page = page;
+        }
+    }
+
+    /**
+     * Loads the pages of a buffer inventory. Each thread running a Preloader
+     * claims the next {@link PreloadRun}, reads it from its Volume in one
+     * operation and then installs its pages in the pool. Loading stops when
+     * as many pages have been loaded as there are buffers, or when the pool is
+     * closed.
+     */
+    private class Preloader implements Runnable {
+        private final List<PreloadRun> _runs;
+        private final int _total;
+        private final AtomicInteger _running;
+        private final AtomicInteger _nextRun = new AtomicInteger();
+        private final AtomicInteger _count = new AtomicInteger();
+        private final long _startTime = System.nanoTime();
+        private final AtomicLong _reportTime = new AtomicLong(_startTime);
+
+        Preloader(final List<PreloadRun> runs, final int total, final int threadCount) {
+            _runs = runs;
+            _total = total;
+            _running = new AtomicInteger(threadCount);
+        }
+
+        @Override
+        public void run() {
+            final ByteBuffer bb = ByteBuffer.allocate(Math.max(1, PRELOAD_MAXIMUM_READ_SIZE / _bufferSize)
+                    * _bufferSize);
+            try {
+                int index;
+                while (!isDone() && (index = _nextRun.getAndIncrement()) < _runs.size()) {
+                    preload(_runs.get(index), bb);
+                }
+            } finally {
+                if (_running.decrementAndGet() == 0) {
+                    _persistit.getLogBase().bufferInventoryProgress.log(_count.get(), _total,
+                            (System.nanoTime() - _startTime) / NS_PER_S);
+                }
+            }
+        }
+
+        private void preload(final PreloadRun run, final ByteBuffer bb) {
+            final Volume volume = run._volume;
+            int read = 0;
+            bb.clear().limit(run._count * _bufferSize);
+            try {
+                read = volume.getStorage().readPages(run._page, bb);
+            } catch (final PersistitException e) {
+                // read the pages individually below
+            }
+            for (int index = 0; index < run._count && !isDone(); index++) {
+                final long page = run._page + index;
                 try {
-                    final Buffer buff = get(vol, pn.getPageAddress(), false, true);
-                    buff.release();
-                    count++;
-                    final long now = System.nanoTime();
-                    if (now - reportTime >= INVENTORY_PRELOAD_LOG_MESSAGE_NS) {
-                        _persistit.getLogBase().bufferInventoryProgress
-                                .log(count, total, (now - reportTime) / NS_PER_S);
-                        reportTime = now;
-                    }
-                    if (count >= _bufferCount) {
-                        //
-                        // If the buffer pool is now smaller, no need to load
-                        // more pages
-                        //
-                        break;
+                    final Buffer buffer;
+                    if (index < read) {
+                        bb.limit((index + 1) * _bufferSize).position(index * _bufferSize);
+                        buffer = get(volume, page, false, true, SharedResource.DEFAULT_MAX_WAIT_TIME, bb);
+                    } else {
+                        buffer = get(volume, page, false, true);
                     }
+                    buffer.release();
                 } catch (final PersistitException e) {
                     // ignore it
+                    continue;
+                }
+                final int count = _count.incrementAndGet();
+                final long now = System.nanoTime();
+                final long reportTime = _reportTime.get();
+                if (now - reportTime >= INVENTORY_PRELOAD_LOG_MESSAGE_NS && _reportTime.compareAndSet(reportTime, now)) {
+                    _persistit.getLogBase().bufferInventoryProgress.log(count, _total, (now - _startTime) / NS_PER_S);
                 }
             }
-        } catch (final PersistitException e) {
-            _persistit.getLogBase().bufferInventoryException.log(e);
-        } finally {
-            final long now = System.nanoTime();
-            _persistit.getLogBase().bufferInventoryProgress.log(count, total, (now - reportTime) / NS_PER_S);
+        }
+
+        private boolean isDone() {
+            //
+            // If the buffer pool is now smaller, no need to load more pages
+            //
+            return _closed.get() || _count.get() >= _bufferCount;
         }
     }
 
@@ -19,6 +19,7 @@ package com.persistit;
 import java.rmi.RemoteException;
 
 import com.persistit.Management.BufferPoolInfo;
+import com.persistit.exception.PersistitException;
 import com.persistit.mxbeans.BufferPoolMXBean;
 import com.persistit.mxbeans.Description;
 
@@ -244,4 +245,134 @@ class BufferPoolMXBeanImpl implements BufferPoolMXBean {
         return recent().getEarliestDirtyTimestamp();
     }
 
+    /**
+     * Return the number of misses for pages the eviction policy remembered as
+     * having been recently evicted.
+     * 
+     * @return The ghost hit count
+     */
+    @Override
+    @Description("Count of misses for pages remembered as recently evicted")
+    public long getGhostHitCount() {
+        return recent().getGhostHitCount();
+    }
+
+    /**
+     * @return The count of pages the eviction policy currently protects as
+     *         hot pages
+     */
+    @Override
+    @Description("Count of pages protected as hot pages")
+    public int getHotPageCount() {
+        return recent().getHotPageCount();
+    }
+
+    /**
+     * @return The name of the eviction policy
+     */
+    @Override
+    @Description("Name of the eviction policy")
+    public String getEvictionPolicy() {
+        return recent().getEvictionPolicy();
+    }
+
+    /**
+     * @return The count of pages written by the PAGE_CLEANER thread
+     */
+    @Override
+    @Description("Count of pages written by PAGE_CLEANER")
+    public long getCleanerWriteCount() {
+        return recent().getCleanerWriteCount();
+    }
+
+    /**
+     * @return The number of clean buffers PAGE_CLEANER tries to keep ahead of
+     *         the clock hand
+     */
+    @Override
+    @Description("Clean buffer low-water mark")
+    public int getCleanLowWaterMark() {
+        return recent().getCleanLowWaterMark();
+    }
+
+    /**
+     * @return The number of partitions in the pool
+     */
+    @Override
+    @Description("Number of partitions")
+    public int getPartitionCount() {
+        return recent().getPartitionCount();
+    }
+
+    /**
+     * @return The count of pages found in the compressed page cache
+     */
+    @Override
+    @Description("Count of pages found in the page cache")
+    public long getPageCacheHitCount() {
+        return recent().getPageCacheHitCount();
+    }
+
+    /**
+     * @return The count of pages missing from the compressed page cache
+     */
+    @Override
+    @Description("Count of pages missing from the page cache")
+    public long getPageCacheMissCount() {
+        return recent().getPageCacheMissCount();
+    }
+
+    /**
+     * @return The ratio of page cache hits to page cache lookups
+     */
+    @Override
+    @Description("Ratio of hits to page cache lookups")
+    public double getPageCacheHitRatio() {
+        return recent().getPageCacheHitRatio();
+    }
+
+    /**
+     * @return The approximate size in bytes of the compressed page cache
+     */
+    @Override
+    @Description("Approximate size of the page cache")
+    public long getPageCacheSize() {
+        return recent().getPageCacheSize();
+    }
+
+    /**
+     * @return The maximum size in bytes of the compressed page cache
+     */
+    @Override
+    @Description("Maximum size of the page cache")
+    public long getPageCacheMemory() {
+        return recent().getPageCacheMemory();
+    }
+
+    /**
+     * Change the number of buffers in the pool
+     * 
+     * @param bufferCount
+     *            the desired number of buffers
+     * @return The number of buffers in the pool after resizing
+     * @throws PersistitException
+     */
+    @Override
+    @Description("Change the number of buffers and return the resulting count")
+    public int resize(final int bufferCount) throws PersistitException {
+        final int count = _persistit.resizeBufferPool(_bufferSize, bufferCount);
+        _recent = new BufferPoolInfo();
+        return count;
+    }
+
+    /**
+     * @return <code>true</code> if the pages of the pool are allocated
+     *         outside the heap
+     */
+    @Override
+    @Description("True if pages are allocated outside the heap")
+    public boolean isOffHeap() {
+        return recent().isOffHeap();
+    }
+
 }
@@ -141,6 +141,49 @@ public class Configuration {
      * specified memory allocation, including overhead for FastIndex elements.
      */
     public final static String BUFFER_MEM_PROPERTY_NAME = "buffer.memory.";
+    /**
+     * Property name prefix for specifying the page eviction policy of a buffer
+     * pool. The full property name should be one of "1024", "2048", "4096",
+     * "8192" or "16384" appended to this string, e.g., "buffer.policy.16384".
+     * The value is "CLOCK" (the default) or "CLOCKPRO" for a scan-resistant
+     * policy.
+     */
+    public final static String BUFFER_POLICY_PROPERTY_NAME = "buffer.policy.";
+    /**
+     * Property name prefix for specifying the number of clean buffers the
+     * PAGE_CLEANER thread tries to keep ahead of the clock hand. The full
+     * property name should be one of "1024", "2048", "4096", "8192" or "16384"
+     * appended to this string, e.g., "buffer.lowwater.16384".
+     */
+    public final static String BUFFER_LOW_WATER_PROPERTY_NAME = "buffer.lowwater.";
+    /**
+     * Property name prefix for specifying the number of partitions a buffer
+     * pool is divided into. The full property name should be one of "1024",
+     * "2048", "4096", "8192" or "16384" appended to this string, e.g.,
+     * "buffer.partitions.16384".
+     */
+    public final static String BUFFER_PARTITIONS_PROPERTY_NAME = "buffer.partitions.";
+    /**
+     * Property name prefix for specifying the maximum number of pages read
+     * ahead of a sequential scan. The full property name should be one of
+     * "1024", "2048", "4096", "8192" or "16384" appended to this string, e.g.,
+     * "buffer.readahead.16384".
+     */
+    public final static String BUFFER_READ_AHEAD_PROPERTY_NAME = "buffer.readahead.";
+    /**
+     * Property name prefix for specifying the maximum size of the compressed
+     * page cache behind a buffer pool. The full property name should be one
+     * of "1024", "2048", "4096", "8192" or "16384" appended to this string,
+     * e.g., "buffer.pagecache.16384".
+     */
+    public final static String BUFFER_PAGE_CACHE_PROPERTY_NAME = "buffer.pagecache.";
+    /**
+     * Property name prefix for specifying that the pages of a buffer pool are
+     * allocated outside the Java heap. The full property name should be one
+     * of "1024", "2048", "4096", "8192" or "16384" appended to this string,
+     * e.g., "buffer.offheap.16384".
+     */
+    public final static String BUFFER_OFF_HEAP_PROPERTY_NAME = "buffer.offheap.";
     /**
      * Property name prefix for specifying Volumes. The full property name
      * should be a unique ordinal number appended to this string, e.g.,
@@ -158,6 +201,26 @@ public class Configuration {
      */
     public final static String JOURNAL_BLOCKSIZE_PROPERTY_NAME = "journalsize";
 
+    /**
+     * Property name for specifying the number of preallocated spare journal
+     * files, e.g., "journalspares=2".
+     */
+    public final static String JOURNAL_SPARES_PROPERTY_NAME = "journalspares";
+
+    /**
+     * Property name for specifying the number of page images retained in the
+     * cache of pages written to or read from the journal, e.g.,
+     * "journalpagecache=1024".
+     */
+    public final static String JOURNAL_PAGE_CACHE_PROPERTY_NAME = "journalpagecache";
+
+    /**
+     * Property name for specifying the maximum number of threads that copy
+     * pages from the journal to different volumes concurrently, e.g.,
+     * "journalcopierthreads=8".
+     */
+    public final static String JOURNAL_COPIER_THREADS_PROPERTY_NAME = "journalcopierthreads";
+
     /**
      * Default path name for the journal. Note, sequence suffix in the form
      * .nnnnnnnnnnnnnnnn (16 digits, zero-filled) will be appended.
@@ -277,6 +340,16 @@ public class Configuration {
      */
     public final static String APPEND_ONLY_PROPERTY_NAME = "appendonly";
 
+    /**
+     * Property name for the "page deltas" property.
+     */
+    public final static String PAGE_DELTAS_PROPERTY_NAME = "pagedeltas";
+
+    /**
+     * Property name for the "page compression" property.
+     */
+    public final static String PAGE_COMPRESSION_PROPERTY_NAME = "pagecompression";
+
     /**
      * Property name for the "ignore missing volumes" property.
      */
@@ -302,6 +375,28 @@ public class Configuration {
      */
     public final static String BUFFER_INVENTORY_PROPERTY_NAME = "bufferinventory";
 
+    /**
+     * Property name to specify the number of threads used to preload buffer
+     * pools.
+     */
+    public final static String BUFFER_PRELOAD_THREADS_PROPERTY_NAME = "bufferpreloadthreads";
+
+    /**
+     * Property name to specify whether buffer pools are preloaded in the
+     * background after startup completes.
+     */
+    public final static String BUFFER_PRELOAD_BACKGROUND_PROPERTY_NAME = "bufferpreloadbackground";
+
+    /**
+     * Default number of threads used to preload buffer pools
+     */
+    public final static int DEFAULT_BUFFER_PRELOAD_THREADS = 4;
+
+    /**
+     * Maximum number of threads used to preload buffer pools
+     */
+    public final static int MAXIMUM_BUFFER_PRELOAD_THREADS = 64;
+
     /**
      * Property name to specify the default {@link JoinPolicy}.
      */
@@ -379,6 +474,12 @@ public class Configuration {
         private long maximumMemory;
         private long reservedMemory;
         private float fraction;
+        private String evictionPolicy = EvictionPolicy.DEFAULT_POLICY;
+        private int cleanLowWaterMark = -1;
+        private int partitionCount = 1;
+        private int maximumReadAhead = -1;
+        private long pageCacheMemory;
+        private boolean offHeap;
 
         private void reset() {
             minimumCount = 0;
@@ -504,6 +605,216 @@ public class Configuration {
             this.fraction = fraction;
         }
 
+        /**
+         * @return the name of the page eviction policy
+         */
+        public String getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        /**
+         * <p>
+         * Set the policy the buffer pool uses to choose a page to evict when it
+         * needs a buffer for a page that is not already present. Valid values
+         * are:
+         * <ul>
+         * <li><code>CLOCK</code> - the classic CLOCK algorithm, which
+         * approximates least-recently-used replacement.</li>
+         * <li><code>CLOCKPRO</code> - a scan-resistant variant that protects
+         * frequently re-referenced pages from being displaced by a single
+         * traversal of a large tree, for example by StreamSaver or
+         * IntegrityCheck.</li>
+         * </ul>
+         * </p>
+         * <p>
+         * Default value is <code>CLOCK</code><br />
+         * Property name is {@value Configuration#BUFFER_POLICY_PROPERTY_NAME}
+         * followed by the buffer size
+         * </p>
+         * 
+         * @param evictionPolicy
+         *            the policy name, case insensitive
+         */
+        public void setEvictionPolicy(final String evictionPolicy) {
+            this.evictionPolicy = EvictionPolicy.canonicalName(evictionPolicy);
+        }
+
+        /**
+         * @return the number of clean buffers the PAGE_CLEANER thread tries to
+         *         keep ahead of the clock hand, or -1 to use the default
+         */
+        public int getCleanLowWaterMark() {
+            return cleanLowWaterMark;
+        }
+
+        /**
+         * <p>
+         * Set the low-water mark for clean buffers. The PAGE_CLEANER thread
+         * writes dirty pages that lie just ahead of the buffer pool's clock
+         * hand so that at least this many clean, evictable buffers are
+         * available when a page needs to be read. A larger value reduces the
+         * likelihood that a thread reading a page must first write a dirty
+         * page, at the cost of writing some pages that would otherwise have
+         * been modified again before being evicted. A value of 0 disables the
+         * PAGE_CLEANER thread.
+         * </p>
+         * <p>
+         * Default value is 1/32 of the buffer count, up to 5,000<br />
+         * Property name is
+         * {@value Configuration#BUFFER_LOW_WATER_PROPERTY_NAME} followed by
+         * the buffer size
+         * </p>
+         * 
+         * @param cleanLowWaterMark
+         *            the low-water mark, or -1 to use the default
+         */
+        public void setCleanLowWaterMark(final int cleanLowWaterMark) {
+            if (cleanLowWaterMark < -1) {
+                throw new IllegalArgumentException("Invalid clean buffer low-water mark " + cleanLowWaterMark);
+            }
+            this.cleanLowWaterMark = cleanLowWaterMark;
+        }
+
+        /**
+         * @return the number of partitions the buffer pool is divided into
+         */
+        public int getPartitionCount() {
+            return partitionCount;
+        }
+
+        /**
+         * <p>
+         * Set the number of partitions the buffer pool is divided into. Each
+         * partition owns an equal share of the buffers and has its own clock
+         * hand, hash table, hash locks and eviction policy state; each page is
+         * assigned to a partition by a hash of its volume and page address.
+         * Multiple partitions reduce contention between threads reading pages
+         * on systems with many cores, at the cost of making page replacement
+         * decisions within each partition rather than across the whole pool.
+         * The number is reduced if necessary so that each partition has at
+         * least {@value BufferPool#MINIMUM_POOL_COUNT} buffers.
+         * </p>
+         * <p>
+         * Default value is 1<br />
+         * Property name is
+         * {@value Configuration#BUFFER_PARTITIONS_PROPERTY_NAME} followed by
+         * the buffer size
+         * </p>
+         * 
+         * @param partitionCount
+         *            the number of partitions
+         */
+        public void setPartitionCount(final int partitionCount) {
+            if (partitionCount < 1) {
+                throw new IllegalArgumentException("Invalid buffer pool partition count " + partitionCount);
+            }
+            this.partitionCount = partitionCount;
+        }
+
+        /**
+         * @return the maximum number of pages read ahead of a sequential scan,
+         *         or -1 to use the default
+         */
+        public int getMaximumReadAhead() {
+            return maximumReadAhead;
+        }
+
+        /**
+         * <p>
+         * Set the maximum number of pages read ahead of a sequential scan.
+         * When a traversal moves from one data page to its right sibling
+         * several times in succession, the PAGE_PREFETCHER thread reads the
+         * pages that follow in the background. The distance read ahead starts
+         * small and doubles while the scan continues, up to this limit. A
+         * value of 0 disables read-ahead.
+         * </p>
+         * <p>
+         * Default value is {@value BufferPool#DEFAULT_MAXIMUM_READ_AHEAD}, or
+         * 1/4 of the buffer count if smaller<br />
+         * Property name is
+         * {@value Configuration#BUFFER_READ_AHEAD_PROPERTY_NAME} followed by
+         * the buffer size
+         * </p>
+         * 
+         * @param maximumReadAhead
+         *            the maximum read-ahead distance, or -1 to use the default
+         */
+        public void setMaximumReadAhead(final int maximumReadAhead) {
+            if (maximumReadAhead < -1) {
+                throw new IllegalArgumentException("Invalid maximum read-ahead " + maximumReadAhead);
+            }
+            this.maximumReadAhead = maximumReadAhead;
+        }
+
+        /**
+         * @return the maximum size in bytes of the compressed page cache, or
+         *         zero if it is disabled
+         */
+        public long getPageCacheMemory() {
+            return pageCacheMemory;
+        }
+
+        /**
+         * <p>
+         * Set the maximum size in bytes of a second-tier cache holding
+         * compressed images of clean pages evicted from the buffer pool. A
+         * page that is no longer in the buffer pool is loaded from this cache,
+         * if present, instead of being read from the journal or Volume. This
+         * is useful when the working set is larger than the buffer pool but
+         * pages compress well. The cache occupies heap memory in addition to
+         * the buffer pool.
+         * </p>
+         * <p>
+         * Default value is 0 (disabled)<br />
+         * Property name is
+         * {@value Configuration#BUFFER_PAGE_CACHE_PROPERTY_NAME} followed by
+         * the buffer size
+         * </p>
+         * 
+         * @param pageCacheMemory
+         *            the maximum size in bytes, or zero to disable the cache
+         */
+        public void setPageCacheMemory(final long pageCacheMemory) {
+            if (pageCacheMemory < 0) {
+                throw new IllegalArgumentException("Invalid page cache size " + pageCacheMemory);
+            }
+            this.pageCacheMemory = pageCacheMemory;
+        }
+
+        /**
+         * @return <code>true</code> if the buffer pool's pages are allocated
+         *         outside the Java heap
+         */
+        public boolean isOffHeap() {
+            return offHeap;
+        }
+
+        /**
+         * <p>
+         * Set whether the pages of the buffer pool are allocated in large
+         * direct memory arenas outside the Java heap rather than as individual
+         * heap arrays. Off-heap pages are not traced or moved by the garbage
+         * collector, which shortens collection pauses for large buffer pools,
+         * and are read from and written to files without an intermediate
+         * copy. The direct memory must be permitted by the JVM's
+         * <code>-XX:MaxDirectMemorySize</code> setting. Buffer counts derived
+         * from a memory specification are still computed from the available
+         * heap, so a count specification is usually more appropriate.
+         * </p>
+         * <p>
+         * Default value is <code>false</code><br />
+         * Property name is
+         * {@value Configuration#BUFFER_OFF_HEAP_PROPERTY_NAME} followed by the
+         * buffer size
+         * </p>
+         * 
+         * @param offHeap
+         *            <code>true</code> to allocate pages outside the heap
+         */
+        public void setOffHeap(final boolean offHeap) {
+            this.offHeap = offHeap;
+        }
+
         private final static String SIMPLE_COUNT_FORMAT = "count=%d";
         private final static String MIN_MAX_COUNT_FORMAT = "minCount=%d,maxCount=%d";
         private final static String MIN_MAX_MEMORY_FORMAT = "minMem=%s,maxMem=%s,reserved=%s,fraction=%s";
@@ -699,6 +1010,9 @@ public class Configuration {
     private final List<VolumeSpecification> volumeSpecifications = new ArrayList<VolumeSpecification>();
     private String journalPath = DEFAULT_JOURNAL_PATH;
     private long journalSize = JournalManager.DEFAULT_BLOCK_SIZE;
+    private int journalSpares = JournalManager.DEFAULT_SPARE_JOURNAL_FILES;
+    private int journalPageCache = JournalManager.DEFAULT_PAGE_CACHE_SIZE;
+    private int journalCopierThreads = JournalManager.DEFAULT_COPIER_THREADS;
     private long checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL_S;
     private String sysVolume = DEFAULT_SYSTEM_VOLUME_NAME;
     private CommitPolicy commitPolicy = DEFAULT_TRANSACTION_COMMIT_POLICY;
@@ -714,8 +1028,12 @@ public class Configuration {
     private int rmiServerPort;
     private boolean jmx = true;
     private boolean appendOnly;
+    private boolean pageDeltasEnabled;
+    private boolean pageCompressionEnabled;
     private boolean bufferInventoryEnabled;
     private boolean bufferPreloadEnabled;
+    private int bufferPreloadThreads = DEFAULT_BUFFER_PRELOAD_THREADS;
+    private boolean bufferPreloadBackground;
     private boolean ignoreMissingVolumes;
     private String tmpVolDir;
     private int tmpVolPageSize;
@@ -803,8 +1121,15 @@ public class Configuration {
         setJoinPolicy(getProperty(JOIN_POLICY_PROPERTY_NAME));
         setJournalPath(getProperty(JOURNAL_PATH_PROPERTY_NAME, DEFAULT_JOURNAL_PATH));
         setJournalSize(getLongProperty(JOURNAL_BLOCKSIZE_PROPERTY_NAME, JournalManager.DEFAULT_BLOCK_SIZE));
+        setJournalSpares(getIntegerProperty(JOURNAL_SPARES_PROPERTY_NAME, JournalManager.DEFAULT_SPARE_JOURNAL_FILES));
+        setJournalPageCache(getIntegerProperty(JOURNAL_PAGE_CACHE_PROPERTY_NAME,
+                JournalManager.DEFAULT_PAGE_CACHE_SIZE));
+        setJournalCopierThreads(getIntegerProperty(JOURNAL_COPIER_THREADS_PROPERTY_NAME,
+                JournalManager.DEFAULT_COPIER_THREADS));
         setLogFile(getProperty(LOGFILE_PROPERTY_NAME));
         setLogging(getProperty(LOGGING_PROPERTIES_NAME));
+        setPageCompressionEnabled(getBooleanProperty(PAGE_COMPRESSION_PROPERTY_NAME, false));
+        setPageDeltasEnabled(getBooleanProperty(PAGE_DELTAS_PROPERTY_NAME, false));
         setTmpVolDir(getProperty(TEMPORARY_VOLUME_DIR_PROPERTY_NAME));
         setTmpVolPageSize(getIntegerProperty(TEMPORARY_VOLUME_PAGE_SIZE_PROPERTY_NAME, 0));
         setTmpVolMaxSize(getLongProperty(TEMPORARY_VOLUME_MAX_SIZE_PROPERTY_NAME, MAXIMUM_TEMP_VOL_MAX_SIZE));
@@ -817,6 +1142,9 @@ public class Configuration {
         setSysVolume(getProperty(SYSTEM_VOLUME_PROPERTY_NAME, DEFAULT_SYSTEM_VOLUME_NAME));
         setBufferInventoryEnabled(getBooleanProperty(BUFFER_INVENTORY_PROPERTY_NAME, false));
         setBufferPreloadEnabled(getBooleanProperty(BUFFER_PRELOAD_PROPERTY_NAME, false));
+        setBufferPreloadThreads(getIntegerProperty(BUFFER_PRELOAD_THREADS_PROPERTY_NAME,
+                DEFAULT_BUFFER_PRELOAD_THREADS));
+        setBufferPreloadBackground(getBooleanProperty(BUFFER_PRELOAD_BACKGROUND_PROPERTY_NAME, false));
         setUseOldVSpec(getBooleanProperty(USE_OLD_VSPEC, false));
 
         loadPropertiesBufferSpecifications();
@@ -829,11 +1157,23 @@ public class Configuration {
 
             final String countPropertyName = BUFFERS_PROPERTY_NAME + size;
             final String memPropertyName = BUFFER_MEM_PROPERTY_NAME + size;
+            final String policyPropertyName = BUFFER_POLICY_PROPERTY_NAME + size;
+            final String lowWaterPropertyName = BUFFER_LOW_WATER_PROPERTY_NAME + size;
+            final String partitionsPropertyName = BUFFER_PARTITIONS_PROPERTY_NAME + size;
+            final String readAheadPropertyName = BUFFER_READ_AHEAD_PROPERTY_NAME + size;
+            final String pageCachePropertyName = BUFFER_PAGE_CACHE_PROPERTY_NAME + size;
+            final String offHeapPropertyName = BUFFER_OFF_HEAP_PROPERTY_NAME + size;
 
             final String countSpec = getProperty(countPropertyName);
             final String memSpec = getProperty(memPropertyName);
             int count = 0;
             final BufferPoolConfiguration bpc = bufferPoolMap.get(size);
+            bpc.setEvictionPolicy(getProperty(policyPropertyName, EvictionPolicy.DEFAULT_POLICY));
+            bpc.setCleanLowWaterMark(getIntegerProperty(lowWaterPropertyName, -1));
+            bpc.setPartitionCount(getIntegerProperty(partitionsPropertyName, 1));
+            bpc.setMaximumReadAhead(getIntegerProperty(readAheadPropertyName, -1));
+            bpc.setPageCacheMemory(getLongProperty(pageCachePropertyName, 0));
+            bpc.setOffHeap(getBooleanProperty(offHeapPropertyName, false));
 
             if (countSpec != null) {
                 bpc.parseBufferCount(size, countPropertyName, countSpec);
@@ -1418,6 +1758,103 @@ public class Configuration {
         this.journalSize = journalSize;
     }
 
+    /**
+     * Return the value defined by {@link #setJournalSpares}
+     * 
+     * @return the number of preallocated spare journal files
+     */
+    public int getJournalSpares() {
+        return journalSpares;
+    }
+
+    /**
+     * <p>
+     * Set the number of spare journal files Persistit keeps ready for use.
+     * Each spare is zero-filled to the full journal file size in the
+     * background, so that a new journal file starts out fully allocated and
+     * writes to it do not change the file size. Journal files that are no
+     * longer needed are recycled as spares rather than deleted. Spares occupy
+     * disk space equal to this number times the journal file size. A value of
+     * zero disables preallocation.
+     * </p>
+     * Default value is
+     * {@value com.persistit.mxbeans.JournalManagerMXBean#DEFAULT_SPARE_JOURNAL_FILES}
+     * <br/>
+     * Property name is {@value #JOURNAL_SPARES_PROPERTY_NAME}
+     * 
+     * @param journalSpares
+     *            the number of spare files, between 0 and
+     *            {@value com.persistit.mxbeans.JournalManagerMXBean#MAXIMUM_SPARE_JOURNAL_FILES}
+     */
+    public void setJournalSpares(final int journalSpares) {
+        Util.rangeCheck(journalSpares, 0, JournalManager.MAXIMUM_SPARE_JOURNAL_FILES);
+        this.journalSpares = journalSpares;
+    }
+
+    /**
+     * Return the value defined by {@link #setJournalPageCache}
+     * 
+     * @return the number of page images retained in the journal page cache
+     */
+    public int getJournalPageCache() {
+        return journalPageCache;
+    }
+
+    /**
+     * <p>
+     * Set the number of page images retained in a cache of pages recently
+     * written to or read from the journal. A page that has been evicted from
+     * the buffer pool before the JOURNAL_COPIER has copied it to its volume
+     * must be read from the journal; the cache avoids repeating that read when
+     * the same image is needed again, including by the JOURNAL_COPIER. Each
+     * entry occupies memory equal to the page size. A value of zero disables
+     * the cache.
+     * </p>
+     * Default value is
+     * {@value com.persistit.mxbeans.JournalManagerMXBean#DEFAULT_PAGE_CACHE_SIZE}
+     * <br/>
+     * Property name is {@value #JOURNAL_PAGE_CACHE_PROPERTY_NAME}
+     * 
+     * @param journalPageCache
+     *            the number of page images, between 0 and
+     *            {@value com.persistit.mxbeans.JournalManagerMXBean#MAXIMUM_PAGE_CACHE_SIZE}
+     */
+    public void setJournalPageCache(final int journalPageCache) {
+        Util.rangeCheck(journalPageCache, 0, JournalManager.MAXIMUM_PAGE_CACHE_SIZE);
+        this.journalPageCache = journalPageCache;
+    }
+
+    /**
+     * Return the value defined by {@link #setJournalCopierThreads}
+     * 
+     * @return the maximum number of concurrent journal copier threads
+     */
+    public int getJournalCopierThreads() {
+        return journalCopierThreads;
+    }
+
+    /**
+     * <p>
+     * Set the maximum number of threads that copy pages from the journal to
+     * their volumes concurrently. In each copying cycle the pages destined for
+     * each volume are written, in runs of adjacent pages, by one thread, and
+     * different volumes may be written by different threads. A value of 1
+     * writes all volumes on the JOURNAL_COPIER thread.
+     * </p>
+     * Default value is
+     * {@value com.persistit.mxbeans.JournalManagerMXBean#DEFAULT_COPIER_THREADS}
+     * <br/>
+     * Property name is {@value #JOURNAL_COPIER_THREADS_PROPERTY_NAME}
+     * 
+     * @param journalCopierThreads
+     *            the number of threads, between 1 and
+     *            {@value com.persistit.mxbeans.JournalManagerMXBean#MAXIMUM_COPIER_THREADS}
+     */
+    public void setJournalCopierThreads(final int journalCopierThreads) {
+        Util.rangeCheck(journalCopierThreads, 1, JournalManager.MAXIMUM_COPIER_THREADS);
+        this.journalCopierThreads = journalCopierThreads;
+    }
+
     /**
      * Return the value defined by {@link #setCheckpointInterval(long)}
      * 
@@ -1984,6 +2421,71 @@ public class Configuration {
         this.appendOnly = appendOnly;
     }
 
+    /**
+     * Return the value defined by {@link #setPageDeltasEnabled}
+     * 
+     * @return <code>true</code> if page deltas are written to the journal
+     */
+    public boolean isPageDeltasEnabled() {
+        return pageDeltasEnabled;
+    }
+
+    /**
+     * <p>
+     * Control whether Persistit writes page deltas to the journal. When
+     * enabled, a modified data or index page whose full image has already been
+     * written to the current journal file is written as a list of the byte
+     * ranges that differ from that image, provided the list is substantially
+     * smaller than the page and the page has stayed in the buffer pool since
+     * the image was written. Each buffer keeps a copy of the last full image
+     * it wrote for this purpose. This reduces the volume of journal writes for
+     * workloads that make small changes to many pages. Journals containing page
+     * deltas cannot be read by versions of Persistit that predate this
+     * feature.
+     * </p>
+     * <p>
+     * Default value is <code>false</code><br />
+     * Property name is {@value #PAGE_DELTAS_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param pageDeltasEnabled
+     *            <code>true</code> to write page deltas
+     */
+    public void setPageDeltasEnabled(final boolean pageDeltasEnabled) {
+        this.pageDeltasEnabled = pageDeltasEnabled;
+    }
+
+    /**
+     * Return the value defined by {@link #setPageCompressionEnabled}
+     * 
+     * @return <code>true</code> if page images are compressed in the journal
+     */
+    public boolean isPageCompressionEnabled() {
+        return pageCompressionEnabled;
+    }
+
+    /**
+     * <p>
+     * Control whether Persistit compresses the page images it writes to the
+     * journal. When enabled, each full page image is compressed with the
+     * deflate algorithm built into the Java runtime and is written in
+     * compressed form if that is smaller than the uncompressed image. This
+     * trades CPU time in the threads that write pages for a reduction in
+     * journal I/O. Journals containing compressed pages cannot be read by
+     * versions of Persistit that predate this feature.
+     * </p>
+     * <p>
+     * Default value is <code>false</code><br />
+     * Property name is {@value #PAGE_COMPRESSION_PROPERTY_NAME}
+     * </p>
+     * 
+     * @param pageCompressionEnabled
+     *            <code>true</code> to compress page images
+     */
+    public void setPageCompressionEnabled(final boolean pageCompressionEnabled) {
+        this.pageCompressionEnabled = pageCompressionEnabled;
+    }
+
     /**
      * Return the value defined by {@link #setBufferInventoryEnabled}
      * 
@@ -2037,6 +2539,64 @@ public class Configuration {
         this.bufferPreloadEnabled = bufferPreloadEnabled;
     }
 
+    /**
+     * Return the value defined by {@link #setBufferPreloadThreads}
+     * 
+     * @return the number of threads used to preload each buffer pool
+     */
+    public int getBufferPreloadThreads() {
+        return bufferPreloadThreads;
+    }
+
+    /**
+     * <p>
+     * Set the number of threads used to preload each buffer pool. Pages named
+     * in the inventory are sorted by volume and page address and adjacent
+     * pages are read together; the resulting reads are divided among these
+     * threads.
+     * </p>
+     * <p>
+     * Default value is {@value #DEFAULT_BUFFER_PRELOAD_THREADS}<br />
+     * Property name is {@value #BUFFER_PRELOAD_THREADS_PROPERTY_NAME}
+     * 
+     * @param bufferPreloadThreads
+     *            the number of threads, between 1 and
+     *            {@value #MAXIMUM_BUFFER_PRELOAD_THREADS}
+     */
+    public void setBufferPreloadThreads(final int bufferPreloadThreads) {
+        Util.rangeCheck(bufferPreloadThreads, 1, MAXIMUM_BUFFER_PRELOAD_THREADS);
+        this.bufferPreloadThreads = bufferPreloadThreads;
+    }
+
+    /**
+     * Return the value defined by {@link #setBufferPreloadBackground}
+     * 
+     * @return <code>true</code> if buffer pools are preloaded in the
+     *         background
+     */
+    public boolean isBufferPreloadBackground() {
+        return bufferPreloadBackground;
+    }
+
+    /**
+     * <p>
+     * Control whether buffer pool preloading delays startup. When
+     * <code>true</code>, {@link Persistit#initialize()} returns without
+     * waiting for the preload threads, which continue to load pages while the
+     * application runs. In either case index pages are loaded before data
+     * pages.
+     * </p>
+     * <p>
+     * Default value is <code>false</code><br />
+     * Property name is {@value #BUFFER_PRELOAD_BACKGROUND_PROPERTY_NAME}
+     * 
+     * @param bufferPreloadBackground
+     *            <code>true</code> to preload buffer pools in the background
+     */
+    public void setBufferPreloadBackground(final boolean bufferPreloadBackground) {
+        this.bufferPreloadBackground = bufferPreloadBackground;
+    }
+
     /**
      * Return the value defined by {@link #setIgnoreMissingVolumes(boolean)}
      * 
@@ -0,0 +1,416 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Replacement policy used by a {@link BufferPool} to choose which page to
+ * evict when a buffer is needed for a page that is not already in the pool.
+ * The pool owns the clock hand and performs all claiming, writing and
+ * detaching of buffers; the policy is consulted each time the hand reaches a
+ * buffer and is notified when a page is admitted to or evicted from the pool.
+ * </p>
+ * <p>
+ * Two policies are available:
+ * <dl>
+ * <dt>{@value #CLOCK}</dt>
+ * <dd>The classic single-handed CLOCK algorithm. A buffer that has been
+ * touched since the hand last passed it gets a second chance. This is the
+ * default.</dd>
+ * <dt>{@value #CLOCKPRO}</dt>
+ * <dd>A scan-resistant variant in the spirit of CLOCK-Pro and 2Q. Pages are
+ * admitted <i>cold</i> and are evicted the first time the hand reaches them,
+ * however often they were touched in the meantime. The identity of each
+ * evicted cold page is remembered in a small non-resident "ghost" table; a
+ * page that misses again while still remembered there is admitted
+ * <i>hot</i>. Hot pages are not normally evicted directly. When admissions
+ * push the number of hot pages above its limit, the hand demotes hot pages
+ * that have not been touched since it last passed them, and a demoted page is
+ * evicted on the following pass unless it is touched again first. A single
+ * traversal of a large tree admits only cold pages and therefore cannot
+ * displace the hot set. If a full revolution finds no cold page that can be
+ * evicted, the hand falls back to CLOCK and demotes any untouched hot
+ * page.</dd>
+ * </dl>
+ * </p>
+ *
+ * @see Configuration.BufferPoolConfiguration#setEvictionPolicy(String)
+ */
+abstract class EvictionPolicy {
+
+    /**
+     * Name of the classic CLOCK policy
+     */
+    final static String CLOCK = "CLOCK";
+
+    /**
+     * Name of the scan-resistant hot/cold CLOCK policy
+     */
+    final static String CLOCKPRO = "CLOCKPRO";
+
+    final static String DEFAULT_POLICY = CLOCK;
+
+    private final static String[] NAMES = { CLOCK, CLOCKPRO };
+
+    /**
+     * Construct a new policy instance for a pool, or for one partition of a
+     * pool
+     *
+     * @param name
+     *            policy name, case insensitive
+     * @param stride
+     *            distance between the indexes of successive buffers governed
+     *            by the policy, which is the number of partitions in the pool
+     * @param bufferCount
+     *            number of buffers governed by the policy
+     * @return the policy
+     * @throws IllegalArgumentException
+     *             if the name is not one of the recognized policy names
+     */
+    static EvictionPolicy newPolicy(final String name, final int stride, final int bufferCount) {
+        if (CLOCK.equalsIgnoreCase(name)) {
+            return new Clock();
+        }
+        if (CLOCKPRO.equalsIgnoreCase(name)) {
+            return new ClockPro(stride, bufferCount);
+        }
+        throw new IllegalArgumentException("No such EvictionPolicy " + name);
+    }
+
+    /**
+     * @param name
+     *            policy name, case insensitive
+     * @return the canonical form of a valid policy name
+     * @throws IllegalArgumentException
+     *             if the name is not one of the recognized policy names
+     */
+    static String canonicalName(final String name) {
+        for (final String s : NAMES) {
+            if (s.equalsIgnoreCase(name)) {
+                return s;
+            }
+        }
+        throw new IllegalArgumentException("No such EvictionPolicy " + name);
+    }
+
+    /**
+     * @return name of the policy
+     */
+    abstract String getName();
+
+    /**
+     * Called when the clock hand reaches a buffer. The policy may change the
+     * buffer's replacement state.
+     *
+     * @param buffer
+     *            the buffer under the hand
+     * @return <code>true</code> if the pool should attempt to evict the page
+     *         held by this buffer, <code>false</code> to skip it
+     */
+    abstract boolean sweep(Buffer buffer);
+
+    /**
+     * Called in place of {@link #sweep(Buffer)} once the clock hand has made
+     * a full revolution without evicting a page, because every buffer offered
+     * by <code>sweep</code> was dirty, claimed or otherwise unavailable. The
+     * policy must now offer every buffer that has not been touched since the
+     * hand last passed it, so that the pool cannot run out of buffers while
+     * any page could be evicted.
+     *
+     * @param buffer
+     *            the buffer under the hand
+     * @return <code>true</code> if the pool should attempt to evict the page
+     *         held by this buffer, <code>false</code> to skip it
+     */
+    boolean reclaim(final Buffer buffer) {
+        return sweep(buffer);
+    }
+
+    /**
+     * Called when a buffer has been assigned to a new page, either to be read
+     * from its volume or to be initialized as a new page. The caller holds a
+     * writer claim on the buffer.
+     *
+     * @param buffer
+     *            the buffer
+     * @return <code>true</code> if the page was found in the policy's record
+     *         of recently evicted pages
+     */
+    boolean admitted(final Buffer buffer) {
+        return false;
+    }
+
+    /**
+     * Called when the pool has evicted a valid page from the buffer. The
+     * buffer's volume and page address still identify the evicted page.
+     *
+     * @param buffer
+     *            the buffer
+     */
+    void evicted(final Buffer buffer) {
+    }
+
+    /**
+     * Called when the number of buffers governed by the policy changes. When
+     * the count increases this is called before any of the new buffers is
+     * swept or admitted. When it decreases, the pages held by the buffers
+     * being removed have already been passed to {@link #evicted(Buffer)}.
+     *
+     * @param bufferCount
+     *            the new number of buffers
+     */
+    void resize(final int bufferCount) {
+    }
+
+    /**
+     * @return maximum number of full revolutions of the clock hand before the
+     *         pool concludes that no buffer can be evicted
+     */
+    int revolutions() {
+        return 2;
+    }
+
+    /**
+     * @return count of buffers currently holding hot pages
+     */
+    int getHotPageCount() {
+        return 0;
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+
+    /**
+     * The classic CLOCK algorithm
+     */
+    static class Clock extends EvictionPolicy {
+
+        @Override
+        String getName() {
+            return CLOCK;
+        }
+
+        @Override
+        boolean sweep(final Buffer buffer) {
+            if (buffer.isTouched()) {
+                buffer.clearTouched();
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Hot/cold CLOCK with a non-resident history of evicted cold pages.
+     */
+    static class ClockPro extends EvictionPolicy {
+
+        private final static int COLD = 0;
+        private final static int HOT = 1;
+        private final static int DEMOTED = 2;
+
+        /**
+         * Hot pages may occupy at most this fraction, expressed as
+         * numerator/denominator, of the pool. The remainder is reserved so
+         * that newly admitted cold pages have time to be re-referenced.
+         */
+        private final static int HOT_NUMERATOR = 3;
+        private final static int HOT_DENOMINATOR = 4;
+
+        /**
+         * Number of ghost table entries per buffer, rounded up to a power of
+         * two.
+         */
+        private final static int GHOST_MULTIPLE = 2;
+
+        private final int _stride;
+
+        /**
+         * Replacement state of each buffer. Replaced by a larger copy when
+         * the number of buffers grows; never made smaller.
+         */
+        private volatile AtomicIntegerArray _states;
+
+        private final AtomicInteger _hotCount = new AtomicInteger();
+
+        private volatile int _hotLimit;
+
+        private final AtomicLongArray _ghosts;
+
+        private final int _ghostMask;
+
+        ClockPro(final int stride, final int bufferCount) {
+            _stride = stride;
+            _states = new AtomicIntegerArray(bufferCount);
+            _hotLimit = hotLimit(bufferCount);
+            int size = 1;
+            while (size < bufferCount * GHOST_MULTIPLE) {
+                size <<= 1;
+            }
+            _ghosts = new AtomicLongArray(size);
+            _ghostMask = size - 1;
+        }
+
+        @Override
+        String getName() {
+            return CLOCKPRO;
+        }
+
+        @Override
+        boolean sweep(final Buffer buffer) {
+            if (!buffer.isValid()) {
+                return true;
+            }
+            final AtomicIntegerArray states = _states;
+            final int index = buffer.getIndex() / _stride;
+            switch (states.get(index)) {
+            case HOT:
+                /*
+                 * Hot pages are demoted only while promotions have pushed the
+                 * hot set above its limit. A scan never promotes anything, so
+                 * it can only recycle cold buffers.
+                 */
+                if (buffer.isTouched() || _hotCount.get() <= _hotLimit) {
+                    buffer.clearTouched();
+                } else if (states.compareAndSet(index, HOT, DEMOTED)) {
+                    _hotCount.decrementAndGet();
+                }
+                return false;
+
+            case DEMOTED:
+                if (buffer.isTouched() && _hotCount.get() < _hotLimit) {
+                    if (states.compareAndSet(index, DEMOTED, HOT)) {
+                        buffer.clearTouched();
+                        _hotCount.incrementAndGet();
+                    }
+                    return false;
+                }
+                return true;
+
+            default:
+                return true;
+            }
+        }
+
+        /**
+         * Falls back to CLOCK: a hot page that has not been touched since the
+         * hand last passed it is demoted and offered for eviction even though
+         * the hot set is within its limit.
+         */
+        @Override
+        boolean reclaim(final Buffer buffer) {
+            if (!buffer.isValid()) {
+                return true;
+            }
+            if (buffer.isTouched()) {
+                buffer.clearTouched();
+                return false;
+            }
+            if (_states.compareAndSet(buffer.getIndex() / _stride, HOT, DEMOTED)) {
+                _hotCount.decrementAndGet();
+            }
+            return true;
+        }
+
+        @Override
+        boolean admitted(final Buffer buffer) {
+            final boolean ghost = forget(fingerprint(buffer));
+            final int previous = _states.getAndSet(buffer.getIndex() / _stride, ghost ? HOT : COLD);
+            if (previous == HOT && !ghost) {
+                _hotCount.decrementAndGet();
+            } else if (previous != HOT && ghost) {
+                _hotCount.incrementAndGet();
+            }
+            buffer.clearTouched();
+            return ghost;
+        }
+
+        @Override
+        void evicted(final Buffer buffer) {
+            final int index = buffer.getIndex() / _stride;
+            if (_states.getAndSet(index, COLD) == HOT) {
+                _hotCount.decrementAndGet();
+            }
+            final long fingerprint = fingerprint(buffer);
+            _ghosts.set((int) fingerprint & _ghostMask, fingerprint);
+        }
+
+        /**
+         * Copies the replacement states to a larger array if necessary and
+         * recounts the hot pages. A state change made concurrently to the old
+         * array may be lost; that affects only which page is evicted next.
+         */
+        @Override
+        synchronized void resize(final int bufferCount) {
+            AtomicIntegerArray states = _states;
+            if (bufferCount > states.length()) {
+                final AtomicIntegerArray larger = new AtomicIntegerArray(bufferCount);
+                for (int index = 0; index < states.length(); index++) {
+                    larger.set(index, states.get(index));
+                }
+                _states = larger;
+                states = larger;
+            }
+            int hotCount = 0;
+            for (int index = 0; index < states.length(); index++) {
+                if (states.get(index) == HOT) {
+                    hotCount++;
+                }
+            }
+            _hotCount.set(hotCount);
+            _hotLimit = hotLimit(bufferCount);
+        }
+
+        @Override
+        int revolutions() {
+            return 4;
+        }
+
+        private static int hotLimit(final int bufferCount) {
+            return Math.max(1, (int) ((long) bufferCount * HOT_NUMERATOR / HOT_DENOMINATOR));
+        }
+
+        @Override
+        int getHotPageCount() {
+            return _hotCount.get();
+        }
+
+        private boolean forget(final long fingerprint) {
+            final int slot = (int) fingerprint & _ghostMask;
+            return _ghosts.get(slot) == fingerprint && _ghosts.compareAndSet(slot, fingerprint, 0);
+        }
+
+        /**
+         * Compute a well-mixed non-zero identifier for the page held by the
+         * buffer. Collisions are possible but harmless: the worst outcome is
+         * that a page is admitted hot when it should have been cold.
+         */
+        private static long fingerprint(final Buffer buffer) {
+            long h = buffer.getVolumeId() * 0x9E3779B97F4A7C15L + buffer.getPageAddress();
+            h ^= h >>> 33;
+            h *= 0xFF51AFD7ED558CCDL;
+            h ^= h >>> 33;
+            return h == 0 ? 1 : h;
+        }
+    }
+}
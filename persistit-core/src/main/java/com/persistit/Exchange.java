@@ -152,6 +152,7 @@ public class Exchange implements ReadOnlyExchange {
     private final TransactionIndex _ti;
     private final Exchange _exchange;
     private TransactionStatus _status;
+    private long _ts;
     private int _step;
     private int _foundOffset;
     private int _foundLength;
@@ -177,10 +178,28 @@ public class Exchange implements ReadOnlyExchange {
     public void initInternal(final TransactionStatus status, final int step, final Usage usage) {
       Debug.$assert0.t(status != null || usage != Usage.STORE);
       _status = status;
+      _ts = status != null ? status.getTs() : READ_COMMITTED_TS;
       _step = step;
       _usage = usage;
     }
 
+    /**
+     * Prepare to find the version visible to a transaction that started at
+     * <code>ts</code>. A read-only transaction has a start timestamp but no
+     * TransactionStatus.
+     *
+     * @param ts
+     *            Start timestamp of the reading transaction.
+     * @param step
+     *            Current step value of the reading transaction.
+     */
+    public void initFetch(final long ts, final int step) {
+      _status = null;
+      _ts = ts;
+      _step = step;
+      _usage = Usage.FETCH;
+    }
+
     public int getOffset() {
       return _foundOffset;
     }
@@ -206,10 +225,9 @@ public class Exchange implements ReadOnlyExchange {
       try {
         switch (_usage) {
           case FETCH:
-            final long ts = _status != null ? _status.getTs() : READ_COMMITTED_TS;
-            final long status = _ti.commitStatus(version, ts, _step);
+            final long status = _ti.commitStatus(version, _ts, _step);
             if (status >= 0 && status != TransactionStatus.UNCOMMITTED && status >= _foundVersion) {
-              assert status <= ts;
+              assert status <= _ts;
               final int step = TransactionIndex.vh2step(version);
               if (step >= _foundStep || status > _foundVersion) {
                 _foundOffset = offset;
@@ -254,12 +272,31 @@ public class Exchange implements ReadOnlyExchange {
    */
   final static int MAX_WALK_RIGHT = 50;
 
+  /**
+   * Number of consecutive moves from a data page to its right sibling after
+   * which a traversal is treated as a sequential scan
+   */
+  private final static int READ_AHEAD_THRESHOLD = 2;
+
+  /**
+   * Read-ahead distance, in pages, of the first request issued for a
+   * sequential scan. Each subsequent request doubles the distance up to the
+   * buffer pool's maximum.
+   */
+  private final static int MINIMUM_READ_AHEAD = 4;
+
   private final static int LEFT_CLAIMED = 1;
 
   private final static int RIGHT_CLAIMED = 2;
 
   private final static int VERSIONS_OUT_OF_ORDER_RETRY_COUNT = 3;
 
+  private final static int VERSION_NOT_VISIBLE = -1;
+
+  private final static int VERSION_REPLACED = 0;
+
+  private final static int VERSION_ADDED = 1;
+
   private Persistit _persistit;
 
   private final Key _key;
@@ -274,6 +311,18 @@ public class Exchange implements ReadOnlyExchange {
 
   private volatile long _cachedTreeGeneration = -1;
   private volatile int _cacheDepth = 0;
+  /**
+   * Written before validating an optimistic page read; see
+   * {@link #validateOptimistic(Buffer, long)}.
+   */
+  private volatile long _optimisticFence;
+
+  private final BufferPool.ReadAheadRequest _readAheadRequest = new BufferPool.ReadAheadRequest();
+  private final BufferPool.ReadAheadRequest _prefetchRequest = new BufferPool.ReadAheadRequest();
+  private long _readAheadExpectedPage;
+  private int _readAheadSequence;
+  private int _readAheadCountdown;
+  private int _readAheadDepth;
 
   private Key _spareKey1;
   private Key _spareKey2;
@@ -1186,14 +1235,65 @@ public class Exchange implements ReadOnlyExchange {
     long oldPageAddress = pageAddress;
     Debug.$assert0.t(pageAddress != 0);
 
+    Buffer claimed = null;
     try {
-      for (currentLevel = _cacheDepth; --currentLevel >= toLevel;) {
+      //
+      // Descend through index pages already held in the level cache without
+      // claiming them. Each page is validated after its child pointer has
+      // been read, and again after the child has been stamped or claimed, so
+      // the parent is known to have still referred to the child at that
+      // point. Any failure reverts to a fully claimed descent from the root.
+      //
+      currentLevel = _cacheDepth - 1;
+      Buffer parent = null;
+      long parentStamp = -1;
+      while (currentLevel > toLevel) {
+        final LevelCache lc = _levelCache[currentLevel];
+        final Buffer buffer = lc._buffer;
+        final long stamp = buffer == null || lc._page != pageAddress ? -1 : buffer.optimisticStamp();
+        if (stamp < 0) {
+          break;
+        }
+        final long childPage = buffer.findChildPageOptimistically(_volume, pageAddress, currentLevel, key);
+        if (childPage <= 0 || childPage >= _volume.getStorage().getNextAvailablePage()
+          || !validateOptimistic(buffer, stamp)) {
+          break;
+        }
+        if (parent != null && !validateOptimistic(parent, parentStamp)) {
+          parent = null;
+          pageAddress = _tree.getRootPageAddr();
+          currentLevel = _cacheDepth - 1;
+          break;
+        }
+        if (!buffer.isTouched()) {
+          buffer.setTouched();
+        }
+        parent = buffer;
+        parentStamp = stamp;
+        oldPageAddress = pageAddress;
+        pageAddress = childPage;
+        currentLevel--;
+      }
+      if (parent != null) {
+        claimed = _pool.get(_volume, pageAddress, writer && currentLevel == toLevel, true, _timeoutMillis);
+        if (!validateOptimistic(parent, parentStamp)) {
+          claimed.release();
+          claimed = null;
+          pageAddress = _tree.getRootPageAddr();
+          currentLevel = _cacheDepth - 1;
+        }
+      }
+
+      for (; currentLevel >= toLevel; currentLevel--) {
         if (pageAddress <= 0) {
           corrupt("Volume " + _volume + " level=" + currentLevel + " page=" + pageAddress + " oldPage="
             + oldPageAddress + " key=<" + key.toString() + "> " + " invalid page address");
         }
 
-        foundAt = searchLevel(key, false, pageAddress, currentLevel, writer && currentLevel == toLevel);
+        final Buffer initialBuffer = claimed;
+        claimed = null;
+        foundAt = searchLevel(key, false, pageAddress, currentLevel, writer && currentLevel == toLevel,
+          initialBuffer);
         if (oldBuffer != null) {
           oldBuffer.releaseTouched();
           oldBuffer = null;
@@ -1235,6 +1335,9 @@ public class Exchange implements ReadOnlyExchange {
       return -1;
 
     } finally {
+      if (claimed != null) {
+        claimed.release();
+      }
       if (oldBuffer != null) {
         oldBuffer.releaseTouched();
         oldBuffer = null;
@@ -1243,6 +1346,21 @@ public class Exchange implements ReadOnlyExchange {
     }
   }
 
+  /**
+   * Validate a stamp issued by {@link Buffer#optimisticStamp()}. The
+   * preceding volatile write keeps the reads of page content made under the
+   * stamp from being reordered after the validation.
+   *
+   * @param buffer
+   * @param stamp
+   * @return <code>true</code> if the page content read under the stamp is
+   *         consistent
+   */
+  private boolean validateOptimistic(final Buffer buffer, final long stamp) {
+    _optimisticFence = stamp;
+    return buffer.validateStamp(stamp);
+  }
+
   /**
    * Search for the key in the specified page (data or index). This method
    * gets and claims the identified page. If the key is found to be after the
@@ -1267,15 +1385,30 @@ public class Exchange implements ReadOnlyExchange {
    *            current level in the tree
    * @return Encoded key location within the page.
    */
-  private int searchLevel(final Key key, final boolean edge, long pageAddress, final int currentLevel,
+  private int searchLevel(final Key key, final boolean edge, final long pageAddress, final int currentLevel,
     final boolean writer) throws PersistitException {
+    return searchLevel(key, edge, pageAddress, currentLevel, writer, null);
+  }
+
+  /**
+   * Variant of {@link #searchLevel(Key, boolean, long, int, boolean)} that
+   * starts from a Buffer already claimed by the caller.
+   *
+   * @param claimed
+   *            if not <code>null</code>, a Buffer holding
+   *            <code>pageAddress</code> on which the caller holds a claim of
+   *            the requested type. The claim is transferred to this method.
+   */
+  private int searchLevel(final Key key, final boolean edge, long pageAddress, final int currentLevel,
+    final boolean writer, Buffer claimed) throws PersistitException {
     Buffer oldBuffer = null;
     try {
       final long initialPageAddress = pageAddress; // DEBUG - debugging
                                                    // only
       long oldPageAddress = pageAddress;
       for (int rightWalk = MAX_WALK_RIGHT; rightWalk-- > 0;) {
-        Buffer buffer = null;
+        Buffer buffer = claimed;
+        claimed = null;
         if (pageAddress <= 0 || pageAddress >= _volume.getStorage().getNextAvailablePage()) {
           corrupt("Volume " + _volume + " level=" + currentLevel + " page=" + pageAddress + " previousPage="
             + oldPageAddress + " initialPage=" + initialPageAddress + " key=<" + key.toString() + ">"
@@ -1283,7 +1416,7 @@ public class Exchange implements ReadOnlyExchange {
         }
         final LevelCache lc = _levelCache[currentLevel];
 
-        if (lc._page == pageAddress) {
+        if (buffer == null && lc._page == pageAddress) {
           buffer = quicklyReclaimBuffer(lc, writer);
         }
 
@@ -1427,6 +1560,10 @@ public class Exchange implements ReadOnlyExchange {
     long newLongRecordPointer = 0;
     long newLongRecordPointerMVV = 0;
 
+    if (doMVCC) {
+      _transaction.checkWritable();
+    }
+
     final boolean isLongRecord = value.getEncodedSize() > maxSimpleValueSize;
     if (isLongRecord) {
       //
@@ -1549,85 +1686,18 @@ public class Exchange implements ReadOnlyExchange {
               }
             }
 
-            /*
-             * If the Tree is private to an active transaction, and
-             * if this is a virgin value, then we can store it
-             * primordially because if the transaction rolls back,
-             * the entire Tree will be removed.
-             */
-            if (doMVCC && (_spareValue.isDefined() || !_tree.isTransactionPrivate(true))) {
+            if (doMVCC && mustStoreVersion()) {
               valueToStore = spareValue;
-              final int valueSize = value.getEncodedSize();
-              int retries = VERSIONS_OUT_OF_ORDER_RETRY_COUNT;
-
-              for (;;) {
-                try {
-                  /*
-                   * If key didn't exist the value is truly
-                   * non-existent and not just undefined/zero
-                   * length
-                   */
-                  byte[] spareBytes = spareValue.getEncodedBytes();
-                  int spareSize;
-                  if (keyExisted) {
-                    spareSize = MVV.prune(spareBytes, 0, spareValue.getEncodedSize(),
-                      _persistit.getTransactionIndex(), false, prunedVersions);
-                    spareValue.setEncodedSize(spareSize);
-                  } else {
-                    spareSize = -1;
-                  }
-
-                  final TransactionStatus tStatus = _transaction.getTransactionStatus();
-                  final int tStep = _transaction.getStep();
-
-                  if ((options & StoreOptions.ONLY_IF_VISIBLE) != 0) {
-                    /*
-                     * Could be single visit of all versions
-                     * but current TI would still require
-                     * calls to both commitStatus() and
-                     * wwDependency()
-                     */
-                    _mvvVisitor.initInternal(tStatus, tStep, MvvVisitor.Usage.FETCH);
-                    MVV.visitAllVersions(_mvvVisitor, spareBytes, 0, spareSize);
-                    final int offset = _mvvVisitor.getOffset();
-                    if (!_mvvVisitor.foundVersion()
-                      || (_mvvVisitor.getLength() > 0 && spareBytes[offset] == MVV.TYPE_ANTIVALUE)) {
-                      // Completely done, nothing to store
-                      keyExisted = false;
-                      break mainRetryLoop;
-                    }
-                  }
-
-                  // Visit all versions for ww detection
-                  _mvvVisitor.initInternal(tStatus, tStep, MvvVisitor.Usage.STORE);
-                  MVV.visitAllVersions(_mvvVisitor, spareBytes, 0, spareSize);
-
-                  final int mvvSize = MVV.estimateRequiredLength(spareBytes, spareSize, valueSize);
-                  spareValue.ensureFit(mvvSize);
-                  spareBytes = spareValue.getEncodedBytes();
-
-                  final long versionHandle = TransactionIndex.tss2vh(
-                    _transaction.getStartTimestamp(), tStep);
-                  int storedLength = MVV.storeVersion(spareBytes, 0, spareSize, spareBytes.length,
-                    versionHandle, value.getEncodedBytes(), 0, valueSize);
-
-                  incrementMVVCount = (storedLength & MVV.STORE_EXISTED_MASK) == 0;
-                  storedLength &= MVV.STORE_LENGTH_MASK;
-                  spareValue.setEncodedSize(storedLength);
-
-                  Debug.$assert0.t(MVV.verify(_persistit.getTransactionIndex(), spareBytes, 0,
-                    storedLength));
-
-                  if (spareValue.getEncodedSize() > maxSimpleValueSize) {
-                    newLongRecordPointerMVV = getLongRecordHelper().storeLongRecord(spareValue,
-                      _transaction.isActive());
-                  }
-                  break;
-                } catch (final VersionsOutOfOrderException e) {
-                  if (--retries <= 0) {
-                    throw e;
-                  }
-                }
+              final int stored = storeVersion(spareValue, value, keyExisted, options, prunedVersions);
+              if (stored == VERSION_NOT_VISIBLE) {
+                // Completely done, nothing to store
+                keyExisted = false;
+                break mainRetryLoop;
+              }
+              incrementMVVCount = stored == VERSION_ADDED;
+              if (spareValue.getEncodedSize() > maxSimpleValueSize) {
+                newLongRecordPointerMVV = getLongRecordHelper().storeLongRecord(spareValue,
+                  _transaction.isActive());
               }
             }
           }
@@ -1801,6 +1871,194 @@ public class Exchange implements ReadOnlyExchange {
     return keyExisted;
   }
 
+  /**
+   * Store consecutive pairs of a sorted {@link WriteBatch} in the data page
+   * that received the previous pair, holding the page's writer claim from one
+   * pair to the next. This is the simple case of
+   * {@link #storeInternal(Key, Value, int, int)}: stop at the first pair that
+   * belongs on a different page, that has or would produce a long record, or
+   * that meets a write-write dependency the caller must wait for. A pair that
+   * requires a split has already been journaled and is passed to
+   * <code>storeInternal</code> with {@link StoreOptions#DONT_JOURNAL}.
+   *
+   * @return index of the first pair not stored
+   */
+  private int storeRun(final WriteBatch batch, int index, final Key key, final Value value, final int options)
+    throws PersistitException {
+    final boolean doMVCC = (options & StoreOptions.MVCC) > 0;
+    final Value spareValue = _persistit.getThreadLocalValue();
+    checkLevelCache();
+    final LevelCache lc = _levelCache[0];
+    Buffer buffer = quicklyReclaimBuffer(lc, true);
+    if (buffer == null) {
+      return index;
+    }
+    /*
+     * Emptied by Buffer.deallocatePrunedVersions after each pair is stored
+     */
+    final List<PrunedVersion> prunedVersions = new ArrayList<PrunedVersion>();
+    try {
+      for (; index < batch.size(); index++) {
+        batch.load(index, key, value);
+        final int maxSimpleValueSize = maxValueSize(key.getEncodedSize());
+        if (value.getEncodedSize() > maxSimpleValueSize) {
+          break;
+        }
+        final int foundAt = findKey(buffer, key, lc);
+        /*
+         * A key beyond the last key in the page belongs here only if this
+         * is the rightmost page of the tree. Otherwise the cached page is
+         * of no use to storeInternal either, so don't let it search the
+         * page again before descending the tree.
+         */
+        if (buffer.isBeforeLeftEdge(foundAt) || buffer.isAfterRightEdge(foundAt) && buffer.getRightSibling() != 0) {
+          lc.invalidate();
+          break;
+        }
+        final boolean keyExisted = (foundAt & EXACT_MASK) != 0;
+        if (keyExisted && buffer.fetchLongRecordPointer(foundAt) != 0) {
+          break;
+        }
+        Value valueToStore = value;
+        boolean incrementMVVCount = false;
+
+        if (doMVCC) {
+          buffer.fetch(foundAt, spareValue);
+        }
+        if (doMVCC && mustStoreVersion()) {
+          final int stored;
+          try {
+            stored = storeVersion(spareValue, value, keyExisted, options, prunedVersions);
+          } catch (final WWRetryException e) {
+            break;
+          }
+          if (stored == VERSION_NOT_VISIBLE || spareValue.getEncodedSize() > maxSimpleValueSize) {
+            break;
+          }
+          incrementMVVCount = stored == VERSION_ADDED;
+          valueToStore = spareValue;
+        }
+
+        if (!_ignoreTransactions) {
+          _transaction.store(this, key, value);
+        }
+        _rawValueWriter.init(valueToStore);
+        if (putLevel(lc, key, _rawValueWriter, buffer, foundAt, false)) {
+          buffer.releaseTouched();
+          buffer = null;
+          storeInternal(key, value, 0, options | StoreOptions.DONT_JOURNAL);
+          return index + 1;
+        }
+        if (!keyExisted) {
+          _tree.bumpChangeCount();
+        }
+        if (incrementMVVCount) {
+          _transaction.getTransactionStatus().incrementMvvCount();
+        }
+        Buffer.deallocatePrunedVersions(_persistit, _volume, prunedVersions);
+
+        _volume.getStatistics().bumpStoreCounter();
+        _tree.getStatistics().bumpStoreCounter();
+        if (doMVCC) {
+          _volume.getStatistics().bumpFetchCounter();
+          _tree.getStatistics().bumpFetchCounter();
+        }
+      }
+    } finally {
+      if (buffer != null) {
+        buffer.releaseTouched();
+      }
+    }
+    return index;
+  }
+
+  /**
+   * If the Tree is private to an active transaction, and if this is a virgin
+   * value, then we can store it primordially because if the transaction rolls
+   * back, the entire Tree will be removed.
+   */
+  private boolean mustStoreVersion() throws PersistitException {
+    return _spareValue.isDefined() || !_tree.isTransactionPrivate(true);
+  }
+
+  /**
+   * Add a version holding <code>value</code> for the current transaction and
+   * step to the MVV in <code>spareValue</code>, which holds the value now
+   * stored under the key. If the key existed the MVV is pruned first and the
+   * removed versions are added to <code>prunedVersions</code>. The caller
+   * then stores <code>spareValue</code> in place of <code>value</code>.
+   * 
+   * @return {@link #VERSION_ADDED}, {@link #VERSION_REPLACED} if the MVV
+   *         already held a version of the same transaction and step, or
+   *         {@link #VERSION_NOT_VISIBLE} if
+   *         {@link StoreOptions#ONLY_IF_VISIBLE} was specified and there is no
+   *         visible value to replace
+   * @throws WWRetryException
+   *           if the MVV holds a version of a concurrent transaction that has
+   *           not yet committed or aborted
+   */
+  private int storeVersion(final Value spareValue, final Value value, final boolean keyExisted, final int options,
+    final List<PrunedVersion> prunedVersions) throws PersistitException {
+    final int valueSize = value.getEncodedSize();
+    int retries = VERSIONS_OUT_OF_ORDER_RETRY_COUNT;
+
+    for (;;) {
+      try {
+        /*
+         * If key didn't exist the value is truly non-existent and not just
+         * undefined/zero length
+         */
+        byte[] spareBytes = spareValue.getEncodedBytes();
+        int spareSize;
+        if (keyExisted) {
+          spareSize = MVV.prune(spareBytes, 0, spareValue.getEncodedSize(), _persistit.getTransactionIndex(), false,
+            prunedVersions);
+          spareValue.setEncodedSize(spareSize);
+        } else {
+          spareSize = -1;
+        }
+
+        final TransactionStatus tStatus = _transaction.getTransactionStatus();
+        final int tStep = _transaction.getStep();
+
+        if ((options & StoreOptions.ONLY_IF_VISIBLE) != 0) {
+          /*
+           * Could be single visit of all versions but current TI would still
+           * require calls to both commitStatus() and wwDependency()
+           */
+          _mvvVisitor.initInternal(tStatus, tStep, MvvVisitor.Usage.FETCH);
+          MVV.visitAllVersions(_mvvVisitor, spareBytes, 0, spareSize);
+          final int offset = _mvvVisitor.getOffset();
+          if (!_mvvVisitor.foundVersion()
+            || (_mvvVisitor.getLength() > 0 && spareBytes[offset] == MVV.TYPE_ANTIVALUE)) {
+            return VERSION_NOT_VISIBLE;
+          }
+        }
+
+        // Visit all versions for ww detection
+        _mvvVisitor.initInternal(tStatus, tStep, MvvVisitor.Usage.STORE);
+        MVV.visitAllVersions(_mvvVisitor, spareBytes, 0, spareSize);
+
+        final int mvvSize = MVV.estimateRequiredLength(spareBytes, spareSize, valueSize);
+        spareValue.ensureFit(mvvSize);
+        spareBytes = spareValue.getEncodedBytes();
+
+        final long versionHandle = TransactionIndex.tss2vh(_transaction.getStartTimestamp(), tStep);
+        final int storedLength = MVV.storeVersion(spareBytes, 0, spareSize, spareBytes.length, versionHandle,
+          value.getEncodedBytes(), 0, valueSize);
+        final int storedSize = storedLength & MVV.STORE_LENGTH_MASK;
+        spareValue.setEncodedSize(storedSize);
+
+        Debug.$assert0.t(MVV.verify(_persistit.getTransactionIndex(), spareBytes, 0, storedSize));
+        return (storedLength & MVV.STORE_EXISTED_MASK) == 0 ? VERSION_ADDED : VERSION_REPLACED;
+      } catch (final VersionsOutOfOrderException e) {
+        if (--retries <= 0) {
+          throw e;
+        }
+      }
+    }
+  }
+
   private long timestamp() {
     return _persistit.getTimestampAllocator().updateTimestamp();
   }
@@ -1938,6 +2196,40 @@ public class Exchange implements ReadOnlyExchange {
     }
   }
 
+  /**
+   * Called when a traversal moves from a data page to its right sibling.
+   * After {@value #READ_AHEAD_THRESHOLD} such moves in succession, ask the
+   * buffer pool to read the following pages in the background. The
+   * read-ahead distance starts at {@value #MINIMUM_READ_AHEAD} pages and
+   * doubles with each request, and a new request is made when the scan has
+   * consumed half of the previous one.
+   *
+   * @param buffer
+   *            the data page the traversal has just reached
+   */
+  private void readAhead(final Buffer buffer) {
+    if (buffer.getPageAddress() == _readAheadExpectedPage) {
+      _readAheadSequence++;
+    } else {
+      _readAheadSequence = 0;
+      _readAheadCountdown = 0;
+      _readAheadDepth = 0;
+    }
+    _readAheadExpectedPage = buffer.getRightSibling();
+    if (_readAheadSequence < READ_AHEAD_THRESHOLD || --_readAheadCountdown > 0 || _cacheDepth < 2) {
+      return;
+    }
+    final int maximum = _pool.getMaximumReadAhead();
+    final int depth = Math.min(maximum, _readAheadDepth == 0 ? MINIMUM_READ_AHEAD : _readAheadDepth * 2);
+    if (depth > 0
+      && _readAheadRequest.set(_volume, _readAheadDepth == 0 ? _levelCache[1]._page : 0, buffer.getPageAddress(),
+        depth)
+      && _pool.readAhead(_readAheadRequest)) {
+      _readAheadDepth = depth;
+      _readAheadCountdown = Math.max(1, depth / 2);
+    }
+  }
+
   private Buffer quicklyReclaimBuffer(final LevelCache lc, final boolean writer) throws PersistitException {
     final Buffer buffer = lc._buffer;
     if (buffer == null)
@@ -2191,6 +2483,7 @@ public class Exchange implements ReadOnlyExchange {
               //
               buffer = rightSibling;
               checkPageType(buffer, PAGE_TYPE_DATA, false);
+              readAhead(buffer);
               foundAt = buffer.traverse(_key, dir, buffer.toKeyBlock(0));
               matches = !buffer.isAfterRightEdge(foundAt);
             } else {
@@ -2748,6 +3041,58 @@ public class Exchange implements ReadOnlyExchange {
     return store(_key, _value);
   }
 
+  /**
+   * <p>
+   * Insert or replace every key/value pair held in the supplied
+   * {@link WriteBatch} in this <code>Exchange</code>'s <code>Tree</code>. The
+   * result is the same as invoking {@link #store()} for each pair in
+   * ascending key order; in particular, within a transaction each pair is
+   * subject to the same MVCC conflict detection and is journaled in the same
+   * way. Neither the <code>Key</code> nor the <code>Value</code> of this
+   * <code>Exchange</code> is modified.
+   * </p>
+   * <p>
+   * The pairs are sorted by encoded key. After a pair has been stored, the
+   * following pairs that fall within the same data page are stored while that
+   * page remains claimed, without searching the tree again. A pair that
+   * belongs on another page, that requires the page to be split, or whose
+   * value must be stored as a long record, is stored individually.
+   * </p>
+   *
+   * @param batch
+   *            the key/value pairs to store
+   * @return This <code>Exchange</code> to permit method call chaining
+   * @throws PersistitException
+   */
+  public Exchange store(final WriteBatch batch) throws PersistitException {
+    assertCorrectThread(true);
+    _persistit.checkClosed();
+    if (_volume.isReadOnly()) {
+      throw new ReadOnlyVolumeException(_volume.toString());
+    }
+    final Key key = batch.getKey(_persistit);
+    final Value value = batch.getValue(_persistit);
+    batch.sort();
+    for (int index = 0; index < batch.size(); index++) {
+      batch.loadKey(index, key);
+      key.testValidForStoreAndFetch(_volume.getPageSize());
+    }
+    if (!isDirectoryExchange()) {
+      _persistit.checkSuspended();
+    }
+    int options = StoreOptions.WAIT;
+    options |= (!_ignoreTransactions && _transaction.isActive()) ? StoreOptions.MVCC : 0;
+    int index = 0;
+    while (index < batch.size()) {
+      throttle();
+      batch.load(index, key, value);
+      storeInternal(key, value, 0, options);
+      index = storeRun(batch, index + 1, key, value, options);
+    }
+    _treeHolder.verifyReleased();
+    return this;
+  }
+
   /**
    * Invoke {@link #lock(Key, long)} with the current key and a default
    * timeout value of
@@ -2804,22 +3149,20 @@ public class Exchange implements ReadOnlyExchange {
    * successfully execute the call to {@link #lock()}.
    * </p>
    * <p>
-   * This method works by writing a short value associated with the provided
-   * key into a temporary volume (accessible through the
-   * {@link Persistit#getLockVolume()} method). The value is removed through
-   * the normal pruning process soon after the all potentially conflicting
-   * transactions have either rolled back or committed.
+   * This method works by recording the key, together with the start timestamp
+   * of the transaction, in an in-memory lock table; nothing is written to any
+   * volume or to the journal. A lock held by a transaction that commits is
+   * retained until there are no longer any concurrent transactions that could
+   * conflict with it. A lock held by a transaction that rolls back no longer
+   * conflicts with any other transaction.
    * </p>
    * <p>
-   * All of these interactions are performed through the normal MVCC
-   * transaction mechanism. This method differs from the {@link #store()}
-   * method only in that the {@link Tree} to which a value is written is
-   * located in a reserved temporary volume and is therefore normally not
-   * written to disk. The key is removed by pruning once there is are no
-   * longer any concurrent transactions that could conflict with it.
+   * Conflicts are resolved through the normal MVCC transaction mechanism,
+   * exactly as if the lock were a value version written by the
+   * {@link #store()} method.
    * </p>
    * <p>
-   * As part of the normal MVCC process, if this method detects a potentially
+   * As in the normal MVCC process, if this method detects a potentially
    * conflicting lock written by another active concurrent transaction, this
    * transaction waits until the other transaction either commits or aborts,
    * or until the timeout interval expires. To prevent an unbounded wait time
@@ -2849,20 +3192,10 @@ public class Exchange implements ReadOnlyExchange {
     if (!_transaction.isActive()) {
       throw new IllegalStateException("No active transaction scope");
     }
-    final Exchange lockExchange = _persistit.getExchange(_persistit.getLockVolume(), _tree.getName(), true);
-    /**
-     * Lock table trees need tree handles for pruning
-     */
-    _persistit.getJournalManager().handleForTree(lockExchange.getTree());
-    lockExchange.setTimeoutMillis(timeout);
-    lockKey.copyTo(lockExchange.getKey());
-    lockExchange.getKey().testValidForStoreAndFetch(_pool.getBufferSize());
-    lockExchange.getValue().clear().putAntiValueMVV();
-    final int options = StoreOptions.WAIT | StoreOptions.DONT_JOURNAL | StoreOptions.MVCC;
-    lockExchange.storeInternal(lockExchange.getKey(), lockExchange.getValue(), 0, options);
-    final long page = lockExchange._levelCache[0]._page;
-    _transaction.addLockPage(page, lockExchange.getTree().getHandle());
-    _persistit.releaseExchange(lockExchange);
+    _transaction.checkWritable();
+    Util.rangeCheck(timeout, 0, Long.MAX_VALUE);
+    lockKey.testValidForStoreAndFetch(_pool.getBufferSize());
+    _persistit.getKeyLockTable().lock(_transaction, _tree, lockKey, timeout);
   }
 
   /**
@@ -2989,16 +3322,11 @@ public class Exchange implements ReadOnlyExchange {
    *             for any internal error
    */
   private boolean mvccFetch(final Value value, final int minimumBytes) throws PersistitException {
-    final TransactionStatus status;
-    final int step;
     if (_transaction.isActive()) {
-      status = _transaction.getTransactionStatus();
-      step = _transaction.getStep();
+      _mvvVisitor.initFetch(_transaction.getStartTimestamp(), _transaction.getStep());
     } else {
-      status = null;
-      step = 0;
+      _mvvVisitor.initInternal(null, 0, MvvVisitor.Usage.FETCH);
     }
-    _mvvVisitor.initInternal(status, step, MvvVisitor.Usage.FETCH);
 
     final int valueSize = value.getEncodedSize();
     final byte[] valueBytes = value.getEncodedBytes();
@@ -3059,6 +3387,184 @@ public class Exchange implements ReadOnlyExchange {
     return this;
   }
 
+  /**
+   * <p>
+   * Fetches the values associated with several keys. On completion
+   * <code>values[i]</code> reflects the value associated with
+   * <code>keys[i]</code> exactly as if {@link #fetch(Value)} had been invoked
+   * for each key in turn; if there is no value associated with a key then
+   * {@link Value#isDefined} is false. Neither the <code>Key</code> nor the
+   * <code>Value</code> of this <code>Exchange</code> is modified.
+   * </p>
+   * <p>
+   * The keys are visited in ascending order. The tree is searched for the
+   * first key and for each key that falls outside the data page holding the
+   * previous one; the values of the keys between are read from the same page
+   * under one claim. If read-ahead is enabled in the {@link BufferPool}, the
+   * data pages the following keys will need are identified in their parent
+   * index page and those not already in the pool are read in the background
+   * while the current page is processed.
+   * </p>
+   *
+   * @param keys
+   *            the keys to fetch; the same key may appear more than once
+   * @param values
+   *            the <code>Value</code> objects into which the database values
+   *            should be fetched, one for each key
+   *
+   * @return This <code>Exchange</code> to permit method call chaining
+   * @throws PersistitException
+   */
+  public Exchange fetch(final Key[] keys, final Value[] values) throws PersistitException {
+    assertCorrectThread(true);
+    _persistit.checkClosed();
+    if (keys.length != values.length) {
+      throw new IllegalArgumentException("Fetching " + keys.length + " keys into " + values.length + " values");
+    }
+    for (final Key key : keys) {
+      key.testValidForStoreAndFetch(_volume.getPageSize());
+    }
+    final int[] order = sortKeys(keys);
+    long prefetchedParent = -1;
+    int index = 0;
+    while (index < keys.length) {
+      Buffer buffer = null;
+      try {
+        /*
+         * After the first key, the page cached at level 0 is already known
+         * not to hold the key, so descend the tree directly.
+         */
+        final long misses = _pool.getMissCounter();
+        final Key key = keys[order[index]];
+        final int foundAt = index == 0 ? search(key, false) : searchTree(key, 0, false);
+        buffer = _levelCache[0]._buffer;
+        /*
+         * Read ahead only once the descent has had to read a page, so that
+         * a fetch of resident pages does not pay for it.
+         */
+        if (index + 1 < keys.length && _pool.getMissCounter() != misses && _cacheDepth > 1
+          && _levelCache[1]._page != prefetchedParent && _pool.getMaximumReadAhead() > 0) {
+          prefetchedParent = _levelCache[1]._page;
+          prefetchDataPages(keys, order, index + 1);
+        }
+        fetchFromBufferInternal(buffer, values[order[index]], foundAt, Integer.MAX_VALUE);
+        _volume.getStatistics().bumpFetchCounter();
+        _tree.getStatistics().bumpFetchCounter();
+        /*
+         * Fetch the following keys from the same page for as long as they
+         * fall within it. A key beyond the last key in the page belongs here
+         * only if this is the rightmost page of the tree.
+         */
+        for (index++; index < keys.length; index++) {
+          final int at = buffer.findKey(keys[order[index]]);
+          if (buffer.isBeforeLeftEdge(at) || buffer.isAfterRightEdge(at) && buffer.getRightSibling() != 0) {
+            break;
+          }
+          fetchFromBufferInternal(buffer, values[order[index]], at, Integer.MAX_VALUE);
+          _volume.getStatistics().bumpFetchCounter();
+          _tree.getStatistics().bumpFetchCounter();
+        }
+      } finally {
+        if (buffer != null) {
+          buffer.releaseTouched();
+        }
+        _treeHolder.verifyReleased();
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return the positions of the supplied keys in ascending key order. Most
+   *         pairs of keys are ordered by their first eight bytes alone.
+   */
+  private static int[] sortKeys(final Key[] keys) {
+    final int[] order = new int[keys.length];
+    final long[] prefixes = new long[keys.length];
+    boolean sorted = true;
+    for (int index = 0; index < keys.length; index++) {
+      final byte[] bytes = keys[index].getEncodedBytes();
+      final int size = keys[index].getEncodedSize();
+      long prefix = 0;
+      for (int i = 0; i < 8; i++) {
+        prefix = prefix << 8 | (i < size ? bytes[i] & 0xFF : 0);
+      }
+      order[index] = index;
+      prefixes[index] = prefix ^ Long.MIN_VALUE;
+      sorted &= index == 0 || compareKeys(keys, prefixes, index - 1, index) <= 0;
+    }
+    if (!sorted) {
+      mergeSortKeys(keys, prefixes, order.clone(), order, 0, keys.length);
+    }
+    return order;
+  }
+
+  private static void mergeSortKeys(final Key[] keys, final long[] prefixes, final int[] from, final int[] to,
+    final int low, final int high) {
+    if (high - low < 2) {
+      return;
+    }
+    final int middle = (low + high) >>> 1;
+    mergeSortKeys(keys, prefixes, to, from, low, middle);
+    mergeSortKeys(keys, prefixes, to, from, middle, high);
+    for (int index = low, left = low, right = middle; index < high; index++) {
+      if (right >= high || left < middle && compareKeys(keys, prefixes, from[left], from[right]) <= 0) {
+        to[index] = from[left++];
+      } else {
+        to[index] = from[right++];
+      }
+    }
+  }
+
+  private static int compareKeys(final Key[] keys, final long[] prefixes, final int index1, final int index2) {
+    if (prefixes[index1] != prefixes[index2]) {
+      return prefixes[index1] < prefixes[index2] ? -1 : 1;
+    }
+    return keys[index1].compareTo(keys[index2]);
+  }
+
+  /**
+   * Queue a background read of the data pages that the keys from
+   * <code>order[index]</code> onward will visit, as far as they can be found
+   * in the index page cached at level 1, skipping pages already in the
+   * buffer pool. Read-ahead is advisory, so nothing is done if the index page
+   * is not immediately available.
+   */
+  private void prefetchDataPages(final Key[] keys, final int[] order, int index) throws PersistitException {
+    final Buffer parent = quicklyReclaimBuffer(_levelCache[1], false);
+    if (parent == null) {
+      return;
+    }
+    final long[] pages = new long[_pool.getMaximumReadAhead()];
+    int count = 0;
+    try {
+      long previous = -1;
+      for (; index < keys.length && count < pages.length; index++) {
+        final int foundAt = parent.findKey(keys[order[index]]);
+        if (parent.isAfterRightEdge(foundAt)) {
+          break;
+        }
+        if (parent.isBeforeLeftEdge(foundAt)) {
+          continue;
+        }
+        int p = foundAt & P_MASK;
+        if ((foundAt & EXACT_MASK) == 0) {
+          p -= KEYBLOCK_LENGTH;
+        }
+        final long page = parent.getPointer(p);
+        if (page != previous && !_pool.isResident(_volume, page)) {
+          pages[count++] = page;
+        }
+        previous = page;
+      }
+    } finally {
+      parent.release();
+    }
+    if (count > 0 && _prefetchRequest.set(_volume, pages, count)) {
+      _pool.readAhead(_prefetchRequest);
+    }
+  }
+
   /**
    * Helper for fully pulling a value out of a Buffer. That is, if the value
    * is a LONG_RECORD it will also be fetched.
@@ -4057,7 +4563,7 @@ public class Exchange implements ReadOnlyExchange {
       if (at > 0) {
         final int offset = (int) (at >>> 32);
         final int size = (int) at;
-        if (size == 1 && buffer.getBytes()[offset] == MVV.TYPE_ANTIVALUE) {
+        if (size == 1 && buffer.getByte(offset) == MVV.TYPE_ANTIVALUE) {
           buffer.nextKey(_spareKey3, Buffer.KEY_BLOCK_START);
           buffer.release();
           buffer = null;
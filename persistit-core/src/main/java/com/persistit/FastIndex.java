@@ -147,9 +147,11 @@ class FastIndex {
      */
     private final short[] _findexElements;
     /**
-     * Indicates whether the _findexElements array is valid
+     * Indicates whether the _findexElements array is valid. Volatile so that
+     * a thread reading the page optimistically, without a claim, sees the
+     * elements written by the thread that recomputed them.
      */
-    private boolean _isValid;
+    private volatile boolean _isValid;
 
     /**
      * The buffer this fast index is associated with.
@@ -73,8 +73,9 @@ class IOMeter implements IOMeterMXBean {
     private final static int EVICT_PAGE_FROM_POOL = 8;
     private final static int FLUSH_JOURNAL = 9;
     private final static int GET_PAGE = 10;
+    private final static int PREFETCH_PAGE = 11;
 
-    private final static int ITEM_COUNT = 11;
+    private final static int ITEM_COUNT = 12;
 
     private long _quiescentIOthreshold = DEFAULT_QUIESCENT_IO_THRESHOLD_KBYTES_PER_SEC;
 
@@ -91,6 +92,8 @@ class IOMeter implements IOMeterMXBean {
 
     volatile int _currentBucket;
 
+    private volatile int _readAheadDepth;
+
     private static class Counter {
         AtomicLong _count = new AtomicLong();
         AtomicLong _sum = new AtomicLong();
@@ -357,6 +360,17 @@ class IOMeter implements IOMeterMXBean {
         log(GET_PAGE, volume, pageAddress, size, 0, bufferIndex);
     }
 
+    public void chargePrefetchPage(final Volume volume, final long pageAddress, final int size, final int depth) {
+        _readAheadDepth = depth;
+        log(PREFETCH_PAGE, volume, pageAddress, size, 0, depth);
+        charge(size, PREFETCH_PAGE);
+    }
+
+    @Override
+    public int getReadAheadDepth() {
+        return _readAheadDepth;
+    }
+
     @Override
     public long totalOperations(final String opName) {
         return totalOperations(op(opName));
@@ -405,7 +419,8 @@ class IOMeter implements IOMeterMXBean {
      * during a recent time interval. This measurement does not include journal
      * copying because this method is used by the journal copier to determine
      * how frequently to schedule its own activities without interfering
-     * severely with current operational load.
+     * severely with current operational load. Prefetched pages are excluded
+     * because they are already counted as page reads.
      * 
      * @return
      */
@@ -420,7 +435,7 @@ class IOMeter implements IOMeterMXBean {
                 break;
             }
             for (int item = 0; item < ITEM_COUNT; item++) {
-                if (item != COPY_PAGE_TO_VOLUME) {
+                if (item != COPY_PAGE_TO_VOLUME && item != PREFETCH_PAGE) {
                     charge += _counters[item][bucket].sum();
                 }
             }
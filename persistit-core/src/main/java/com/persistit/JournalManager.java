@@ -25,24 +25,33 @@ import static com.persistit.util.Util.NS_PER_MS;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import com.persistit.AlertMonitor.AlertLevel;
 import com.persistit.AlertMonitor.Event;
@@ -53,7 +62,11 @@ import com.persistit.JournalRecord.IV;
 import com.persistit.JournalRecord.JE;
 import com.persistit.JournalRecord.JH;
 import com.persistit.JournalRecord.PA;
+import com.persistit.JournalRecord.PD;
+import com.persistit.JournalRecord.PI;
 import com.persistit.JournalRecord.PM;
+import com.persistit.JournalRecord.PZ;
+import com.persistit.JournalRecord.TI;
 import com.persistit.JournalRecord.TM;
 import com.persistit.JournalRecord.TX;
 import com.persistit.Persistit.FatalErrorException;
@@ -89,18 +102,73 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     private final static int TOO_MANY_ERROR_THRESHOLD = 10;
     private final static long KILO = 1024;
 
+    /**
+     * A page delta is written only if it is no larger than the full page
+     * record divided by this value; otherwise a new full image is written and
+     * becomes the base for subsequent deltas.
+     */
+    final static int PAGE_DELTA_SIZE_DIVISOR = 4;
+
     /**
      * REGEX expression that recognizes the name of a journal file.
      */
     final static Pattern PATH_PATTERN = Pattern.compile("(.+)\\.(\\d{12})");
 
+    /**
+     * REGEX expression that recognizes the name of a spare journal file. The
+     * suffix ".tmp" marks a file that has not yet been zero-filled.
+     */
+    final static Pattern SPARE_PATH_PATTERN = Pattern.compile("(.+)\\.spare(\\d+)(\\.tmp)?");
+
+    /**
+     * Format expression defining the name of a spare journal file.
+     */
+    final static String SPARE_PATH_FORMAT = "%s.spare%d%s";
+
     private long _journalCreatedTime;
 
-    private final Map<PageNode, PageNode> _pageMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _pageMap = new PageMap();
 
     private final RangeRemovingArrayList<PageNode> _pageList = new RangeRemovingArrayList<PageNode>();
 
-    private final Map<PageNode, PageNode> _branchMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _branchMap = new PageMap();
+
+    /**
+     * Pages whose history has changed since the most recent PM or PI record
+     * was written. The journal address of each entry is 0 if the page was
+     * represented in that record, or -1 if it was not.
+     */
+    private final PageMap _changedPages = new PageMap();
+
+    /**
+     * Start timestamps of transactions represented in the most recent TM or TI
+     * record that have since been removed from the live transaction map.
+     */
+    private final List<Long> _removedTransactions = new ArrayList<Long>();
+
+    /**
+     * Journal address of the most recent PM or PI record, or -1 if none has
+     * been written
+     */
+    private long _pageMapAddress = -1;
+
+    /**
+     * Journal address of the PM record on which the most recent PI record is
+     * based
+     */
+    private long _pageMapBaseAddress = -1;
+
+    /**
+     * Count of page entries written in the PI records since the most recent PM
+     * record
+     */
+    private long _pageMapIncrementSize;
+
+    private long _transactionMapAddress = -1;
+
+    private long _transactionMapBaseAddress = -1;
+
+    private long _transactionMapIncrementSize;
 
     private final Map<Volume, Integer> _volumeToHandleMap = new HashMap<Volume, Integer>();
 
@@ -149,6 +217,42 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      */
     private volatile long _currentAddress;
 
+    private final static AtomicLongFieldUpdater<JournalManager> CURRENT_ADDRESS_UPDATER = AtomicLongFieldUpdater
+            .newUpdater(JournalManager.class, "_currentAddress");
+
+    /**
+     * Governs the write buffer. Its value is the count of threads appending
+     * records in parallel, each of which reserves space by advancing
+     * _currentAddress and then copies a record into it. A thread holding the
+     * monitor that needs to flush, move or otherwise rearrange the write buffer
+     * adds {@link #APPENDS_CLOSED}, turning the value negative so that no
+     * further appends start, and then waits for those in progress to finish.
+     * It therefore sees only fully copied records.
+     */
+    private final AtomicInteger _appenders = new AtomicInteger();
+
+    private final static int APPENDS_CLOSED = Integer.MIN_VALUE;
+
+    /**
+     * Nesting depth of {@link #lockWriteBuffer()} calls; guarded by the monitor
+     */
+    private int _writeBufferLockCount;
+
+    /**
+     * Journal address beyond which records cannot be appended in parallel,
+     * either because the write buffer is full or because the journal file
+     * ends there. -1 if the write buffer is not ready.
+     */
+    private volatile long _appendLimitAddress = -1;
+
+    /**
+     * Page and transaction records appended in parallel whose entries have
+     * not yet been added to the page map and live transaction map
+     */
+    private final Queue<AppendedPage> _appendedPages = new ConcurrentLinkedQueue<AppendedPage>();
+
+    private final Queue<AppendedTransaction> _appendedTransactions = new ConcurrentLinkedQueue<AppendedTransaction>();
+
     /**
      * Smallest journal address at which a record still needed is located.
      * Initially zero, increases as journal files are consumed and deleted.
@@ -162,7 +266,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      */
     private int _handleCounter = 0;
 
-    private Checkpoint _lastValidCheckpoint = new Checkpoint(0, 0);
+    private volatile Checkpoint _lastValidCheckpoint = new Checkpoint(0, 0);
 
     private long _lastValidCheckpointJournalAddress = 0;
 
@@ -174,10 +278,24 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private boolean _isNewEpoch = true;
 
-    private volatile long _writePageCount = 0;
+    private final AtomicLong _writePageCount = new AtomicLong();
+
+    private final AtomicLong _pageDeltaCount = new AtomicLong();
+
+    private final AtomicLong _compressedPageCount = new AtomicLong();
+
+    private final AtomicLong _compressedPageBytes = new AtomicLong();
+
+    private final AtomicLong _uncompressedPageBytes = new AtomicLong();
+
+    private final AtomicLong _pageCompressionTime = new AtomicLong();
+
+    private final AtomicLong _pageDecompressionTime = new AtomicLong();
 
     private volatile long _readPageCount = 0;
 
+    private volatile JournalPageCache _pageCache = new JournalPageCache(DEFAULT_PAGE_CACHE_SIZE);
+
     private volatile long _copiedPageCount = 0;
 
     private volatile long _droppedPageCount = 0;
@@ -192,6 +310,26 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private volatile long _flushInterval = DEFAULT_FLUSH_INTERVAL_MS;
 
+    private volatile int _spareJournalFiles = DEFAULT_SPARE_JOURNAL_FILES;
+
+    /**
+     * Zero-filled journal files of full size ready to become the next journal
+     * file; guarded by the monitor
+     */
+    private final Deque<File> _readySpareFiles = new ArrayDeque<File>();
+
+    /**
+     * Recycled or leftover spare journal files that must be zero-filled before
+     * use; guarded by the monitor
+     */
+    private final List<File> _pendingSpareFiles = new ArrayList<File>();
+
+    /**
+     * Suffix number for the next spare journal file name; guarded by the
+     * monitor
+     */
+    private int _spareFileCounter;
+
     private volatile long _slowIoAlertThreshold = DEFAULT_SLOW_IO_ALERT_THRESHOLD_MS;
 
     private final TransactionPlayer _player = new TransactionPlayer(new JournalTransactionPlayerSupport());
@@ -204,6 +342,14 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private final AtomicBoolean _rollbackPruning = new AtomicBoolean(true);
 
+    private final AtomicBoolean _pageDeltas = new AtomicBoolean();
+
+    private final AtomicBoolean _pageCompression = new AtomicBoolean();
+
+    private final Queue<PageCompressor> _compressors = new ConcurrentLinkedQueue<PageCompressor>();
+
+    private final Queue<Inflater> _inflaters = new ConcurrentLinkedQueue<Inflater>();
+
     /*
      * Tunable parameters that determine how vigorously the copyBack thread
      * performs I/O. Hopefully we can set good defaults and not expose these as
@@ -213,6 +359,8 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private volatile int _copiesPerCycle = DEFAULT_COPIES_PER_CYCLE;
 
+    private volatile int _copierThreads = DEFAULT_COPIER_THREADS;
+
     private volatile long _copierTimestampLimit = Long.MAX_VALUE;
 
     private volatile long _earliestCommittedTimestamp = Long.MAX_VALUE;
@@ -259,7 +407,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      */
     public synchronized void init(final RecoveryManager rman, final String path, final long maximumSize)
             throws PersistitException {
-        _writeBuffer = ByteBuffer.allocate(_writeBufferSize);
+        _writeBuffer = allocateWriteBuffer(_writeBufferSize);
         if (rman != null && rman.getKeystoneAddress() != -1) {
             _journalFilePath = rman.getJournalFilePath();
             _blockSize = rman.getBlockSize();
@@ -302,7 +450,13 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     public void startJournal() throws PersistitException {
         synchronized (this) {
-            prepareWriteBuffer(JH.OVERHEAD);
+            findSpareJournalFiles();
+            lockWriteBuffer();
+            try {
+                prepareWriteBuffer(JH.OVERHEAD);
+            } finally {
+                unlockWriteBuffer();
+            }
         }
         _flusher = new JournalFlusher();
         _copier = new JournalCopier();
@@ -317,6 +471,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @param info
      */
     public synchronized void populateJournalInfo(final Management.JournalInfo info) {
+        drainAppends();
         info.closed = _closed.get();
         if (_blockSize == 0) {
             return;
@@ -325,10 +480,10 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         info.droppedPageCount = _droppedPageCount;
         info.copying = _copying.get();
         info.currentGeneration = _currentAddress;
-        info.currentJournalAddress = _writeBuffer == null ? 0 : _writeBufferAddress + _writeBuffer.position();
+        info.currentJournalAddress = _writeBuffer == null ? 0 : _currentAddress;
         info.currentJournalFile = addressToFile(_currentAddress).getPath();
         info.flushing = _flushing.get();
-        info.journaledPageCount = _writePageCount;
+        info.journaledPageCount = _writePageCount.get();
         info.readPageCount = _readPageCount;
         if (_lastValidCheckpointJournalAddress != 0) {
             info.lastValidCheckpointSystemTime = _lastValidCheckpoint.getSystemTimeMillis();
@@ -350,16 +505,19 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     @Override
     public synchronized int getLiveTransactionMapSize() {
+        drainAppends();
         return _liveTransactionMap.size();
     }
 
     @Override
     public synchronized int getPageMapSize() {
+        drainAppends();
         return _pageMap.size();
     }
 
     @Override
     public synchronized int getPageListSize() {
+        drainAppends();
         return _pageList.size();
     }
 
@@ -418,6 +576,39 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         _flusher.setPollInterval(flushInterval);
     }
 
+    @Override
+    public int getSpareJournalFiles() {
+        return _spareJournalFiles;
+    }
+
+    @Override
+    public void setSpareJournalFiles(final int spareJournalFiles) {
+        _spareJournalFiles = Util.rangeCheck(spareJournalFiles, 0, MAXIMUM_SPARE_JOURNAL_FILES);
+    }
+
+    @Override
+    public synchronized int getReadySpareJournalFileCount() {
+        return _readySpareFiles.size();
+    }
+
+    @Override
+    public int getPageCacheSize() {
+        return _pageCache.size();
+    }
+
+    @Override
+    public void setPageCacheSize(final int pageCacheSize) {
+        Util.rangeCheck(pageCacheSize, 0, MAXIMUM_PAGE_CACHE_SIZE);
+        if (pageCacheSize != _pageCache.size()) {
+            _pageCache = new JournalPageCache(pageCacheSize);
+        }
+    }
+
+    @Override
+    public long getPageCacheHitCount() {
+        return _pageCache.getHitCount();
+    }
+
     @Override
     public long getCopierInterval() {
         return _copier.getPollInterval();
@@ -428,6 +619,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         _copier.setPollInterval(copierInterval);
     }
 
+    @Override
+    public int getCopierThreads() {
+        return _copierThreads;
+    }
+
+    @Override
+    public void setCopierThreads(final int copierThreads) {
+        _copierThreads = Util.rangeCheck(copierThreads, 1, MAXIMUM_COPIER_THREADS);
+    }
+
     @Override
     public void setRollbackPruningEnabled(final boolean rollbackPruning) {
         _rollbackPruning.set(rollbackPruning);
@@ -438,6 +639,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         _writePagePruning.set(writePruning);
     }
 
+    @Override
+    public void setPageDeltasEnabled(final boolean pageDeltas) {
+        _pageDeltas.set(pageDeltas);
+    }
+
+    @Override
+    public void setPageCompressionEnabled(final boolean pageCompression) {
+        _pageCompression.set(pageCompression);
+    }
+
     public JournalManager(final Persistit persistit) {
         _persistit = persistit;
     }
@@ -462,6 +673,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _writePagePruning.get();
     }
 
+    @Override
+    public boolean isPageDeltasEnabled() {
+        return _pageDeltas.get();
+    }
+
+    @Override
+    public boolean isPageCompressionEnabled() {
+        return _pageCompression.get();
+    }
+
     @Override
     public String getJournalFilePath() {
         return _journalFilePath;
@@ -469,7 +690,33 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     @Override
     public long getJournaledPageCount() {
-        return _writePageCount;
+        return _writePageCount.get();
+    }
+
+    @Override
+    public long getPageDeltaCount() {
+        return _pageDeltaCount.get();
+    }
+
+    @Override
+    public long getCompressedPageCount() {
+        return _compressedPageCount.get();
+    }
+
+    @Override
+    public double getPageCompressionRatio() {
+        final long compressed = _compressedPageBytes.get();
+        return compressed == 0 ? 0 : (double) _uncompressedPageBytes.get() / compressed;
+    }
+
+    @Override
+    public long getPageCompressionTime() {
+        return _pageCompressionTime.get() / NS_PER_MS;
+    }
+
+    @Override
+    public long getPageDecompressionTime() {
+        return _pageDecompressionTime.get() / NS_PER_MS;
     }
 
     @Override
@@ -702,27 +949,38 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _handleToTreeMap.get(Integer.valueOf(handle));
     }
 
+    /**
+     * Allocate the buffer into which journal records are assembled. The buffer
+     * is allocated outside the Java heap so that the contents can be handed to
+     * the FileChannel without first being copied into a temporary direct
+     * buffer, and so that the collector never has to copy the buffer itself.
+     *
+     * @param size
+     *            capacity in bytes
+     * @return the new buffer
+     */
+    private static ByteBuffer allocateWriteBuffer(final int size) {
+        return ByteBuffer.allocateDirect(size);
+    }
+
     private void readFully(final ByteBuffer bb, final long address) throws PersistitIOException,
             CorruptJournalException {
         //
         // If necessary read the bytes out of the _writeBuffer
-        // before they have been written out to the file. This code
-        // requires the _writeBuffer to be a HeapByteBuffer.
+        // before they have been written out to the file.
         //
         final int position = bb.position();
         final int length = bb.remaining();
         synchronized (this) {
             if (address >= _writeBufferAddress && address + length <= _currentAddress) {
-                assert _writeBufferAddress + _writeBuffer.position() == _currentAddress : String.format(
-                        "writeBufferAddress=%,d position=%,d currentAddress=%,d", _writeBufferAddress,
-                        _writeBuffer.position(), _currentAddress);
-                final int wbPosition = _writeBuffer.position();
-                final int wbLimit = _writeBuffer.limit();
-                _writeBuffer.position((int) (address - _writeBufferAddress));
-                _writeBuffer.limit((int) (address - _writeBufferAddress) + length);
-                bb.put(_writeBuffer);
-                _writeBuffer.limit(wbLimit);
-                _writeBuffer.position(wbPosition);
+                //
+                // Use a duplicate: threads appending in parallel may be
+                // copying other records into the write buffer.
+                //
+                final ByteBuffer wb = _writeBuffer.duplicate();
+                wb.limit((int) (address - _writeBufferAddress) + length);
+                wb.position((int) (address - _writeBufferAddress));
+                bb.put(wb);
                 bb.position(position);
                 return;
             }
@@ -779,9 +1037,10 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     PageNode lookupUpPageNode(final long pageAddress, final Volume volume) {
         PageNode pnLookup = null;
         synchronized (this) {
+            drainAppends();
             final Integer volumeHandle = _volumeToHandleMap.get(volume);
             if (volumeHandle != null) {
-                pnLookup = _pageMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+                pnLookup = _pageMap.get(volumeHandle, pageAddress);
             }
         }
 
@@ -808,6 +1067,46 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private long readPageBufferFromJournal(final PageNode pn, final ByteBuffer bb) throws PersistitIOException,
             CorruptJournalException {
+        return readPageBufferFromJournal(pn, bb, true, true);
+    }
+
+    /**
+     * Read the page image addressed by the supplied PageNode into the
+     * ByteBuffer, using the page cache if it holds the image.
+     * 
+     * @param pn
+     *            PageNode addressing a PA, PD or PZ record
+     * @param bb
+     *            ByteBuffer positioned where the page image is to be placed
+     * @param deltaAllowed
+     *            whether the record may be a PD record
+     * @param retain
+     *            whether to add an image read from the journal to the page
+     *            cache; false for images that are not expected to be needed
+     *            again
+     * @return the page address
+     */
+    private long readPageBufferFromJournal(final PageNode pn, final ByteBuffer bb, final boolean deltaAllowed,
+            final boolean retain) throws PersistitIOException, CorruptJournalException {
+        final JournalPageCache pageCache = _pageCache;
+        final long cachedPageAddress = pageCache.get(pn.getJournalAddress(), bb);
+        if (cachedPageAddress != -1) {
+            if (cachedPageAddress != pn.getPageAddress() && pn.getPageAddress() != -1) {
+                throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                        + " mismatched page address: expected/actual=" + pn.getPageAddress() + "/"
+                        + cachedPageAddress);
+            }
+            return cachedPageAddress;
+        }
+        final long pageAddress = readPageRecordFromJournal(pn, bb, deltaAllowed);
+        if (retain) {
+            pageCache.put(pn.getJournalAddress(), pageAddress, bb);
+        }
+        return pageAddress;
+    }
+
+    private long readPageRecordFromJournal(final PageNode pn, final ByteBuffer bb, final boolean deltaAllowed)
+            throws PersistitIOException, CorruptJournalException {
         final int at = bb.position();
         bb.limit(at + PA.OVERHEAD);
         readFully(bb, pn.getJournalAddress());
@@ -815,6 +1114,12 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this) + " is incomplete");
         }
         final int type = JournalRecord.getType(bb);
+        if (type == PD.TYPE && deltaAllowed) {
+            return readPageDeltaFromJournal(pn, bb);
+        }
+        if (type == PZ.TYPE) {
+            return readCompressedPageFromJournal(pn, bb);
+        }
         final int payloadSize = JournalRecord.getLength(bb) - PA.OVERHEAD;
         final int leftSize = PA.getLeftSize(bb);
         final int bufferSize = PA.getBufferSize(bb);
@@ -839,8 +1144,97 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         readFully(bb, pn.getJournalAddress() + PA.OVERHEAD);
 
         final int rightSize = payloadSize - leftSize;
-        System.arraycopy(bb.array(), leftSize + at, bb.array(), bufferSize - rightSize + at, rightSize);
-        Arrays.fill(bb.array(), leftSize + at, bufferSize - rightSize + at, (byte) 0);
+        bb.limit(bb.capacity()).position(at).limit(at + bufferSize);
+        Util.moveBytes(bb, leftSize + at, bufferSize - rightSize + at, rightSize);
+        Util.clearBytes(bb, leftSize + at, bufferSize - rightSize + at);
+        return pageAddress;
+    }
+
+    /**
+     * Reconstruct a page from a PD record by reading its base PA image into the
+     * supplied ByteBuffer and then applying the PD record's ranges.
+     * 
+     * @param pn
+     *            PageNode addressing the PD record
+     * @param bb
+     *            ByteBuffer positioned where the page image is to be placed,
+     *            currently holding the first bytes of the PD record
+     * @return the page address
+     */
+    private long readPageDeltaFromJournal(final PageNode pn, final ByteBuffer bb) throws PersistitIOException,
+            CorruptJournalException {
+        final int at = bb.position();
+        final int recordSize = JournalRecord.getLength(bb);
+        if (recordSize < PD.OVERHEAD || recordSize > PD.OVERHEAD + Buffer.MAX_BUFFER_SIZE) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " invalid size: recordSize= " + recordSize);
+        }
+        final ByteBuffer delta = ByteBuffer.allocate(recordSize);
+        readFully(delta, pn.getJournalAddress());
+        final int bufferSize = PD.getBufferSize(delta);
+        final long pageAddress = PD.getPageAddress(delta);
+        final long baseAddress = PD.getBaseAddress(delta);
+        if (pageAddress != pn.getPageAddress() && pn.getPageAddress() != -1) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " mismatched page address: expected/actual=" + pn.getPageAddress() + "/" + pageAddress);
+        }
+        if (baseAddress >= pn.getJournalAddress() || baseAddress / _blockSize != pn.getJournalAddress() / _blockSize) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " refers to invalid base address " + baseAddress);
+        }
+        bb.position(at);
+        readPageBufferFromJournal(new PageNode(pn.getVolumeHandle(), pageAddress, baseAddress, pn.getTimestamp()),
+                bb, false, true);
+        if (bb.limit() - at != bufferSize || PD.applyRanges(delta, bb, at) < 0) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " does not match its base image at " + baseAddress);
+        }
+        return pageAddress;
+    }
+
+    /**
+     * Decompress the page image held in a PZ record into the supplied
+     * ByteBuffer.
+     * 
+     * @param pn
+     *            PageNode addressing the PZ record
+     * @param bb
+     *            ByteBuffer positioned where the page image is to be placed,
+     *            currently holding the first bytes of the PZ record
+     * @return the page address
+     */
+    private long readCompressedPageFromJournal(final PageNode pn, final ByteBuffer bb) throws PersistitIOException,
+            CorruptJournalException {
+        final int at = bb.position();
+        final int recordSize = JournalRecord.getLength(bb);
+        final int bufferSize = PZ.getBufferSize(bb);
+        final long pageAddress = PZ.getPageAddress(bb);
+        if (recordSize < PZ.OVERHEAD || recordSize > PZ.OVERHEAD + Buffer.MAX_BUFFER_SIZE
+                || at + bufferSize > bb.capacity()) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " invalid sizes: recordSize= " + recordSize + " bufferSize=" + bufferSize);
+        }
+        if (pageAddress != pn.getPageAddress() && pn.getPageAddress() != -1) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " mismatched page address: expected/actual=" + pn.getPageAddress() + "/" + pageAddress);
+        }
+        final ByteBuffer record = ByteBuffer.allocate(recordSize);
+        readFully(record, pn.getJournalAddress());
+        Inflater inflater = _inflaters.poll();
+        if (inflater == null) {
+            inflater = new Inflater();
+        }
+        final long start = System.nanoTime();
+        try {
+            PZ.inflate(inflater, record, bb, at);
+        } catch (final DataFormatException e) {
+            throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                    + " cannot be decompressed: " + e.getMessage());
+        } finally {
+            inflater.reset();
+            _inflaters.offer(inflater);
+            _pageDecompressionTime.addAndGet(System.nanoTime() - start);
+        }
         bb.limit(bb.capacity()).position(at).limit(at + bufferSize);
         return pageAddress;
     }
@@ -869,6 +1263,22 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         final long pageAddress = PA.getPageAddress(bb);
         final int volumeHandle = PA.getVolumeHandle(bb);
 
+        if (type == PD.TYPE || type == PZ.TYPE) {
+            final int imageBufferSize = type == PD.TYPE ? PD.getBufferSize(bb) : PZ.getBufferSize(bb);
+            final Buffer buffer = new Buffer(imageBufferSize, -1, _persistit.getBufferPool(imageBufferSize),
+                    _persistit);
+            bb = buffer.getByteBuffer();
+            bb.position(0);
+            final long imagePageAddress = readPageBufferFromJournal(new PageNode(volumeHandle, -1, address, -1), bb);
+            buffer.setPageAddressAndVolume(imagePageAddress, volumeForHandle(volumeHandle));
+            bb.limit(imageBufferSize).position(0);
+            final boolean acquired = buffer.claim(true, 0);
+            assert acquired : "buffer in use";
+            buffer.load();
+            buffer.release();
+            return buffer;
+        }
+
         if (type != PA.TYPE || leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize) {
             return null;
         }
@@ -880,12 +1290,12 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         bb.limit(payloadSize).position(0);
         readFully(bb, address + PA.OVERHEAD);
 
+        bb.limit(bufferSize).position(0);
         if (leftSize > 0) {
             final int rightSize = payloadSize - leftSize;
-            System.arraycopy(bb.array(), leftSize, bb.array(), bufferSize - rightSize, rightSize);
-            Arrays.fill(bb.array(), leftSize, bufferSize - rightSize, (byte) 0);
+            Util.moveBytes(bb, leftSize, bufferSize - rightSize, rightSize);
+            Util.clearBytes(bb, leftSize, bufferSize - rightSize);
         }
-        bb.limit(bufferSize).position(0);
         final boolean acquired = buffer.claim(true, 0);
         assert acquired : "buffer in use";
         buffer.load();
@@ -894,6 +1304,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     private void advance(final int recordSize) {
+        assert Thread.holdsLock(this) && _writeBufferLockCount > 0;
         Debug.$assert1.t(recordSize > 0 && recordSize + _writeBuffer.position() <= _writeBuffer.capacity());
         _currentAddress += recordSize;
         _writeBuffer.position(_writeBuffer.position() + recordSize);
@@ -947,197 +1358,632 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         }
     }
 
+    /**
+     * Write the page map to the journal. A PI record holding only the pages
+     * whose history has changed since the previous PM or PI record is written
+     * in place of a full PM record when the chain of PI records leading back
+     * to the previous PM record is still short relative to the page map and
+     * lies entirely in journal files that must be retained in any case.
+     *
+     * @throws PersistitException
+     */
     synchronized void writePageMap() throws PersistitException {
-        int count = 0;
-        for (final PageNode lastPageNode : _pageMap.values()) {
-            PageNode pageNode = lastPageNode;
-            while (pageNode != null) {
-                count++;
-                pageNode = pageNode.getPrevious();
-            }
-        }
-        for (final PageNode lastPageNode : _branchMap.values()) {
-            PageNode pageNode = lastPageNode;
-            while (pageNode != null) {
-                count++;
-                pageNode = pageNode.getPrevious();
-            }
-        }
-
-        final int recordSize = PM.OVERHEAD + PM.ENTRY_SIZE * count;
-        prepareWriteBuffer(recordSize);
-        PM.putType(_writeBuffer);
-        JournalRecord.putLength(_writeBuffer, recordSize);
-        JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
-        advance(PM.OVERHEAD);
-        int offset = 0;
-        for (final PageNode lastPageNode : _pageMap.values()) {
-            PageNode pageNode = lastPageNode;
-            while (pageNode != null) {
-                PM.putEntry(_writeBuffer, offset / PM.ENTRY_SIZE, pageNode.getTimestamp(),
-                        pageNode.getJournalAddress(), pageNode.getVolumeHandle(), pageNode.getPageAddress());
-
-                offset += PM.ENTRY_SIZE;
-                count--;
-                if (count == 0 || offset + PM.ENTRY_SIZE >= _writeBuffer.remaining()) {
-                    advance(offset);
-                    offset = 0;
+        lockWriteBuffer();
+        try {
+            final long mapSize = _pageMap.size() + _branchMap.size();
+            final boolean increment = _pageMapAddress >= 0
+                    && _pageMapBaseAddress / _blockSize >= _baseAddress / _blockSize
+                    && _pageMapIncrementSize + _changedPages.size() < mapSize;
+
+            int count = 0;
+            if (increment) {
+                for (final PageNode changed : _changedPages.values()) {
+                    final int entries = countPageMapEntries(_pageMap.get(changed))
+                            + countPageMapEntries(_branchMap.get(changed));
+                    count += entries == 0 && changed.getJournalAddress() == 0 ? 1 : entries;
+                }
+            } else {
+                for (final PageNode lastPageNode : _pageMap.values()) {
+                    count += countPageMapEntries(lastPageNode);
                 }
-                if (PM.ENTRY_SIZE >= _writeBuffer.remaining()) {
-                    flush();
+                for (final PageNode lastPageNode : _branchMap.values()) {
+                    count += countPageMapEntries(lastPageNode);
                 }
-                pageNode = pageNode.getPrevious();
             }
-        }
-        for (final PageNode lastPageNode : _branchMap.values()) {
-            PageNode pageNode = lastPageNode;
-            while (pageNode != null) {
-                PM.putEntry(_writeBuffer, offset / PM.ENTRY_SIZE, pageNode.getTimestamp(),
-                        pageNode.getJournalAddress(), pageNode.getVolumeHandle(), pageNode.getPageAddress());
 
-                offset += PM.ENTRY_SIZE;
-                count--;
-                if (count == 0 || offset + PM.ENTRY_SIZE >= _writeBuffer.remaining()) {
-                    advance(offset);
-                    offset = 0;
+            final int overhead = increment ? PI.OVERHEAD : PM.OVERHEAD;
+            final int recordSize = overhead + PM.ENTRY_SIZE * count;
+            prepareWriteBuffer(recordSize);
+            final long address = _currentAddress;
+            if (increment) {
+                PI.putType(_writeBuffer);
+                PI.putPreviousAddress(_writeBuffer, _pageMapAddress);
+            } else {
+                PM.putType(_writeBuffer);
+            }
+            JournalRecord.putLength(_writeBuffer, recordSize);
+            JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
+            advance(overhead);
+            if (increment) {
+                for (final PageNode changed : _changedPages.values()) {
+                    final PageNode lastPageNode = _pageMap.get(changed);
+                    final PageNode lastBranchNode = _branchMap.get(changed);
+                    if (lastPageNode == null && lastBranchNode == null) {
+                        if (changed.getJournalAddress() == 0) {
+                            putPageMapEntry(-1, -1, changed.getVolumeHandle(), changed.getPageAddress());
+                        }
+                    } else {
+                        putPageMapEntries(lastPageNode);
+                        putPageMapEntries(lastBranchNode);
+                    }
+                }
+                _pageMapIncrementSize += _changedPages.size();
+            } else {
+                for (final PageNode lastPageNode : _pageMap.values()) {
+                    putPageMapEntries(lastPageNode);
                 }
-                if (PM.ENTRY_SIZE >= _writeBuffer.remaining()) {
-                    flush();
+                for (final PageNode lastPageNode : _branchMap.values()) {
+                    putPageMapEntries(lastPageNode);
                 }
-                pageNode = pageNode.getPrevious();
+                _pageMapBaseAddress = address;
+                _pageMapIncrementSize = 0;
             }
+            Debug.$assert0.t(_currentAddress == address + recordSize);
+            _pageMapAddress = address;
+            _changedPages.clear();
+            _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, address);
+        } finally {
+            unlockWriteBuffer();
+        }
+    }
+
+    private int countPageMapEntries(final PageNode lastPageNode) {
+        int count = 0;
+        for (PageNode pageNode = lastPageNode; pageNode != null; pageNode = pageNode.getPrevious()) {
+            count++;
+        }
+        return count;
+    }
+
+    private void putPageMapEntries(final PageNode lastPageNode) throws PersistitException {
+        for (PageNode pageNode = lastPageNode; pageNode != null; pageNode = pageNode.getPrevious()) {
+            putPageMapEntry(pageNode.getTimestamp(), pageNode.getJournalAddress(), pageNode.getVolumeHandle(),
+                    pageNode.getPageAddress());
+        }
+    }
+
+    private void putPageMapEntry(final long timestamp, final long journalAddress, final int volumeHandle,
+            final long pageAddress) throws PersistitException {
+        PM.putEntry(_writeBuffer, 0, timestamp, journalAddress, volumeHandle, pageAddress);
+        advance(PM.ENTRY_SIZE);
+        if (PM.ENTRY_SIZE >= _writeBuffer.remaining()) {
+            flush();
         }
-        Debug.$assert0.t(count == 0);
-        _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, _currentAddress - recordSize);
     }
 
+    /**
+     * Write the live transaction map to the journal, either as a full TM
+     * record or as a TI record holding only the transactions added, updated
+     * or removed since the previous TM or TI record. The choice is made on
+     * the same basis as in {@link #writePageMap()}.
+     *
+     * @throws PersistitException
+     */
     synchronized void writeTransactionMap() throws PersistitException {
-        int count = _liveTransactionMap.size();
-        final int recordSize = TM.OVERHEAD + TM.ENTRY_SIZE * count;
+        int changedCount = 0;
+        for (final TransactionMapItem item : _liveTransactionMap.values()) {
+            if (item.isChanged()) {
+                changedCount++;
+            }
+        }
+        changedCount += _removedTransactions.size();
+        final boolean increment = _transactionMapAddress >= 0
+                && _transactionMapBaseAddress / _blockSize >= _baseAddress / _blockSize
+                && _transactionMapIncrementSize + changedCount < _liveTransactionMap.size();
+
+        final int count = increment ? changedCount : _liveTransactionMap.size();
+        final int overhead = increment ? TI.OVERHEAD : TM.OVERHEAD;
+        final int recordSize = overhead + TM.ENTRY_SIZE * count;
         prepareWriteBuffer(recordSize);
-        TM.putType(_writeBuffer);
+        final long address = _currentAddress;
+        if (increment) {
+            TI.putType(_writeBuffer);
+            TI.putPreviousAddress(_writeBuffer, _transactionMapAddress);
+        } else {
+            TM.putType(_writeBuffer);
+        }
         JournalRecord.putLength(_writeBuffer, recordSize);
         JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
-        advance(TM.OVERHEAD);
-        int offset = 0;
+        advance(overhead);
         for (final TransactionMapItem ts : _liveTransactionMap.values()) {
-            TM.putEntry(_writeBuffer, offset / TM.ENTRY_SIZE, ts.getStartTimestamp(), ts.getCommitTimestamp(),
-                    ts.getStartAddress(), ts.getLastRecordAddress());
-            offset += TM.ENTRY_SIZE;
-            count--;
-            if (count == 0 || offset + TM.ENTRY_SIZE >= _writeBuffer.remaining()) {
-                advance(offset);
-                offset = 0;
-            }
-            if (TM.ENTRY_SIZE >= _writeBuffer.remaining()) {
-                flush();
+            if (!increment || ts.isChanged()) {
+                putTransactionMapEntry(ts.getStartTimestamp(), ts.getCommitTimestamp(), ts.getStartAddress(),
+                        ts.getLastRecordAddress());
             }
+            ts.recorded();
         }
-
-        Debug.$assert0.t(count == 0);
-        _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, _currentAddress - recordSize);
+        if (increment) {
+            for (final Long startTimestamp : _removedTransactions) {
+                putTransactionMapEntry(startTimestamp, 0, -1, -1);
+            }
+            _transactionMapIncrementSize += changedCount;
+        } else {
+            _transactionMapBaseAddress = address;
+            _transactionMapIncrementSize = 0;
+        }
+        _removedTransactions.clear();
+        Debug.$assert0.t(_currentAddress == address + recordSize);
+        _transactionMapAddress = address;
+        _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, address);
     }
 
-    synchronized void writeCheckpointToJournal(final Checkpoint checkpoint) throws PersistitException {
-        //
-        // Make sure all prior journal entries are committed to disk before
-        // writing this record.
-        //
-        force();
-        //
-        // Prepare room for CP.OVERHEAD bytes in the journal. If doing so
-        // started a new journal file then there's no need to write another
-        // CP record.
-        //
-        if (!prepareWriteBuffer(CP.OVERHEAD)) {
-            final long address = _currentAddress;
-            JournalRecord.putLength(_writeBuffer, CP.OVERHEAD);
-            CP.putType(_writeBuffer);
-            JournalRecord.putTimestamp(_writeBuffer, checkpoint.getTimestamp());
-            CP.putSystemTimeMillis(_writeBuffer, checkpoint.getSystemTimeMillis());
-            CP.putBaseAddress(_writeBuffer, _baseAddress);
-            _persistit.getIOMeter().chargeWriteOtherToJournal(CP.OVERHEAD, _currentAddress);
-            advance(CP.OVERHEAD);
-            force();
-
-            checkpointWritten(checkpoint);
-
-            _persistit.getLogBase().checkpointWritten.log(checkpoint, address);
-            _persistit.getIOMeter().chargeWriteOtherToJournal(CP.OVERHEAD, address);
+    private void putTransactionMapEntry(final long startTimestamp, final long commitTimestamp,
+            final long startAddress, final long lastRecordAddress) throws PersistitException {
+        TM.putEntry(_writeBuffer, 0, startTimestamp, commitTimestamp, startAddress, lastRecordAddress);
+        advance(TM.ENTRY_SIZE);
+        if (TM.ENTRY_SIZE >= _writeBuffer.remaining()) {
+            flush();
         }
+    }
 
-        _lastValidCheckpoint = checkpoint;
-        _lastValidCheckpointJournalAddress = _currentAddress - CP.OVERHEAD;
-        _lastValidCheckpointBaseAddress = _baseAddress;
+    /**
+     * Note that the history of a page is about to change so that the next PI
+     * record will include it. Caller must hold the monitor.
+     */
+    private void pageHistoryChanging(final int volumeHandle, final long pageAddress) {
+        if (_changedPages.get(volumeHandle, pageAddress) == null) {
+            final boolean mapped = _pageMap.get(volumeHandle, pageAddress) != null
+                    || _branchMap.get(volumeHandle, pageAddress) != null;
+            _changedPages.put(new PageNode(volumeHandle, pageAddress, mapped ? 0 : -1, -1));
+        }
     }
 
-    void writePageToJournal(final Buffer buffer) throws PersistitException {
-
-        final Volume volume;
-        final int recordSize;
+    /**
+     * Note that a page may no longer be mapped. A page that was neither
+     * mapped when the most recent PM or PI record was written nor is mapped
+     * now need not appear in the next PI record. Caller must hold the monitor.
+     */
+    private void pageHistoryRemoved(final PageNode pageNode) {
+        final PageNode changed = _changedPages.get(pageNode);
+        if (changed != null && changed.getJournalAddress() != 0 && _pageMap.get(pageNode) == null
+                && _branchMap.get(pageNode) == null) {
+            _changedPages.remove(changed);
+        }
+    }
 
-        synchronized (this) {
+    /**
+     * Note that a transaction has been removed from the live transaction map.
+     * Caller must hold the monitor.
+     */
+    private void transactionRemoved(final TransactionMapItem item) {
+        if (item.isRecorded()) {
+            _removedTransactions.add(item.getStartTimestamp());
+        }
+    }
 
-            if (!buffer.isTemporary() && buffer.getTimestamp() < _lastValidCheckpoint.getTimestamp()) {
-                _persistit.getLogBase().lateWrite.log(_lastValidCheckpoint, buffer);
+    synchronized void writeCheckpointToJournal(final Checkpoint checkpoint) throws PersistitException {
+        lockWriteBuffer();
+        try {
+            //
+            // Make sure all prior journal entries are committed to disk before
+            // writing this record.
+            //
+            force();
+            //
+            // Prepare room for CP.OVERHEAD bytes in the journal. If doing so
+            // started a new journal file then there's no need to write another
+            // CP record.
+            //
+            if (!prepareWriteBuffer(CP.OVERHEAD)) {
+                final long address = _currentAddress;
+                JournalRecord.putLength(_writeBuffer, CP.OVERHEAD);
+                CP.putType(_writeBuffer);
+                JournalRecord.putTimestamp(_writeBuffer, checkpoint.getTimestamp());
+                CP.putSystemTimeMillis(_writeBuffer, checkpoint.getSystemTimeMillis());
+                CP.putBaseAddress(_writeBuffer, _baseAddress);
+                _persistit.getIOMeter().chargeWriteOtherToJournal(CP.OVERHEAD, _currentAddress);
+                advance(CP.OVERHEAD);
+                force();
+
+                checkpointWritten(checkpoint);
+
+                _persistit.getLogBase().checkpointWritten.log(checkpoint, address);
+                _persistit.getIOMeter().chargeWriteOtherToJournal(CP.OVERHEAD, address);
             }
 
-            volume = buffer.getVolume();
+            _lastValidCheckpoint = checkpoint;
+            _lastValidCheckpointJournalAddress = _currentAddress - CP.OVERHEAD;
+            _lastValidCheckpointBaseAddress = _baseAddress;
+        } finally {
+            unlockWriteBuffer();
+        }
+    }
+
+    void writePageToJournal(final Buffer buffer) throws PersistitException {
+
+        final Volume volume = buffer.getVolume();
+        final int leftSize;
+        final int rightSize;
+        if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
+            leftSize = buffer.getKeyBlockEnd();
+            rightSize = buffer.getBufferSize() - buffer.getAlloc();
+        } else {
+            leftSize = 0;
+            rightSize = buffer.getBufferSize();
+        }
+        final int fullRecordSize = PA.OVERHEAD + leftSize + rightSize;
+
+        PageDelta delta = _pageDeltas.get() ? encodePageDelta(buffer) : null;
+        if (delta != null && PD.OVERHEAD + delta._length > fullRecordSize / PAGE_DELTA_SIZE_DIVISOR) {
+            delta = null;
+        }
+        final PageCompressor compressor = _pageCompression.get() ? compressPage(buffer, leftSize, rightSize) : null;
+        if (delta != null && compressor != null && PZ.OVERHEAD + compressor._length <= PD.OVERHEAD + delta._length) {
+            delta = null;
+        }
+        final Checkpoint checkpoint = _lastValidCheckpoint;
+        if (!buffer.isTemporary() && buffer.getTimestamp() < checkpoint.getTimestamp()) {
+            _persistit.getLogBase().lateWrite.log(checkpoint, buffer);
+        }
+
+        long address = -1;
+        try {
             final int handle = handleForVolume(volume);
-            int leftSize;
-            int rightSize;
-            if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
-                leftSize = buffer.getKeyBlockEnd();
-                rightSize = buffer.getBufferSize() - buffer.getAlloc();
-            } else {
-                leftSize = 0;
-                rightSize = buffer.getBufferSize();
+            //
+            // Fast path: copy the record into space reserved in the current
+            // write buffer without holding the monitor. A PD record qualifies
+            // only if its base image is in the same journal file.
+            //
+            _persistit.checkFatal();
+            final int recordSize = pageRecordSize(leftSize, rightSize, delta, compressor);
+            final long checkpointTimestamp = _persistit.getTimestampAllocator().getProposedCheckpointTimestamp();
+            if (beginAppend()) {
+                try {
+                    address = reserveAppend(recordSize, delta == null ? -1 : delta._baseAddress / _blockSize);
+                    if (address >= 0) {
+                        putPageRecord(appendBuffer(address), buffer, handle, leftSize, rightSize, delta, compressor);
+                        retainDeltaBase(buffer, address, delta);
+                        _appendedPages.offer(new AppendedPage(newPageNode(buffer, handle, address),
+                                checkpointTimestamp));
+                    }
+                } finally {
+                    endAppend();
+                }
+            }
+            if (address < 0) {
+                synchronized (this) {
+                    lockWriteBuffer();
+                    try {
+                        address = writePageToJournal(buffer, handle, leftSize, rightSize, delta, compressor);
+                    } finally {
+                        unlockWriteBuffer();
+                    }
+                }
             }
+        } finally {
+            if (compressor != null) {
+                _compressors.offer(compressor);
+            }
+        }
+        if (!buffer.isTemporary()) {
+            _pageCache.put(address, buffer, leftSize, rightSize);
+        }
+        _persistit.getIOMeter().chargeWritePageToJournal(volume, buffer.getPageAddress(), buffer.getBufferSize(),
+                address, urgency(), buffer.getIndex());
+    }
 
-            recordSize = PA.OVERHEAD + leftSize + rightSize;
+    /**
+     * Append a PA, PD or PZ record for the supplied buffer to the write buffer
+     * and record it in the page map. Caller must hold the monitor and the
+     * write lock.
+     * 
+     * @return the journal address of the record
+     */
+    private long writePageToJournal(final Buffer buffer, final int handle, final int leftSize, final int rightSize,
+            PageDelta delta, final PageCompressor compressor) throws PersistitException {
+        if (delta != null) {
+            prepareWriteBuffer(PD.OVERHEAD + delta._length);
+            //
+            // The base image must be in the same journal file so that it
+            // is retained for as long as the delta is needed.
+            //
+            if (delta._baseAddress / _blockSize != _currentAddress / _blockSize) {
+                delta = null;
+            }
+        }
+        final int recordSize = pageRecordSize(leftSize, rightSize, delta, compressor);
+        prepareWriteBuffer(recordSize);
+        Debug.$assert1.t(_writeBuffer.remaining() >= recordSize);
 
-            prepareWriteBuffer(recordSize);
-            Debug.$assert1.t(_writeBuffer.remaining() >= recordSize);
+        final long address = _currentAddress;
+        putPageRecord(_writeBuffer, buffer, handle, leftSize, rightSize, delta, compressor);
+        retainDeltaBase(buffer, address, delta);
+        _currentAddress += recordSize;
+        publishPage(newPageNode(buffer, handle, address), _persistit.getTimestampAllocator()
+                .getProposedCheckpointTimestamp());
+        return address;
+    }
 
-            final long address = _currentAddress;
-            final int position = _writeBuffer.position();
+    /**
+     * @return the size of the PD record if <code>delta</code> is not null, or
+     *         else of the PZ record if <code>compressor</code> is not null, or
+     *         else of the PA record
+     */
+    private static int pageRecordSize(final int leftSize, final int rightSize, final PageDelta delta,
+            final PageCompressor compressor) {
+        if (delta != null) {
+            return PD.OVERHEAD + delta._length;
+        } else if (compressor != null) {
+            return PZ.OVERHEAD + compressor._length;
+        } else {
+            return PA.OVERHEAD + leftSize + rightSize;
+        }
+    }
 
-            JournalRecord.putLength(_writeBuffer, recordSize);
-            PA.putVolumeHandle(_writeBuffer, handle);
-            PA.putType(_writeBuffer);
-            JournalRecord.putTimestamp(_writeBuffer, buffer.isTemporary() ? -1 : buffer.getTimestamp());
-            PA.putLeftSize(_writeBuffer, leftSize);
-            PA.putBufferSize(_writeBuffer, buffer.getBufferSize());
-            PA.putPageAddress(_writeBuffer, buffer.getPageAddress());
-            advance(PA.OVERHEAD);
+    /**
+     * Encode a page record at the position of the supplied ByteBuffer and
+     * advance its position past the record.
+     */
+    private void putPageRecord(final ByteBuffer bb, final Buffer buffer, final int handle, final int leftSize,
+            final int rightSize, final PageDelta delta, final PageCompressor compressor) {
+        final int recordSize = pageRecordSize(leftSize, rightSize, delta, compressor);
+        final int position = bb.position();
+        if (delta != null) {
+            JournalRecord.putLength(bb, recordSize);
+            PD.putVolumeHandle(bb, handle);
+            PD.putType(bb);
+            JournalRecord.putTimestamp(bb, buffer.getTimestamp());
+            PD.putPageAddress(bb, buffer.getPageAddress());
+            PD.putBaseAddress(bb, delta._baseAddress);
+            PD.putBufferSize(bb, buffer.getBufferSize());
+            bb.position(position + PD.OVERHEAD);
+            bb.put(delta._bytes, 0, delta._length);
+            _pageDeltaCount.incrementAndGet();
+        } else if (compressor != null) {
+            JournalRecord.putLength(bb, recordSize);
+            PZ.putVolumeHandle(bb, handle);
+            PZ.putType(bb);
+            JournalRecord.putTimestamp(bb, buffer.isTemporary() ? -1 : buffer.getTimestamp());
+            PZ.putPageAddress(bb, buffer.getPageAddress());
+            PZ.putLeftSize(bb, leftSize);
+            PZ.putBufferSize(bb, buffer.getBufferSize());
+            PZ.putPayloadSize(bb, leftSize + rightSize);
+            bb.position(position + PZ.OVERHEAD);
+            bb.put(compressor._bytes, 0, compressor._length);
+            _compressedPageCount.incrementAndGet();
+            _uncompressedPageBytes.addAndGet(leftSize + rightSize);
+            _compressedPageBytes.addAndGet(compressor._length);
+        } else {
+            JournalRecord.putLength(bb, recordSize);
+            PA.putVolumeHandle(bb, handle);
+            PA.putType(bb);
+            JournalRecord.putTimestamp(bb, buffer.isTemporary() ? -1 : buffer.getTimestamp());
+            PA.putLeftSize(bb, leftSize);
+            PA.putBufferSize(bb, buffer.getBufferSize());
+            PA.putPageAddress(bb, buffer.getPageAddress());
+            bb.position(position + PA.OVERHEAD);
 
+            //
+            // Copied directly from the page memory; no intermediate array
+            // is needed when both the page and the write buffer are direct.
+            //
             if (leftSize > 0) {
-                _writeBuffer.put(buffer.getBytes(), 0, leftSize);
-                _writeBuffer.put(buffer.getBytes(), buffer.getBufferSize() - rightSize, rightSize);
+                buffer.getBytes(0, bb, leftSize);
+                buffer.getBytes(buffer.getBufferSize() - rightSize, bb, rightSize);
             } else {
-                _writeBuffer.put(buffer.getBytes());
+                buffer.getBytes(0, bb, buffer.getBufferSize());
             }
-            Debug.$assert0.t(_writeBuffer.position() - position == recordSize);
-            _currentAddress += recordSize - PA.OVERHEAD;
+        }
+        Debug.$assert0.t(bb.position() - position == recordSize);
+        _writePageCount.incrementAndGet();
+    }
 
-            final PageNode pageNode = new PageNode(handle, buffer.getPageAddress(), address, buffer.getTimestamp());
-            _pageList.add(pageNode);
-            PageNode oldPageNode = _pageMap.put(pageNode, pageNode);
+    private PageNode newPageNode(final Buffer buffer, final int handle, final long address) {
+        return new PageNode(handle, buffer.getPageAddress(), address, buffer.getTimestamp());
+    }
+
+    /**
+     * Add a PageNode for a newly written page record to the page map and page
+     * list. Caller must hold the monitor.
+     * 
+     * @param pageNode
+     * @param checkpointTimestamp
+     *            the proposed checkpoint timestamp when the record was written
+     */
+    private void publishPage(final PageNode pageNode, final long checkpointTimestamp) {
+        _pageList.add(pageNode);
+        pageHistoryChanging(pageNode.getVolumeHandle(), pageNode.getPageAddress());
+        PageNode oldPageNode = _pageMap.put(pageNode);
 
-            if (oldPageNode != null) {
-                assert oldPageNode.getTimestamp() <= pageNode.getTimestamp();
+        if (oldPageNode != null) {
+            assert oldPageNode.getTimestamp() <= pageNode.getTimestamp();
+        }
+        if (oldPageNode != null && oldPageNode.getTimestamp() > checkpointTimestamp
+                && pageNode.getTimestamp() > checkpointTimestamp) {
+            oldPageNode.invalidate();
+            oldPageNode = oldPageNode.getPrevious();
+        }
+        pageNode.setPrevious(oldPageNode);
+    }
+
+    /**
+     * Compress the page held by the supplied buffer for a PZ record.
+     * 
+     * @param buffer
+     *            a buffer holding a writer claim
+     * @return a PageCompressor holding the compressed bytes, or
+     *         <code>null</code> if the PZ record would be no smaller than a PA
+     *         record. The caller must return a non-null result to
+     *         <code>_compressors</code> once the bytes have been written.
+     */
+    private PageCompressor compressPage(final Buffer buffer, final int leftSize, final int rightSize) {
+        final int limit = PA.OVERHEAD + leftSize + rightSize - PZ.OVERHEAD - 1;
+        if (limit <= 0) {
+            return null;
+        }
+        PageCompressor compressor = _compressors.poll();
+        if (compressor == null) {
+            compressor = new PageCompressor();
+        }
+        final int bufferSize = buffer.getBufferSize();
+        if (compressor._bytes.length < limit) {
+            compressor._bytes = new byte[bufferSize];
+        }
+        //
+        // Deflater can only read from an array
+        //
+        if (compressor._page.length != bufferSize) {
+            compressor._page = new byte[bufferSize];
+        }
+        buffer.getBytes(0, compressor._page, 0, leftSize);
+        buffer.getBytes(bufferSize - rightSize, compressor._page, bufferSize - rightSize, rightSize);
+        final long start = System.nanoTime();
+        compressor._deflater.reset();
+        compressor._length = PZ.deflate(compressor._deflater, compressor._page, leftSize, rightSize,
+                compressor._bytes, limit);
+        _pageCompressionTime.addAndGet(System.nanoTime() - start);
+        if (compressor._length < 0) {
+            _compressors.offer(compressor);
+            return null;
+        }
+        return compressor;
+    }
+
+    /**
+     * Compare the page held by the supplied buffer with the full image of the
+     * same page that the buffer retained when it was last written to the
+     * current journal file, and encode the byte ranges in which they differ.
+     * Bytes in the unused space between the key block and the tail block are
+     * compared as zeros, as they are when the page is reconstructed from a
+     * full image. No lock is held while the page is compared.
+     *
+     * @param buffer
+     *            a buffer holding a writer claim
+     * @return the encoded ranges, or <code>null</code> if the page is not
+     *         eligible, the buffer holds no base image in the current journal
+     *         file, or the ranges would be too large to be useful
+     */
+    private PageDelta encodePageDelta(final Buffer buffer) {
+        if (buffer.isTemporary() || !(buffer.isDataPage() || buffer.isIndexPage())) {
+            return null;
+        }
+        final long baseAddress = buffer.getDeltaBaseAddress();
+        if (baseAddress < 0 || baseAddress / _blockSize != _currentAddress / _blockSize) {
+            return null;
+        }
+        final byte[] base = buffer.getDeltaBase();
+        final int bufferSize = buffer.getBufferSize();
+
+        final int gapStart = buffer.getKeyBlockEnd();
+        final int gapEnd = buffer.getAlloc();
+        final byte[] encoded = new byte[(PA.OVERHEAD + gapStart + bufferSize - gapEnd) / PAGE_DELTA_SIZE_DIVISOR];
+        int length = 0;
+        int from = 0;
+        while (from < bufferSize) {
+            if (pageByte(buffer, from, gapStart, gapEnd) == base[from]) {
+                from++;
+                continue;
             }
-            final long checkpointTimestamp = _persistit.getTimestampAllocator().getProposedCheckpointTimestamp();
-            if (oldPageNode != null && oldPageNode.getTimestamp() > checkpointTimestamp
-                    && buffer.getTimestamp() > checkpointTimestamp) {
-                oldPageNode.invalidate();
-                oldPageNode = oldPageNode.getPrevious();
+            //
+            // Extend the range until it is followed by at least
+            // RANGE_OVERHEAD unchanged bytes, so that nearby changes share one
+            // range header.
+            //
+            int to = from + 1;
+            for (int index = to, same = 0; index < bufferSize && same < PD.RANGE_OVERHEAD; index++) {
+                if (pageByte(buffer, index, gapStart, gapEnd) == base[index]) {
+                    same++;
+                } else {
+                    to = index + 1;
+                    same = 0;
+                }
             }
-            pageNode.setPrevious(oldPageNode);
-            _writePageCount++;
+            if (length + PD.RANGE_OVERHEAD + to - from > encoded.length) {
+                return null;
+            }
+            Util.putChar(encoded, length, from);
+            Util.putChar(encoded, length + 2, to - from);
+            length += PD.RANGE_OVERHEAD;
+            for (int index = from; index < to; index++) {
+                encoded[length++] = pageByte(buffer, index, gapStart, gapEnd);
+            }
+            from = to;
+        }
+        return new PageDelta(baseAddress, encoded, length);
+    }
+
+    /**
+     * Let a buffer just written as a full page record retain its image as the
+     * base for later page deltas.
+     */
+    private void retainDeltaBase(final Buffer buffer, final long address, final PageDelta delta) {
+        if (delta == null && _pageDeltas.get() && !buffer.isTemporary()
+                && (buffer.isDataPage() || buffer.isIndexPage())) {
+            buffer.setDeltaBase(address);
+        }
+    }
+
+    private static byte pageByte(final Buffer buffer, final int index, final int gapStart, final int gapEnd) {
+        return index >= gapStart && index < gapEnd ? 0 : (byte) buffer.getByte(index);
+    }
+
+    /**
+     * A pooled Deflater with an array holding a copy of the page being
+     * compressed and an output array holding the payload of a PZ record.
+     */
+    private static class PageCompressor {
+        final Deflater _deflater = new Deflater(Deflater.BEST_SPEED);
+        byte[] _page = new byte[0];
+        byte[] _bytes = new byte[0];
+        int _length;
+    }
+
+    /**
+     * A page record appended in parallel, waiting to be entered in the page
+     * map.
+     */
+    private static class AppendedPage {
+        final PageNode _pageNode;
+        final long _checkpointTimestamp;
+
+        AppendedPage(final PageNode pageNode, final long checkpointTimestamp) {
+            _pageNode = pageNode;
+            _checkpointTimestamp = checkpointTimestamp;
+        }
+    }
+
+    /**
+     * A TX record appended in parallel, waiting to be entered in the live
+     * transaction map.
+     */
+    private static class AppendedTransaction {
+        final long _startTimestamp;
+        final long _commitTimestamp;
+        final long _backchainAddress;
+        final long _address;
+
+        AppendedTransaction(final long startTimestamp, final long commitTimestamp, final long backchainAddress,
+                final long address) {
+            _startTimestamp = startTimestamp;
+            _commitTimestamp = commitTimestamp;
+            _backchainAddress = backchainAddress;
+            _address = address;
+        }
+    }
+
+    /**
+     * Changed byte ranges of a page, encoded as the payload of a PD record.
+     */
+    private static class PageDelta {
+        final long _baseAddress;
+        final byte[] _bytes;
+        final int _length;
+
+        PageDelta(final long baseAddress, final byte[] bytes, final int length) {
+            _baseAddress = baseAddress;
+            _bytes = bytes;
+            _length = length;
         }
-        _persistit.getIOMeter().chargeWritePageToJournal(volume, buffer.getPageAddress(), buffer.getBufferSize(),
-                _currentAddress - recordSize, urgency(), buffer.getIndex());
     }
 
     /**
@@ -1148,31 +1994,41 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @throws PersistitException
      */
     synchronized void writeVolumeHandleToJournal(final Volume volume, final int handle) throws PersistitException {
-        prepareWriteBuffer(IV.MAX_LENGTH);
-        IV.putType(_writeBuffer);
-        IV.putHandle(_writeBuffer, handle);
-        IV.putVolumeId(_writeBuffer, volume.getId());
-        JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
-        if (_persistit.getConfiguration().isUseOldVSpec()) {
-            IV.putVolumeSpecification(_writeBuffer, volume.getName());
-        } else {
-            IV.putVolumeSpecification(_writeBuffer, volume.getSpecification().toString());
+        lockWriteBuffer();
+        try {
+            prepareWriteBuffer(IV.MAX_LENGTH);
+            IV.putType(_writeBuffer);
+            IV.putHandle(_writeBuffer, handle);
+            IV.putVolumeId(_writeBuffer, volume.getId());
+            JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
+            if (_persistit.getConfiguration().isUseOldVSpec()) {
+                IV.putVolumeSpecification(_writeBuffer, volume.getName());
+            } else {
+                IV.putVolumeSpecification(_writeBuffer, volume.getSpecification().toString());
+            }
+            final int recordSize = JournalRecord.getLength(_writeBuffer);
+            _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, _currentAddress);
+            advance(recordSize);
+        } finally {
+            unlockWriteBuffer();
         }
-        final int recordSize = JournalRecord.getLength(_writeBuffer);
-        _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, _currentAddress);
-        advance(recordSize);
     }
 
     synchronized void writeTreeHandleToJournal(final TreeDescriptor td, final int handle) throws PersistitException {
-        prepareWriteBuffer(IT.MAX_LENGTH);
-        IT.putType(_writeBuffer);
-        IT.putHandle(_writeBuffer, handle);
-        IT.putVolumeHandle(_writeBuffer, td.getVolumeHandle());
-        JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
-        IT.putTreeName(_writeBuffer, td.getTreeName());
-        final int recordSize = JournalRecord.getLength(_writeBuffer);
-        _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, _currentAddress);
-        advance(recordSize);
+        lockWriteBuffer();
+        try {
+            prepareWriteBuffer(IT.MAX_LENGTH);
+            IT.putType(_writeBuffer);
+            IT.putHandle(_writeBuffer, handle);
+            IT.putVolumeHandle(_writeBuffer, td.getVolumeHandle());
+            JournalRecord.putTimestamp(_writeBuffer, epochalTimestamp());
+            IT.putTreeName(_writeBuffer, td.getTreeName());
+            final int recordSize = JournalRecord.getLength(_writeBuffer);
+            _persistit.getIOMeter().chargeWriteOtherToJournal(recordSize, _currentAddress);
+            advance(recordSize);
+        } finally {
+            unlockWriteBuffer();
+        }
     }
 
     /**
@@ -1206,47 +2062,197 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @return
      * @throws PersistitException
      */
-    synchronized long writeTransactionToJournal(final ByteBuffer buffer, final long startTimestamp,
-            final long commitTimestamp, final long backchainAddress) throws PersistitException {
+    long writeTransactionToJournal(final ByteBuffer buffer, final long startTimestamp, final long commitTimestamp,
+            final long backchainAddress) throws PersistitException {
         final int recordSize = TX.OVERHEAD + buffer.position();
-        prepareWriteBuffer(recordSize);
-        final long address = _currentAddress;
-        TX.putLength(_writeBuffer, recordSize);
-        TX.putType(_writeBuffer);
-        TX.putTimestamp(_writeBuffer, startTimestamp);
-        TX.putCommitTimestamp(_writeBuffer, commitTimestamp);
-        TX.putBackchainAddress(_writeBuffer, backchainAddress);
-        _persistit.getIOMeter().chargeWriteTXtoJournal(recordSize, _currentAddress);
-        advance(TX.OVERHEAD);
+        long address = -1;
+        _persistit.checkFatal();
+        if (beginAppend()) {
+            try {
+                address = reserveAppend(recordSize, -1);
+                if (address >= 0) {
+                    putTransactionRecord(appendBuffer(address), buffer, startTimestamp, commitTimestamp,
+                            backchainAddress);
+                    if (commitTimestamp != ABORTED) {
+                        _appendedTransactions.offer(new AppendedTransaction(startTimestamp, commitTimestamp,
+                                backchainAddress, address));
+                    }
+                }
+            } finally {
+                endAppend();
+            }
+        }
+        if (address < 0) {
+            synchronized (this) {
+                lockWriteBuffer();
+                try {
+                    prepareWriteBuffer(recordSize);
+                    address = _currentAddress;
+                    putTransactionRecord(_writeBuffer, buffer, startTimestamp, commitTimestamp, backchainAddress);
+                    _currentAddress += recordSize;
+                    if (commitTimestamp != ABORTED) {
+                        publishTransaction(startTimestamp, commitTimestamp, backchainAddress, address);
+                    }
+                } finally {
+                    unlockWriteBuffer();
+                }
+            }
+        }
+        _persistit.getIOMeter().chargeWriteTXtoJournal(recordSize, address);
+        return address;
+    }
+
+    /**
+     * Encode a TX record at the position of the supplied ByteBuffer and advance
+     * its position past the record.
+     */
+    private void putTransactionRecord(final ByteBuffer bb, final ByteBuffer buffer, final long startTimestamp,
+            final long commitTimestamp, final long backchainAddress) {
+        final int recordSize = TX.OVERHEAD + buffer.position();
+        TX.putLength(bb, recordSize);
+        TX.putType(bb);
+        TX.putTimestamp(bb, startTimestamp);
+        TX.putCommitTimestamp(bb, commitTimestamp);
+        TX.putBackchainAddress(bb, backchainAddress);
+        bb.position(bb.position() + TX.OVERHEAD);
         try {
             buffer.flip();
-            _writeBuffer.put(buffer);
+            bb.put(buffer);
         } finally {
             buffer.clear();
         }
-        _currentAddress += recordSize - TX.OVERHEAD;
-        if (commitTimestamp != ABORTED) {
-            final long key = Long.valueOf(startTimestamp);
-            TransactionMapItem item = _liveTransactionMap.get(key);
-            if (item == null) {
-                if (backchainAddress != 0) {
-                    throw new IllegalStateException("Missing back-chained transaction for start timestamp "
-                            + startTimestamp);
-                }
-                item = new TransactionMapItem(startTimestamp, address);
-                _liveTransactionMap.put(startTimestamp, item);
+    }
+
+    /**
+     * Add or update the live transaction map entry for a newly written TX
+     * record. Caller must hold the monitor.
+     */
+    private void publishTransaction(final long startTimestamp, final long commitTimestamp,
+            final long backchainAddress, final long address) {
+        TransactionMapItem item = _liveTransactionMap.get(startTimestamp);
+        if (item == null) {
+            if (backchainAddress != 0) {
+                throw new IllegalStateException("Missing back-chained transaction for start timestamp "
+                        + startTimestamp);
+            }
+            item = new TransactionMapItem(startTimestamp, address);
+            _liveTransactionMap.put(startTimestamp, item);
+        } else {
+            if (backchainAddress == 0) {
+                throw new IllegalStateException("Duplicate transaction " + item);
+            }
+            if (item.isCommitted()) {
+                throw new IllegalStateException("Transaction already committed " + item);
+            }
+            item.setLastRecordAddress(address);
+        }
+        item.setCommitTimestamp(commitTimestamp);
+    }
+
+    /**
+     * Reserve space for a record of the supplied size in the current write
+     * buffer by advancing <code>_currentAddress</code>. Caller must have
+     * called {@link #beginAppend()}. Fails if the record does not fit the write buffer, if it
+     * would be the first record of a new journal file, or if it does not
+     * belong to the required journal file.
+     * 
+     * @param size
+     *            record size
+     * @param generation
+     *            the journal file the record must be written to, or -1
+     * @return journal address of the reserved space, or -1 if the record must
+     *         be written under the monitor
+     */
+    private long reserveAppend(final int size, final long generation) {
+        while (true) {
+            final long address = _currentAddress;
+            if (address % _blockSize == 0 || address + size + JE.OVERHEAD >= _appendLimitAddress
+                    || generation >= 0 && address / _blockSize != generation) {
+                return -1;
+            }
+            if (CURRENT_ADDRESS_UPDATER.compareAndSet(this, address, address + size)) {
+                return address;
+            }
+        }
+    }
+
+    /**
+     * @return a view of the write buffer positioned at space reserved by
+     *         {@link #reserveAppend(int, long)}
+     */
+    private ByteBuffer appendBuffer(final long address) {
+        final ByteBuffer bb = _writeBuffer.duplicate();
+        bb.position((int) (address - _writeBufferAddress));
+        return bb;
+    }
+
+    /**
+     * Register the current thread as appending a record in parallel.
+     * 
+     * @return <code>true</code> if the caller may reserve space and must then
+     *         call {@link #endAppend()}, or <code>false</code> if another
+     *         thread has exclusive use of the write buffer
+     */
+    private boolean beginAppend() {
+        if (_appenders.incrementAndGet() < 0) {
+            _appenders.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void endAppend() {
+        _appenders.decrementAndGet();
+    }
+
+    /**
+     * Acquire exclusive use of the write buffer. Caller must hold the monitor.
+     * Once threads appending in parallel have finished copying their records,
+     * this method enters those records in the page and live transaction maps
+     * and positions the write buffer after the last of them.
+     */
+    private void lockWriteBuffer() {
+        assert Thread.holdsLock(this);
+        if (_writeBufferLockCount++ == 0) {
+            _appenders.addAndGet(APPENDS_CLOSED);
+            while (_appenders.get() != APPENDS_CLOSED) {
+                Thread.yield();
+            }
+            drainAppends();
+            if (_writeBuffer != null && _writeBufferAddress != Long.MAX_VALUE) {
+                _writeBuffer.position((int) (_currentAddress - _writeBufferAddress));
+            }
+        }
+    }
+
+    /**
+     * Release exclusive use of the write buffer acquired by
+     * {@link #lockWriteBuffer()}, first setting the address up to which records
+     * can be appended in parallel.
+     */
+    private void unlockWriteBuffer() {
+        if (--_writeBufferLockCount == 0) {
+            if (_writeBuffer == null || _writeBufferAddress == Long.MAX_VALUE) {
+                _appendLimitAddress = -1;
             } else {
-                if (backchainAddress == 0) {
-                    throw new IllegalStateException("Duplicate transaction " + item);
-                }
-                if (item.isCommitted()) {
-                    throw new IllegalStateException("Transaction already committed " + item);
-                }
-                item.setLastRecordAddress(address);
+                _appendLimitAddress = Math.min(_writeBufferAddress + _writeBuffer.limit(),
+                        (_writeBufferAddress / _blockSize + 1) * _blockSize);
             }
-            item.setCommitTimestamp(commitTimestamp);
+            _appenders.addAndGet(APPENDS_CLOSED);
+        }
+    }
+
+    /**
+     * Enter records appended in parallel into the page map, page list and live
+     * transaction map. Caller must hold the monitor.
+     */
+    private void drainAppends() {
+        for (AppendedPage ap; (ap = _appendedPages.poll()) != null;) {
+            publishPage(ap._pageNode, ap._checkpointTimestamp);
+        }
+        for (AppendedTransaction at; (at = _appendedTransactions.poll()) != null;) {
+            publishTransaction(at._startTimestamp, at._commitTimestamp, at._backchainAddress, at._address);
         }
-        return address;
     }
 
     static File journalPath(final String path) {
@@ -1312,20 +2318,31 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         }
 
         synchronized (this) {
+            lockWriteBuffer();
             try {
-                closeAllChannels();
-            } catch (final IOException ioe) {
-                throw new PersistitIOException(ioe);
+                try {
+                    closeAllChannels();
+                } catch (final IOException ioe) {
+                    throw new PersistitIOException(ioe);
+                } finally {
+                    _handleToTreeMap.clear();
+                    _handleToVolumeMap.clear();
+                    _volumeToHandleMap.clear();
+                    _treeToHandleMap.clear();
+                    _pageMap.clear();
+                    _pageList.clear();
+                    _writeBuffer = null;
+                }
             } finally {
-                _handleToTreeMap.clear();
-                _handleToVolumeMap.clear();
-                _volumeToHandleMap.clear();
-                _treeToHandleMap.clear();
-                _pageMap.clear();
-                _pageList.clear();
-                _writeBuffer = null;
+                unlockWriteBuffer();
             }
         }
+        for (PageCompressor compressor; (compressor = _compressors.poll()) != null;) {
+            compressor._deflater.end();
+        }
+        for (Inflater inflater; (inflater = _inflaters.poll()) != null;) {
+            inflater.end();
+        }
     }
 
     private void closeAllChannels() throws IOException {
@@ -1364,79 +2381,84 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @throws PersistitException
      */
     synchronized long flush() throws PersistitException {
-        _persistit.checkFatal();
-        final long address = _writeBufferAddress;
-        if (address != Long.MAX_VALUE && _writeBuffer != null) {
+        lockWriteBuffer();
+        try {
+            _persistit.checkFatal();
+            final long address = _writeBufferAddress;
+            if (address != Long.MAX_VALUE && _writeBuffer != null) {
 
-            assert _writeBufferAddress + _writeBuffer.position() == _currentAddress : String.format(
-                    "writeBufferAddress=%,d position=%,d currentAddress=%,d", _writeBufferAddress,
-                    _writeBuffer.position(), _currentAddress);
+                assert _writeBufferAddress + _writeBuffer.position() == _currentAddress : String.format(
+                        "writeBufferAddress=%,d position=%,d currentAddress=%,d", _writeBufferAddress,
+                        _writeBuffer.position(), _currentAddress);
 
-            try {
-                if (_writeBuffer.position() > 0) {
-                    final FileChannel channel = getFileChannel(address);
-                    final long size = channel.size();
-                    if (size < addressToOffset(address)) {
-                        throw new CorruptJournalException(String.format(
-                                "Journal file %s size %,d does not match current address %,d", addressToFile(address),
-                                size, address));
-                    }
+                try {
+                    if (_writeBuffer.position() > 0) {
+                        final FileChannel channel = getFileChannel(address);
+                        final long size = channel.size();
+                        if (size < addressToOffset(address)) {
+                            throw new CorruptJournalException(String.format(
+                                    "Journal file %s size %,d does not match current address %,d", addressToFile(address),
+                                    size, address));
+                        }
 
-                    _writeBuffer.flip();
-                    boolean writeComplete = false;
-                    final int written;
-                    try {
-                        /*
-                         * Note: contract for FileChannel requires write to
-                         * return normally only when all bytes have been
-                         * written. (See java.nio.channels.WritableByteChannel
-                         * #write(ByteBuffer), statement
-                         * "Unless otherwise specified...")
-                         */
-                        channel.write(_writeBuffer, _writeBufferAddress % _blockSize);
-                        /*
-                         * Surprise: FileChannel#write does not throw an
-                         * Exception if it successfully writes some bytes and
-                         * then encounters a disk full condition. (Found this
-                         * out empirically.)
-                         */
-                        writeComplete = _writeBuffer.remaining() == 0;
-                    } finally {
-                        written = _writeBuffer.position();
-                        _writeBufferAddress += written;
-                        if (writeComplete) {
-                            if (_writeBuffer.capacity() != _writeBufferSize) {
-                                _writeBuffer = ByteBuffer.allocate(_writeBufferSize);
-                            } else {
-                                _writeBuffer.clear();
-                            }
-                        } else {
+                        _writeBuffer.flip();
+                        boolean writeComplete = false;
+                        final int written;
+                        try {
                             /*
-                             * If the buffer didn't get written, perhaps due to
-                             * an interrupt or disk-full condition, then compact
-                             * to remove any bytes from the buffer that actually
-                             * did get written and reset other measurements.
+                             * Note: contract for FileChannel requires write to
+                             * return normally only when all bytes have been
+                             * written. (See java.nio.channels.WritableByteChannel
+                             * #write(ByteBuffer), statement
+                             * "Unless otherwise specified...")
                              */
-                            _writeBuffer.compact();
-                        }
-                        final long remaining = _blockSize - (_writeBufferAddress % _blockSize);
-                        if (remaining < (_writeBuffer.limit())) {
-                            _writeBuffer.limit((int) remaining);
+                            channel.write(_writeBuffer, _writeBufferAddress % _blockSize);
+                            /*
+                             * Surprise: FileChannel#write does not throw an
+                             * Exception if it successfully writes some bytes and
+                             * then encounters a disk full condition. (Found this
+                             * out empirically.)
+                             */
+                            writeComplete = _writeBuffer.remaining() == 0;
+                        } finally {
+                            written = _writeBuffer.position();
+                            _writeBufferAddress += written;
+                            if (writeComplete) {
+                                if (_writeBuffer.capacity() != _writeBufferSize) {
+                                    _writeBuffer = allocateWriteBuffer(_writeBufferSize);
+                                } else {
+                                    _writeBuffer.clear();
+                                }
+                            } else {
+                                /*
+                                 * If the buffer didn't get written, perhaps due to
+                                 * an interrupt or disk-full condition, then compact
+                                 * to remove any bytes from the buffer that actually
+                                 * did get written and reset other measurements.
+                                 */
+                                _writeBuffer.compact();
+                            }
+                            final long remaining = _blockSize - (_writeBufferAddress % _blockSize);
+                            if (remaining < (_writeBuffer.limit())) {
+                                _writeBuffer.limit((int) remaining);
+                            }
                         }
-                    }
 
-                    assert _writeBufferAddress + _writeBuffer.position() == _currentAddress : String.format(
-                            "writeBufferAddress=%,d position=%,d currentAddress=%,d", _writeBufferAddress,
-                            _writeBuffer.position(), _currentAddress);
+                        assert _writeBufferAddress + _writeBuffer.position() == _currentAddress : String.format(
+                                "writeBufferAddress=%,d position=%,d currentAddress=%,d", _writeBufferAddress,
+                                _writeBuffer.position(), _currentAddress);
 
-                    _persistit.getIOMeter().chargeFlushJournal(written, address);
-                    return _writeBufferAddress;
+                        _persistit.getIOMeter().chargeFlushJournal(written, address);
+                        return _writeBufferAddress;
+                    }
+                } catch (final IOException e) {
+                    throw new PersistitIOException("Writing to file " + addressToFile(address), e);
                 }
-            } catch (final IOException e) {
-                throw new PersistitIOException("Writing to file " + addressToFile(address), e);
             }
+            return Long.MAX_VALUE;
+        } finally {
+            unlockWriteBuffer();
         }
-        return Long.MAX_VALUE;
     }
 
     /**
@@ -1469,6 +2491,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @throws PersistitException
      */
     private boolean prepareWriteBuffer(final int size) throws PersistitException {
+        assert Thread.holdsLock(this) && _writeBufferLockCount > 0;
         _persistit.checkFatal();
         boolean newJournalFile = false;
         if (getCurrentJournalSize() == 0) {
@@ -1529,33 +2552,38 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
     private synchronized void rollover(final boolean setBaseAddress, final boolean startNewFile)
             throws PersistitException {
-        if (_writeBufferAddress != Long.MAX_VALUE) {
-            writeJournalEnd();
-            flush();
+        lockWriteBuffer();
+        try {
+            if (_writeBufferAddress != Long.MAX_VALUE) {
+                writeJournalEnd();
+                flush();
 
-            try {
-                final long length = getCurrentJournalSize();
-                final boolean matches = length == (_writeBuffer.position() + _writeBufferAddress) % _blockSize;
-                final FileChannel channel = getFileChannel(_currentAddress);
-                Debug.$assert1.t(matches);
-                if (matches) {
-                    channel.truncate(length);
-                }
-                channel.force(true);
-            } catch (final IOException ioe) {
-                throw new PersistitIOException(ioe);
-            }
-            _currentAddress = ((_currentAddress / _blockSize) + 1) * _blockSize;
-            _writeBuffer.clear();
-            _writeBufferAddress = _currentAddress;
-            _isNewEpoch = false;
+                try {
+                    final long length = getCurrentJournalSize();
+                    final boolean matches = length == (_writeBuffer.position() + _writeBufferAddress) % _blockSize;
+                    final FileChannel channel = getFileChannel(_currentAddress);
+                    Debug.$assert1.t(matches);
+                    if (matches) {
+                        channel.truncate(length);
+                    }
+                    channel.force(true);
+                } catch (final IOException ioe) {
+                    throw new PersistitIOException(ioe);
+                }
+                _currentAddress = ((_currentAddress / _blockSize) + 1) * _blockSize;
+                _writeBuffer.clear();
+                _writeBufferAddress = _currentAddress;
+                _isNewEpoch = false;
 
-            if (setBaseAddress) {
-                _baseAddress = _currentAddress;
-            }
-            if (startNewFile) {
-                prepareWriteBuffer(JH.OVERHEAD);
+                if (setBaseAddress) {
+                    _baseAddress = _currentAddress;
+                }
+                if (startNewFile) {
+                    prepareWriteBuffer(JH.OVERHEAD);
+                }
             }
+        } finally {
+            unlockWriteBuffer();
         }
     }
 
@@ -1616,32 +2644,166 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     /**
-     * Return the <code>FileChannel</code> for the journal file containing the
-     * supplied <code>address</code>. If necessary, create a new
-     * {@link MediatedFileChannel}.
-     *
-     * @param address
-     *            the journal address of a record in the journal for which the
-     *            corresponding channel will be returned
-     * @throws PersistitException
-     *             if the <code>MediatedFileChannel</code> cannot be created
+     * Return the <code>FileChannel</code> for the journal file containing the
+     * supplied <code>address</code>. If necessary, create a new
+     * {@link MediatedFileChannel}.
+     *
+     * @param address
+     *            the journal address of a record in the journal for which the
+     *            corresponding channel will be returned
+     * @throws PersistitException
+     *             if the <code>MediatedFileChannel</code> cannot be created
+     */
+    synchronized FileChannel getFileChannel(final long address) throws PersistitIOException {
+        if (address < _deleteBoundaryAddress || address > _currentAddress + _blockSize) {
+            throw new IllegalArgumentException("Invalid journal address " + address + " outside of range ("
+                    + _deleteBoundaryAddress + ":" + (_currentAddress + _blockSize) + ")");
+        }
+        final long generation = address / _blockSize;
+        FileChannel channel = _journalFileChannels.get(generation);
+        if (channel == null) {
+            final File file = addressToFile(address);
+            if (generation == _currentAddress / _blockSize && !file.exists()) {
+                useSpareJournalFile(file);
+            }
+            try {
+                channel = new MediatedFileChannel(file, "rw");
+                _journalFileChannels.put(generation, channel);
+            } catch (final IOException ioe) {
+                throw new PersistitIOException(ioe);
+            }
+        }
+        return channel;
+    }
+
+    /**
+     * Rename a ready spare journal file, if there is one, to the supplied
+     * name of a new journal file. The spare is already zero-filled to its full
+     * size, so writes to it do not need to extend the file. Caller must hold
+     * the monitor.
+     */
+    private void useSpareJournalFile(final File file) {
+        final File spare = _readySpareFiles.pollFirst();
+        if (spare != null && !spare.renameTo(file)) {
+            _persistit.getLogBase().journalWriteError.log(new IOException("Unable to rename " + spare + " to " + file),
+                    file, 0);
+        }
+    }
+
+    /**
+     * Rename an obsolete journal file to become a spare, if fewer than the
+     * configured number of spares exist. The file retains its old content
+     * until {@link #prepareSpareJournalFiles()} zero-fills it.
+     *
+     * @return <code>true</code> if the file was recycled
+     */
+    private synchronized boolean recycleJournalFile(final File file) {
+        if (_readySpareFiles.size() + _pendingSpareFiles.size() >= _spareJournalFiles) {
+            return false;
+        }
+        final File spare = spareFile(_spareFileCounter++, true);
+        if (!file.renameTo(spare)) {
+            return false;
+        }
+        _pendingSpareFiles.add(spare);
+        return true;
+    }
+
+    /**
+     * Zero-fill recycled spare journal files and create new ones until the
+     * configured number are ready, or delete spares in excess of that number.
+     * Called by the JOURNAL_COPIER thread without holding the monitor.
+     *
+     * @throws PersistitIOException
+     */
+    void prepareSpareJournalFiles() throws PersistitIOException {
+        while (true) {
+            File file = null;
+            File obsolete = null;
+            synchronized (this) {
+                final int target = _spareJournalFiles;
+                if (!_pendingSpareFiles.isEmpty()) {
+                    file = _pendingSpareFiles.remove(_pendingSpareFiles.size() - 1);
+                    if (_readySpareFiles.size() >= target) {
+                        obsolete = file;
+                    }
+                } else if (_readySpareFiles.size() > target) {
+                    obsolete = _readySpareFiles.pollLast();
+                } else if (_readySpareFiles.size() < target) {
+                    file = spareFile(_spareFileCounter++, true);
+                } else {
+                    break;
+                }
+            }
+            if (obsolete != null) {
+                obsolete.delete();
+                continue;
+            }
+            /*
+             * Overwrite the entire file so that no record from a recycled file
+             * can be mistaken for a record of the journal file it will
+             * become.
+             */
+            try {
+                final RandomAccessFile raf = new RandomAccessFile(file, "rw");
+                try {
+                    final FileChannel channel = raf.getChannel();
+                    final ByteBuffer zeroes = ByteBuffer.allocate(DEFAULT_COPY_BUFFER_SIZE);
+                    for (long offset = 0; offset < _blockSize;) {
+                        zeroes.clear();
+                        if (zeroes.remaining() > _blockSize - offset) {
+                            zeroes.limit((int) (_blockSize - offset));
+                        }
+                        offset += channel.write(zeroes, offset);
+                    }
+                    channel.truncate(_blockSize);
+                    channel.force(true);
+                } finally {
+                    raf.close();
+                }
+            } catch (final IOException e) {
+                file.delete();
+                throw new PersistitIOException("Preparing spare journal file " + file, e);
+            }
+            synchronized (this) {
+                final File renamed = new File(SPARE_PATH_PATTERN.matcher(file.getPath()).replaceFirst("$1.spare$2"));
+                if (file.renameTo(renamed)) {
+                    _readySpareFiles.add(renamed);
+                } else {
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Locate spare journal files left by an earlier session. Those that were
+     * completely zero-filled are ready for use; the others must be zero-filled
+     * again. Caller must hold the monitor.
      */
-    synchronized FileChannel getFileChannel(final long address) throws PersistitIOException {
-        if (address < _deleteBoundaryAddress || address > _currentAddress + _blockSize) {
-            throw new IllegalArgumentException("Invalid journal address " + address + " outside of range ("
-                    + _deleteBoundaryAddress + ":" + (_currentAddress + _blockSize) + ")");
+    private void findSpareJournalFiles() {
+        final File path = new File(_journalFilePath);
+        final File directory = path.getParentFile() == null ? new File(".") : path.getParentFile();
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            return;
         }
-        final long generation = address / _blockSize;
-        FileChannel channel = _journalFileChannels.get(generation);
-        if (channel == null) {
-            try {
-                channel = new MediatedFileChannel(addressToFile(address), "rw");
-                _journalFileChannels.put(generation, channel);
-            } catch (final IOException ioe) {
-                throw new PersistitIOException(ioe);
+        Arrays.sort(files);
+        for (final File file : files) {
+            final Matcher matcher = SPARE_PATH_PATTERN.matcher(file.getPath());
+            if (matcher.matches() && matcher.group(1).equals(path.getPath())) {
+                _spareFileCounter = Math.max(_spareFileCounter, Integer.parseInt(matcher.group(2)) + 1);
+                if (matcher.group(3) == null && file.length() == _blockSize) {
+                    _readySpareFiles.add(file);
+                } else {
+                    _pendingSpareFiles.add(file);
+                }
             }
         }
-        return channel;
+    }
+
+    private File spareFile(final int index, final boolean pending) {
+        return new File(String.format(SPARE_PATH_FORMAT, _journalFilePath, index, pending ? ".tmp" : ""));
     }
 
     /**
@@ -1696,7 +2858,10 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         for (final PageNode pageNode : _pageMap.values()) {
             for (PageNode pn = pageNode; pn != null; pn = pn.getPrevious()) {
                 if (pn.getTimestamp() < recoveryTimestamp) {
-                    pn.removeHistory();
+                    if (pn.getPrevious() != null) {
+                        pageHistoryChanging(pn.getVolumeHandle(), pn.getPageAddress());
+                        pn.removeHistory();
+                    }
                     break;
                 }
             }
@@ -1709,7 +2874,9 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         for (final Iterator<PageNode> iterator = _branchMap.values().iterator(); iterator.hasNext();) {
             final PageNode pageNode = iterator.next();
             if (pageNode.getTimestamp() < recoveryTimestamp) {
+                pageHistoryChanging(pageNode.getVolumeHandle(), pageNode.getPageAddress());
                 iterator.remove();
+                pageHistoryRemoved(pageNode);
             }
         }
 
@@ -1740,6 +2907,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
          * updates are now fully written to the journal in modified page images.
          */
         synchronized (this) {
+            drainAppends();
             for (final Iterator<TransactionMapItem> iterator = _liveTransactionMap.values().iterator(); iterator
                     .hasNext();) {
                 final TransactionMapItem item = iterator.next();
@@ -1754,9 +2922,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     status = _persistit.getTransactionIndex().getStatus(item.getStartTimestamp());
                     if (status == null || status.getTs() != item.getStartTimestamp()) {
                         iterator.remove();
+                        transactionRemoved(item);
                     } else if (status.getTc() == ABORTED && status.isNotified()) {
                         if (status.getMvvCount() == 0) {
                             iterator.remove();
+                            transactionRemoved(item);
                             sequence(RECOVERY_PRUNING_B);
                         } else {
                             if (item.getStartTimestamp() < earliestAborted) {
@@ -1786,7 +2956,12 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         }
         synchronized (this)
         {
-          _liveTransactionMap.keySet().removeAll(startTimestamps);
+          for (final Long startTimestamp : startTimestamps) {
+            final TransactionMapItem item = _liveTransactionMap.remove(startTimestamp);
+            if (item != null) {
+              transactionRemoved(item);
+            }
+          }
         }
 
         /*
@@ -1888,12 +3063,11 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * versions of the same page. These earlier instances are truncated whenever
      * a later version of the same page has been checkpointed.
      *
-     * PageNode instances are designed to serve as both Key and Value fields of
-     * the _pageNodeMap. The general rubric when adding a page to the journal is
-     * to construct a PageNode representing the page image, and then use it to
-     * perform a lookup in the _pageNodeMap. If there is no matching PageNode
-     * already in the map then simply add the new one. If there is a matching
-     * PageNode, link it to the new one then replace the entry in the map.
+     * The most recent PageNode for each page is held in a {@link PageMap}
+     * keyed by volume handle and page address. The general rubric when adding
+     * a page to the journal is to construct a PageNode representing the page
+     * image and store it in the map. If the map already held a PageNode for
+     * the same page, link it to the new one.
      *
      * This class implement Comparable on the page address. This is used in
      * forming a sorted set of PageNodes so that we can copy pages in roughly
@@ -2096,6 +3270,17 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
         private long _lastRecordAddress;
 
+        /**
+         * Whether this item was written to the most recent TM or TI record
+         */
+        private boolean _recorded;
+
+        /**
+         * Whether this item has been added or updated since the most recent TM
+         * or TI record was written
+         */
+        private boolean _changed = true;
+
         TransactionMapItem(final long startTimestamp, final long address) {
             _startTimestamp = startTimestamp;
             _commitTimestamp = 0;
@@ -2128,10 +3313,25 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
         void setCommitTimestamp(final long commitTimestamp) {
             _commitTimestamp = commitTimestamp;
+            _changed = true;
         }
 
         void setLastRecordAddress(final long address) {
             _lastRecordAddress = address;
+            _changed = true;
+        }
+
+        boolean isRecorded() {
+            return _recorded;
+        }
+
+        boolean isChanged() {
+            return _changed;
+        }
+
+        void recorded() {
+            _recorded = true;
+            _changed = false;
         }
 
         public boolean isCommitted() {
@@ -2200,6 +3400,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     }
                 }
                 cleanupForCopy(_copyList);
+                prepareSpareJournalFiles();
                 _lastCyclePagesWritten = _copyList.size();
                 if (_copyList.isEmpty()) {
                     _copyFast.set(false);
@@ -2243,6 +3444,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         }
     }
 
+    /**
+     * Forces the journal on behalf of committing transactions. A committing
+     * thread that finds no force cycle in progress becomes the leader: it
+     * forces everything written so far and then wakes the followers that
+     * arrived in the meantime. Each follower whose commit record was written
+     * before the leader's cycle began is then durable; the others elect the
+     * next leader among themselves. The JOURNAL_FLUSHER thread takes part in
+     * the same protocol when its poll interval elapses so that records written
+     * without a waiting committer also become durable.
+     */
     private class JournalFlusher extends IOTaskRunnable {
 
         volatile long _lastExceptionTimestamp = 0;
@@ -2256,6 +3467,25 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         volatile long _startTimestamp;
         volatile long _endTimestamp;
 
+        /**
+         * Timestamp allocated at the start of the most recently completed
+         * force cycle. Every record written before that timestamp was
+         * allocated is durable, or else its failure is reported by
+         * _lastException.
+         */
+        volatile long _durableTimestamp;
+
+        /**
+         * Monitor on which followers wait for the leader's force cycle
+         */
+        private final Object _groupCommitLock = new Object();
+
+        /**
+         * Whether a thread is running a force cycle; guarded by
+         * _groupCommitLock
+         */
+        private boolean _leading;
+
         JournalFlusher() {
             super(JournalManager.this._persistit);
         }
@@ -2272,162 +3502,199 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
          */
         private void waitForDurability(final long flushedTimestamp, final long leadTime, final long stallTime)
                 throws PersistitException {
+            final long now = System.nanoTime();
             /*
-             * Commit is known durable once the JOURNAL_FLUSHER thread has
-             * posted an _endTimestamp larger than flushedTimestamp.
+             * If the caller specified an leadTime interval larger than the
+             * estimated time remaining until the JOURNAL_FLUSHER writes the
+             * commit, then return immediately. This handles the "soft" commit
+             * case.
              */
-            final long now = System.nanoTime();
-            long remainingStallTime = stallTime;
+            if (leadTime == 0 || leadTime * NS_PER_MS < estimatedNanosToFinish(flushedTimestamp, now)) {
+                groupCommit(flushedTimestamp, stallTime);
+            }
+            if (_lastExceptionTimestamp > flushedTimestamp) {
+                final Exception e = _lastException;
+                if (e instanceof PersistitException) {
+                    throw (PersistitException) e;
+                } else {
+                    throw new PersistitException(e);
+                }
+            }
+            _totalCommits.incrementAndGet();
+            _totalCommitWaitTime.addAndGet(System.nanoTime() - now);
+        }
 
+        /**
+         * Estimate how long it will be before the JOURNAL_FLUSHER makes a
+         * record written at flushedTimestamp durable on its own schedule.
+         */
+        private long estimatedNanosToFinish(final long flushedTimestamp, final long now)
+                throws PersistitInterruptedException {
+            if (_durableTimestamp > flushedTimestamp) {
+                return 0;
+            }
+            /*
+             * Detect whether an I/O cycle is in progress; if so estimate how
+             * much more time (in nanoseconds) it will require to complete.
+             */
+            long estimatedRemainingIoNanos = -1;
+            long startTimestamp;
+            long endTimestamp;
+            long startTime;
+            long endTime;
+            /*
+             * Spin until values are stable
+             */
             while (true) {
-                /*
-                 * Detect whether an I/O cycle is in progress; if so estimate
-                 * how much more time (in nanoseconds) it will require to
-                 * complete.
-                 */
-                long estimatedRemainingIoNanos = -1;
-                long startTime;
-                long endTime;
-                long startTimestamp;
-                long endTimestamp;
-
-                /*
-                 * Spin until values are stable
-                 */
-                while (true) {
-                    startTimestamp = _startTimestamp;
-                    endTimestamp = _endTimestamp;
-                    startTime = _startTime;
-                    endTime = _endTime;
-                    if (startTimestamp == _startTimestamp && endTimestamp == _endTimestamp) {
-                        if (flushedTimestamp > startTimestamp && startTimestamp > endTimestamp) {
-                            estimatedRemainingIoNanos = Math.max(startTime + _expectedIoTime - now, 0);
-                        }
-                        break;
+                startTimestamp = _startTimestamp;
+                endTimestamp = _endTimestamp;
+                startTime = _startTime;
+                endTime = _endTime;
+                if (startTimestamp == _startTimestamp && endTimestamp == _endTimestamp) {
+                    if (flushedTimestamp > startTimestamp && startTimestamp > endTimestamp) {
+                        estimatedRemainingIoNanos = Math.max(startTime + _expectedIoTime - now, 0);
                     }
-                    Util.spinSleep();
-                }
-
-                if (endTimestamp > flushedTimestamp && startTimestamp > flushedTimestamp) {
-                    /*
-                     * Done - commit is durable
-                     */
                     break;
                 }
-
-                long remainingSleepNanos;
+                Util.spinSleep();
+            }
+            if (startTimestamp < flushedTimestamp) {
+                final long remainingSleepNanos;
                 if (estimatedRemainingIoNanos == -1) {
                     remainingSleepNanos = Math.max(0, _flushInterval - (now - endTime));
                 } else {
                     remainingSleepNanos = _flushInterval;
                 }
+                return remainingSleepNanos + _expectedIoTime;
+            } else {
+                return Math.max(estimatedRemainingIoNanos, 0);
+            }
+        }
 
-                long estimatedNanosToFinish;
-                if (startTimestamp < flushedTimestamp) {
-                    estimatedNanosToFinish = remainingSleepNanos + _expectedIoTime;
-                } else {
-                    estimatedNanosToFinish = estimatedRemainingIoNanos;
+        /**
+         * Wait until a force cycle that began after flushedTimestamp has
+         * completed, leading one if no other thread is.
+         *
+         * @param stallTime
+         *            time interval in milliseconds a leader is willing to
+         *            wait for other committers to join its cycle
+         * @throws PersistitInterruptedException
+         */
+        private void groupCommit(final long flushedTimestamp, final long stallTime)
+                throws PersistitInterruptedException {
+            while (_durableTimestamp <= flushedTimestamp) {
+                synchronized (_groupCommitLock) {
+                    if (_durableTimestamp > flushedTimestamp) {
+                        break;
+                    }
+                    if (_leading) {
+                        try {
+                            _groupCommitLock.wait();
+                        } catch (final InterruptedException e) {
+                            throw new PersistitInterruptedException(e);
+                        }
+                        continue;
+                    }
+                    _leading = true;
                 }
-
-                if (leadTime > 0 && leadTime * NS_PER_MS >= estimatedNanosToFinish) {
-                    /*
-                     * If the caller specified an leadTime interval larger than
-                     * the estimated time remaining in the cycle, then return
-                     * immediately. This handles the "soft" commit case.
-                     */
-                    break;
-                } else if (estimatedRemainingIoNanos == -1) {
+                try {
                     /*
-                     * If there is no I/O in progress, then wait as long as
-                     * possible (determined by stallTime) before kicking the
-                     * JOURNAL_FLUSHER to write the caller's transaction.
+                     * Hold the cycle open for a fraction of the recently
+                     * observed force time so that committers arriving
+                     * meanwhile share it rather than waiting for the next.
                      */
-                    if (remainingStallTime > 0) {
-                        Util.sleep(remainingStallTime);
-                        remainingStallTime = 0;
-                    } else {
-                        kick();
-                        Util.spinSleep();
+                    final long window = Math.min(stallTime * NS_PER_MS, _expectedIoTime / 2);
+                    if (window > 0) {
+                        LockSupport.parkNanos(window);
                     }
-                } else {
-                    /*
-                     * Otherwise wait for concurrent I/O operation to finish. Do
-                     * this by polling because our experiments with using locks
-                     * here showed significant excess CPU consumption.
-                     */
-                    Util.spinSleep();
-                }
-            }
-            if (_lastExceptionTimestamp > flushedTimestamp) {
-                final Exception e = _lastException;
-                if (e instanceof PersistitException) {
-                    throw (PersistitException) e;
-                } else {
-                    throw new PersistitException(e);
+                    forceCycle();
+                } catch (final PersistitException e) {
+                    // reported to the waiting threads through _lastException
+                } finally {
+                    endCycle();
                 }
             }
-            _totalCommits.incrementAndGet();
-            _totalCommitWaitTime.addAndGet(System.nanoTime() - now);
         }
 
-        @Override
-        protected void runTask() {
+        /**
+         * Flush the write buffer and call FileChannel.force(), recording the
+         * timestamps and times other threads use to know when the I/O
+         * operation has finished. Caller must be leading.
+         */
+        private void forceCycle() throws PersistitException {
             _flushing.set(true);
             try {
                 try {
-                    /*
-                     * This lock is intended only to help other threads in
-                     * waitForDurability to know when the I/O operation has
-                     * finished.
-                     */
-                    try {
-                        _startTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
-                        _startTime = System.nanoTime();
-                        /*
-                         * Flush the write buffer and call FileChannel.force().
-                         */
-                        force();
-
-                    } finally {
-                        _endTime = System.nanoTime();
-                        _endTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
-                    }
-
-                    final long elapsed = _endTime - _startTime;
-                    _totalFlushCycles.incrementAndGet();
-                    _totalFlushIoTime.addAndGet(elapsed);
-                    _ioTimes[_ioCycle] = elapsed;
-                    _ioCycle = (_ioCycle + 1) % IO_MEASUREMENT_CYCLES;
+                    _startTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
+                    _startTime = System.nanoTime();
+                    force();
+                } catch (final PersistitException e) {
+                    _lastException = e;
+                    _lastExceptionTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
+                    throw e;
+                } finally {
+                    _endTime = System.nanoTime();
+                    _endTimestamp = _persistit.getTimestampAllocator().updateTimestamp();
+                    _durableTimestamp = _startTimestamp;
+                }
 
-                    long avg = 0;
-                    for (int index = 0; index < IO_MEASUREMENT_CYCLES; index++) {
-                        avg += _ioTimes[index];
-                    }
-                    avg /= IO_MEASUREMENT_CYCLES;
+                final long elapsed = _endTime - _startTime;
+                _totalFlushCycles.incrementAndGet();
+                _totalFlushIoTime.addAndGet(elapsed);
+                _ioTimes[_ioCycle] = elapsed;
+                _ioCycle = (_ioCycle + 1) % IO_MEASUREMENT_CYCLES;
 
-                    _expectedIoTime = avg;
-                    if (elapsed > _slowIoAlertThreshold * NS_PER_MS) {
-                        _persistit.getLogBase().longJournalIO.log(elapsed / NS_PER_MS, IO_MEASUREMENT_CYCLES, avg
-                                / NS_PER_MS);
-                    }
+                long avg = 0;
+                for (int index = 0; index < IO_MEASUREMENT_CYCLES; index++) {
+                    avg += _ioTimes[index];
+                }
+                avg /= IO_MEASUREMENT_CYCLES;
 
-                } catch (final Exception e) {
-                    if (e instanceof InterruptedException || e instanceof FatalErrorException) {
-                        _closed.set(true);
-                    } else if (e instanceof PersistitException) {
-                        _persistit.getAlertMonitor().post(
-                                new Event(AlertLevel.ERROR, _persistit.getLogBase().journalWriteError, e,
-                                        addressToFile(_writeBufferAddress), addressToOffset(_writeBufferAddress)),
-                                AlertMonitor.JOURNAL_CATEGORY);
-                    } else {
-                        _persistit.getLogBase().journalWriteError.log(e, addressToFile(_writeBufferAddress),
-                                addressToOffset(_writeBufferAddress));
-                    }
+                _expectedIoTime = avg;
+                if (elapsed > _slowIoAlertThreshold * NS_PER_MS) {
+                    _persistit.getLogBase().longJournalIO.log(elapsed / NS_PER_MS, IO_MEASUREMENT_CYCLES,
+                            avg / NS_PER_MS);
                 }
             } finally {
                 _flushing.set(false);
             }
+        }
+
+        private void endCycle() {
+            synchronized (_groupCommitLock) {
+                _leading = false;
+                _groupCommitLock.notifyAll();
+            }
+        }
 
+        @Override
+        protected void runTask() {
+            synchronized (_groupCommitLock) {
+                if (_leading) {
+                    /*
+                     * A committing thread is already forcing the journal
+                     */
+                    return;
+                }
+                _leading = true;
+            }
+            try {
+                forceCycle();
+            } catch (final Exception e) {
+                if (e instanceof InterruptedException || e instanceof FatalErrorException) {
+                    _closed.set(true);
+                } else if (e instanceof PersistitException) {
+                    _persistit.getAlertMonitor().post(
+                            new Event(AlertLevel.ERROR, _persistit.getLogBase().journalWriteError, e,
+                                    addressToFile(_writeBufferAddress), addressToOffset(_writeBufferAddress)),
+                            AlertMonitor.JOURNAL_CATEGORY);
+                } else {
+                    _persistit.getLogBase().journalWriteError.log(e, addressToFile(_writeBufferAddress),
+                            addressToOffset(_writeBufferAddress));
+                }
+            } finally {
+                endCycle();
+            }
         }
 
         @Override
@@ -2437,6 +3704,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     synchronized void selectForCopy(final List<PageNode> list) {
+        drainAppends();
         list.clear();
         if (!_appendOnly.get()) {
             final long timeStampUpperBound = Math.min(getLastValidCheckpointTimestamp(), _copierTimestampLimit);
@@ -2455,23 +3723,33 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         }
     }
 
+    /**
+     * Read the page images to be copied into the supplied buffer. Each image
+     * is placed according to the order in which the pages will be written, so
+     * that images of adjacent pages in the same volume are adjacent in the
+     * buffer and can be written by a single operation in
+     * {@link #writeForCopy(List, ByteBuffer)}. The images themselves are read
+     * in journal address order. Pages that do not fit in the buffer are
+     * removed from the list and left for a later cycle.
+     */
     void readForCopy(final List<PageNode> list, final ByteBuffer bb) throws PersistitException {
-        Collections.sort(list, PageNode.READ_COMPARATOR);
+        Collections.sort(list, PageNode.WRITE_COMPARATOR);
         bb.clear();
 
         Volume volume = null;
         int handle = -1;
+        int offset = 0;
 
         for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
-
             final PageNode pageNode = iterator.next();
+            pageNode.setOffset(-1);
             if (pageNode.isInvalid()) {
                 iterator.remove();
                 continue;
             }
-            pageNode.setOffset(-1);
             if (pageNode.getVolumeHandle() != handle) {
                 handle = -1;
+                volume = null;
                 try {
                     volume = volumeForHandle(pageNode.getVolumeHandle());
                     handle = volume.getHandle();
@@ -2484,8 +3762,32 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                 // Deal with this in writeForCopy
                 continue;
             }
+            final int pageSize = volume.getPageSize();
+            if (offset + pageSize > bb.capacity()) {
+                iterator.remove();
+                continue;
+            }
+            pageNode.setOffset(offset);
+            offset += pageSize;
+        }
+
+        Collections.sort(list, PageNode.READ_COMPARATOR);
+        volume = null;
+        handle = -1;
+
+        for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
+
+            final PageNode pageNode = iterator.next();
+            final int at = pageNode.getOffset();
+            if (at < 0) {
+                continue;
+            }
+            if (pageNode.getVolumeHandle() != handle) {
+                volume = volumeForHandle(pageNode.getVolumeHandle());
+                handle = volume.getHandle();
+            }
 
-            final int at = bb.position();
+            bb.limit(bb.capacity()).position(at);
             final long pageAddress;
             try {
                 final PageNode stablePageNode = new PageNode(pageNode);
@@ -2493,7 +3795,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     iterator.remove();
                     continue;
                 }
-                pageAddress = readPageBufferFromJournal(stablePageNode, bb);
+                pageAddress = readPageBufferFromJournal(stablePageNode, bb, true, false);
                 _persistit.getIOMeter().chargeCopyPageFromJournal(volume, pageAddress, volume.getPageSize(),
                         stablePageNode.getJournalAddress(), urgency());
             } catch (final PersistitException ioe) {
@@ -2505,23 +3807,28 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
             }
 
             Debug.$assert0.t(pageAddress == pageNode.getPageAddress());
-            pageNode.setOffset(at);
 
             if (bb.limit() - at != volume.getStructure().getPageSize()) {
                 throw new CorruptJournalException(pageNode.toStringPageAddress(this) + " bufferSize " + bb.limit()
                         + " does not match " + volume + " bufferSize " + volume.getPageSize() + " at "
                         + pageNode.toStringJournalAddress(this));
             }
-
-            bb.position(bb.limit());
         }
     }
 
+    /**
+     * Write the page images read by {@link #readForCopy(List, ByteBuffer)} to
+     * their volumes. Each run of adjacent pages is written by a single
+     * operation and each volume is forced once. When pages of more than one
+     * volume are to be written, up to {@link #getCopierThreads()} threads
+     * write to different volumes concurrently.
+     */
     void writeForCopy(final List<PageNode> list, final ByteBuffer bb) throws PersistitException {
         Collections.sort(list, PageNode.WRITE_COMPARATOR);
         Volume volume = null;
         int handle = -1;
-        final Set<Volume> volumes = new HashSet<Volume>();
+        final List<VolumeCopy> copies = new ArrayList<VolumeCopy>();
+        VolumeCopy copy = null;
 
         for (final Iterator<PageNode> iterator = list.iterator(); iterator.hasNext();) {
             final PageNode pageNode = iterator.next();
@@ -2553,37 +3860,117 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
                     }
                 }
             }
-            if (volume == null || volume.isClosed()) {
+            if (volume == null || volume.isClosed() || pageNode.getOffset() < 0) {
                 // Remove from the List so that below we won't remove it from
                 // from the pageMap.
                 iterator.remove();
                 continue;
             }
+            if (copy == null || copy._volume != volume) {
+                copy = new VolumeCopy(volume, bb);
+                copies.add(copy);
+            }
+            copy._pageNodes.add(pageNode);
+        }
 
-            final long pageAddress = pageNode.getPageAddress();
-            volume.getStorage().extend(pageAddress);
-            final int pageSize = volume.getPageSize();
-            final int at = pageNode.getOffset();
-            bb.limit(bb.capacity()).position(at).limit(at + pageSize);
-
+        final int threadCount = Math.min(copies.size(), _copierThreads);
+        final Queue<VolumeCopy> queue = new ConcurrentLinkedQueue<VolumeCopy>(copies);
+        final List<Thread> threads = new ArrayList<Thread>();
+        for (int index = 1; index < threadCount; index++) {
+            final Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    copyVolumes(queue);
+                }
+            }, "JOURNAL_COPIER:" + index);
+            threads.add(thread);
+            thread.start();
+        }
+        copyVolumes(queue);
+        for (final Thread thread : threads) {
             try {
-                volume.getStorage().writePage(bb, pageAddress);
-                volumes.add(volume);
-            } catch (final PersistitException ioe) {
-                _persistit.getLogBase().copyException.log(ioe, volume, pageNode.getPageAddress(),
-                        pageNode.getJournalAddress());
-                throw ioe;
+                thread.join();
+            } catch (final InterruptedException e) {
+                throw new PersistitInterruptedException(e);
             }
+        }
 
-            _copiedPageCount++;
-            _persistit.getIOMeter().chargeCopyPageToVolume(volume, pageAddress, volume.getPageSize(),
-                    pageNode.getJournalAddress(), urgency());
+        for (final VolumeCopy volumeCopy : copies) {
+            _copiedPageCount += volumeCopy._copied;
+        }
+        for (final VolumeCopy volumeCopy : copies) {
+            final Throwable failure = volumeCopy._failure;
+            if (failure instanceof PersistitException) {
+                throw (PersistitException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure != null) {
+                throw (Error) failure;
+            }
         }
+    }
 
-        for (final Volume vol : volumes) {
-            vol.getStorage().force();
+    private void copyVolumes(final Queue<VolumeCopy> queue) {
+        VolumeCopy copy;
+        while ((copy = queue.poll()) != null) {
+            try {
+                copy.write();
+            } catch (final Throwable t) {
+                copy._failure = t;
+            }
         }
+    }
 
+    /**
+     * The pages of one volume to be written by
+     * {@link JournalManager#writeForCopy(List, ByteBuffer)}, in page address
+     * order.
+     */
+    private class VolumeCopy {
+
+        private final Volume _volume;
+        private final ByteBuffer _bb;
+        private final List<PageNode> _pageNodes = new ArrayList<PageNode>();
+        private int _copied;
+        private Throwable _failure;
+
+        VolumeCopy(final Volume volume, final ByteBuffer bb) {
+            _volume = volume;
+            _bb = bb.duplicate();
+        }
+
+        void write() throws PersistitException {
+            final VolumeStorage storage = _volume.getStorage();
+            final int pageSize = _volume.getPageSize();
+            final int size = _pageNodes.size();
+            for (int from = 0; from < size;) {
+                final PageNode first = _pageNodes.get(from);
+                int to = from + 1;
+                while (to < size && _pageNodes.get(to).getPageAddress() == first.getPageAddress() + to - from
+                        && _pageNodes.get(to).getOffset() == first.getOffset() + (to - from) * pageSize) {
+                    to++;
+                }
+                for (int index = from; index < to; index++) {
+                    storage.extend(_pageNodes.get(index).getPageAddress());
+                }
+                _bb.limit(_bb.capacity()).position(first.getOffset()).limit(first.getOffset() + (to - from) * pageSize);
+                try {
+                    storage.writePages(_bb, first.getPageAddress());
+                } catch (final PersistitException ioe) {
+                    _persistit.getLogBase().copyException.log(ioe, _volume, first.getPageAddress(),
+                            first.getJournalAddress());
+                    throw ioe;
+                }
+                for (int index = from; index < to; index++) {
+                    final PageNode pageNode = _pageNodes.get(index);
+                    _copied++;
+                    _persistit.getIOMeter().chargeCopyPageToVolume(_volume, pageNode.getPageAddress(), pageSize,
+                            pageNode.getJournalAddress(), urgency());
+                }
+                from = to;
+            }
+            storage.force();
+        }
     }
 
     private void cleanupForCopy(final List<PageNode> list) throws PersistitException {
@@ -2597,94 +3984,114 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         long deleteBoundary = 0;
 
         synchronized (this) {
-            for (final PageNode copiedPageNode : list) {
-                PageNode pageNode = _pageMap.get(copiedPageNode);
-                if (pageNode.getJournalAddress() == copiedPageNode.getJournalAddress()) {
-                    pageNode.removeHistory();
-                    pageNode.invalidate();
-                    final PageNode pn = _pageMap.remove(pageNode);
-                    assert pn == copiedPageNode;
-                } else {
-                    PageNode previous = pageNode.getPrevious();
-                    while (previous != null) {
-                        if (previous.getJournalAddress() == copiedPageNode.getJournalAddress()) {
-                            // No need to keep the previous entry, or any of
-                            // its predecessors
-                            pageNode.removeHistory();
-                            break;
-                        } else {
-                            pageNode = previous;
-                            previous = pageNode.getPrevious();
+            lockWriteBuffer();
+            try {
+                for (final PageNode copiedPageNode : list) {
+                    PageNode pageNode = _pageMap.get(copiedPageNode);
+                    if (pageNode.getJournalAddress() == copiedPageNode.getJournalAddress()) {
+                        pageHistoryChanging(pageNode.getVolumeHandle(), pageNode.getPageAddress());
+                        pageNode.removeHistory();
+                        pageNode.invalidate();
+                        final PageNode pn = _pageMap.remove(pageNode);
+                        assert pn == copiedPageNode;
+                        pageHistoryRemoved(pn);
+                    } else {
+                        PageNode previous = pageNode.getPrevious();
+                        while (previous != null) {
+                            if (previous.getJournalAddress() == copiedPageNode.getJournalAddress()) {
+                                // No need to keep the previous entry, or any of
+                                // its predecessors
+                                pageHistoryChanging(pageNode.getVolumeHandle(), pageNode.getPageAddress());
+                                pageNode.removeHistory();
+                                break;
+                            } else {
+                                pageNode = previous;
+                                previous = pageNode.getPrevious();
+                            }
                         }
                     }
                 }
-            }
-            _droppedPageCount += cleanupPageList() - list.size();
-            //
-            // Will hold the address of the first record containing information
-            // not yet copied back into a Volume, and therefore required for
-            // recovery.
-            //
-            long recoveryBoundary = _currentAddress;
-            //
-            // Detect first journal address holding a mapped page
-            // required for recovery
-            //
-
-            for (final PageNode pageNode : _pageMap.values()) {
+                _droppedPageCount += cleanupPageList() - list.size();
+                //
+                // Will hold the address of the first record containing information
+                // not yet copied back into a Volume, and therefore required for
+                // recovery.
+                //
+                long recoveryBoundary = _currentAddress;
                 //
-                // If there are multiple versions, we need to keep
-                // the most recent one that has been checkpointed.
+                // Detect first journal address holding a mapped page
+                // required for recovery
                 //
-                for (PageNode pn = pageNode; pn != null; pn = pn.getPrevious()) {
-                    if (!pn.isInvalid() && pn.getJournalAddress() < recoveryBoundary) {
-                        recoveryBoundary = pn.getJournalAddress();
+
+                for (final PageNode pageNode : _pageMap.values()) {
+                    //
+                    // If there are multiple versions, we need to keep
+                    // the most recent one that has been checkpointed.
+                    //
+                    for (PageNode pn = pageNode; pn != null; pn = pn.getPrevious()) {
+                        if (!pn.isInvalid() && pn.getJournalAddress() < recoveryBoundary) {
+                            recoveryBoundary = pn.getJournalAddress();
+                        }
                     }
                 }
-            }
-            //
-            // Detect first journal address still holding an uncheckpointed
-            // Transaction required for recovery.
-            //
-            for (final Iterator<TransactionMapItem> iterator = _liveTransactionMap.values().iterator(); iterator
-                    .hasNext();) {
-                final TransactionMapItem item = iterator.next();
-                if (item.getStartAddress() < recoveryBoundary) {
-                    recoveryBoundary = item.getStartAddress();
+                //
+                // Detect first journal address still holding an uncheckpointed
+                // Transaction required for recovery.
+                //
+                for (final Iterator<TransactionMapItem> iterator = _liveTransactionMap.values().iterator(); iterator
+                        .hasNext();) {
+                    final TransactionMapItem item = iterator.next();
+                    if (item.getStartAddress() < recoveryBoundary) {
+                        recoveryBoundary = item.getStartAddress();
+                    }
                 }
-            }
 
-            if (recoveryBoundary < _baseAddress) {
-                throw new IllegalStateException(String.format("Retrograde base address %,d is less than current %,d",
-                        recoveryBoundary, _baseAddress));
-            }
+                if (recoveryBoundary < _baseAddress) {
+                    throw new IllegalStateException(String.format("Retrograde base address %,d is less than current %,d",
+                            recoveryBoundary, _baseAddress));
+                }
 
-            _baseAddress = recoveryBoundary;
-            for (deleteBoundary = _deleteBoundaryAddress; deleteBoundary + _blockSize <= _lastValidCheckpointBaseAddress; deleteBoundary += _blockSize) {
-                final long generation = deleteBoundary / _blockSize;
-                final FileChannel channel = _journalFileChannels.remove(generation);
-                if (channel != null) {
-                    obsoleteFileChannels.add(channel);
+                _baseAddress = recoveryBoundary;
+                //
+                // Retain the journal files holding the PM and TM records on
+                // which the PI and TI records in the current file are based.
+                //
+                long retainedAddress = _lastValidCheckpointBaseAddress;
+                if (_pageMapBaseAddress >= 0 && _pageMapBaseAddress < retainedAddress) {
+                    retainedAddress = _pageMapBaseAddress;
                 }
-                obsoleteFiles.add(addressToFile(deleteBoundary));
-            }
-            //
-            // Conditions mean that there is no active content in the
-            // journal and the current journal file has more than RT bytes
-            // in it where RT is the "rolloverThreshold". When these
-            // conditions are met then we force a rollover and cause the
-            // current journal file to be deleted. This behavior keeps
-            // the journal small when there are no un-checkpointed pages
-            // or transactions.
-            //
-            if (_baseAddress == _currentAddress && _lastValidCheckpointBaseAddress >= _currentAddress - CP.OVERHEAD
-                    && (getCurrentJournalSize() > rolloverThreshold())) {
-                final FileChannel channel = _journalFileChannels.remove(_currentAddress / _blockSize);
-                if (channel != null) {
-                    obsoleteFileChannels.add(channel);
+                if (_transactionMapBaseAddress >= 0 && _transactionMapBaseAddress < retainedAddress) {
+                    retainedAddress = _transactionMapBaseAddress;
+                }
+                for (deleteBoundary = _deleteBoundaryAddress; deleteBoundary + _blockSize <= retainedAddress; deleteBoundary += _blockSize) {
+                    final long generation = deleteBoundary / _blockSize;
+                    final FileChannel channel = _journalFileChannels.remove(generation);
+                    if (channel != null) {
+                        obsoleteFileChannels.add(channel);
+                    }
+                    obsoleteFiles.add(addressToFile(deleteBoundary));
+                }
+                //
+                // Conditions mean that there is no active content in the
+                // journal and the current journal file has more than RT bytes
+                // in it where RT is the "rolloverThreshold". When these
+                // conditions are met then we force a rollover and cause the
+                // current journal file to be deleted. This behavior keeps
+                // the journal small when there are no un-checkpointed pages
+                // or transactions.
+                //
+                if (_baseAddress == _currentAddress && _lastValidCheckpointBaseAddress >= _currentAddress - CP.OVERHEAD
+                        && (getCurrentJournalSize() > rolloverThreshold())) {
+                    final long generation = _currentAddress / _blockSize;
+                    obsoleteFiles.add(addressToFile(_currentAddress));
+                    rolloverWithNewBaseAndFile();
+                    final FileChannel channel = _journalFileChannels.remove(generation);
+                    if (channel != null) {
+                        obsoleteFileChannels.add(channel);
+                    }
                 }
-                obsoleteFiles.add(addressToFile(_currentAddress));
-                rolloverWithNewBaseAndFile();
+            } finally {
+                unlockWriteBuffer();
             }
         }
 
@@ -2702,7 +4109,7 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
 
         boolean deleted = true;
         for (final File file : obsoleteFiles) {
-            if (!file.delete()) {
+            if (!recycleJournalFile(file) && !file.delete()) {
                 deleted = false;
                 // TODO - log this.
                 // Ignored for now - this simply means we can't delete
@@ -2739,14 +4146,20 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     synchronized void truncate(final Volume volume, final long timestamp) {
-        for (final PageNode lastPageNode : _pageMap.values()) {
-            PageNode pageNode = lastPageNode;
-            while (pageNode != null) {
-                if (volume.getHandle() == pageNode.getVolumeHandle() && pageNode.getTimestamp() < timestamp) {
-                    pageNode.invalidate();
+        lockWriteBuffer();
+        try {
+            for (final PageNode lastPageNode : _pageMap.values()) {
+                PageNode pageNode = lastPageNode;
+                while (pageNode != null) {
+                    if (volume.getHandle() == pageNode.getVolumeHandle() && pageNode.getTimestamp() < timestamp) {
+                        pageHistoryChanging(pageNode.getVolumeHandle(), pageNode.getPageAddress());
+                        pageNode.invalidate();
+                    }
+                    pageNode = pageNode.getPrevious();
                 }
-                pageNode = pageNode.getPrevious();
             }
+        } finally {
+            unlockWriteBuffer();
         }
     }
 
@@ -2983,15 +4396,20 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
      * @param handleToVolumeMap
      */
     void unitTestInjectPageMap(final Map<PageNode, PageNode> pageMap) {
-        _pageMap.putAll(pageMap);
+        for (final PageNode pageNode : pageMap.values()) {
+            _pageMap.put(pageNode);
+        }
+        _pageMapAddress = -1;
     }
 
     void unitTestInjectTransactionMap(final Map<Long, TransactionMapItem> transactionMap) {
         _liveTransactionMap.putAll(transactionMap);
+        _transactionMapAddress = -1;
     }
 
     void unitTestClearTransactionMap() {
         _liveTransactionMap.clear();
+        _transactionMapAddress = -1;
     }
 
     long getCurrentJournalSize() {
@@ -3002,11 +4420,16 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         return _writeBufferAddress;
     }
 
+    synchronized long getPageMapAddress() {
+        return _pageMapAddress;
+    }
+
     int getJournalFileCount() {
         return (int) (_currentAddress / _blockSize - _baseAddress / _blockSize) + 1;
     }
 
     synchronized boolean unitTestTxnExistsInLiveMap(final Long startTimestamp) {
+        drainAppends();
         return _liveTransactionMap.containsKey(startTimestamp);
     }
 
@@ -3030,8 +4453,9 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         _allowHandlesForTempVolumesAndTrees = true;
     }
 
-    public PageNode queryPageNode(final int volumeHandle, final long pageAddress) {
-        final PageNode pn = _pageMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+    public synchronized PageNode queryPageNode(final int volumeHandle, final long pageAddress) {
+        drainAppends();
+        final PageNode pn = _pageMap.get(volumeHandle, pageAddress);
         if (pn != null) {
             return new PageNode(pn);
         } else {
@@ -3039,8 +4463,8 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
         }
     }
 
-    public PageNode queryBranchNode(final int volumeHandle, final long pageAddress) {
-        final PageNode pn = _branchMap.get(new PageNode(volumeHandle, pageAddress, -1, -1));
+    public synchronized PageNode queryBranchNode(final int volumeHandle, final long pageAddress) {
+        final PageNode pn = _branchMap.get(volumeHandle, pageAddress);
         if (pn != null) {
             return new PageNode(pn);
         } else {
@@ -3049,6 +4473,9 @@ class JournalManager implements JournalManagerMXBean, VolumeHandleLookup {
     }
 
     public TransactionMapItem queryTransactionMap(final long timestamp) {
+        synchronized (this) {
+            drainAppends();
+        }
         final TransactionMapItem item = _liveTransactionMap.get(timestamp);
         if (item != null) {
             return new TransactionMapItem(item);
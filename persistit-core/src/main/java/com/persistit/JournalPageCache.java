@@ -0,0 +1,180 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.persistit.util.Util;
+
+/**
+ * <p>
+ * Small cache of page images recently written to or read from the journal,
+ * keyed by the journal address of the PA, PD or PZ record holding the image.
+ * A page that has been evicted from the buffer pool but not yet copied to its
+ * volume is read from the journal; this cache avoids repeating the random read
+ * (and for PD and PZ records, the reconstruction) when the same image is
+ * needed again, for example by the JOURNAL_COPIER or as the base of a new
+ * page delta.
+ * </p>
+ * <p>
+ * Journal addresses increase monotonically and a record is never rewritten,
+ * so a cached image never becomes stale and no invalidation is needed. The
+ * cache is direct-mapped: each journal address hashes to one slot, and a new
+ * image simply replaces the one held there. Each slot is locked separately so
+ * that concurrent readers rarely contend.
+ * </p>
+ */
+class JournalPageCache {
+
+    private final static long NO_ADDRESS = -1;
+
+    private final Slot[] _slots;
+
+    private final int _mask;
+
+    private final AtomicLong _hitCounter = new AtomicLong();
+
+    private static class Slot {
+        long _journalAddress = NO_ADDRESS;
+        long _pageAddress;
+        int _size;
+        byte[] _bytes;
+
+        void ensureCapacity(final int size) {
+            if (_bytes == null || _bytes.length < size) {
+                _bytes = new byte[size];
+            }
+        }
+
+        void set(final long journalAddress, final long pageAddress, final int size) {
+            _journalAddress = journalAddress;
+            _pageAddress = pageAddress;
+            _size = size;
+        }
+    }
+
+    /**
+     * @param size
+     *            the number of page images to retain, rounded up to a power
+     *            of two; zero disables the cache
+     */
+    JournalPageCache(final int size) {
+        int capacity = size == 0 ? 0 : 1;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        _slots = new Slot[capacity];
+        for (int index = 0; index < capacity; index++) {
+            _slots[index] = new Slot();
+        }
+        _mask = capacity - 1;
+    }
+
+    int size() {
+        return _slots.length;
+    }
+
+    long getHitCount() {
+        return _hitCounter.get();
+    }
+
+    /**
+     * Copy the image cached for the record at the specified journal address
+     * into the supplied ByteBuffer at its current position, and set the
+     * buffer's limit to the end of the image.
+     *
+     * @return the page address of the image, or -1 if there is no cached
+     *         image for the journal address
+     */
+    long get(final long journalAddress, final ByteBuffer bb) {
+        final Slot slot = slot(journalAddress);
+        if (slot == null) {
+            return NO_ADDRESS;
+        }
+        final int at = bb.position();
+        synchronized (slot) {
+            if (slot._journalAddress != journalAddress || at + slot._size > bb.capacity()) {
+                return NO_ADDRESS;
+            }
+            bb.limit(at + slot._size).position(at);
+            Util.putBytes(bb, at, slot._bytes, 0, slot._size);
+            _hitCounter.incrementAndGet();
+            return slot._pageAddress;
+        }
+    }
+
+    /**
+     * Cache the page image held in the supplied ByteBuffer between its
+     * position and limit.
+     */
+    void put(final long journalAddress, final long pageAddress, final ByteBuffer bb) {
+        final int at = bb.position();
+        final int size = bb.limit() - at;
+        final Slot slot = slot(journalAddress);
+        if (slot != null) {
+            synchronized (slot) {
+                slot.ensureCapacity(size);
+                Util.getBytes(bb, at, slot._bytes, 0, size);
+                slot.set(journalAddress, pageAddress, size);
+            }
+        }
+    }
+
+    /**
+     * Cache the image of a page being written to the journal. As in a PA
+     * record, only the <code>leftSize</code> bytes at the start and the
+     * <code>rightSize</code> bytes at the end of the page are retained; the
+     * free space between them is cached as zeroes, which is how the page will
+     * be read back from the journal.
+     */
+    void put(final long journalAddress, final Buffer buffer, final int leftSize, final int rightSize) {
+        final int size = buffer.getBufferSize();
+        final Slot slot = slot(journalAddress);
+        if (slot != null) {
+            synchronized (slot) {
+                slot.ensureCapacity(size);
+                if (leftSize >= size) {
+                    buffer.getBytes(0, slot._bytes, 0, size);
+                } else {
+                    buffer.getBytes(0, slot._bytes, 0, leftSize);
+                    Arrays.fill(slot._bytes, leftSize, size - rightSize, (byte) 0);
+                    buffer.getBytes(size - rightSize, slot._bytes, size - rightSize, rightSize);
+                }
+                slot.set(journalAddress, buffer.getPageAddress(), size);
+            }
+        }
+    }
+
+    /**
+     * @return the slot for the specified journal address, or
+     *         <code>null</code> if the cache is disabled
+     */
+    private Slot slot(final long journalAddress) {
+        return _slots.length == 0 ? null : _slots[hash(journalAddress) & _mask];
+    }
+
+    /**
+     * Page records lie at regular intervals in the journal, so the slot is
+     * chosen from the high-order bits of the product, which depend on every
+     * bit of the address.
+     */
+    private static int hash(final long journalAddress) {
+        return (int) ((journalAddress * 0x9E3779B97F4A7C15L) >>> 32);
+    }
+}
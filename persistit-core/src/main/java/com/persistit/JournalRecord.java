@@ -18,6 +18,10 @@ package com.persistit;
 
 import java.nio.ByteBuffer;
 import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 import com.persistit.util.Util;
 
@@ -194,9 +198,75 @@ import com.persistit.util.Util;
  * </tr>
  * 
  * <tr valign="top">
+ * <td>PD</td>
+ * <td>Page Delta: the byte ranges in which a page differs from a full PA image
+ * written earlier in the same journal file. The page is reconstructed by
+ * reading the PA image and then applying each range in order.
+ * <table>
+ * <tr valign="top">
+ * <td>+16</td>
+ * <td>Volume handle (int)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+20</td>
+ * <td>page address (long)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+28</td>
+ * <td>journal address of the base PA record (long)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+36</td>
+ * <td>buffer size (int)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+40</td>
+ * <td>ranges, each consisting of an offset (char), a length (char) and that
+ * many bytes to be copied into the page at the offset</td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * 
+ * <tr valign="top">
+ * <td>PZ</td>
+ * <td>Compressed Page: a full page image in the same form as a PA record, with
+ * the bytes on either side of the unused space compressed as a single deflate
+ * stream.
+ * <table>
+ * <tr valign="top">
+ * <td>+16</td>
+ * <td>Volume handle (int)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+20</td>
+ * <td>page address (long)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+28</td>
+ * <td>left size (int)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+32</td>
+ * <td>buffer size (int)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+36</td>
+ * <td>uncompressed size of the left and right bytes (int)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+40</td>
+ * <td>compressed page bytes</td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * 
+ * <tr valign="top">
  * <td>PM</td>
- * <td>Page Map: written once near the top of each journal file. Represents the
- * state of the page map at the time the journal rolled over.
+ * <td>Page Map: written near the top of a journal file, unless a PI record is
+ * written in its place. Represents the state of the page map at the time the
+ * journal rolled over.
  * <table>
  * <tr valign="top">
  * <td>+16</td>
@@ -229,6 +299,28 @@ import com.persistit.util.Util;
  * </tr>
  * 
  * <tr valign="top">
+ * <td>PI</td>
+ * <td>Page Map Increment: written near the top of a journal file in place of a
+ * PM record. Holds entries only for pages whose history has changed since the
+ * preceding PM or PI record. Each such page is represented by its complete
+ * list of entries, or by a single entry having a journal address of -1 if the
+ * page is no longer mapped. The page map is reconstructed by following the
+ * chain of PI records back to a PM record; an entry in a later record
+ * supersedes all entries for the same page in earlier records.
+ * <table>
+ * <tr valign="top">
+ * <td>+16</td>
+ * <td>Journal address of the preceding PM or PI record (long)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+24</td>
+ * <td>Entries having the same structure as those of a PM record</td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * 
+ * <tr valign="top">
  * <td>TM</td>
  * <td>Transaction Map: written once near the top of each journal file.
  * Represents map of transactions still open (started, but neither rolled back
@@ -260,6 +352,26 @@ import com.persistit.util.Util;
  * </tr>
  * 
  * <tr valign="top">
+ * <td>TI</td>
+ * <td>Transaction Map Increment: written near the top of a journal file in
+ * place of a TM record. Holds entries only for transactions that have been
+ * added, updated or removed since the preceding TM or TI record; a removed
+ * transaction is represented by an entry having a journal address of -1. The
+ * chain of TI records is resolved in the same way as for PI records.
+ * <table>
+ * <tr valign="top">
+ * <td>+16</td>
+ * <td>Journal address of the preceding TM or TI record (long)</td>
+ * </tr>
+ * <tr valign="top">
+ * <td>+24</td>
+ * <td>Entries having the same structure as those of a TM record</td>
+ * </tr>
+ * </table>
+ * </td>
+ * </tr>
+ * 
+ * <tr valign="top">
  * <td>CP</td>
  * <td>Checkpoint. Specifies a timestamp and a system time in millis at which
  * all pages modified prior to that timestamp are present in the log.
@@ -441,8 +553,8 @@ public class JournalRecord {
 
     private final static Charset UTF8 = Charset.forName("UTF-8");
 
-    public final static int[] TYPES = new int[] { JE.TYPE, JH.TYPE, PA.TYPE, PM.TYPE, SR.TYPE, DR.TYPE, DT.TYPE,
-            TM.TYPE, CP.TYPE, IV.TYPE, IT.TYPE, D1.TYPE, D0.TYPE, TX.TYPE };
+    public final static int[] TYPES = new int[] { JE.TYPE, JH.TYPE, PA.TYPE, PD.TYPE, PZ.TYPE, PM.TYPE, PI.TYPE,
+            SR.TYPE, DR.TYPE, DT.TYPE, TM.TYPE, TI.TYPE, CP.TYPE, IV.TYPE, IT.TYPE, D1.TYPE, D0.TYPE, TX.TYPE };
 
     public static boolean isValidType(final int t) {
         for (final int type : TYPES) {
@@ -461,36 +573,59 @@ public class JournalRecord {
         }
     }
 
+    /*
+     * The accessors below use absolute ByteBuffer operations rather than the
+     * backing array so that records can be written to and read from a direct
+     * buffer as well as a heap buffer. ByteBuffer's default byte order is
+     * big-endian, matching the journal format.
+     */
     private static void putByte(final ByteBuffer bb, final int offset, final int value) {
-        Util.putByte(bb.array(), bb.position() + offset, value);
+        bb.put(bb.position() + offset, (byte) value);
     }
 
     static int getByte(final ByteBuffer bb, final int offset) {
-        return Util.getByte(bb.array(), bb.position() + offset);
+        return bb.get(bb.position() + offset) & 0xFF;
     }
 
     static void putChar(final ByteBuffer bb, final int offset, final int value) {
-        Util.putChar(bb.array(), bb.position() + offset, value);
+        bb.putChar(bb.position() + offset, (char) value);
     }
 
     static int getChar(final ByteBuffer bb, final int offset) {
-        return Util.getChar(bb.array(), bb.position() + offset);
+        return bb.getChar(bb.position() + offset);
     }
 
     static void putInt(final ByteBuffer bb, final int offset, final int value) {
-        Util.putInt(bb.array(), bb.position() + offset, value);
+        bb.putInt(bb.position() + offset, value);
     }
 
     static int getInt(final ByteBuffer bb, final int offset) {
-        return Util.getInt(bb.array(), bb.position() + offset);
+        return bb.getInt(bb.position() + offset);
     }
 
     static void putLong(final ByteBuffer bb, final int offset, final long value) {
-        Util.putLong(bb.array(), bb.position() + offset, value);
+        bb.putLong(bb.position() + offset, value);
     }
 
     static long getLong(final ByteBuffer bb, final int offset) {
-        return Util.getLong(bb.array(), bb.position() + offset);
+        return bb.getLong(bb.position() + offset);
+    }
+
+    private static String getString(final ByteBuffer bb, final int offset, final int length) {
+        if (bb.hasArray()) {
+            return new String(bb.array(), bb.arrayOffset() + bb.position() + offset, length, UTF8);
+        }
+        final byte[] bytes = new byte[length];
+        final ByteBuffer source = bb.duplicate();
+        source.position(bb.position() + offset);
+        source.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    private static void putString(final ByteBuffer bb, final int offset, final byte[] bytes) {
+        final ByteBuffer target = bb.duplicate();
+        target.position(bb.position() + offset);
+        target.put(bytes);
     }
 
     static int getLength(final ByteBuffer bb) {
@@ -620,12 +755,12 @@ public class JournalRecord {
 
         public static String getPath(final ByteBuffer bb) {
             final int length = getLength(bb) - OVERHEAD;
-            return new String(bb.array(), bb.position() + OVERHEAD, length, UTF8);
+            return getString(bb, OVERHEAD, length);
         }
 
         public static void putPath(final ByteBuffer bb, final String path) {
             final byte[] stringBytes = path.getBytes(UTF8);
-            System.arraycopy(stringBytes, 0, bb.array(), bb.position() + OVERHEAD, stringBytes.length);
+            putString(bb, OVERHEAD, stringBytes);
             putLength(bb, OVERHEAD + stringBytes.length);
         }
     }
@@ -675,6 +810,34 @@ public class JournalRecord {
         }
     }
 
+    /**
+     * Page Map Increment. Entries are accessed through the {@link PM} entry
+     * methods with the buffer positioned at the first entry.
+     */
+    static class PI extends JournalRecord {
+
+        public final static int TYPE = ('P' << 8) | 'I';
+
+        public final static int OVERHEAD = 24;
+
+        public static void putType(final ByteBuffer bb) {
+            putType(bb, TYPE);
+        }
+
+        public static int getEntryCount(final ByteBuffer bb) {
+            final int length = getLength(bb) - OVERHEAD;
+            return length / PM.ENTRY_SIZE;
+        }
+
+        public static long getPreviousAddress(final ByteBuffer bb) {
+            return getLong(bb, 16);
+        }
+
+        public static void putPreviousAddress(final ByteBuffer bb, final long address) {
+            putLong(bb, 16, address);
+        }
+    }
+
     /**
      * Transaction Map
      */
@@ -721,6 +884,34 @@ public class JournalRecord {
 
     }
 
+    /**
+     * Transaction Map Increment. Entries are accessed through the {@link TM}
+     * entry methods with the buffer positioned at the first entry.
+     */
+    static class TI extends JournalRecord {
+
+        public final static int TYPE = ('T' << 8) | 'I';
+
+        public final static int OVERHEAD = 24;
+
+        public static void putType(final ByteBuffer bb) {
+            putType(bb, TYPE);
+        }
+
+        public static int getEntryCount(final ByteBuffer bb) {
+            final int length = getLength(bb) - OVERHEAD;
+            return length / TM.ENTRY_SIZE;
+        }
+
+        public static long getPreviousAddress(final ByteBuffer bb) {
+            return getLong(bb, 16);
+        }
+
+        public static void putPreviousAddress(final ByteBuffer bb, final long address) {
+            putLong(bb, 16, address);
+        }
+    }
+
     /**
      * Identify Volume
      */
@@ -754,12 +945,12 @@ public class JournalRecord {
 
         public static String getVolumeSpecification(final ByteBuffer bb) {
             final int length = getLength(bb) - OVERHEAD;
-            return new String(bb.array(), bb.position() + OVERHEAD, length, UTF8);
+            return getString(bb, OVERHEAD, length);
         }
 
         public static void putVolumeSpecification(final ByteBuffer bb, final String volumeSpec) {
             final byte[] stringBytes = volumeSpec.getBytes(UTF8);
-            System.arraycopy(stringBytes, 0, bb.array(), bb.position() + OVERHEAD, stringBytes.length);
+            putString(bb, OVERHEAD, stringBytes);
             putLength(bb, OVERHEAD + stringBytes.length);
         }
     }
@@ -797,12 +988,12 @@ public class JournalRecord {
 
         public static String getTreeName(final ByteBuffer bb) {
             final int length = getLength(bb) - OVERHEAD;
-            return new String(bb.array(), bb.position() + OVERHEAD, length, UTF8);
+            return getString(bb, OVERHEAD, length);
         }
 
         public static void putTreeName(final ByteBuffer bb, final String treeName) {
             final byte[] stringBytes = treeName.getBytes(UTF8);
-            System.arraycopy(stringBytes, 0, bb.array(), bb.position() + OVERHEAD, stringBytes.length);
+            putString(bb, OVERHEAD, stringBytes);
             putLength(bb, OVERHEAD + stringBytes.length);
         }
     }
@@ -854,6 +1045,270 @@ public class JournalRecord {
 
     }
 
+    /**
+     * Page Delta
+     */
+    static class PD extends JournalRecord {
+
+        public final static int TYPE = ('P' << 8) | 'D';
+
+        public final static int OVERHEAD = 40;
+
+        public final static int RANGE_OVERHEAD = 4;
+
+        public static void putType(final ByteBuffer bb) {
+            putType(bb, TYPE);
+        }
+
+        public static int getVolumeHandle(final ByteBuffer bb) {
+            return getInt(bb, 16);
+        }
+
+        public static void putVolumeHandle(final ByteBuffer bb, final int volumeHandle) {
+            putInt(bb, 16, volumeHandle);
+        }
+
+        public static long getPageAddress(final ByteBuffer bb) {
+            return getLong(bb, 20);
+        }
+
+        public static void putPageAddress(final ByteBuffer bb, final long pageAddress) {
+            putLong(bb, 20, pageAddress);
+        }
+
+        public static long getBaseAddress(final ByteBuffer bb) {
+            return getLong(bb, 28);
+        }
+
+        public static void putBaseAddress(final ByteBuffer bb, final long baseAddress) {
+            putLong(bb, 28, baseAddress);
+        }
+
+        public static int getBufferSize(final ByteBuffer bb) {
+            return getInt(bb, 36);
+        }
+
+        public static void putBufferSize(final ByteBuffer bb, final int bufferSize) {
+            putInt(bb, 36, bufferSize);
+        }
+
+        /**
+         * Copy the ranges held in a PD record into a page image.
+         * 
+         * @param bb
+         *            ByteBuffer positioned at the start of a complete PD record
+         * @param page
+         *            the page image, already holding the base PA image
+         * @param offset
+         *            absolute index of the page image within
+         *            <code>page</code>
+         * @return the number of ranges applied, or -1 if a range extends
+         *         beyond the record or the page
+         */
+        public static int applyRanges(final ByteBuffer bb, final ByteBuffer page, final int offset) {
+            final int bufferSize = getBufferSize(bb);
+            final int end = bb.position() + getLength(bb);
+            int count = 0;
+            for (int at = bb.position() + OVERHEAD; at < end; count++) {
+                if (at + RANGE_OVERHEAD > end) {
+                    return -1;
+                }
+                final int rangeOffset = bb.getChar(at);
+                final int rangeLength = bb.getChar(at + 2);
+                at += RANGE_OVERHEAD;
+                if (at + rangeLength > end || rangeOffset + rangeLength > bufferSize) {
+                    return -1;
+                }
+                Util.copyBytes(bb, at, page, offset + rangeOffset, rangeLength);
+                at += rangeLength;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Compressed Page
+     */
+    static class PZ extends JournalRecord {
+
+        public final static int TYPE = ('P' << 8) | 'Z';
+
+        public final static int OVERHEAD = 40;
+
+        public static void putType(final ByteBuffer bb) {
+            putType(bb, TYPE);
+        }
+
+        public static int getVolumeHandle(final ByteBuffer bb) {
+            return getInt(bb, 16);
+        }
+
+        public static void putVolumeHandle(final ByteBuffer bb, final int volumeHandle) {
+            putInt(bb, 16, volumeHandle);
+        }
+
+        public static long getPageAddress(final ByteBuffer bb) {
+            return getLong(bb, 20);
+        }
+
+        public static void putPageAddress(final ByteBuffer bb, final long pageAddress) {
+            putLong(bb, 20, pageAddress);
+        }
+
+        public static int getLeftSize(final ByteBuffer bb) {
+            return getInt(bb, 28);
+        }
+
+        public static void putLeftSize(final ByteBuffer bb, final int leftSize) {
+            putInt(bb, 28, leftSize);
+        }
+
+        public static int getBufferSize(final ByteBuffer bb) {
+            return getInt(bb, 32);
+        }
+
+        public static void putBufferSize(final ByteBuffer bb, final int bufferSize) {
+            putInt(bb, 32, bufferSize);
+        }
+
+        public static int getPayloadSize(final ByteBuffer bb) {
+            return getInt(bb, 36);
+        }
+
+        public static void putPayloadSize(final ByteBuffer bb, final int payloadSize) {
+            putInt(bb, 36, payloadSize);
+        }
+
+        /**
+         * Compress the left and right portions of a page image.
+         * 
+         * @param deflater
+         *            a Deflater that has been reset
+         * @param bytes
+         *            the page image
+         * @param leftSize
+         *            number of bytes at the start of the page to compress
+         * @param rightSize
+         *            number of bytes at the end of the page to compress
+         * @param output
+         *            array to receive the compressed bytes
+         * @param limit
+         *            maximum number of compressed bytes to produce
+         * @return the number of compressed bytes, or -1 if the result would
+         *         exceed <code>limit</code>
+         */
+        public static int deflate(final Deflater deflater, final byte[] bytes, final int leftSize,
+                final int rightSize, final byte[] output, final int limit) {
+            int length = 0;
+            deflater.setInput(bytes, 0, leftSize);
+            while (!deflater.needsInput()) {
+                if (length == limit) {
+                    return -1;
+                }
+                length += deflater.deflate(output, length, limit - length);
+            }
+            deflater.setInput(bytes, bytes.length - rightSize, rightSize);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (length == limit) {
+                    return -1;
+                }
+                length += deflater.deflate(output, length, limit - length);
+            }
+            return length;
+        }
+
+        /**
+         * Decompress the page image held in a PZ record. The unused space
+         * between the left and right portions is filled with zeros.
+         * 
+         * @param inflater
+         *            an Inflater that has been reset
+         * @param bb
+         *            ByteBuffer positioned at the start of a complete PZ
+         *            record
+         * @param bytes
+         *            array to receive the page image
+         * @param offset
+         *            offset of the page image within <code>bytes</code>
+         * @throws DataFormatException
+         *             if the record is invalid
+         */
+        public static void inflate(final Inflater inflater, final ByteBuffer bb, final byte[] bytes, final int offset)
+                throws DataFormatException {
+            final int recordSize = getLength(bb);
+            final int leftSize = getLeftSize(bb);
+            final int bufferSize = getBufferSize(bb);
+            final int payloadSize = getPayloadSize(bb);
+            if (recordSize < OVERHEAD || leftSize < 0 || payloadSize < leftSize || payloadSize > bufferSize
+                    || offset + bufferSize > bytes.length) {
+                throw new DataFormatException("Invalid sizes: recordSize=" + recordSize + " leftSize=" + leftSize
+                        + " payloadSize=" + payloadSize + " bufferSize=" + bufferSize);
+            }
+            final int rightSize = payloadSize - leftSize;
+            if (bb.hasArray()) {
+                inflater.setInput(bb.array(), bb.arrayOffset() + bb.position() + OVERHEAD, recordSize - OVERHEAD);
+            } else {
+                final byte[] input = new byte[recordSize - OVERHEAD];
+                Util.getBytes(bb, bb.position() + OVERHEAD, input, 0, input.length);
+                inflater.setInput(input);
+            }
+            inflate(inflater, bytes, offset, leftSize);
+            inflate(inflater, bytes, offset + bufferSize - rightSize, rightSize);
+            if (!inflater.finished() || inflater.getRemaining() != 0) {
+                throw new DataFormatException("Compressed page has " + inflater.getRemaining() + " excess bytes");
+            }
+            Arrays.fill(bytes, offset + leftSize, offset + bufferSize - rightSize, (byte) 0);
+        }
+
+        /**
+         * Decompress the page image held in a PZ record into a ByteBuffer,
+         * which may be direct.
+         * 
+         * @param inflater
+         *            an Inflater that has been reset
+         * @param bb
+         *            ByteBuffer positioned at the start of a complete PZ
+         *            record
+         * @param page
+         *            ByteBuffer to receive the page image
+         * @param offset
+         *            absolute index of the page image within
+         *            <code>page</code>
+         * @throws DataFormatException
+         *             if the record is invalid
+         */
+        public static void inflate(final Inflater inflater, final ByteBuffer bb, final ByteBuffer page,
+                final int offset) throws DataFormatException {
+            if (page.hasArray()) {
+                inflate(inflater, bb, page.array(), page.arrayOffset() + offset);
+            } else {
+                //
+                // Inflater can only write to an array
+                //
+                final int bufferSize = getBufferSize(bb);
+                if (bufferSize < 0 || offset + bufferSize > page.capacity()) {
+                    throw new DataFormatException("Invalid sizes: bufferSize=" + bufferSize);
+                }
+                final byte[] bytes = new byte[bufferSize];
+                inflate(inflater, bb, bytes, 0);
+                Util.putBytes(page, offset, bytes, 0, bufferSize);
+            }
+        }
+
+        private static void inflate(final Inflater inflater, final byte[] bytes, final int offset, final int length)
+                throws DataFormatException {
+            int count = 0;
+            while (count < length) {
+                final int inflated = inflater.inflate(bytes, offset + count, length - count);
+                if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                    throw new DataFormatException("Page image truncated at " + count + " of " + length + " bytes");
+                }
+                count += inflated;
+            }
+        }
+    }
+
     /**
      * Checkpoint
      */
@@ -36,6 +36,8 @@ import java.util.BitSet;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import com.persistit.JournalRecord.CP;
 import com.persistit.JournalRecord.D0;
@@ -47,8 +49,12 @@ import com.persistit.JournalRecord.IV;
 import com.persistit.JournalRecord.JE;
 import com.persistit.JournalRecord.JH;
 import com.persistit.JournalRecord.PA;
+import com.persistit.JournalRecord.PD;
+import com.persistit.JournalRecord.PI;
 import com.persistit.JournalRecord.PM;
+import com.persistit.JournalRecord.PZ;
 import com.persistit.JournalRecord.SR;
+import com.persistit.JournalRecord.TI;
 import com.persistit.JournalRecord.TM;
 import com.persistit.JournalRecord.TX;
 import com.persistit.exception.CorruptJournalException;
@@ -56,6 +62,7 @@ import com.persistit.exception.PersistitException;
 import com.persistit.exception.PersistitIOException;
 import com.persistit.mxbeans.JournalManagerMXBean;
 import com.persistit.util.ArgParser;
+import com.persistit.util.Util;
 
 /**
  * @author Peter Beaman
@@ -221,10 +228,18 @@ class JournalTool {
 
         public void pa(final long address, final long timestamp, final int recordSize) throws Exception;
 
+        public void pd(final long address, final long timestamp, final int recordSize) throws Exception;
+
+        public void pz(final long address, final long timestamp, final int recordSize) throws Exception;
+
         public void pm(final long address, final long timestamp, final int recordSize) throws Exception;
 
+        public void pi(final long address, final long timestamp, final int recordSize) throws Exception;
+
         public void tm(final long address, final long timestamp, final int recordSize) throws Exception;
 
+        public void ti(final long address, final long timestamp, final int recordSize) throws Exception;
+
         public void d0(final long address, final long timestamp, final int recordSize) throws Exception;
 
         public void d1(final long address, final long timestamp, final int recordSize) throws Exception;
@@ -494,18 +509,42 @@ class JournalTool {
             }
             break;
 
+        case PD.TYPE:
+            if (_selectedTypes.get(type) && _selectedTimestamps.isSelected(timestamp)) {
+                _action.pd(address, timestamp, recordSize);
+            }
+            break;
+
+        case PZ.TYPE:
+            if (_selectedTypes.get(type) && _selectedTimestamps.isSelected(timestamp)) {
+                _action.pz(address, timestamp, recordSize);
+            }
+            break;
+
         case PM.TYPE:
             if (_selectedTypes.get(type)) {
                 _action.pm(address, timestamp, recordSize);
             }
             break;
 
+        case PI.TYPE:
+            if (_selectedTypes.get(type)) {
+                _action.pi(address, timestamp, recordSize);
+            }
+            break;
+
         case TM.TYPE:
             if (_selectedTypes.get(type)) {
                 _action.tm(address, timestamp, recordSize);
             }
             break;
 
+        case TI.TYPE:
+            if (_selectedTypes.get(type)) {
+                _action.ti(address, timestamp, recordSize);
+            }
+            break;
+
         case TX.TYPE:
             if (_selectedTypes.get(type) && _selectedTimestamps.isSelected(timestamp)) {
                 _action.tx(address, timestamp, recordSize);
@@ -849,6 +888,47 @@ class JournalTool {
             flush();
         }
 
+        @Override
+        public void pd(final long address, final long timestamp, final int recordSize) throws Exception {
+            read(address, PD.OVERHEAD);
+            final long pageAddress = PD.getPageAddress(_readBuffer);
+            final int volumeHandle = PD.getVolumeHandle(_readBuffer);
+            if (!_selectedPages.isSelected(pageAddress)) {
+                return;
+            }
+            start(address, timestamp, "PD", recordSize);
+            appendf(" page %5d:%,12d base %,18d", volumeHandle, pageAddress, PD.getBaseAddress(_readBuffer));
+            flush();
+        }
+
+        @Override
+        public void pz(final long address, final long timestamp, final int recordSize) throws Exception {
+            read(address, recordSize);
+            final long pageAddress = PZ.getPageAddress(_readBuffer);
+            final int volumeHandle = PZ.getVolumeHandle(_readBuffer);
+            if (!_selectedPages.isSelected(pageAddress)) {
+                return;
+            }
+            start(address, timestamp, "PZ", recordSize);
+            final byte[] bytes = new byte[PZ.getBufferSize(_readBuffer)];
+            final Inflater inflater = new Inflater();
+            try {
+                PZ.inflate(inflater, _readBuffer, bytes, 0);
+            } catch (final DataFormatException e) {
+                appendf(" page %5d:%,12d corrupt: %s", volumeHandle, pageAddress, e.getMessage());
+                flush();
+                return;
+            } finally {
+                inflater.end();
+            }
+            final int type = Util.getByte(bytes, Buffer.TYPE_OFFSET);
+            final String typeString = Buffer.getPageTypeName(pageAddress, type);
+            final long rightSibling = pageAddress == 0 ? 0 : Util.getLong(bytes, Buffer.RIGHT_SIBLING_OFFSET);
+            appendf(" page %5d:%,12d type %10s right %,12d ratio %5.2f", volumeHandle, pageAddress, typeString,
+                    rightSibling, (double) PZ.getPayloadSize(_readBuffer) / (recordSize - PZ.OVERHEAD));
+            flush();
+        }
+
         @Override
         public void pm(final long address, final long timestamp, final int recordSize) throws Exception {
             read(address, PM.OVERHEAD);
@@ -857,7 +937,21 @@ class JournalTool {
             appendf(" entries %,10d", count);
             flush();
             if (_verbose) {
-                dumpPageMap(count, address, timestamp, recordSize);
+                dumpPageMap(count, PM.OVERHEAD, address, timestamp, recordSize);
+                flush();
+            }
+        }
+
+        @Override
+        public void pi(final long address, final long timestamp, final int recordSize) throws Exception {
+            read(address, PI.OVERHEAD);
+            start(address, timestamp, "PI", recordSize);
+            final int count = PI.getEntryCount(_readBuffer);
+            final long previous = PI.getPreviousAddress(_readBuffer);
+            appendf(" entries %,10d previous %,18d", count, previous);
+            flush();
+            if (_verbose) {
+                dumpPageMap(count, PI.OVERHEAD, address, timestamp, recordSize);
                 flush();
             }
         }
@@ -870,7 +964,21 @@ class JournalTool {
             appendf(" entries %,10d", count);
             flush();
             if (_verbose) {
-                dumpTransactionMap(count, address, timestamp, recordSize);
+                dumpTransactionMap(count, TM.OVERHEAD, address, timestamp, recordSize);
+                flush();
+            }
+        }
+
+        @Override
+        public void ti(final long address, final long timestamp, final int recordSize) throws Exception {
+            read(address, TI.OVERHEAD);
+            start(address, timestamp, "TI", recordSize);
+            final int count = TI.getEntryCount(_readBuffer);
+            final long previous = TI.getPreviousAddress(_readBuffer);
+            appendf(" entries %,10d previous %,18d", count, previous);
+            flush();
+            if (_verbose) {
+                dumpTransactionMap(count, TI.OVERHEAD, address, timestamp, recordSize);
                 flush();
             }
         }
@@ -902,14 +1010,14 @@ class JournalTool {
             flush();
         }
 
-        void dumpPageMap(final int count, final long from, final long timestamp, final int recordSize)
-                throws PersistitIOException {
-            if (count * PM.ENTRY_SIZE + PM.OVERHEAD != recordSize) {
-                throw new CorruptJournalException("Invalid record size " + recordSize + " for PM record at "
+        void dumpPageMap(final int count, final int overhead, final long from, final long timestamp,
+                final int recordSize) throws PersistitIOException {
+            if (count * PM.ENTRY_SIZE + overhead != recordSize) {
+                throw new CorruptJournalException("Invalid record size " + recordSize + " for page map record at "
                         + addressToString(from, timestamp));
             }
 
-            long address = from + PM.OVERHEAD;
+            long address = from + overhead;
             int index = 0;
             int loaded = 0;
             long lastPage = Long.MAX_VALUE;
@@ -944,13 +1052,13 @@ class JournalTool {
             }
         }
 
-        void dumpTransactionMap(final int count, final long from, final long timestamp, final int recordSize)
-                throws PersistitIOException {
-            if (count * TM.ENTRY_SIZE + TM.OVERHEAD != recordSize) {
-                throw new CorruptJournalException("Invalid record size " + recordSize + " for TM record at "
-                        + addressToString(from, timestamp));
+        void dumpTransactionMap(final int count, final int overhead, final long from, final long timestamp,
+                final int recordSize) throws PersistitIOException {
+            if (count * TM.ENTRY_SIZE + overhead != recordSize) {
+                throw new CorruptJournalException("Invalid record size " + recordSize
+                        + " for transaction map record at " + addressToString(from, timestamp));
             }
-            long address = from + TM.OVERHEAD;
+            long address = from + overhead;
             int index = 0;
             int loaded = 0;
             for (int remaining = count; remaining > 0; remaining--) {
@@ -0,0 +1,473 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import static com.persistit.TransactionStatus.ABORTED;
+import static com.persistit.TransactionStatus.TIMED_OUT;
+import static com.persistit.TransactionStatus.UNCOMMITTED;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.persistit.exception.PersistitException;
+import com.persistit.exception.PersistitInterruptedException;
+import com.persistit.exception.RollbackException;
+import com.persistit.exception.TimeoutException;
+
+/**
+ * <p>
+ * In-memory table of the keys locked by {@link Exchange#lock(Key, long)}. Each
+ * entry identifies a key within a {@link Tree} and records the start
+ * timestamps of the transactions that have locked it. Locking a key conflicts
+ * with every other transaction recorded in its entry exactly as storing a
+ * value conflicts with the versions of an MVV: the caller waits for a
+ * concurrent transaction that is still running, and is rolled back if that
+ * transaction commits or if waiting would create a deadlock.
+ * </p>
+ * <p>
+ * The table is divided into stripes selected by the hash of the tree and key
+ * bytes. Each stripe is a chained hash table guarded by its own monitor, so
+ * that a lock operation costs a hash probe under a lock that is rarely
+ * contended. The monitor is never held while waiting for another transaction
+ * or while consulting the {@link TransactionIndex}: the versions of an entry
+ * are copied under the monitor and checked outside it, and the entry is
+ * validated again before it is changed.
+ * </p>
+ * <p>
+ * A committed transaction's lock must outlive the transaction for as long as
+ * a concurrent transaction could still attempt to lock the same key. A
+ * transaction's entries are pruned when it ends; a version that has to be
+ * retained is removed later by the next lock on the same key or by the
+ * periodic pruning of its stripe, which happens whenever the stripe has grown
+ * to twice its size after the previous pruning.
+ * </p>
+ */
+class KeyLockTable {
+
+    private final static int STRIPES = 256;
+
+    private final static int INITIAL_CAPACITY = 16;
+
+    private final static int PRUNE_THRESHOLD = 64;
+
+    private final TransactionIndex _ti;
+
+    private final Stripe[] _stripes = new Stripe[STRIPES];
+
+    /**
+     * A locked key and the start timestamps of the transactions holding it
+     */
+    static class Entry {
+        private final Tree _tree;
+        private final byte[] _key;
+        private final int _hash;
+        private long[] _versions = new long[2];
+        private int _count;
+        private int _additions;
+        private boolean _unlinked;
+        private Entry _next;
+
+        private Entry(final Tree tree, final Key key, final int hash) {
+            _tree = tree;
+            _key = new byte[key.getEncodedSize()];
+            System.arraycopy(key.getEncodedBytes(), 0, _key, 0, _key.length);
+            _hash = hash;
+        }
+
+        private boolean matches(final Tree tree, final Key key, final int hash) {
+            if (_hash != hash || _tree != tree || _key.length != key.getEncodedSize()) {
+                return false;
+            }
+            final byte[] bytes = key.getEncodedBytes();
+            for (int index = 0; index < _key.length; index++) {
+                if (_key[index] != bytes[index]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean contains(final long ts) {
+            for (int index = 0; index < _count; index++) {
+                if (_versions[index] == ts) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void add(final long ts) {
+            if (_count == _versions.length) {
+                final long[] versions = new long[_count * 2];
+                System.arraycopy(_versions, 0, versions, 0, _count);
+                _versions = versions;
+            }
+            _versions[_count++] = ts;
+            _additions++;
+        }
+
+        private void remove(final long ts) {
+            for (int index = 0; index < _count; index++) {
+                if (_versions[index] == ts) {
+                    _versions[index] = _versions[--_count];
+                    return;
+                }
+            }
+        }
+
+        private long[] copyVersions() {
+            return Arrays.copyOf(_versions, _count);
+        }
+
+        @Override
+        public String toString() {
+            return _tree.getName() + ":" + _key.length + " bytes locked by " + _count;
+        }
+    }
+
+    private static class Stripe {
+        private Entry[] _table = new Entry[INITIAL_CAPACITY];
+        private int _size;
+        private int _pruneThreshold = PRUNE_THRESHOLD;
+        private boolean _pruning;
+    }
+
+    KeyLockTable(final TransactionIndex ti) {
+        _ti = ti;
+        for (int index = 0; index < STRIPES; index++) {
+            _stripes[index] = new Stripe();
+        }
+    }
+
+    /**
+     * Lock a key on behalf of the supplied transaction. If another concurrent
+     * transaction holds the lock and has neither committed nor aborted, wait
+     * up to <code>timeout</code> milliseconds for it to finish.
+     *
+     * @param txn
+     *            the active transaction
+     * @param tree
+     *            the Tree within which the key is locked
+     * @param key
+     *            the key to lock
+     * @param timeout
+     *            maximum time in milliseconds to wait for another transaction
+     * @throws RollbackException
+     *             if a concurrent transaction holding the same lock committed,
+     *             if waiting for it would cause a deadlock, or if the timeout
+     *             expired; the transaction has been rolled back
+     * @throws PersistitInterruptedException
+     *             if the thread was interrupted while waiting
+     */
+    void lock(final Transaction txn, final Tree tree, final Key key, final long timeout) throws PersistitException {
+        final TransactionStatus status = txn.getTransactionStatus();
+        final long ts = status.getTs();
+        final int hash = hash(tree, key);
+        final Stripe stripe = stripe(hash);
+        try {
+            for (;;) {
+                final Entry entry;
+                final long[] versions;
+                final int additions;
+                synchronized (stripe) {
+                    final Entry found = find(stripe, tree, key, hash);
+                    entry = found != null ? found : insert(stripe, new Entry(tree, key, hash));
+                    versions = entry.copyVersions();
+                    additions = entry._additions;
+                }
+                long depends = 0;
+                long conflict = 0;
+                int removable = 0;
+                for (final long version : versions) {
+                    if (version == ts) {
+                        continue;
+                    }
+                    depends = _ti.wwDependency(TransactionIndex.ts2vh(version), status, 0);
+                    if (depends == TIMED_OUT) {
+                        conflict = version;
+                        break;
+                    }
+                    if (depends != 0 && depends != ABORTED) {
+                        break;
+                    }
+                    if (isRemovable(version)) {
+                        versions[removable++] = version;
+                    }
+                }
+                if (depends == 0 || depends == ABORTED) {
+                    boolean prune = false;
+                    synchronized (stripe) {
+                        /*
+                         * Another transaction may have locked the key, or the
+                         * entry may have been pruned, while the versions were
+                         * being checked. If so, check again.
+                         */
+                        if (entry._unlinked || entry._additions != additions) {
+                            continue;
+                        }
+                        for (int index = 0; index < removable; index++) {
+                            entry.remove(versions[index]);
+                        }
+                        if (!entry.contains(ts)) {
+                            entry.add(ts);
+                            txn.addLockedKey(entry);
+                        }
+                        if (stripe._size >= stripe._pruneThreshold && !stripe._pruning) {
+                            stripe._pruning = true;
+                            prune = true;
+                        }
+                    }
+                    if (prune) {
+                        pruneStripe(stripe);
+                    }
+                    return;
+                }
+                if (conflict != 0) {
+                    depends = _ti.wwDependency(TransactionIndex.ts2vh(conflict), status, timeout);
+                }
+                if (depends != 0 && depends != ABORTED) {
+                    /*
+                     * A concurrent transaction holding the lock committed, or
+                     * waiting for it timed out or would deadlock.
+                     */
+                    txn.rollback();
+                    throw new RollbackException();
+                }
+            }
+        } catch (final InterruptedException ie) {
+            throw new PersistitInterruptedException(ie);
+        }
+    }
+
+    /**
+     * Prune the supplied entries, which were locked by a transaction that has
+     * committed or rolled back, and remove any that no longer hold a lock.
+     *
+     * @param entries
+     *            entries locked by the ending transaction
+     */
+    void release(final List<Entry> entries) throws PersistitException {
+        try {
+            for (final Entry entry : entries) {
+                final Stripe stripe = stripe(entry._hash);
+                final long[] versions;
+                synchronized (stripe) {
+                    versions = entry.copyVersions();
+                }
+                final int removable = removable(versions);
+                synchronized (stripe) {
+                    for (int index = 0; index < removable; index++) {
+                        entry.remove(versions[index]);
+                    }
+                    if (entry._count == 0) {
+                        unlink(stripe, entry);
+                    }
+                }
+            }
+        } catch (final InterruptedException ie) {
+            throw new PersistitInterruptedException(ie);
+        }
+    }
+
+    /**
+     * @return the number of keys currently held in the table
+     */
+    int size() {
+        int size = 0;
+        for (final Stripe stripe : _stripes) {
+            synchronized (stripe) {
+                size += stripe._size;
+            }
+        }
+        return size;
+    }
+
+    private Stripe stripe(final int hash) {
+        return _stripes[hash >>> 24 & (STRIPES - 1)];
+    }
+
+    private Entry find(final Stripe stripe, final Tree tree, final Key key, final int hash) {
+        for (Entry entry = stripe._table[hash & (stripe._table.length - 1)]; entry != null; entry = entry._next) {
+            if (entry.matches(tree, key, hash)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private Entry insert(final Stripe stripe, final Entry entry) {
+        if (stripe._size * 4 >= stripe._table.length * 3) {
+            rehash(stripe, stripe._table.length * 2);
+        }
+        final int index = entry._hash & (stripe._table.length - 1);
+        entry._next = stripe._table[index];
+        stripe._table[index] = entry;
+        stripe._size++;
+        return entry;
+    }
+
+    private void unlink(final Stripe stripe, final Entry entry) {
+        if (entry._unlinked) {
+            /*
+             * Already removed by pruning on behalf of another transaction
+             */
+            return;
+        }
+        entry._unlinked = true;
+        final int index = entry._hash & (stripe._table.length - 1);
+        Entry previous = null;
+        for (Entry e = stripe._table[index]; e != null; e = e._next) {
+            if (e == entry) {
+                if (previous == null) {
+                    stripe._table[index] = e._next;
+                } else {
+                    previous._next = e._next;
+                }
+                stripe._size--;
+                return;
+            }
+            previous = e;
+        }
+    }
+
+    /**
+     * Prune every entry in the stripe, discarding those that no longer hold a
+     * lock, and shrink the hash table if it has become sparse. The caller has
+     * set the stripe's <code>_pruning</code> flag; this method clears it.
+     */
+    private void pruneStripe(final Stripe stripe) throws InterruptedException, TimeoutException {
+        try {
+            long[] versions;
+            synchronized (stripe) {
+                int total = 0;
+                for (Entry entry : stripe._table) {
+                    for (; entry != null; entry = entry._next) {
+                        total += entry._count;
+                    }
+                }
+                versions = new long[total];
+                total = 0;
+                for (Entry entry : stripe._table) {
+                    for (; entry != null; entry = entry._next) {
+                        System.arraycopy(entry._versions, 0, versions, total, entry._count);
+                        total += entry._count;
+                    }
+                }
+            }
+            /*
+             * A transaction that locked several keys in the stripe appears
+             * once for each of them; check each timestamp once.
+             */
+            Arrays.sort(versions);
+            int distinct = 0;
+            for (final long version : versions) {
+                if (distinct == 0 || versions[distinct - 1] != version) {
+                    versions[distinct++] = version;
+                }
+            }
+            versions = Arrays.copyOf(versions, distinct);
+            final int removable = removable(versions);
+
+            synchronized (stripe) {
+                final Entry[] table = stripe._table;
+                for (int index = 0; index < table.length; index++) {
+                    Entry previous = null;
+                    for (Entry entry = table[index]; entry != null; entry = entry._next) {
+                        for (int v = entry._count; --v >= 0;) {
+                            if (Arrays.binarySearch(versions, 0, removable, entry._versions[v]) >= 0) {
+                                entry._versions[v] = entry._versions[--entry._count];
+                            }
+                        }
+                        if (entry._count == 0) {
+                            if (previous == null) {
+                                table[index] = entry._next;
+                            } else {
+                                previous._next = entry._next;
+                            }
+                            entry._unlinked = true;
+                            stripe._size--;
+                        } else {
+                            previous = entry;
+                        }
+                    }
+                }
+                int capacity = table.length;
+                while (capacity > INITIAL_CAPACITY && stripe._size * 4 < capacity) {
+                    capacity /= 2;
+                }
+                if (capacity != table.length) {
+                    rehash(stripe, capacity);
+                }
+                stripe._pruneThreshold = Math.max(PRUNE_THRESHOLD, stripe._size * 2);
+            }
+        } finally {
+            synchronized (stripe) {
+                stripe._pruning = false;
+            }
+        }
+    }
+
+    private void rehash(final Stripe stripe, final int capacity) {
+        final Entry[] table = new Entry[capacity];
+        for (Entry entry : stripe._table) {
+            while (entry != null) {
+                final Entry next = entry._next;
+                final int index = entry._hash & (capacity - 1);
+                entry._next = table[index];
+                table[index] = entry;
+                entry = next;
+            }
+        }
+        stripe._table = table;
+    }
+
+    /**
+     * Move the versions that can be removed to the front of the supplied
+     * array, preserving their order.
+     *
+     * @return the number of removable versions
+     */
+    private int removable(final long[] versions) throws InterruptedException, TimeoutException {
+        int removable = 0;
+        for (final long version : versions) {
+            if (isRemovable(version)) {
+                versions[removable++] = version;
+            }
+        }
+        return removable;
+    }
+
+    /**
+     * A lock can be removed once its transaction has aborted, or once it has
+     * committed and no transaction that started before the commit is still
+     * active. A transaction starting later cannot be concurrent with it.
+     */
+    private boolean isRemovable(final long ts) throws InterruptedException, TimeoutException {
+        final long tc = _ti.commitStatus(TransactionIndex.ts2vh(ts), UNCOMMITTED, 0);
+        return tc == ABORTED || tc >= 0 && tc != UNCOMMITTED && !_ti.hasConcurrentTransaction(0, tc);
+    }
+
+    private static int hash(final Tree tree, final Key key) {
+        final byte[] bytes = key.getEncodedBytes();
+        final int size = key.getEncodedSize();
+        int h = tree.hashCode();
+        for (int index = 0; index < size; index++) {
+            h = h * 31 + bytes[index];
+        }
+        return h * 0x9E3779B9;
+    }
+}
@@ -104,7 +104,7 @@ class LongRecordHelper {
                     segmentSize = remainingSize;
                 }
 
-                System.arraycopy(buffer.getBytes(), HEADER_SIZE, value.getEncodedBytes(), offset, segmentSize);
+                buffer.getBytes(HEADER_SIZE, value.getEncodedBytes(), offset, segmentSize);
 
                 offset += segmentSize;
                 remainingSize -= segmentSize;
@@ -192,9 +192,9 @@ class LongRecordHelper {
                         segmentSize = maxSegmentSize;
 
                     Debug.$assert0.t(segmentSize >= 0 && offset >= 0 && offset + segmentSize <= longBytes.length
-                            && HEADER_SIZE + segmentSize <= buffer.getBytes().length);
+                            && HEADER_SIZE + segmentSize <= buffer.getBufferSize());
 
-                    System.arraycopy(longBytes, offset, buffer.getBytes(), HEADER_SIZE, segmentSize);
+                    buffer.putBytes(HEADER_SIZE, longBytes, offset, segmentSize);
 
                     final int end = HEADER_SIZE + segmentSize;
                     if (end < buffer.getBufferSize()) {
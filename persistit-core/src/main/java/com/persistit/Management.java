@@ -943,6 +943,17 @@ public interface Management extends Remote, ManagementMXBean {
         int readerClaimedPageCount;
         int writerClaimedPageCount;
         long earliestDirtyTimestamp;
+        long ghostHitCount;
+        int hotPageCount;
+        String evictionPolicy;
+        long cleanerWriteCount;
+        int cleanLowWaterMark;
+        int partitionCount;
+        long pageCacheHitCount;
+        long pageCacheMissCount;
+        long pageCacheSize;
+        long pageCacheMemory;
+        boolean offHeap;
 
         public BufferPoolInfo() {
 
@@ -950,12 +961,18 @@ public interface Management extends Remote, ManagementMXBean {
 
         @ConstructorProperties({ "bufferSize", "bufferCount", "missCount", "hitCount", "newCount", "evictCount",
                 "writeCount", "forcedWriteCount", "forcedCheckpointWriteCount", "validPageCount", "dirtyPageCount",
-                "readerClaimedPageCount", "writerClaimedPageCount", "earliestDirtyTimestamp" })
+                "readerClaimedPageCount", "writerClaimedPageCount", "earliestDirtyTimestamp", "ghostHitCount",
+                "hotPageCount", "evictionPolicy", "cleanerWriteCount", "cleanLowWaterMark",
+                "partitionCount", "pageCacheHitCount", "pageCacheMissCount", "pageCacheSize", "pageCacheMemory",
+                "offHeap" })
         public BufferPoolInfo(final int bufferSize, final int bufferCount, final long missCount, final long hitCount,
                 final long newCount, final long writeCount, final long evictCount, final long forcedWriteCount,
                 final long forcedCheckpointWriteCount, final long readCounter, final int validPageCount,
                 final int dirtyPageCount, final int readerClaimedPageCount, final int writerClaimedPageCount,
-                final long earliestDirtyTimestamp) {
+                final long earliestDirtyTimestamp, final long ghostHitCount, final int hotPageCount,
+                final String evictionPolicy, final long cleanerWriteCount, final int cleanLowWaterMark,
+                final int partitionCount, final long pageCacheHitCount, final long pageCacheMissCount,
+                final long pageCacheSize, final long pageCacheMemory, final boolean offHeap) {
             super();
             this.bufferSize = bufferSize;
             this.bufferCount = bufferCount;
@@ -971,6 +988,17 @@ public interface Management extends Remote, ManagementMXBean {
             this.readerClaimedPageCount = readerClaimedPageCount;
             this.writerClaimedPageCount = writerClaimedPageCount;
             this.earliestDirtyTimestamp = earliestDirtyTimestamp;
+            this.ghostHitCount = ghostHitCount;
+            this.hotPageCount = hotPageCount;
+            this.evictionPolicy = evictionPolicy;
+            this.cleanerWriteCount = cleanerWriteCount;
+            this.cleanLowWaterMark = cleanLowWaterMark;
+            this.partitionCount = partitionCount;
+            this.pageCacheHitCount = pageCacheHitCount;
+            this.pageCacheMissCount = pageCacheMissCount;
+            this.pageCacheSize = pageCacheSize;
+            this.pageCacheMemory = pageCacheMemory;
+            this.offHeap = offHeap;
         }
 
         /**
@@ -1124,6 +1152,112 @@ public interface Management extends Remote, ManagementMXBean {
         public long getEarliestDirtyTimestamp() {
             return earliestDirtyTimestamp;
         }
+
+        /**
+         * Return the count of misses for pages the eviction policy remembered
+         * as having been recently evicted.
+         * 
+         * @return The ghost hit count
+         */
+        public long getGhostHitCount() {
+            return ghostHitCount;
+        }
+
+        /**
+         * Return the count of buffers the eviction policy currently protects
+         * as hot. Always zero for the CLOCK policy.
+         * 
+         * @return The hot page count
+         */
+        public int getHotPageCount() {
+            return hotPageCount;
+        }
+
+        /**
+         * @return The name of the eviction policy used by this pool
+         */
+        public String getEvictionPolicy() {
+            return evictionPolicy;
+        }
+
+        /**
+         * Return the count of dirty pages written by the PAGE_CLEANER thread
+         * to keep clean buffers available ahead of the clock hand.
+         * 
+         * @return The cleaner write count
+         */
+        public long getCleanerWriteCount() {
+            return cleanerWriteCount;
+        }
+
+        /**
+         * @return The number of clean buffers the PAGE_CLEANER thread tries to
+         *         keep ahead of the clock hand
+         */
+        public int getCleanLowWaterMark() {
+            return cleanLowWaterMark;
+        }
+
+        /**
+         * @return The number of partitions the buffer pool is divided into
+         */
+        public int getPartitionCount() {
+            return partitionCount;
+        }
+
+        /**
+         * @return The count of pages missing from the buffer pool that were
+         *         found in the compressed page cache
+         */
+        public long getPageCacheHitCount() {
+            return pageCacheHitCount;
+        }
+
+        /**
+         * @return The count of pages missing from both the buffer pool and the
+         *         compressed page cache
+         */
+        public long getPageCacheMissCount() {
+            return pageCacheMissCount;
+        }
+
+        /**
+         * Get the ratio of page cache hits to all lookups in the compressed
+         * page cache, which occur only for pages missing from the buffer pool.
+         * 
+         * @return The page cache hit ratio
+         */
+        public double getPageCacheHitRatio() {
+            final long denominator = pageCacheHitCount + pageCacheMissCount;
+            if (denominator == 0)
+                return 0.0;
+            else
+                return ((double) pageCacheHitCount) / ((double) denominator);
+        }
+
+        /**
+         * @return The approximate number of bytes occupied by the compressed
+         *         page cache
+         */
+        public long getPageCacheSize() {
+            return pageCacheSize;
+        }
+
+        /**
+         * @return The maximum size of the compressed page cache, or zero if it
+         *         is disabled
+         */
+        public long getPageCacheMemory() {
+            return pageCacheMemory;
+        }
+
+        /**
+         * @return <code>true</code> if the pages of this pool are allocated
+         *         outside the heap
+         */
+        public boolean isOffHeap() {
+            return offHeap;
+        }
     }
 
     /**
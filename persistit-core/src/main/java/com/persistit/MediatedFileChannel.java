@@ -178,6 +178,22 @@ class MediatedFileChannel extends FileChannel {
         }
     }
 
+    /**
+     * Map a region of the file. The mapping remains valid after the channel is
+     * closed and reopened following an interrupt, so only the mapping call
+     * itself needs to be retried.
+     */
+    @Override
+    public MappedByteBuffer map(final MapMode mode, final long position, final long size) throws IOException {
+        while (true) {
+            try {
+                return _channel.map(mode, position, size);
+            } catch (final ClosedChannelException e) {
+                handleClosedChannelException(e);
+            }
+        }
+    }
+
     @Override
     public long size() throws IOException {
         while (true) {
@@ -282,11 +298,6 @@ class MediatedFileChannel extends FileChannel {
         throw new UnsupportedOperationException();
     }
 
-    @Override
-    public MappedByteBuffer map(final MapMode arg0, final long arg1, final long arg2) throws IOException {
-        throw new UnsupportedOperationException();
-    }
-
     @Override
     public long position() throws IOException {
         throw new UnsupportedOperationException();
@@ -0,0 +1,393 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * <p>
+ * Second-tier cache holding compressed images of clean pages recently evicted
+ * from a {@link BufferPool}. When the pool needs a page that is not resident
+ * it consults this cache before reading the page from the journal or the
+ * Volume.
+ * </p>
+ * <p>
+ * A page is stored while the evicting thread still holds its buffer's writer
+ * claim and before the buffer is detached from the pool's hash table, and it
+ * is removed whenever the page is brought back into the pool. Therefore a page
+ * is never both resident and cached, and a cached image is always the most
+ * recent version of its page. The unused space between the key block and the
+ * tail block is omitted, as it is in journal page records, and the rest of
+ * the page is compressed with {@link Deflater#BEST_SPEED}.
+ * </p>
+ * <p>
+ * Entries are held on the heap in a fixed number of segments, each with an
+ * equal share of the size budget and its own least-recently-stored eviction
+ * order.
+ * </p>
+ */
+class PageCache {
+
+    private final static int SEGMENT_COUNT = 16;
+
+    /**
+     * Approximate heap overhead of one entry beyond its compressed bytes
+     */
+    private final static int ENTRY_OVERHEAD = 96;
+
+    private final int _bufferSize;
+
+    private final Segment[] _segments = new Segment[SEGMENT_COUNT];
+
+    private volatile long _maximumSize;
+
+    private final Queue<Compressor> _compressors = new ConcurrentLinkedQueue<Compressor>();
+
+    private final Queue<Decompressor> _decompressors = new ConcurrentLinkedQueue<Decompressor>();
+
+    private final AtomicLong _hitCounter = new AtomicLong();
+
+    private final AtomicLong _missCounter = new AtomicLong();
+
+    private final AtomicLong _storeCounter = new AtomicLong();
+
+    private final AtomicLong _evictCounter = new AtomicLong();
+
+    PageCache(final int bufferSize, final long maximumSize) {
+        _bufferSize = bufferSize;
+        _maximumSize = maximumSize;
+        for (int index = 0; index < SEGMENT_COUNT; index++) {
+            _segments[index] = new Segment();
+        }
+    }
+
+    /**
+     * Store a compressed image of the page held by the supplied buffer,
+     * replacing any previous image of the same page. The caller must hold a
+     * writer claim on the buffer and the buffer must be clean.
+     *
+     * @param buffer
+     */
+    void put(final Buffer buffer) {
+        final int leftSize;
+        final int rightSize;
+        if (buffer.isDataPage() || buffer.isIndexPage() || buffer.isGarbagePage()) {
+            leftSize = buffer.getKeyBlockEnd();
+            rightSize = _bufferSize - buffer.getAlloc();
+        } else {
+            leftSize = 0;
+            rightSize = _bufferSize;
+        }
+        final Entry entry = new Entry(leftSize, rightSize, compress(buffer, leftSize, rightSize));
+        final Key key = new Key(buffer.getVolume(), buffer.getPageAddress());
+        final Segment segment = segment(key);
+        final long limit = _maximumSize / SEGMENT_COUNT;
+        synchronized (segment) {
+            final Entry previous = segment.put(key, entry);
+            if (previous != null) {
+                segment._size -= previous.size();
+            }
+            segment._size += entry.size();
+            final Iterator<Entry> iterator = segment.values().iterator();
+            while (segment._size > limit && iterator.hasNext()) {
+                segment._size -= iterator.next().size();
+                iterator.remove();
+                _evictCounter.incrementAndGet();
+            }
+        }
+        _storeCounter.incrementAndGet();
+    }
+
+    /**
+     * If an image of the page addressed by the supplied buffer is present,
+     * remove it from the cache and decompress it into the buffer.
+     *
+     * @param buffer
+     *            a buffer with a writer claim whose Volume and page address
+     *            have been set
+     * @return <code>true</code> if the page was found
+     */
+    boolean load(final Buffer buffer) {
+        final Entry entry = remove(buffer.getVolume(), buffer.getPageAddress());
+        if (entry == null) {
+            _missCounter.incrementAndGet();
+            return false;
+        }
+        final Decompressor decompressor = decompressor();
+        final Inflater inflater = decompressor._inflater;
+        final byte[] bytes = decompressor._page;
+        final int rightStart = _bufferSize - entry._rightSize;
+        try {
+            inflater.setInput(entry._bytes);
+            inflate(inflater, bytes, 0, entry._leftSize);
+            inflate(inflater, bytes, rightStart, entry._rightSize);
+            buffer.putBytes(0, bytes, 0, entry._leftSize);
+            buffer.putBytes(rightStart, bytes, rightStart, entry._rightSize);
+        } catch (final DataFormatException e) {
+            throw new IllegalStateException("Corrupt page image in " + this, e);
+        } finally {
+            inflater.reset();
+            _decompressors.offer(decompressor);
+        }
+        buffer.clearBytes(entry._leftSize, rightStart);
+        _hitCounter.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Discard the image of a page, if present.
+     *
+     * @return the removed entry, or <code>null</code>
+     */
+    Entry remove(final Volume volume, final long page) {
+        final Key key = new Key(volume, page);
+        final Segment segment = segment(key);
+        synchronized (segment) {
+            final Entry entry = segment.remove(key);
+            if (entry != null) {
+                segment._size -= entry.size();
+            }
+            return entry;
+        }
+    }
+
+    /**
+     * Discard the images of all pages belonging to a Volume
+     *
+     * @param volume
+     *            the Volume, or <code>null</code> to discard all pages
+     */
+    void invalidate(final Volume volume) {
+        for (final Segment segment : _segments) {
+            synchronized (segment) {
+                for (final Iterator<Map.Entry<Key, Entry>> iterator = segment.entrySet().iterator(); iterator
+                        .hasNext();) {
+                    final Map.Entry<Key, Entry> mapEntry = iterator.next();
+                    if (volume == null || mapEntry.getKey()._volume == volume) {
+                        segment._size -= mapEntry.getValue().size();
+                        iterator.remove();
+                    }
+                }
+            }
+        }
+    }
+
+    long getMaximumSize() {
+        return _maximumSize;
+    }
+
+    /**
+     * Change the size budget. If it is reduced, entries are evicted as pages
+     * are next stored.
+     */
+    void setMaximumSize(final long maximumSize) {
+        _maximumSize = maximumSize;
+    }
+
+    /**
+     * @return Approximate number of bytes of heap occupied by cached pages
+     */
+    long getSize() {
+        long size = 0;
+        for (final Segment segment : _segments) {
+            synchronized (segment) {
+                size += segment._size;
+            }
+        }
+        return size;
+    }
+
+    int getPageCount() {
+        int count = 0;
+        for (final Segment segment : _segments) {
+            synchronized (segment) {
+                count += segment.size();
+            }
+        }
+        return count;
+    }
+
+    long getHitCounter() {
+        return _hitCounter.get();
+    }
+
+    long getMissCounter() {
+        return _missCounter.get();
+    }
+
+    long getStoreCounter() {
+        return _storeCounter.get();
+    }
+
+    long getEvictCounter() {
+        return _evictCounter.get();
+    }
+
+    void resetCounters() {
+        _hitCounter.set(0);
+        _missCounter.set(0);
+        _storeCounter.set(0);
+        _evictCounter.set(0);
+    }
+
+    private Segment segment(final Key key) {
+        return _segments[(key.hashCode() & Integer.MAX_VALUE) % SEGMENT_COUNT];
+    }
+
+    private byte[] compress(final Buffer buffer, final int leftSize, final int rightSize) {
+        Compressor compressor = _compressors.poll();
+        if (compressor == null) {
+            compressor = new Compressor(_bufferSize);
+        }
+        final Deflater deflater = compressor._deflater;
+        final byte[] bytes = compressor._page;
+        buffer.getBytes(0, bytes, 0, leftSize);
+        buffer.getBytes(_bufferSize - rightSize, bytes, _bufferSize - rightSize, rightSize);
+        try {
+            int length = 0;
+            deflater.setInput(bytes, 0, leftSize);
+            while (!deflater.needsInput()) {
+                length = compressor.deflate(length);
+            }
+            deflater.setInput(bytes, _bufferSize - rightSize, rightSize);
+            deflater.finish();
+            while (!deflater.finished()) {
+                length = compressor.deflate(length);
+            }
+            return Arrays.copyOf(compressor._output, length);
+        } finally {
+            deflater.reset();
+            _compressors.offer(compressor);
+        }
+    }
+
+    private Decompressor decompressor() {
+        final Decompressor decompressor = _decompressors.poll();
+        return decompressor == null ? new Decompressor(_bufferSize) : decompressor;
+    }
+
+    private static void inflate(final Inflater inflater, final byte[] bytes, final int offset, final int length)
+            throws DataFormatException {
+        int count = 0;
+        while (count < length) {
+            final int inflated = inflater.inflate(bytes, offset + count, length - count);
+            if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+                throw new DataFormatException("Page image truncated at " + count + " of " + length + " bytes");
+            }
+            count += inflated;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "PageCache[" + _bufferSize + "]";
+    }
+
+    /**
+     * A pooled Deflater with a copy of the page being compressed, which
+     * Deflater can only read from an array, and an output array.
+     */
+    private static class Compressor {
+        private final Deflater _deflater = new Deflater(Deflater.BEST_SPEED);
+        private final byte[] _page;
+        private byte[] _output;
+
+        Compressor(final int bufferSize) {
+            _page = new byte[bufferSize];
+            _output = new byte[bufferSize];
+        }
+
+        /**
+         * Deflate into the output array at <code>length</code>, enlarging the
+         * array if an incompressible page has filled it.
+         */
+        int deflate(final int length) {
+            if (length == _output.length) {
+                _output = Arrays.copyOf(_output, _output.length * 2);
+            }
+            return length + _deflater.deflate(_output, length, _output.length - length);
+        }
+    }
+
+    /**
+     * A pooled Inflater with an array into which a page image is inflated
+     * before being copied into the buffer.
+     */
+    private static class Decompressor {
+        private final Inflater _inflater = new Inflater();
+        private final byte[] _page;
+
+        Decompressor(final int bufferSize) {
+            _page = new byte[bufferSize];
+        }
+    }
+
+    private static class Key {
+        private final Volume _volume;
+        private final long _page;
+
+        Key(final Volume volume, final long page) {
+            _volume = volume;
+            _page = page;
+        }
+
+        @Override
+        public int hashCode() {
+            return _volume.hashCode() ^ (int) _page ^ (int) (_page >>> 32);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) obj;
+            return _page == key._page && _volume == key._volume;
+        }
+    }
+
+    static class Entry {
+        private final int _leftSize;
+        private final int _rightSize;
+        private final byte[] _bytes;
+
+        Entry(final int leftSize, final int rightSize, final byte[] bytes) {
+            _leftSize = leftSize;
+            _rightSize = rightSize;
+            _bytes = bytes;
+        }
+
+        int size() {
+            return _bytes.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    private static class Segment extends LinkedHashMap<Key, Entry> {
+        private static final long serialVersionUID = 1L;
+
+        private long _size;
+    }
+}
@@ -0,0 +1,278 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.persistit.JournalManager.PageNode;
+
+/**
+ * <p>
+ * Open-addressing hash table mapping a (volumeHandle, pageAddress) pair to the
+ * most recent {@link PageNode} for that page. It replaces a
+ * <code>HashMap&lt;PageNode, PageNode&gt;</code> in which every entry cost a
+ * separate <code>Map.Entry</code> object and every lookup required a
+ * temporary PageNode to serve as the key.
+ * </p>
+ * <p>
+ * Keys are held in parallel primitive arrays beside the array of values, so a
+ * probe sequence touches only contiguous memory and never dereferences a
+ * PageNode until a match is found. Collisions are resolved by linear probing.
+ * Removed slots are marked with a tombstone and reclaimed the next time the
+ * table is rebuilt; this keeps removal through the {@link #values()} iterator
+ * safe.
+ * </p>
+ * <p>
+ * This class is not thread-safe. JournalManager and RecoveryManager access
+ * their instances only while holding their own monitors.
+ * </p>
+ */
+class PageMap {
+
+    private final static int INITIAL_CAPACITY = 1024;
+
+    private final static PageNode REMOVED = new PageNode(-1, -1);
+
+    private int[] _handles;
+
+    private long[] _pages;
+
+    private PageNode[] _nodes;
+
+    private int _mask;
+
+    private int _size;
+
+    private int _removed;
+
+    private final Values _values = new Values();
+
+    PageMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    int size() {
+        return _size;
+    }
+
+    boolean isEmpty() {
+        return _size == 0;
+    }
+
+    /**
+     * @return the PageNode stored for the specified page, or
+     *         <code>null</code> if there is none
+     */
+    PageNode get(final int volumeHandle, final long pageAddress) {
+        final int index = find(volumeHandle, pageAddress);
+        return index < 0 ? null : _nodes[index];
+    }
+
+    /**
+     * @return the PageNode stored for the page identified by the volume
+     *         handle and page address of the supplied PageNode
+     */
+    PageNode get(final PageNode key) {
+        return get(key.getVolumeHandle(), key.getPageAddress());
+    }
+
+    /**
+     * Store the supplied PageNode, replacing any PageNode previously stored
+     * for the same page.
+     *
+     * @return the replaced PageNode, or <code>null</code>
+     */
+    PageNode put(final PageNode pageNode) {
+        final int volumeHandle = pageNode.getVolumeHandle();
+        final long pageAddress = pageNode.getPageAddress();
+        int free = -1;
+        for (int index = hash(volumeHandle, pageAddress) & _mask;; index = (index + 1) & _mask) {
+            final PageNode pn = _nodes[index];
+            if (pn == null) {
+                if (free < 0) {
+                    free = index;
+                }
+                break;
+            }
+            if (pn == REMOVED) {
+                if (free < 0) {
+                    free = index;
+                }
+            } else if (_pages[index] == pageAddress && _handles[index] == volumeHandle) {
+                _nodes[index] = pageNode;
+                return pn;
+            }
+        }
+        if (_nodes[free] == REMOVED) {
+            _removed--;
+        }
+        _handles[free] = volumeHandle;
+        _pages[free] = pageAddress;
+        _nodes[free] = pageNode;
+        _size++;
+        if ((_size + _removed) * 4L > _nodes.length * 3L) {
+            rebuild();
+        }
+        return null;
+    }
+
+    /**
+     * Remove the PageNode stored for the page identified by the volume handle
+     * and page address of the supplied PageNode.
+     *
+     * @return the removed PageNode, or <code>null</code>
+     */
+    PageNode remove(final PageNode key) {
+        final int index = find(key.getVolumeHandle(), key.getPageAddress());
+        if (index < 0) {
+            return null;
+        }
+        final PageNode pn = _nodes[index];
+        removeAt(index);
+        return pn;
+    }
+
+    void clear() {
+        if (_nodes.length > INITIAL_CAPACITY) {
+            allocate(INITIAL_CAPACITY);
+        } else {
+            Arrays.fill(_nodes, null);
+        }
+        _size = 0;
+        _removed = 0;
+    }
+
+    /**
+     * @return a view of the stored PageNodes. The view's iterator supports
+     *         {@link Iterator#remove()}; the map must not otherwise be
+     *         modified while it is being iterated.
+     */
+    Collection<PageNode> values() {
+        return _values;
+    }
+
+    private int find(final int volumeHandle, final long pageAddress) {
+        for (int index = hash(volumeHandle, pageAddress) & _mask;; index = (index + 1) & _mask) {
+            final PageNode pn = _nodes[index];
+            if (pn == null) {
+                return -1;
+            }
+            if (pn != REMOVED && _pages[index] == pageAddress && _handles[index] == volumeHandle) {
+                return index;
+            }
+        }
+    }
+
+    private void removeAt(final int index) {
+        _nodes[index] = REMOVED;
+        _size--;
+        _removed++;
+    }
+
+    /**
+     * Reallocate the arrays at a capacity suited to the current size and
+     * reinsert every live entry, discarding tombstones.
+     */
+    private void rebuild() {
+        final int[] handles = _handles;
+        final long[] pages = _pages;
+        final PageNode[] nodes = _nodes;
+        int capacity = INITIAL_CAPACITY;
+        while (capacity < _size * 2L + 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+        for (int from = 0; from < nodes.length; from++) {
+            final PageNode pn = nodes[from];
+            if (pn != null && pn != REMOVED) {
+                int index = hash(handles[from], pages[from]) & _mask;
+                while (_nodes[index] != null) {
+                    index = (index + 1) & _mask;
+                }
+                _handles[index] = handles[from];
+                _pages[index] = pages[from];
+                _nodes[index] = pn;
+            }
+        }
+        _removed = 0;
+    }
+
+    private void allocate(final int capacity) {
+        _handles = new int[capacity];
+        _pages = new long[capacity];
+        _nodes = new PageNode[capacity];
+        _mask = capacity - 1;
+    }
+
+    private static int hash(final int volumeHandle, final long pageAddress) {
+        final long h = (pageAddress + ((long) volumeHandle << 40)) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private class Values extends AbstractCollection<PageNode> {
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public Iterator<PageNode> iterator() {
+            return new Iterator<PageNode>() {
+
+                int _next = advance(0);
+
+                int _current = -1;
+
+                @Override
+                public boolean hasNext() {
+                    return _next < _nodes.length;
+                }
+
+                @Override
+                public PageNode next() {
+                    if (_next >= _nodes.length) {
+                        throw new NoSuchElementException();
+                    }
+                    _current = _next;
+                    _next = advance(_next + 1);
+                    return _nodes[_current];
+                }
+
+                @Override
+                public void remove() {
+                    if (_current < 0 || _nodes[_current] == REMOVED) {
+                        throw new IllegalStateException();
+                    }
+                    removeAt(_current);
+                }
+
+                private int advance(final int from) {
+                    int index = from;
+                    while (index < _nodes.length && (_nodes[index] == null || _nodes[index] == REMOVED)) {
+                        index++;
+                    }
+                    return index;
+                }
+            };
+        }
+    }
+}
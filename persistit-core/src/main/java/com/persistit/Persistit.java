@@ -257,6 +257,8 @@ public class Persistit {
 
   private final TransactionIndex _transactionIndex = new TransactionIndex(_timestampAllocator, TRANSACTION_INDEX_SIZE);
 
+  private final KeyLockTable _keyLockTable = new KeyLockTable(_transactionIndex);
+
   private final Map<SessionId, List<Exchange>> _exchangePoolMap = new WeakHashMap<SessionId, List<Exchange>>();
 
   private final Map<ObjectName, Object> _mxbeans = new TreeMap<ObjectName, Object>();
@@ -286,6 +288,8 @@ public class Persistit {
 
   private final ThreadLocal<SoftReference<int[]>> _intArrayThreadLocal = new ThreadLocal<SoftReference<int[]>>();
 
+  private final ThreadLocal<SoftReference<byte[]>> _byteArrayThreadLocal = new ThreadLocal<SoftReference<byte[]>>();
+
   private final ThreadLocal<SoftReference<Key>> _keyThreadLocal = new ThreadLocal<SoftReference<Key>>();
 
   private final ThreadLocal<SoftReference<Value>> _valueThreadLocal = new ThreadLocal<SoftReference<Value>>();
@@ -446,7 +450,6 @@ public class Persistit {
       preloadBufferPools();
       initializeClassIndex();
       finishRecovery();
-      startTransactionIndexPollTask();
       flush();
       _checkpointManager.checkpoint();
       _journalManager.pruneObsoleteTransactions();
@@ -615,6 +618,11 @@ public class Persistit {
     _journalManager.init(_recoveryManager, journalPath, journalSize);
     _journalManager.setAppendOnly(_configuration.isAppendOnly());
     _journalManager.setIgnoreMissingVolumes(_configuration.isIgnoreMissingVolumes());
+    _journalManager.setPageDeltasEnabled(_configuration.isPageDeltasEnabled());
+    _journalManager.setPageCompressionEnabled(_configuration.isPageCompressionEnabled());
+    _journalManager.setSpareJournalFiles(_configuration.getJournalSpares());
+    _journalManager.setPageCacheSize(_configuration.getJournalPageCache());
+    _journalManager.setCopierThreads(_configuration.getJournalCopierThreads());
   }
 
   private void initializeBufferPools() {
@@ -623,7 +631,17 @@ public class Persistit {
       if (poolSize > 0) {
         final int bufferSize = config.getBufferSize();
         _logBase.allocateBuffers.log(poolSize, bufferSize);
-        final BufferPool pool = new BufferPool(poolSize, bufferSize, this);
+        final BufferPool pool = new BufferPool(poolSize, bufferSize, config.getEvictionPolicy(),
+          config.getPartitionCount(), config.isOffHeap(), this);
+        if (config.getCleanLowWaterMark() >= 0) {
+          pool.setCleanLowWaterMark(Math.min(config.getCleanLowWaterMark(), poolSize));
+        }
+        if (config.getMaximumReadAhead() >= 0) {
+          pool.setMaximumReadAhead(Math.min(config.getMaximumReadAhead(), poolSize));
+        }
+        if (config.getPageCacheMemory() > 0) {
+          pool.setPageCacheMemory(config.getPageCacheMemory());
+        }
         _bufferPoolTable.put(bufferSize, pool);
         if (_configuration.isJmxEnabled()) {
           registerBufferPoolMXBean(bufferSize);
@@ -689,10 +707,6 @@ public class Persistit {
     _cleanupManager.start();
   }
 
-  void startTransactionIndexPollTask() {
-    _transactionIndex.start(this);
-  }
-
   void startBufferPools() throws PersistitException {
     for (final BufferPool pool : _bufferPoolTable.values()) {
       pool.startThreads();
@@ -715,7 +729,8 @@ public class Persistit {
   void preloadBufferPools() throws PersistitException {
     if (_configuration.isBufferPreloadEnabled()) {
       for (final BufferPool pool : _bufferPoolTable.values()) {
-        pool.preloadBufferInventory();
+        pool.preloadBufferInventory(_configuration.getBufferPreloadThreads(),
+          _configuration.isBufferPreloadBackground());
       }
     }
   }
@@ -1513,6 +1528,31 @@ public class Persistit {
     return _bufferPoolTable.get(new Integer(size));
   }
 
+  /**
+   * Change the number of buffers in the <code>BufferPool</code> for the
+   * specified buffer size while Persistit is running. Pages held in buffers
+   * being removed are evicted, and are written first if dirty. See
+   * {@link BufferPool#resize(int)}.
+   *
+   * @param bufferSize
+   *            the buffer size of the pool to resize
+   * @param count
+   *            the desired number of buffers
+   * @return the number of buffers in the pool after resizing
+   * @throws IllegalArgumentException
+   *             if there is no pool for the buffer size or the count is too
+   *             small
+   * @throws PersistitException
+   *             if a dirty page could not be written
+   */
+  public int resizeBufferPool(final int bufferSize, final int count) throws PersistitException {
+    final BufferPool pool = getBufferPool(bufferSize);
+    if (pool == null) {
+      throw new IllegalArgumentException("No buffer pool for buffer size " + bufferSize);
+    }
+    return pool.resize(count);
+  }
+
   /**
    * @return A HashMap containing all the <code>BufferPool</code>s keyed by
    *         their size.
@@ -1542,9 +1582,6 @@ public class Persistit {
    */
   public String transactionReport(final int max) {
     final long[] timestamps = _transactionIndex.oldestTransactions(max);
-    if (timestamps == null) {
-      return "Unstable after 10 retries";
-    }
     if (timestamps.length == 0) {
       return "";
     }
@@ -1677,8 +1714,6 @@ public class Persistit {
       }
 
       _journalManager.close();
-      final IOTaskRunnable task = _transactionIndex.close();
-      waitForIOTaskStop(task);
 
       interruptActiveThreads(SHORT_DELAY);
       closeZombieTransactions(true);
@@ -1778,7 +1813,6 @@ public class Persistit {
         pool.crash();
       }
     }
-    _transactionIndex.crash();
     _cleanupManager.crash();
     _checkpointManager.crash();
     _closed.set(true);
@@ -1841,6 +1875,7 @@ public class Persistit {
       _alertMonitors.clear();
       _bufferPoolTable.clear();
       _intArrayThreadLocal.set(null);
+      _byteArrayThreadLocal.set(null);
       _keyThreadLocal.set(null);
       _valueThreadLocal.set(null);
       _initialized.set(false);
@@ -2254,6 +2289,10 @@ public class Persistit {
     return _transactionIndex;
   }
 
+  KeyLockTable getKeyLockTable() {
+    return _keyLockTable;
+  }
+
   /**
    * Replaces the current logger implementation.
    * 
@@ -2537,6 +2576,19 @@ public class Persistit {
     return ints;
   }
 
+  byte[] getThreadLocalByteArray(final int size) {
+    final SoftReference<byte[]> ref = _byteArrayThreadLocal.get();
+    if (ref != null) {
+      final byte[] bytes = ref.get();
+      if (bytes != null && bytes.length >= size) {
+        return bytes;
+      }
+    }
+    final byte[] bytes = new byte[size];
+    _byteArrayThreadLocal.set(new SoftReference<byte[]>(bytes));
+    return bytes;
+  }
+
   Key getThreadLocalKey() {
     final SoftReference<Key> ref = _keyThreadLocal.get();
     if (ref != null) {
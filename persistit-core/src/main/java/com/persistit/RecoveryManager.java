@@ -40,6 +40,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
 
 import com.persistit.CheckpointManager.Checkpoint;
 import com.persistit.JournalManager.PageNode;
@@ -55,8 +57,12 @@ import com.persistit.JournalRecord.IV;
 import com.persistit.JournalRecord.JE;
 import com.persistit.JournalRecord.JH;
 import com.persistit.JournalRecord.PA;
+import com.persistit.JournalRecord.PD;
+import com.persistit.JournalRecord.PI;
 import com.persistit.JournalRecord.PM;
+import com.persistit.JournalRecord.PZ;
 import com.persistit.JournalRecord.SR;
+import com.persistit.JournalRecord.TI;
 import com.persistit.JournalRecord.TM;
 import com.persistit.JournalRecord.TX;
 import com.persistit.TransactionPlayer.TransactionPlayerListener;
@@ -162,9 +168,9 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
     private final Map<Long, TransactionMapItem> _abortedTransactionMap = new HashMap<Long, TransactionMapItem>();
 
-    private final Map<PageNode, PageNode> _pageMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _pageMap = new PageMap();
 
-    private final Map<PageNode, PageNode> _branchMap = new HashMap<PageNode, PageNode>();
+    private final PageMap _branchMap = new PageMap();
 
     private final Map<Volume, Integer> _volumeToHandleMap = new HashMap<Volume, Integer>();
 
@@ -596,7 +602,7 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
      * 
      * @param pageMap
      */
-    void collectRecoveredPages(final Map<PageNode, PageNode> pageMap, final Map<PageNode, PageNode> branchMap) {
+    void collectRecoveredPages(final PageMap pageMap, final PageMap branchMap) {
         if (_lastValidCheckpoint != null) {
             final long lastValidTimestamp = _lastValidCheckpoint.getTimestamp();
 
@@ -609,11 +615,11 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         if (branched) {
                             previous.setPrevious(null);
                         }
-                        pageMap.put(pageNode, pageNode);
+                        pageMap.put(pageNode);
                         break;
                     } else {
                         if (!branched) {
-                            branchMap.put(pageNode, pageNode);
+                            branchMap.put(pageNode);
                             branched = true;
                         }
                         previous = pageNode;
@@ -959,14 +965,18 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             break;
 
         case PA.TYPE:
+        case PD.TYPE:
+        case PZ.TYPE:
             scanLoadPage(from, timestamp, recordSize);
             break;
 
         case PM.TYPE:
+        case PI.TYPE:
             scanLoadPageMap(from, timestamp, recordSize);
             break;
 
         case TM.TYPE:
+        case TI.TYPE:
             scanLoadTransactionMap(from, timestamp, recordSize);
             break;
 
@@ -1056,7 +1066,8 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
     }
 
     /**
-     * Process a PA (page) record in the journal. Adds an entry to the Page Map.
+     * Process a PA (page), PD (page delta) or PZ (compressed page) record in
+     * the journal. Adds an entry to the Page Map.
      * 
      * @param address
      * @param timestamp
@@ -1074,6 +1085,8 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         //
         if (timestamp > 0) {
             read(address, recordSize);
+            // PD and PZ records hold these fields at the same offsets as PA
+            // records
             final int volumeHandle = PA.getVolumeHandle(_readBuffer);
             final long pageAddress = PA.getPageAddress(_readBuffer);
 
@@ -1086,27 +1099,82 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             final PageNode pageNode = new PageNode(volumeHandle, pageAddress, address, timestamp);
             final PageNode oldPageNode = _pageMap.get(pageNode);
             pageNode.setPrevious(oldPageNode);
-            _pageMap.put(pageNode, pageNode);
-            _persistit.getLogBase().recoveryRecord.log("PA", pageNode.toStringJournalAddress(this),
+            _pageMap.put(pageNode);
+            _persistit.getLogBase().recoveryRecord.log(JournalRecord.str(getType(_readBuffer)),
+                    pageNode.toStringJournalAddress(this),
                     pageNode.toStringPageAddress(this), timestamp);
         }
     }
 
     /*
-     * Process a PM (page map) record. There is one PM record near the beginning
-     * of each journal file. It provides a copy of the page map that existed at
-     * the time the journal file was created, thereby eliminating the need for
-     * scanning all of the previous journal files in the journal.
+     * Process a PM (page map) or PI (page map increment) record. There is one
+     * such record near the beginning of each journal file. A PM record
+     * provides a copy of the page map that existed at the time the journal
+     * file was created, thereby eliminating the need for scanning all of the
+     * previous journal files in the journal. A PI record holds only the pages
+     * whose history changed since the preceding PM or PI record, and the
+     * address of that record. The page map is reconstructed by following the
+     * chain of PI records back to a PM record; for each page only the entries
+     * found in the most recent record mentioning it are loaded.
      */
     void scanLoadPageMap(final long from, final long timestamp, final int recordSize) throws PersistitIOException {
-        read(from, PM.OVERHEAD);
-        final int count = PM.getEntryCount(_readBuffer);
-        if (count * PM.ENTRY_SIZE + PM.OVERHEAD != recordSize) {
-            throw new CorruptJournalException("Invalid record size " + recordSize + " for PM record at "
-                    + addressToString(from, timestamp));
+        PageMap seen = null;
+        long address = from;
+        int size = recordSize;
+        while (true) {
+            read(address, PI.OVERHEAD);
+            final int type = getType(_readBuffer);
+            if (address != from) {
+                size = getLength(_readBuffer);
+                if (type != PI.TYPE && type != PM.TYPE || size < PM.OVERHEAD || size >= _blockSize) {
+                    throw new CorruptJournalException("Invalid page map record " + JournalRecord.str(type)
+                            + " of length " + size + " at " + addressToString(address) + " in chain from "
+                            + addressToString(from, timestamp));
+                }
+            }
+            if (type == PM.TYPE) {
+                final int count = PM.getEntryCount(_readBuffer);
+                if (count * PM.ENTRY_SIZE + PM.OVERHEAD != size) {
+                    throw new CorruptJournalException("Invalid record size " + size + " for PM record at "
+                            + addressToString(address, timestamp));
+                }
+                loadPageMapEntries(address, timestamp, address + PM.OVERHEAD, count, seen);
+                break;
+            }
+            final int count = PI.getEntryCount(_readBuffer);
+            final long previous = PI.getPreviousAddress(_readBuffer);
+            if (count * PM.ENTRY_SIZE + PI.OVERHEAD != size || previous < 0 || previous >= address) {
+                throw new CorruptJournalException("Invalid record size " + size + " or previous address "
+                        + previous + " for PI record at " + addressToString(address, timestamp));
+            }
+            if (seen == null) {
+                seen = new PageMap();
+            }
+            loadPageMapEntries(address, timestamp, address + PI.OVERHEAD, count, seen);
+            address = previous;
         }
+    }
 
-        long address = from + PM.OVERHEAD;
+    /**
+     * Load the entries of one PM or PI record. If <code>seen</code> is not
+     * null, entries for pages already loaded from a more recent record in the
+     * chain are skipped, and each page loaded is added to it.
+     * 
+     * @param from
+     *            address of the record
+     * @param timestamp
+     *            timestamp of the record being recovered, which determines
+     *            whether each page belongs to the page map or the branch map
+     * @param address
+     *            address of the first entry
+     * @param count
+     *            number of entries
+     * @param seen
+     *            pages loaded from more recent records, or <code>null</code>
+     * @throws PersistitIOException
+     */
+    private void loadPageMapEntries(final long from, final long timestamp, long address, final int count,
+            final PageMap seen) throws PersistitIOException {
         int index = 0;
         int loaded = 0;
 
@@ -1123,14 +1191,27 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                 }
             }
             final int volumeHandle = PM.getEntryVolumeHandle(_readBuffer, index);
+            final long pageAddress = PM.getEntryPageAddress(_readBuffer, index);
+            final long pageTimestamp = PM.getEntryTimestamp(_readBuffer, index);
+            final long journalAddress = PM.getEntryJournalAddress(_readBuffer, index);
+            index++;
+            if (seen != null) {
+                final PageNode marker = seen.get(volumeHandle, pageAddress);
+                if (marker == null) {
+                    seen.put(new PageNode(volumeHandle, pageAddress, from, -1));
+                } else if (marker.getJournalAddress() != from) {
+                    continue;
+                }
+                if (journalAddress < 0) {
+                    // PI entry recording that the page is no longer mapped
+                    continue;
+                }
+            }
             final Volume volume = _handleToVolumeMap.get(volumeHandle);
             if (volume == null) {
                 throw new CorruptJournalException("Page map refers to undefined volume handle " + volumeHandle
                         + " in entry " + (count - remaining + 1) + " at " + addressToString(from, timestamp));
             }
-            final long pageAddress = PM.getEntryPageAddress(_readBuffer, index);
-            final long pageTimestamp = PM.getEntryTimestamp(_readBuffer, index);
-            final long journalAddress = PM.getEntryJournalAddress(_readBuffer, index);
             final PageNode pageNode = new PageNode(volumeHandle, pageAddress, journalAddress, pageTimestamp);
             final PageNode lastPageNode;
             boolean linked = false;
@@ -1157,18 +1238,22 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             // zero, this is handled as a special case. All pages from such
             // journals are recovered.
             //
+            // Entries loaded from earlier records in a PI chain are classified
+            // using the timestamp of the most recent record so that the result
+            // is the same as if a full PM record had been written in its place.
+            //
             if (timestamp != 0 && timestamp < pageTimestamp) {
                 lastPageNode = _branchMap.get(pageNode);
                 if (lastPageNode == null || journalAddress > lastPageNode.getJournalAddress()) {
                     pageNode.setPrevious(lastPageNode);
-                    _branchMap.put(pageNode, pageNode);
+                    _branchMap.put(pageNode);
                     linked = true;
                 }
             } else {
                 lastPageNode = _pageMap.get(pageNode);
                 if (lastPageNode == null || journalAddress > lastPageNode.getJournalAddress()) {
                     pageNode.setPrevious(lastPageNode);
-                    _pageMap.put(pageNode, pageNode);
+                    _pageMap.put(pageNode);
                     linked = true;
                 }
             }
@@ -1185,27 +1270,65 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                     }
                 }
             }
-
-            index++;
         }
     }
 
     /*
-     * Process a TM (transaction map) record. There is one TM record near the
-     * beginning of each journal file. It provides a copy of the live
-     * transactions that existed at the time the journal file was created,
-     * thereby eliminating the need for scanning all of the previous journal
-     * files in the journal.
+     * Process a TM (transaction map) or TI (transaction map increment) record.
+     * There is one such record near the beginning of each journal file. A TM
+     * record provides a copy of the live transactions that existed at the time
+     * the journal file was created, thereby eliminating the need for scanning
+     * all of the previous journal files in the journal. A TI record holds only
+     * the transactions added, updated or removed since the preceding TM or TI
+     * record; the chain is followed back to a TM record as for PI records.
      */
     void scanLoadTransactionMap(final long from, final long timestamp, final int recordSize)
             throws PersistitIOException {
-        read(from, TM.OVERHEAD);
-        final int count = TM.getEntryCount(_readBuffer);
-        if (count * TM.ENTRY_SIZE + TM.OVERHEAD != recordSize) {
-            throw new CorruptJournalException("Invalid record size " + recordSize + " for TM record at "
-                    + addressToString(from, timestamp));
+        Map<Long, Long> seen = null;
+        long address = from;
+        int size = recordSize;
+        while (true) {
+            read(address, TI.OVERHEAD);
+            final int type = getType(_readBuffer);
+            if (address != from) {
+                size = getLength(_readBuffer);
+                if (type != TI.TYPE && type != TM.TYPE || size < TM.OVERHEAD || size >= _blockSize) {
+                    throw new CorruptJournalException("Invalid transaction map record " + JournalRecord.str(type)
+                            + " of length " + size + " at " + addressToString(address) + " in chain from "
+                            + addressToString(from, timestamp));
+                }
+            }
+            if (type == TM.TYPE) {
+                final int count = TM.getEntryCount(_readBuffer);
+                if (count * TM.ENTRY_SIZE + TM.OVERHEAD != size) {
+                    throw new CorruptJournalException("Invalid record size " + size + " for TM record at "
+                            + addressToString(address, timestamp));
+                }
+                loadTransactionMapEntries(address, timestamp, address + TM.OVERHEAD, count, seen);
+                break;
+            }
+            final int count = TI.getEntryCount(_readBuffer);
+            final long previous = TI.getPreviousAddress(_readBuffer);
+            if (count * TM.ENTRY_SIZE + TI.OVERHEAD != size || previous < 0 || previous >= address) {
+                throw new CorruptJournalException("Invalid record size " + size + " or previous address "
+                        + previous + " for TI record at " + addressToString(address, timestamp));
+            }
+            if (seen == null) {
+                seen = new HashMap<Long, Long>();
+            }
+            loadTransactionMapEntries(address, timestamp, address + TI.OVERHEAD, count, seen);
+            address = previous;
         }
-        long address = from + TM.OVERHEAD;
+    }
+
+    /**
+     * Load the entries of one TM or TI record. If <code>seen</code> is not
+     * null, it maps the start timestamp of each transaction already loaded to
+     * the address of the record it was loaded from; entries for transactions
+     * loaded from a more recent record in the chain are skipped.
+     */
+    private void loadTransactionMapEntries(final long from, final long timestamp, long address, final int count,
+            final Map<Long, Long> seen) throws PersistitIOException {
         int index = 0;
         int loaded = 0;
         for (int remaining = count; remaining > 0; remaining--) {
@@ -1224,10 +1347,23 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             final long commitTimestamp = TM.getEntryCommitTimestamp(_readBuffer, index);
             final long journalAddress = TM.getEntryJournalAddress(_readBuffer, index);
             final long lastRecordAddress = TM.getLastRecordAddress(_readBuffer, index);
+            index++;
+            final Long key = Long.valueOf(startTimestamp);
+            if (seen != null) {
+                final Long recordAddress = seen.get(key);
+                if (recordAddress == null) {
+                    seen.put(key, Long.valueOf(from));
+                } else if (recordAddress.longValue() != from) {
+                    continue;
+                }
+                if (journalAddress < 0) {
+                    // TI entry recording that the transaction was removed
+                    continue;
+                }
+            }
 
             if (!isZombieTransaction(journalAddress)) {
                 final TransactionMapItem ts = new TransactionMapItem(startTimestamp, journalAddress);
-                final Long key = Long.valueOf(startTimestamp);
                 ts.setCommitTimestamp(commitTimestamp);
                 ts.setLastRecordAddress(lastRecordAddress);
                 if (_recoveredTransactionMap.put(key, ts) != null) {
@@ -1237,7 +1373,6 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                 }
                 _persistit.getTimestampAllocator().updateTimestamp(commitTimestamp);
             }
-            index++;
         }
     }
 
@@ -1365,11 +1500,19 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
         if (lastRequiredJournalAddress > startingAddress) {
             read(lastRequiredJournalAddress, PA.OVERHEAD);
             type = getType(_readBuffer);
-            validate(type, file, startingAddress, PA.TYPE, "Invalid record type %3$,d at %1$s:%2$d");
             recordSize = getLength(_readBuffer);
-            validate(recordSize, file, startingAddress, PA.OVERHEAD + Buffer.HEADER_SIZE, PA.OVERHEAD
-                    + Buffer.MAX_BUFFER_SIZE, "PA record size %3$,d not in valid range "
-                    + "[%4$,d:%5$,d] at %1$s:%2$,d");
+            if (type == PD.TYPE) {
+                validate(recordSize, file, startingAddress, PD.OVERHEAD, PD.OVERHEAD + Buffer.MAX_BUFFER_SIZE,
+                        "PD record size %3$,d not in valid range " + "[%4$,d:%5$,d] at %1$s:%2$,d");
+            } else if (type == PZ.TYPE) {
+                validate(recordSize, file, startingAddress, PZ.OVERHEAD, PZ.OVERHEAD + Buffer.MAX_BUFFER_SIZE,
+                        "PZ record size %3$,d not in valid range " + "[%4$,d:%5$,d] at %1$s:%2$,d");
+            } else {
+                validate(type, file, startingAddress, PA.TYPE, "Invalid record type %3$,d at %1$s:%2$d");
+                validate(recordSize, file, startingAddress, PA.OVERHEAD + Buffer.HEADER_SIZE, PA.OVERHEAD
+                        + Buffer.MAX_BUFFER_SIZE, "PA record size %3$,d not in valid range "
+                        + "[%4$,d:%5$,d] at %1$s:%2$,d");
+            }
             final long pageAddress = PA.getPageAddress(_readBuffer);
             validate(pageAddress, file, startingAddress, lastRequiredPageNode.getPageAddress(),
                     "Mismatched page address %3$d at %1$s:%2$d");
@@ -1609,10 +1752,9 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             // Look for the latest version of the page which precedes the
             // record's timestamp.
             //
-            final PageNode key = new PageNode(volumeHandle, page, -1, -1);
-            PageNode pn = lastPageNodeBefore(_branchMap.get(key), timestamp);
+            PageNode pn = lastPageNodeBefore(_branchMap.get(volumeHandle, page), timestamp);
             if (pn == null) {
-                pn = lastPageNodeBefore(_pageMap.get(key), timestamp);
+                pn = lastPageNodeBefore(_pageMap.get(volumeHandle, page), timestamp);
             }
 
             if (pn == null) {
@@ -1624,14 +1766,14 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
             read(_currentAddress, PA.OVERHEAD);
             final int type = PA.getType(_readBuffer);
             final int recordSize = PA.getLength(_readBuffer);
-            final int payloadSize = recordSize - PA.OVERHEAD;
+            final int payloadSize = type == PZ.TYPE ? PZ.getPayloadSize(_readBuffer) : recordSize - PA.OVERHEAD;
             final int leftSize = PA.getLeftSize(_readBuffer);
             final int bufferSize = PA.getBufferSize(_readBuffer);
             final long pageAddress = PA.getPageAddress(_readBuffer);
             //
-            // Verify that this is the valid and appropriate PA record
+            // Verify that this is the valid and appropriate PA or PZ record
             //
-            if (type != PA.TYPE) {
+            if (type != PA.TYPE && type != PZ.TYPE) {
                 throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
                         + " is not a PAGE record");
             }
@@ -1647,11 +1789,29 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
                         + " mismatched page address: expected/actual=" + pn.getPageAddress() + "/" + pageAddress);
             }
 
+            read(_currentAddress, recordSize);
+            final byte[] bytes;
+            final int at;
+            if (type == PZ.TYPE) {
+                bytes = new byte[bufferSize];
+                at = 0;
+                final Inflater inflater = new Inflater();
+                try {
+                    PZ.inflate(inflater, _readBuffer, bytes, at);
+                } catch (final DataFormatException e) {
+                    throw new CorruptJournalException("Record at " + pn.toStringJournalAddress(this)
+                            + " cannot be decompressed: " + e.getMessage());
+                } finally {
+                    inflater.end();
+                }
+            } else {
+                bytes = _readBuffer.array();
+                at = _readBuffer.position() + PA.OVERHEAD;
+            }
             //
             // Verify that this is a PAGE_TYPE_LONG_RECORD
             //
-            read(_currentAddress, recordSize);
-            final int pageType = JournalRecord.getByte(_readBuffer, PA.OVERHEAD + Buffer.TYPE_OFFSET);
+            final int pageType = Util.getByte(bytes, at + Buffer.TYPE_OFFSET);
 
             if (pageType != Buffer.PAGE_TYPE_LONG_RECORD) {
                 throw new CorruptJournalException("Long record chain contains invalid page type " + pageType
@@ -1661,13 +1821,12 @@ public class RecoveryManager implements RecoveryManagerMXBean, VolumeHandleLooku
 
             final int segmentSize = Math.min(remainingSize, payloadSize - Buffer.HEADER_SIZE);
 
-            System.arraycopy(_readBuffer.array(), _readBuffer.position() + PA.OVERHEAD + Buffer.HEADER_SIZE,
-                    value.getEncodedBytes(), offset, segmentSize);
+            System.arraycopy(bytes, at + Buffer.HEADER_SIZE, value.getEncodedBytes(), offset, segmentSize);
             offset += segmentSize;
             remainingSize -= segmentSize;
 
             // Next page in chain
-            page = JournalRecord.getLong(_readBuffer, PA.OVERHEAD + Buffer.RIGHT_SIBLING_OFFSET);
+            page = Util.getLong(bytes, at + Buffer.RIGHT_SIBLING_OFFSET);
 
             if (count > Buffer.MAX_LONG_RECORD_CHAIN) {
                 throw new CorruptJournalException("Long record chain has more than " + Buffer.MAX_LONG_RECORD_CHAIN
@@ -95,6 +95,12 @@ abstract class SharedResource {
     private static class Sync extends AbstractQueuedSynchronizer {
         private static final long serialVersionUID = 1L;
 
+        /**
+         * Incremented each time a writer claim is granted. Only the thread
+         * holding the writer claim modifies it.
+         */
+        private volatile long _writerVersion;
+
         @Override
         protected boolean tryAcquire(final int arg) {
             assert arg == 1;
@@ -113,6 +119,7 @@ abstract class SharedResource {
                     return false;
                 } else if (compareAndSetState(state, (state | WRITER_MASK) + 1)) {
                     setExclusiveOwnerThread(thisThread);
+                    _writerVersion++;
                     return true;
                 }
                 ACQUIRE_LOOPS.incrementAndGet();
@@ -160,6 +167,7 @@ abstract class SharedResource {
                     return false;
                 } else if (compareAndSetState(state, state | WRITER_MASK)) {
                     setExclusiveOwnerThread(thisThread);
+                    _writerVersion++;
                     return true;
                 }
                 ACQUIRE_LOOPS.incrementAndGet();
@@ -227,6 +235,10 @@ abstract class SharedResource {
             return getExclusiveOwnerThread();
         }
 
+        private long writerVersion() {
+            return _writerVersion;
+        }
+
         private boolean setBitsInState(final int mask) {
             for (;;) {
                 final int state = getState();
@@ -399,6 +411,30 @@ abstract class SharedResource {
         _generation.incrementAndGet();
     }
 
+    /**
+     * Begin an optimistic read of this resource. No claim is acquired; the
+     * caller reads the resource and then calls {@link #validateStamp(long)}
+     * to learn whether a writer could have modified it in the meantime. If
+     * validation fails, anything read must be discarded.
+     *
+     * @return a stamp to pass to {@link #validateStamp(long)}, or -1 if a
+     *         thread currently holds a writer claim
+     */
+    long optimisticStamp() {
+        final long version = _sync.writerVersion();
+        return _sync.testBitsInState(WRITER_MASK) ? -1 : version;
+    }
+
+    /**
+     * @param stamp
+     *            value returned by {@link #optimisticStamp()}
+     * @return <code>true</code> if no writer claim has been granted since the
+     *         stamp was issued
+     */
+    boolean validateStamp(final long stamp) {
+        return !_sync.testBitsInState(WRITER_MASK) && _sync.writerVersion() == stamp;
+    }
+
     int getStatus() {
         return _sync.state();
     }
@@ -73,6 +73,12 @@ public class TimelyResource<V extends Version> {
 
     private final Persistit _persistit;
     private volatile Entry _first;
+    /*
+     * Version created by getVersion(VersionCreator) for read-only
+     * transactions that find no snapshot version. They cannot add it, so a
+     * single instance is created on first use and shared among them.
+     */
+    private volatile V _unregisteredVersion;
 
     public TimelyResource(final Persistit persistit) {
         _persistit = persistit;
@@ -130,8 +136,16 @@ public class TimelyResource<V extends Version> {
         final Transaction txn = _persistit.getTransaction();
         V version = getVersion(tss2v(txn));
         if (version == null) {
-            version = creator.createVersion(this);
-            addVersion(version, txn);
+            if (txn.isReadOnly()) {
+                version = _unregisteredVersion;
+                if (version == null) {
+                    version = creator.createVersion(this);
+                    _unregisteredVersion = version;
+                }
+            } else {
+                version = creator.createVersion(this);
+                addVersion(version, txn);
+            }
         }
         return version;
     }
@@ -320,6 +334,7 @@ public class TimelyResource<V extends Version> {
      */
     private void addVersion(final Entry entry, final Transaction txn) throws PersistitInterruptedException,
             RollbackException {
+        txn.checkWritable();
         final TransactionIndex ti = _persistit.getTransactionIndex();
         while (true) {
             try {
@@ -23,13 +23,9 @@ import static com.persistit.util.ThreadSequencer.sequence;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 import com.persistit.Accumulator.Delta;
-import com.persistit.CleanupManager.CleanupAction;
-import com.persistit.CleanupManager.CleanupPruneAction;
 import com.persistit.JournalRecord.D0;
 import com.persistit.JournalRecord.D1;
 import com.persistit.JournalRecord.DR;
@@ -112,13 +108,14 @@ import com.persistit.util.Util;
  * </p>
  * <p>
  * HARD and GROUP ensure each transaction is written durably to non-volatile
- * storage before the <code>commit</code> method returns. The difference is that
- * GROUP can improve throughput somewhat when many transactions are running
- * concurrently because the average number of I/O operations needed to commit N
- * transactions can be smaller than N. However, for one or a small number of
- * concurrent threads, GROUP reduces throughput because it works by introducing
- * a delay to allow other concurrent transactions to commit within a single I/O
- * operation.
+ * storage before the <code>commit</code> method returns. Under either policy
+ * transactions committing while an I/O operation is in progress share the
+ * next one, so the average number of I/O operations needed to commit N
+ * concurrent transactions can be smaller than N. GROUP additionally delays
+ * each I/O operation by a fraction of the recently observed I/O time, bounded
+ * by the commit stall time, to recruit more transactions into it. This can
+ * improve throughput when many transactions are running concurrently, but for
+ * one or a small number of concurrent threads it reduces throughput.
  * </p>
  * <p>
  * SOFT commits are generally much faster than HARD or GROUP commits, especially
@@ -211,6 +208,15 @@ import com.persistit.util.Util;
  * a problem depends on the volume of update transactions being processed and
  * the duration of long-running transactions.
  * </p>
+ * <p>
+ * An application that knows a transaction will not modify data can start it
+ * with {@link #beginReadOnly()} rather than {@link #begin()}. A read-only
+ * transaction reads the same snapshot, but it is not registered in the
+ * transaction index, and committing it writes nothing to the journal and does
+ * not wait for durability. An attempt to store or remove data, or to update an
+ * {@link Accumulator}, within a read-only transaction throws an
+ * <code>IllegalStateException</code>.
+ * </p>
  * 
  * <a name="_pattern1"/> <h2>The try/finally/retry Code Pattern</h2>
  * <p>
@@ -432,6 +438,14 @@ public class Transaction {
     private volatile TransactionStatus _transactionStatus;
     private volatile long _startTimestamp;
     private volatile long _commitTimestamp;
+    private volatile boolean _readOnly;
+
+    /**
+     * Slot in which the current read-only transaction has published its start
+     * timestamp, or -1
+     */
+    private volatile int _snapshotSlot = -1;
+    private int _lastSnapshotSlot = -1;
 
     private final ByteBuffer _buffer = ByteBuffer.allocate(TRANSACTION_BUFFER_SIZE);
 
@@ -441,7 +455,7 @@ public class Transaction {
 
     private String _threadName;
 
-    private final Set<CleanupAction> _lockCleanupActions = new HashSet<CleanupAction>();
+    private final List<KeyLockTable.Entry> _lockedKeys = new ArrayList<KeyLockTable.Entry>();
 
     public static enum CommitPolicy {
         /**
@@ -516,7 +530,8 @@ public class Transaction {
     void close() throws PersistitException {
         if (_nestedDepth > 0 && !_commitCompleted && !_rollbackCompleted) {
             final TransactionStatus ts = _transactionStatus;
-            if (ts != null && ts.getTs() == _startTimestamp && !_commitCompleted && !_rollbackCompleted) {
+            if ((_snapshotSlot >= 0 || ts != null && ts.getTs() == _startTimestamp) && !_commitCompleted
+                    && !_rollbackCompleted) {
                 rollback();
                 _persistit.getLogBase().txnAbandoned.log(this);
             }
@@ -581,6 +596,16 @@ public class Transaction {
         return _rollbackPending;
     }
 
+    /**
+     * Indicates whether the current transaction was started by
+     * {@link #beginReadOnly()}.
+     * 
+     * @return <code>true</code> if a read-only transaction is active
+     */
+    public boolean isReadOnly() {
+        return _readOnly;
+    }
+
     /**
      * Start a transaction. If there already is an active transaction then this
      * method merely increments a counter that indicates how many times
@@ -593,6 +618,33 @@ public class Transaction {
      *             if the current transaction scope has already been committed.
      */
     public void begin() throws PersistitException {
+        begin(false);
+    }
+
+    /**
+     * <p>
+     * Start a read-only transaction. The transaction reads a consistent
+     * snapshot exactly as one started by {@link #begin()} does, but it may not
+     * modify data: an attempt to store or remove a record, or to update an
+     * {@link Accumulator}, throws an <code>IllegalStateException</code>.
+     * </p>
+     * <p>
+     * A read-only transaction is cheaper to run. Its start timestamp is
+     * published in a slot of the transaction index without allocating or
+     * registering a TransactionStatus, and {@link #commit} merely releases the
+     * slot: there is nothing to write to the journal and nothing to wait for.
+     * If there is an active transaction then, as with {@link #begin()}, this
+     * method merely increments the nesting count.
+     * </p>
+     * 
+     * @throws IllegalStateException
+     *             if the current transaction scope has already been committed.
+     */
+    public void beginReadOnly() throws PersistitException {
+        begin(true);
+    }
+
+    private void begin(final boolean readOnly) throws PersistitException {
         if (_commitCompleted) {
             throw new IllegalStateException("Attempt to begin a committed transaction " + this);
         }
@@ -601,15 +653,23 @@ public class Transaction {
         }
         if (_nestedDepth == 0) {
             flushTransactionBuffer(false);
-            try {
-                _transactionStatus = _persistit.getTransactionIndex().registerTransaction();
-            } catch (final InterruptedException e) {
-                _rollbackCompleted = true;
-                throw new PersistitInterruptedException(e);
+            final TransactionIndex ti = _persistit.getTransactionIndex();
+            _snapshotSlot = readOnly ? ti.claimSnapshotSlot(_lastSnapshotSlot) : -1;
+            if (_snapshotSlot >= 0) {
+                _transactionStatus = null;
+                _lastSnapshotSlot = _snapshotSlot;
+            } else {
+                try {
+                    _transactionStatus = ti.registerTransaction();
+                } catch (final InterruptedException e) {
+                    _rollbackCompleted = true;
+                    throw new PersistitInterruptedException(e);
+                }
             }
+            _readOnly = readOnly;
             _rollbackPending = false;
             _rollbackCompleted = false;
-            _startTimestamp = _transactionStatus.getTs();
+            _startTimestamp = _snapshotSlot >= 0 ? ti.startSnapshot(_snapshotSlot) : _transactionStatus.getTs();
             _commitTimestamp = 0;
             _step = 0;
             _threadName = Thread.currentThread().getName();
@@ -684,11 +744,12 @@ public class Transaction {
                 _rollbacksSinceLastCommit = 0;
             }
             try {
-                pruneLockPages();
+                releaseLockedKeys();
             } catch (final Exception e) {
                 _persistit.getLogBase().pruneException.log(e, "locks");
             }
             _transactionStatus = null;
+            _readOnly = false;
             _rollbackPending = false;
             _threadName = null;
         }
@@ -725,7 +786,12 @@ public class Transaction {
 
         _rollbackPending = true;
 
-        if (!_rollbackCompleted) {
+        if (!_rollbackCompleted && _snapshotSlot >= 0) {
+            _rollbackCount++;
+            _rollbacksSinceLastCommit++;
+            releaseSnapshotSlot();
+            _rollbackCompleted = true;
+        } else if (!_rollbackCompleted) {
             _rollbackCount++;
             _rollbacksSinceLastCommit++;
             _transactionStatus.abort();
@@ -861,6 +927,19 @@ public class Transaction {
             if (_rollbackCompleted) {
                 throw new IllegalStateException("Already rolled back " + this);
             }
+            if (_snapshotSlot >= 0) {
+                _commitTimestamp = _persistit.getTimestampAllocator().getCurrentTimestamp();
+                releaseSnapshotSlot();
+                _commitCompleted = true;
+                return;
+            }
+            /*
+             * A transaction that recorded nothing in the journal and created
+             * no MVVs adds nothing to the journal's backlog, so it need not be
+             * throttled.
+             */
+            final boolean updated = _transactionStatus.getDelta() != null || _transactionStatus.getMvvCount() > 0
+                    || _buffer.position() > 0 || _previousJournalAddress != 0;
             for (Delta delta = _transactionStatus.getDelta(); delta != null; delta = delta.getNext()) {
                 writeDeltaToJournal(delta);
             }
@@ -889,7 +968,9 @@ public class Transaction {
                 _rollbackPending = _rollbackCompleted = !committed;
             }
 
-            _persistit.getJournalManager().throttle();
+            if (updated) {
+                _persistit.getJournalManager().throttle();
+            }
             if (flushedTimetimestamp != 0) {
                 _persistit.getJournalManager().waitForDurability(flushedTimetimestamp,
                         policy == CommitPolicy.SOFT ? _persistit.getTransactionCommitLeadTime() : 0,
@@ -1036,6 +1117,8 @@ public class Transaction {
         final long ts = getStartTimestamp();
         if (status != null && status.getTs() == ts) {
             return status.toString();
+        } else if (_snapshotSlot >= 0) {
+            return String.format("<ts=%,d read-only>", ts);
         } else {
             return "<not running>";
         }
@@ -1128,6 +1211,7 @@ public class Transaction {
     void store(final Exchange exchange, final Key key, final Value value) throws PersistitException {
         if (_nestedDepth > 0) {
             checkPendingRollback();
+            checkWritable();
             writeStoreRecordToJournal(treeHandle(exchange.getTree()), key, value);
         }
     }
@@ -1143,6 +1227,7 @@ public class Transaction {
     void remove(final Exchange exchange, final Key key1, final Key key2) throws PersistitException {
         if (_nestedDepth > 0) {
             checkPendingRollback();
+            checkWritable();
             writeDeleteRecordToJournal(treeHandle(exchange.getTree()), key1, key2);
         }
     }
@@ -1156,6 +1241,7 @@ public class Transaction {
     void removeTree(final Exchange exchange) throws PersistitException {
         if (_nestedDepth > 0) {
             checkPendingRollback();
+            checkWritable();
             writeDeleteTreeToJournal(treeHandle(exchange.getTree()));
         }
     }
@@ -1295,6 +1381,18 @@ public class Transaction {
         }
     }
 
+    void checkWritable() {
+        if (_readOnly) {
+            throw new IllegalStateException("Attempt to update data within read-only transaction " + this);
+        }
+    }
+
+    private void releaseSnapshotSlot() {
+        final int slot = _snapshotSlot;
+        _snapshotSlot = -1;
+        _persistit.getTransactionIndex().releaseSnapshotSlot(slot);
+    }
+
     /**
      * Increment this transaction's current step index. For any given step,
      * values written by updates within this transaction are visible (within
@@ -1330,29 +1428,19 @@ public class Transaction {
         return treeHandle;
     }
 
-    void addLockPage(final Long page, final int treeHandle) {
-        _lockCleanupActions.add(new CleanupPruneAction(treeHandle, page));
+    void addLockedKey(final KeyLockTable.Entry entry) {
+        _lockedKeys.add(entry);
     }
 
-    void pruneLockPages() {
-        if (_lockCleanupActions.isEmpty()) {
+    private void releaseLockedKeys() throws PersistitException {
+        if (_lockedKeys.isEmpty()) {
             return;
         }
-
         _persistit.getTransactionIndex().updateActiveTransactionCache(_commitTimestamp);
-        List<CleanupAction> actions = new ArrayList<CleanupAction>(_lockCleanupActions);
-        _lockCleanupActions.clear();
-
-        while (!actions.isEmpty()) {
-            final List<CleanupAction> consequentActions = new ArrayList<CleanupAction>();
-            for (final CleanupAction cleanupAction : actions) {
-                try {
-                    cleanupAction.performAction(_persistit, consequentActions);
-                } catch (final PersistitException pe) {
-                    _persistit.getLogBase().pruneException.log(pe, this);
-                }
-                actions = consequentActions;
-            }
+        try {
+            _persistit.getKeyLockTable().release(_lockedKeys);
+        } finally {
+            _lockedKeys.clear();
         }
     }
 
@@ -20,14 +20,17 @@ import static com.persistit.TransactionStatus.ABORTED;
 import static com.persistit.TransactionStatus.PRIMORDIAL;
 import static com.persistit.TransactionStatus.TIMED_OUT;
 import static com.persistit.TransactionStatus.UNCOMMITTED;
+import static com.persistit.util.Util.NS_PER_MS;
 
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.persistit.Accumulator.Delta;
 import com.persistit.exception.RetryException;
@@ -43,16 +46,6 @@ import com.persistit.util.Debug;
  */
 class TransactionIndex implements TransactionIndexMXBean {
 
-    /**
-     * Thread name of the polling task
-     */
-    final static String POLLING_TASK_NAME = "TXN_UPDATE";
-
-    /**
-     * Interval in milliseconds for updating the active transaction cache
-     */
-    final static long POLLING_TASK_INTERVAL = 10;
-
     /**
      * Default threshold value for moving long-running transactions to the
      * {@link #_longRunning} list.
@@ -85,9 +78,25 @@ class TransactionIndex implements TransactionIndexMXBean {
      */
     final static int CYCLE_LIMIT = 10;
     /**
-     * Initial size of arrays in ActiveTransactionCaches.
+     * Number of attempts to read a TransactionIndexBucket without locking it
+     * before {@link #computeActiveTransactionCache(ActiveTransactionCache)}
+     * locks it instead.
+     */
+    private final static int ACTIVE_TIMESTAMPS_RETRY_LIMIT = 4;
+
+    /**
+     * Number of slots in which read-only transactions publish their start
+     * timestamps. A read-only transaction that finds every slot occupied
+     * registers a TransactionStatus instead.
+     */
+    final static int SNAPSHOT_SLOTS = 1024;
+
+    /**
+     * Default interval in milliseconds for which
+     * {@link #hasConcurrentTransaction(long, long)} continues to answer from
+     * an ActiveTransactionCache known to be out of date before rebuilding it.
      */
-    private final static int INITIAL_ACTIVE_TRANSACTIONS_SIZE = 1000;
+    final static long DEFAULT_ACTIVE_TRANSACTION_CACHE_REFRESH_INTERVAL = 10;
 
     /**
      * Maximum version handle "steps" within one transaction
@@ -119,25 +128,47 @@ class TransactionIndex implements TransactionIndexMXBean {
     volatile int _maxFreeDeltaListSize = DEFAULT_MAX_FREE_DELTA_LIST_SIZE;
 
     /**
-     * One of two ActiveTransactionCache instances
+     * Adjustable interval in milliseconds after which a reader rebuilds an
+     * ActiveTransactionCache that has been found to be out of date.
+     */
+    volatile long _activeTransactionCacheRefreshInterval = DEFAULT_ACTIVE_TRANSACTION_CACHE_REFRESH_INTERVAL;
+
+    /**
+     * The most recently computed ActiveTransactionCache. Replaced only by one
+     * having a larger ceiling.
+     */
+    private final AtomicReference<ActiveTransactionCache> _atCache;
+
+    /**
+     * Set when the ActiveTransactionCache is found to be out of date, either
+     * by a reader asking about a timestamp beyond its ceiling or by the
+     * completion of the oldest transaction it holds.
+     */
+    private final AtomicBoolean _atCacheStale = new AtomicBoolean();
+
+    /**
+     * System.nanoTime() at which {@link #_atCacheStale} was last set.
      */
-    private final ActiveTransactionCache _atCache1;
+    private volatile long _atCacheStaleSince;
 
     /**
-     * One of two ActiveTransactionCache instances
+     * Held by the one reader that is rebuilding the ActiveTransactionCache.
      */
-    private final ActiveTransactionCache _atCache2;
+    private final AtomicBoolean _atCacheUpdating = new AtomicBoolean();
 
     /**
-     * Lock held by a thread updating the ActiveTransactionCache to prevent a
-     * race by another thread attempting also to update.
+     * Start timestamps of running read-only transactions, one per slot. A
+     * free slot holds zero.
      */
-    private final ReentrantLock _atCacheLock = new ReentrantLock();
+    private final AtomicLongArray _snapshots = new AtomicLongArray(SNAPSHOT_SLOTS);
+
     /**
-     * Reference to the more recently updated of two ActiveTransactionCache
-     * instances.
+     * One more than the highest snapshot slot ever claimed. Slots are claimed
+     * from the bottom and each Transaction reuses its slot, so this bounds the
+     * scan to the number of sessions that have run read-only transactions
+     * concurrently.
      */
-    private volatile ActiveTransactionCache _atCache;
+    private final AtomicInteger _snapshotSlotLimit = new AtomicInteger();
 
     private final AtomicLong _deadlockCounter = new AtomicLong();
 
@@ -149,52 +180,31 @@ class TransactionIndex implements TransactionIndexMXBean {
      */
     private final TimestampAllocator _timestampAllocator;
 
-    private ActiveTransactionCachePollTask _activeTransactionCachePollTask;
-
-    class ActiveTransactionCachePollTask extends IOTaskRunnable {
-        AtomicBoolean _closed = new AtomicBoolean();
-
-        ActiveTransactionCachePollTask(final Persistit persistit) {
-            super(persistit);
-        }
-
-        void close() {
-            _closed.set(true);
-        }
-
-        @Override
-        protected boolean shouldStop() {
-            return _closed.get();
-        }
-
-        @Override
-        protected void runTask() throws Exception {
-            updateActiveTransactionCache();
-        }
-    }
-
     /**
      * <p>
-     * Cached copy of currently active transactions. Instances of this class
-     * support the {@link TransactionIndex#hasConcurrentTransaction(long, long)}
-     * method. In general it is expensive to look at transaction status directly
-     * while pruning due to the need to lock each TransactionIndexBucket to read
-     * its lists. Instead of scanning all of these on each pruning operation we
-     * periodically compute an array of ts values for transactions that are
-     * currently running. These are assembled into a sorted array in this
-     * object. There are two instances of this class in the TransactionIndex,
-     * one used for concurrent pruning and the other available to recompute a
-     * more recent array of transactions.
+     * Immutable summary of currently active transactions. Instances of this
+     * class support the
+     * {@link TransactionIndex#hasConcurrentTransaction(long, long)} method.
+     * Rather than look at transaction status directly on each pruning
+     * operation, the TransactionIndex publishes an instance holding a sorted
+     * array of the start timestamps of transactions that were running when it
+     * was computed, and replaces it with a new instance when more recent
+     * information is needed.
      * </p>
      * <p>
-     * Any thread may call recompute on the ActiveTransactionCache that is not
-     * in service, but it must first lock the atCacheLock to prevent another
-     * from overwriting its work.
+     * An instance is computed without locking the TransactionIndexBuckets.
+     * Each bucket maintains an epoch counter that changes whenever its lists
+     * of current and long-running transactions change; the lists are read
+     * between two reads of the counter and read again if it moved. The
+     * timestamps found in each bucket are retained with the epoch at which
+     * they were read, so the next instance reuses them for every bucket whose
+     * epoch has not changed and only rescans the buckets in which
+     * transactions have since started or finished.
      * </p>
      * <p>
-     * Each time the cache is recomputed, this instance first gets the current
-     * timestamp t. Due to the write-ordering protocol, it is guaranteed that if
-     * a transaction having a start timestamp less than t is currently active,
+     * Each time an instance is computed it first gets the current timestamp
+     * t. Due to the write-ordering protocol, it is guaranteed that if a
+     * transaction having a start timestamp less than t is currently active,
      * its entry will be in the hash table. Therefore, scanning the hash table
      * will find every currently active transaction having a start timestamp
      * less than t. Note that by the time the scan is done some of those
@@ -209,76 +219,53 @@ class TransactionIndex implements TransactionIndexMXBean {
      * having start timestamps greater than t. Again, such a transaction may
      * have registered and committed in the time since the scan was performed;
      * nonetheless the {@link #hasConcurrentTransaction(long, long)} method will
-     * indicate that such a transaction is still active. Again, the result of
-     * that imprecision is that in some cases an MVV may not be optimally pruned
-     * until a later attempt.
+     * indicate that such a transaction is still active. To keep that
+     * imprecision small, {@link TransactionIndex#hasConcurrentTransaction(long, long)}
+     * marks the cache stale when asked about a timestamp beyond the ceiling,
+     * as does {@link TransactionIndex#notifyCompleted(TransactionStatus, long)}
+     * when the oldest active transaction finishes. The next reader to arrive
+     * once the cache has been stale for the refresh interval computes a new
+     * instance so that the ceiling and floor can rise.
      * </p>
      * 
      */
     class ActiveTransactionCache {
         /**
-         * Largest timestamp for which the current copy of _tsArray is accurate.
+         * Largest timestamp for which _tsArray is accurate.
          */
-        private volatile long _ceiling;
+        private final long _ceiling;
 
         /**
          * Smallest timestamp in _tsArray
          */
-        private volatile long _floor;
+        private final long _floor;
 
         /**
-         * Cache for a recent concurrent transaction scan.
+         * Sorted start timestamps of the active transactions.
          */
-        private volatile long[] _tsArray = new long[INITIAL_ACTIVE_TRANSACTIONS_SIZE];
+        private final long[] _tsArray;
 
-        private volatile int _count;
+        private final int _count;
 
-        void recompute() {
-            _count = 0;
-            final long timestampAtStart = _timestampAllocator.updateTimestamp();
-            long floor = timestampAtStart;
-            for (final TransactionIndexBucket bucket : _hashTable) {
-                if (bucket.getCurrent() != null || bucket.getLongRunning() != null) {
-                    bucket.lock();
-                    try {
-                        if (bucket.hasFloorMoved()) {
-                            bucket.reduce();
-                        }
-                        for (TransactionStatus status = bucket.getCurrent(); status != null; status = status.getNext()) {
-                            if (status.getTs() <= timestampAtStart && !status.isNotified()) {
-                                add(status.getTs());
-                                if (status.getTs() < floor) {
-                                    floor = status.getTs();
-                                }
-                            }
-                        }
-                        for (TransactionStatus status = bucket.getLongRunning(); status != null; status = status
-                                .getNext()) {
-                            if (status.getTs() <= timestampAtStart && !status.isNotified()) {
-                                add(status.getTs());
-                                if (status.getTs() < floor) {
-                                    floor = status.getTs();
-                                }
-                            }
-                        }
-                    } finally {
-                        bucket.unlock();
-                    }
-                }
-            }
-            Arrays.sort(_tsArray, 0, _count);
-            _ceiling = timestampAtStart;
-            _floor = floor;
-        }
+        /**
+         * Epoch of each bucket at which its entry in _bucketTimestamps was
+         * read.
+         */
+        private final long[] _epochs;
 
-        private void add(final long ts) {
-            final int index = _count;
-            if (++_count >= _tsArray.length) {
-                final long[] temp = new long[_count + INITIAL_ACTIVE_TRANSACTIONS_SIZE];
-                System.arraycopy(_tsArray, 0, temp, 0, _tsArray.length);
-                _tsArray = temp;
-            }
-            _tsArray[index] = ts;
+        /**
+         * Unsorted start timestamps of the active transactions in each bucket.
+         */
+        private final long[][] _bucketTimestamps;
+
+        ActiveTransactionCache(final long ceiling, final long floor, final long[] tsArray, final int count,
+                final long[] epochs, final long[][] bucketTimestamps) {
+            _ceiling = ceiling;
+            _floor = floor;
+            _tsArray = tsArray;
+            _count = count;
+            _epochs = epochs;
+            _bucketTimestamps = bucketTimestamps;
         }
 
         boolean hasConcurrentTransaction(final long ts1, final long ts2) {
@@ -306,12 +293,8 @@ class TransactionIndex implements TransactionIndexMXBean {
 
         @Override
         public String toString() {
-            long low = Long.MAX_VALUE;
-            long high = Long.MIN_VALUE;
-            for (int index = 0; index < _count; index++) {
-                low = Math.min(low, _tsArray[index]);
-                high = Math.max(high, _tsArray[index]);
-            }
+            final long low = _count > 0 ? _tsArray[0] : Long.MAX_VALUE;
+            final long high = _count > 0 ? _tsArray[_count - 1] : Long.MIN_VALUE;
             return String.format("Floor=%,d Ceiling=%,d Low=%s High=%s Count=%,d", _floor, _ceiling, minMaxString(low),
                     minMaxString(high), _count);
         }
@@ -339,9 +322,10 @@ class TransactionIndex implements TransactionIndexMXBean {
         for (int hashIndex = 0; hashIndex < hashTableSize; hashIndex++) {
             _hashTable[hashIndex] = new TransactionIndexBucket(this, hashIndex);
         }
-        _atCache1 = new ActiveTransactionCache();
-        _atCache2 = new ActiveTransactionCache();
-        _atCache = _atCache1;
+        final long[] epochs = new long[hashTableSize];
+        Arrays.fill(epochs, -1);
+        _atCache = new AtomicReference<ActiveTransactionCache>(new ActiveTransactionCache(0, 0, new long[0], 0,
+                epochs, new long[hashTableSize][]));
     }
 
     int getHashTableSize() {
@@ -597,6 +581,68 @@ class TransactionIndex implements TransactionIndexMXBean {
         return status;
     }
 
+    /**
+     * <p>
+     * Claim a slot in which a read-only transaction will publish its start
+     * timestamp, trying <code>preferredSlot</code> first. Unlike
+     * {@link #registerTransaction()} this allocates no TransactionStatus and
+     * takes no lock.
+     * </p>
+     * <p>
+     * The slot is claimed with the current timestamp as a provisional value
+     * before {@link #startSnapshot(int)} allocates the start timestamp. An
+     * ActiveTransactionCache computed after that allocation therefore finds
+     * either the provisional value, which is no larger than the start
+     * timestamp, or the start timestamp itself, and so never prunes a version
+     * the transaction could read.
+     * </p>
+     * 
+     * @param preferredSlot
+     *            the slot the transaction used last, or -1
+     * @return the claimed slot, or -1 if every slot is in use
+     */
+    int claimSnapshotSlot(final int preferredSlot) {
+        final long provisional = Math.max(_timestampAllocator.getCurrentTimestamp(), 1);
+        if (preferredSlot >= 0 && _snapshots.compareAndSet(preferredSlot, 0, provisional)) {
+            return preferredSlot;
+        }
+        for (int slot = 0; slot < SNAPSHOT_SLOTS; slot++) {
+            if (_snapshots.get(slot) == 0 && _snapshots.compareAndSet(slot, 0, provisional)) {
+                for (;;) {
+                    final int limit = _snapshotSlotLimit.get();
+                    if (limit > slot || _snapshotSlotLimit.compareAndSet(limit, slot + 1)) {
+                        return slot;
+                    }
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Allocate the start timestamp of a read-only transaction and publish it
+     * in the slot previously claimed by {@link #claimSnapshotSlot(int)}.
+     * 
+     * @return the start timestamp
+     */
+    long startSnapshot(final int slot) {
+        final long ts = _timestampAllocator.updateTimestamp();
+        _snapshots.set(slot, ts);
+        return ts;
+    }
+
+    /**
+     * Release the slot of a read-only transaction that has ended. If it was
+     * the oldest transaction known to the ActiveTransactionCache the floor can
+     * now be raised.
+     */
+    void releaseSnapshotSlot(final int slot) {
+        final long ts = _snapshots.getAndSet(slot, 0);
+        if (ts <= _atCache.get()._floor) {
+            activeTransactionCacheIsStale();
+        }
+    }
+
     /**
      * Notify the TransactionIndex that the specified Transaction has committed
      * or aborted. This method allows the TransactionIndex to awaken any threads
@@ -608,7 +654,8 @@ class TransactionIndex implements TransactionIndexMXBean {
      *            the timestamp to post as the transaction's commit timestamp
      */
     void notifyCompleted(final TransactionStatus status, final long timestamp) {
-        final int hashIndex = hashIndex(status.getTs());
+        final long ts = status.getTs();
+        final int hashIndex = hashIndex(ts);
         final TransactionIndexBucket bucket = _hashTable[hashIndex];
         bucket.lock();
         try {
@@ -616,6 +663,14 @@ class TransactionIndex implements TransactionIndexMXBean {
         } finally {
             bucket.unlock();
         }
+        /*
+         * If this was the oldest transaction known to the cache, or the cache
+         * knew of none, then the floor can now be raised.
+         */
+        final ActiveTransactionCache atCache = _atCache.get();
+        if (ts <= atCache._floor || atCache._count == 0) {
+            activeTransactionCacheIsStale();
+        }
     }
 
     /**
@@ -633,6 +688,14 @@ class TransactionIndex implements TransactionIndexMXBean {
      * exists a concurrent transaction with a start timestamp in the specified
      * range, this method is guaranteed to return <code>true</code>
      * </p>
+     * <p>
+     * If <code>ts2</code> is beyond the ceiling of the current
+     * ActiveTransactionCache the cache is marked stale. Once it has been stale
+     * for longer than the refresh interval the calling thread rebuilds it
+     * before answering, unless another thread is already doing so. Until then
+     * the answer for such a <code>ts2</code> is a conservative
+     * <code>true</code>.
+     * </p>
      * 
      * @param ts1
      *            first timestamp
@@ -642,7 +705,14 @@ class TransactionIndex implements TransactionIndexMXBean {
      *         started between ts1 and ts2
      */
     public boolean hasConcurrentTransaction(final long ts1, final long ts2) {
-        return _atCache.hasConcurrentTransaction(ts1, ts2);
+        ActiveTransactionCache atCache = _atCache.get();
+        if (ts2 > atCache._ceiling) {
+            activeTransactionCacheIsStale();
+        }
+        if (_atCacheStale.get()) {
+            atCache = refreshStaleActiveTransactionCache();
+        }
+        return atCache.hasConcurrentTransaction(ts1, ts2);
     }
 
     /*
@@ -652,7 +722,7 @@ class TransactionIndex implements TransactionIndexMXBean {
      */
     @Override
     public long getActiveTransactionFloor() {
-        return _atCache._floor;
+        return _atCache.get()._floor;
     }
 
     /*
@@ -662,7 +732,7 @@ class TransactionIndex implements TransactionIndexMXBean {
      */
     @Override
     public long getActiveTransactionCeiling() {
-        return _atCache._ceiling;
+        return _atCache.get()._ceiling;
     }
 
     /*
@@ -672,20 +742,23 @@ class TransactionIndex implements TransactionIndexMXBean {
      */
     @Override
     public long getActiveTransactionCount() {
-        return _atCache._count;
+        return _atCache.get()._count;
     }
 
     /**
      * @return current ActiveTransactionCache instance
      */
     ActiveTransactionCache getActiveTransactionCache() {
-        return _atCache;
+        return _atCache.get();
     }
 
     TransactionStatus getStatus(final long tsv) {
         if (tsv == PRIMORDIAL) {
             return null;
         }
+        if (_atCacheStale.get()) {
+            refreshStaleActiveTransactionCache();
+        }
         final int hashIndex = hashIndex(tsv);
         final TransactionIndexBucket bucket = _hashTable[hashIndex];
         /*
@@ -977,8 +1050,9 @@ class TransactionIndex implements TransactionIndexMXBean {
      *            The timestamp
      */
     public void updateActiveTransactionCache(final long ts) {
-        if (_atCache._floor < ts) {
-            updateActiveTransactionCache();
+        if (_atCache.get()._floor < ts) {
+            _atCacheStale.set(false);
+            publishActiveTransactionCache(computeActiveTransactionCache(_atCache.get()));
         }
     }
 
@@ -990,14 +1064,126 @@ class TransactionIndex implements TransactionIndexMXBean {
     @Override
     public void updateActiveTransactionCache() {
         Debug.suspend();
-        _atCacheLock.lock();
-        try {
-            final ActiveTransactionCache alternate = _atCache == _atCache1 ? _atCache2 : _atCache1;
-            alternate.recompute();
-            _atCache = alternate;
-        } finally {
-            _atCacheLock.unlock();
+        reduceBucketsBelowFloor();
+        _atCacheStale.set(false);
+        publishActiveTransactionCache(computeActiveTransactionCache(_atCache.get()));
+    }
+
+    /**
+     * Let buckets that have seen no activity since the floor last moved
+     * release their obsolete TransactionStatus instances.
+     */
+    private void reduceBucketsBelowFloor() {
+        for (final TransactionIndexBucket bucket : _hashTable) {
+            if ((bucket.getCurrent() != null || bucket.getLongRunning() != null) && bucket.hasFloorMoved()) {
+                bucket.lock();
+                try {
+                    if (bucket.hasFloorMoved()) {
+                        bucket.reduce();
+                    }
+                } finally {
+                    bucket.unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Mark the ActiveTransactionCache stale, noting the time of the first such
+     * mark since it was last rebuilt.
+     */
+    private void activeTransactionCacheIsStale() {
+        if (_atCacheStale.compareAndSet(false, true)) {
+            _atCacheStaleSince = System.nanoTime();
+        }
+    }
+
+    /**
+     * Rebuild the ActiveTransactionCache if it has been stale for at least the
+     * refresh interval and no other thread is already rebuilding it. Buckets
+     * holding TransactionStatus instances that the new floor has made
+     * obsolete are then reduced.
+     * 
+     * @return the current ActiveTransactionCache
+     */
+    private ActiveTransactionCache refreshStaleActiveTransactionCache() {
+        if (System.nanoTime() - _atCacheStaleSince >= _activeTransactionCacheRefreshInterval * NS_PER_MS
+                && _atCacheUpdating.compareAndSet(false, true)) {
+            try {
+                if (_atCacheStale.getAndSet(false)) {
+                    publishActiveTransactionCache(computeActiveTransactionCache(_atCache.get()));
+                    reduceBucketsBelowFloor();
+                }
+            } finally {
+                _atCacheUpdating.set(false);
+            }
         }
+        return _atCache.get();
+    }
+
+    private void publishActiveTransactionCache(final ActiveTransactionCache atCache) {
+        for (;;) {
+            final ActiveTransactionCache current = _atCache.get();
+            if (current._ceiling >= atCache._ceiling || _atCache.compareAndSet(current, atCache)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Compute a new ActiveTransactionCache, reusing the timestamps recorded in
+     * <code>previous</code> for every bucket whose epoch has not changed. The
+     * start timestamps of read-only transactions are read from the snapshot
+     * slots each time.
+     */
+    private ActiveTransactionCache computeActiveTransactionCache(final ActiveTransactionCache previous) {
+        final long timestampAtStart = _timestampAllocator.updateTimestamp();
+        final long[] epochs = new long[_hashTable.length];
+        final long[][] bucketTimestamps = new long[_hashTable.length][];
+        int total = 0;
+        for (int index = 0; index < _hashTable.length; index++) {
+            final TransactionIndexBucket bucket = _hashTable[index];
+            long epoch = bucket.getEpoch();
+            long[] timestamps = null;
+            if (epoch == previous._epochs[index]) {
+                timestamps = previous._bucketTimestamps[index];
+            }
+            for (int retry = 0; timestamps == null && retry < ACTIVE_TIMESTAMPS_RETRY_LIMIT; retry++) {
+                epoch = bucket.getEpoch();
+                timestamps = bucket.getActiveTimestamps(epoch);
+            }
+            if (timestamps == null) {
+                bucket.lock();
+                try {
+                    epoch = bucket.getEpoch();
+                    timestamps = bucket.getActiveTimestamps(epoch);
+                } finally {
+                    bucket.unlock();
+                }
+            }
+            epochs[index] = epoch;
+            bucketTimestamps[index] = timestamps;
+            total += timestamps.length;
+        }
+        final int snapshotSlotLimit = _snapshotSlotLimit.get();
+        final long[] tsArray = new long[total + snapshotSlotLimit];
+        int count = 0;
+        for (final long[] timestamps : bucketTimestamps) {
+            for (final long ts : timestamps) {
+                if (ts <= timestampAtStart) {
+                    tsArray[count++] = ts;
+                }
+            }
+        }
+        for (int slot = 0; slot < snapshotSlotLimit; slot++) {
+            final long ts = _snapshots.get(slot);
+            if (ts != 0 && ts <= timestampAtStart) {
+                tsArray[count++] = ts;
+            }
+        }
+        Arrays.sort(tsArray, 0, count);
+        final long floor = count > 0 ? Math.min(tsArray[0], timestampAtStart) : timestampAtStart;
+        return new ActiveTransactionCache(timestampAtStart, floor, tsArray, count, epochs, bucketTimestamps);
     }
 
     /*
@@ -1277,23 +1463,8 @@ class TransactionIndex implements TransactionIndexMXBean {
      * @return
      */
     long[] oldestTransactions(final int max) {
-        final long[] array = new long[Math.max(max, INITIAL_ACTIVE_TRANSACTIONS_SIZE)];
-        int count = 0;
-        for (int retry = 0; retry < 10; retry++) {
-            final ActiveTransactionCache atCache = getActiveTransactionCache();
-            count = Math.min(max, atCache._count);
-            System.arraycopy(atCache._tsArray, 0, array, 0, count);
-            if (getActiveTransactionCache() == atCache) {
-                break;
-            }
-            count = -1;
-        }
-        if (count == -1) {
-            return null;
-        }
-        final long[] result = new long[count];
-        System.arraycopy(array, 0, result, 0, count);
-        return result;
+        final ActiveTransactionCache atCache = getActiveTransactionCache();
+        return Arrays.copyOf(atCache._tsArray, Math.min(max, atCache._count));
     }
 
     @Override
@@ -1312,28 +1483,6 @@ class TransactionIndex implements TransactionIndexMXBean {
         return floor == Long.MAX_VALUE ? "MAX" : floor == Long.MIN_VALUE ? "MIN" : String.format("%,d", floor);
     }
 
-    void start(final Persistit persistit) {
-        _activeTransactionCachePollTask = new ActiveTransactionCachePollTask(persistit);
-        _activeTransactionCachePollTask.start(POLLING_TASK_NAME, POLLING_TASK_INTERVAL);
-    }
-
-    ActiveTransactionCachePollTask close() {
-        final ActiveTransactionCachePollTask task = _activeTransactionCachePollTask;
-        if (task != null) {
-            task.close();
-            _activeTransactionCachePollTask = null;
-        }
-        return task;
-    }
-
-    void crash() {
-        final ActiveTransactionCachePollTask task = _activeTransactionCachePollTask;
-        if (task != null) {
-            task.crash();
-            _activeTransactionCachePollTask = null;
-        }
-    }
-
     long incrementAccumulatorSnapshotRetryCounter() {
         return _accumulatorSnapshotRetryCounter.incrementAndGet();
     }
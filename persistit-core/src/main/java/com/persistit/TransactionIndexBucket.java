@@ -19,6 +19,7 @@ package com.persistit;
 import static com.persistit.TransactionStatus.ABORTED;
 import static com.persistit.TransactionStatus.UNCOMMITTED;
 
+import java.util.Arrays;
 import java.util.concurrent.locks.ReentrantLock;
 
 import com.persistit.Accumulator.Delta;
@@ -67,6 +68,9 @@ import com.persistit.exception.RetryException;
  * 
  */
 class TransactionIndexBucket {
+
+    private final static long[] NO_TIMESTAMPS = new long[0];
+
     /**
      * The owner of the hash table that contains this bucket
      */
@@ -149,6 +153,16 @@ class TransactionIndexBucket {
      * structure. Fair to prevent barging.
      */
     ReentrantLock _lock = new ReentrantLock(true);
+    /**
+     * Change counter for the {@link #_current} and {@link #_longRunning}
+     * lists. A thread holding the lock makes the value odd before it changes
+     * either list or the notified state of one of their members, and
+     * {@link #unlock()} makes it even again. A thread that reads the same even
+     * value before and after traversing the lists without the lock has
+     * therefore seen a consistent state. See
+     * {@link #getActiveTimestamps(long)}.
+     */
+    volatile long _epoch;
     /**
      * Singly-linked list of Delta objects available for reuse
      */
@@ -168,9 +182,69 @@ class TransactionIndexBucket {
     }
 
     void unlock() {
+        if ((_epoch & 1) != 0 && _lock.getHoldCount() == 1) {
+            _epoch++;
+        }
         _lock.unlock();
     }
 
+    /**
+     * Mark the lists as changing. Must be called with the lock held before
+     * modifying {@link #_current} or {@link #_longRunning}, or notifying one
+     * of their members.
+     */
+    private void changing() {
+        assert _lock.isHeldByCurrentThread();
+        if ((_epoch & 1) == 0) {
+            _epoch++;
+        }
+    }
+
+    long getEpoch() {
+        return _epoch;
+    }
+
+    /**
+     * Read the start timestamps of the transactions on the current and
+     * long-running lists that have not yet been notified of completion. This
+     * method does not lock the bucket; instead it returns <code>null</code> if
+     * the lists changed while they were being read.
+     * 
+     * @param epoch
+     *            value of {@link #getEpoch()} read before calling this method
+     * @return unsorted array of start timestamps, or <code>null</code> if the
+     *         lists were not stable at the supplied epoch
+     */
+    long[] getActiveTimestamps(final long epoch) {
+        if ((epoch & 1) != 0) {
+            return null;
+        }
+        long[] timestamps = NO_TIMESTAMPS;
+        int count = 0;
+        for (int list = 0; list < 2; list++) {
+            for (TransactionStatus status = list == 0 ? _current : _longRunning; status != null; status = status
+                    .getNext()) {
+                /*
+                 * Checked on every step so that a traversal that strays onto a
+                 * TransactionStatus being moved between lists is abandoned.
+                 */
+                if (_epoch != epoch) {
+                    return null;
+                }
+                if (!status.isNotified()) {
+                    if (count == timestamps.length) {
+                        timestamps = Arrays.copyOf(timestamps, count * 2 + 4);
+                    }
+                    timestamps[count++] = status.getTs();
+                }
+            }
+        }
+        if (_epoch != epoch) {
+            return null;
+        }
+        return count == timestamps.length ? timestamps : Arrays.copyOf(timestamps, count);
+    }
+
     TransactionStatus allocateTransactionStatus() throws InterruptedException {
         assert _lock.isHeldByCurrentThread();
         final TransactionStatus status = _free;
@@ -189,7 +263,7 @@ class TransactionIndexBucket {
     }
 
     void addCurrent(final TransactionStatus status) {
-        assert _lock.isHeldByCurrentThread();
+        changing();
         status.setNext(_current);
         if (status.getTs() < _floor) {
             _floor = status.getTs();
@@ -254,7 +328,7 @@ class TransactionIndexBucket {
     }
 
     void notifyCompleted(final TransactionStatus status, final long timestamp) {
-        assert _lock.isHeldByCurrentThread();
+        changing();
         final long ts = status.getTs();
         if (ts >= getFloor()) {
             for (TransactionStatus s = getCurrent(); s != null; s = s.getNext()) {
@@ -322,7 +396,7 @@ class TransactionIndexBucket {
      * </p>
      */
     void reduce() {
-        assert _lock.isHeldByCurrentThread();
+        changing();
         final boolean hasMoved = hasFloorMoved();
         _activeTransactionFloor = _transactionIndex.getActiveTransactionFloor();
         boolean more = true;
@@ -439,7 +513,7 @@ class TransactionIndexBucket {
      *            transactions.
      */
     void cleanup(final long activeTransactionFloor) {
-        assert _lock.isHeldByCurrentThread();
+        changing();
         TransactionStatus previous;
 
         /*
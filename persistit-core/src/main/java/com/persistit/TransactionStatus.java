@@ -104,9 +104,10 @@ class TransactionStatus {
      */
     private final Semaphore _wwLock = new Semaphore(1);
     /**
-     * Pointer to next member of singly-linked list.
+     * Pointer to next member of singly-linked list. Volatile because the
+     * ActiveTransactionCache traverses the lists without locking the bucket.
      */
-    private TransactionStatus _next;
+    private volatile TransactionStatus _next;
 
     /**
      * Pointer to TransactionStatus on which we intend to claim a permit. (For
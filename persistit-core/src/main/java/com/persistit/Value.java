@@ -43,6 +43,7 @@ import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
@@ -847,6 +848,26 @@ public final class Value {
     setEncodedSize(length);
   }
 
+  /**
+   * Replace the encoded value with bytes copied from a ByteBuffer, which may
+   * be direct, using absolute indexes. The position and limit of the
+   * ByteBuffer are not changed.
+   * 
+   * @param from
+   *            ByteBuffer from which to copy the encoded value
+   * @param offset
+   *            Absolute index of the first byte to copy
+   * @param length
+   *            Number of bytes to copy
+   */
+  void putEncodedBytes(final ByteBuffer from, final int offset, final int length) {
+    ensureFit(length);
+    if (length > 0) {
+      Util.getBytes(from, offset, _bytes, 0, length);
+    }
+    setEncodedSize(length);
+  }
+
   /**
    * Returns the backing byte array used to hold the state of this
    * <code>Value</code>. This method is part of the <a
@@ -16,15 +16,21 @@
 
 package com.persistit;
 
+import java.nio.ByteBuffer;
+
 import com.persistit.util.Util;
 
+/**
+ * Writes a value into a page. The target is the page memory of a
+ * {@link Buffer}, addressed by absolute offsets.
+ */
 interface ValueHelper {
 
-    int requiredLength(final byte[] target, int targetOffset, int targetLength);
+    int requiredLength(final ByteBuffer target, int targetOffset, int targetLength);
 
-    int storeVersion(byte[] target, int targetOffset, int targetLength, int targetLimit);
+    int storeVersion(ByteBuffer target, int targetOffset, int targetLength, int targetLimit);
 
-    void saveValue(byte[] target, int targetOffset, int targetLength);
+    void saveValue(ByteBuffer target, int targetOffset, int targetLength);
 
     long getPointerValue();
 
@@ -35,18 +41,18 @@ interface ValueHelper {
     final static ValueHelper EMPTY_VALUE_WRITER = new ValueHelper() {
 
         @Override
-        public int requiredLength(final byte[] target, final int targetOffset, final int targetLength) {
+        public int requiredLength(final ByteBuffer target, final int targetOffset, final int targetLength) {
             return 0;
         }
 
         @Override
-        public int storeVersion(final byte[] target, final int targetOffset, final int targetLength,
+        public int storeVersion(final ByteBuffer target, final int targetOffset, final int targetLength,
                 final int targetLimit) {
             return 0;
         }
 
         @Override
-        public void saveValue(final byte[] target, final int targetOffset, final int targetLength) {
+        public void saveValue(final ByteBuffer target, final int targetOffset, final int targetLength) {
         }
 
         @Override
@@ -74,20 +80,20 @@ interface ValueHelper {
         }
 
         @Override
-        public int storeVersion(final byte[] target, final int targetOffset, final int targetLength,
+        public int storeVersion(final ByteBuffer target, final int targetOffset, final int targetLength,
                 final int targetLimit) {
-            System.arraycopy(_value.getEncodedBytes(), 0, target, targetOffset, _value.getEncodedSize()); // TODO
-                                                                                                          // -
-                                                                                                          // limit
+            Util.putBytes(target, targetOffset, _value.getEncodedBytes(), 0, _value.getEncodedSize()); // TODO
+                                                                                                       // -
+                                                                                                       // limit
             return _value.getEncodedSize();
         }
 
         @Override
-        public void saveValue(final byte[] target, final int targetOffset, final int targetLength) {
+        public void saveValue(final ByteBuffer target, final int targetOffset, final int targetLength) {
         }
 
         @Override
-        public int requiredLength(final byte[] target, final int targetOffset, final int targetLength) {
+        public int requiredLength(final ByteBuffer target, final int targetOffset, final int targetLength) {
             return _value.getEncodedSize();
         }
 
@@ -124,19 +130,38 @@ interface ValueHelper {
         }
 
         @Override
-        public int storeVersion(final byte[] target, final int targetOffset, final int targetLength,
+        public int storeVersion(final ByteBuffer target, final int targetOffset, final int targetLength,
                 final int targetLimit) {
-            return MVV.storeVersion(target, targetOffset, targetLength, target.length, _version,
+            //
+            // MVV works on byte arrays, so build the new MVV from a copy of
+            // the existing one and then write it back.
+            //
+            final int required = MVV.exactRequiredLength(existing(target, targetOffset, targetLength), 0,
+                    targetLength, _version, _value.getEncodedSize());
+            final byte[] bytes = new byte[Math.max(required, targetLength)];
+            if (targetLength > 0) {
+                Util.getBytes(target, targetOffset, bytes, 0, targetLength);
+            }
+            final int storedLength = MVV.storeVersion(bytes, 0, targetLength, bytes.length, _version,
                     _value.getEncodedBytes(), 0, _value.getEncodedSize());
+            Util.putBytes(target, targetOffset, bytes, 0, storedLength & MVV.STORE_LENGTH_MASK);
+            return storedLength;
         }
 
         @Override
-        public void saveValue(final byte[] target, final int targetOffset, final int targetLength) {
+        public void saveValue(final ByteBuffer target, final int targetOffset, final int targetLength) {
         }
 
         @Override
-        public int requiredLength(final byte[] target, final int targetOffset, final int targetLength) {
-            return MVV.exactRequiredLength(target, targetOffset, targetLength, _version, _value.getEncodedSize());
+        public int requiredLength(final ByteBuffer target, final int targetOffset, final int targetLength) {
+            return MVV.exactRequiredLength(existing(target, targetOffset, targetLength), 0, targetLength, _version,
+                    _value.getEncodedSize());
+        }
+
+        private static byte[] existing(final ByteBuffer target, final int targetOffset, final int targetLength) {
+            final byte[] bytes = new byte[Math.max(targetLength, 0)];
+            Util.getBytes(target, targetOffset, bytes, 0, bytes.length);
+            return bytes;
         }
 
         @Override
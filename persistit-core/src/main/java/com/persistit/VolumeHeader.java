@@ -51,7 +51,7 @@ class VolumeHeader {
     /**
      * Minimum possible size for a volume
      */
-    private final static int SIZE = Buffer.MIN_BUFFER_SIZE;
+    final static int SIZE = Buffer.MIN_BUFFER_SIZE;
     /**
      * Current product version number.
      */
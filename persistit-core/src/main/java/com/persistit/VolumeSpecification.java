@@ -40,6 +40,7 @@ public class VolumeSpecification {
     private final static String ATTR_CREATE = "create";
     private final static String ATTR_READONLY = "readOnly";
     private final static String ATTR_CREATEONLY = "createOnly";
+    private final static String ATTR_MAPPED = "mapped";
     private final static String ATTR_PAGE_SIZE = "pageSize";
 
     private final static String ATTR_INITIAL_SIZE = "initialSize";
@@ -55,6 +56,7 @@ public class VolumeSpecification {
     private boolean readOnly = false;
     private boolean create = false;
     private boolean createOnly = false;
+    private boolean mapped = false;
     private boolean aliased = false;
 
     private int pageSize = -1;
@@ -141,6 +143,11 @@ public class VolumeSpecification {
      * <dd>Creates the volume, or throw a {@link VolumeAlreadyExistsException}
      * if it already exists.</dd>
      * 
+     * <dt><code>mapped</code></dt>
+     * <dd>Map the volume file into memory and copy pages from the mapping
+     * rather than reading them through the file channel. Suited to
+     * read-mostly volumes.</dd>
+     * 
      * <dt><code>temporary</code></dt>
      * <dd>Creates the a new, empty volume regardless of whether an existing
      * volume file already exists.</dd>
@@ -185,6 +192,8 @@ public class VolumeSpecification {
                     create = true;
                 } else if (ATTR_CREATEONLY.equals(attr)) {
                     createOnly = true;
+                } else if (ATTR_MAPPED.equals(attr)) {
+                    mapped = true;
                 } else if (ATTR_NAME.equals(attr) || ATTR_ALIAS.equals(attr)) {
                     final String valueString = innerTokenizer.nextToken().trim();
                     if (valueString != null && !valueString.isEmpty()) {
@@ -354,6 +363,14 @@ public class VolumeSpecification {
         this.createOnly = createOnly;
     }
 
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    public void setMapped(final boolean mapped) {
+        this.mapped = mapped;
+    }
+
     public int getPageSize() {
         return pageSize;
     }
@@ -443,6 +460,9 @@ public class VolumeSpecification {
         } else if (create) {
             sb.append(',').append(ATTR_CREATE);
         }
+        if (mapped) {
+            sb.append(',').append(ATTR_MAPPED);
+        }
         return sb.toString();
     }
 
@@ -468,7 +488,7 @@ public class VolumeSpecification {
         }
         final VolumeSpecification v = (VolumeSpecification) object;
         return path.equals(v.path) && name.equals(v.name) && readOnly == v.readOnly && create == v.create
-                && createOnly == v.createOnly && aliased == v.aliased && pageSize == v.pageSize && version == v.version
+                && createOnly == v.createOnly && mapped == v.mapped && aliased == v.aliased && pageSize == v.pageSize && version == v.version
                 && id == v.id && initialPages == v.initialPages && initialSize == v.initialSize
                 && extensionPages == v.extensionPages && extensionSize == v.extensionSize
                 && maximumPages == v.maximumPages && maximumSize == v.maximumSize;
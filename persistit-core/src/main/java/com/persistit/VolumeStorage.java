@@ -152,10 +152,63 @@ abstract class VolumeStorage extends SharedResource {
     abstract void readPage(Buffer buffer) throws PersistitIOException, InvalidPageAddressException,
             VolumeClosedException, InUseException, PersistitInterruptedException;
 
+    /**
+     * Read the images of consecutive pages starting at <code>page</code> into
+     * the remaining space of <code>bb</code> with as few reads as possible.
+     * The images are not checked against newer versions in the journal; see
+     * {@link #readPage(Buffer, ByteBuffer)}. A storage that cannot perform
+     * such reads returns zero and the caller should read pages individually.
+     * 
+     * @param page
+     *            address of the first page
+     * @param bb
+     *            buffer whose remaining space is a multiple of the page size
+     * @return the number of complete page images read, which is fewer than
+     *         requested if the volume ends first
+     */
+    int readPages(final long page, final ByteBuffer bb) throws PersistitException {
+        return 0;
+    }
+
+    /**
+     * Load the page addressed by <code>buffer</code> from an image previously
+     * read by {@link #readPages(long, ByteBuffer)}, unless the journal holds a
+     * more recent version of the page.
+     * 
+     * @param buffer
+     *            the buffer to load
+     * @param image
+     *            buffer whose remaining bytes are the page image
+     */
+    void readPage(final Buffer buffer, final ByteBuffer image) throws PersistitIOException,
+            InvalidPageAddressException, VolumeClosedException, InUseException, PersistitInterruptedException {
+        readPage(buffer);
+    }
+
     abstract void writePage(final Buffer buffer) throws PersistitException;
 
     abstract void writePage(final ByteBuffer bb, final long page) throws PersistitException;
 
+    /**
+     * Write the images of consecutive pages starting at <code>page</code>,
+     * held in the remaining bytes of <code>bb</code>, with as few writes as
+     * possible. This implementation writes the pages individually.
+     * 
+     * @param bb
+     *            buffer whose remaining bytes are a multiple of the page size
+     * @param page
+     *            address of the first page
+     */
+    void writePages(final ByteBuffer bb, final long page) throws PersistitException {
+        final int pageSize = _volume.getStructure().getPageSize();
+        final ByteBuffer image = bb.duplicate();
+        for (long address = page; bb.remaining() >= pageSize; address++) {
+            image.limit(bb.position() + pageSize).position(bb.position());
+            writePage(image, address);
+            bb.position(bb.position() + pageSize);
+        }
+    }
+
     abstract long allocNewPage() throws PersistitException;
 
     abstract void extend(final long pageAddr) throws PersistitException;
@@ -94,6 +94,13 @@ class VolumeStorageT2 extends VolumeStorage {
      */
     @Override
     synchronized FileChannel getChannel() throws PersistitIOException {
+        if (_closed) {
+            /*
+             * Don't create a new backing file for a volume that has been
+             * closed and whose file has been deleted.
+             */
+            throw new PersistitIOException(this + " is closed");
+        }
         if (_channel == null) {
             try {
                 final File file = File.createTempFile(TEMP_FILE_PREFIX, null, _tempDirectory);
@@ -53,9 +53,12 @@ import static com.persistit.VolumeHeader.putVersion;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.channels.FileLock;
 import java.nio.channels.OverlappingFileLockException;
+import java.util.Arrays;
 
 import com.persistit.AlertMonitor.AlertLevel;
 import com.persistit.AlertMonitor.Event;
@@ -78,9 +81,23 @@ import com.persistit.exception.VolumeNotFoundException;
  */
 class VolumeStorageV2 extends VolumeStorage {
 
+    /**
+     * Size of each region of a mapped volume file. Volumes larger than one
+     * segment are mapped by several regions. This is a multiple of every valid
+     * page size, so no page spans two regions.
+     */
+    final static long MAPPING_SEGMENT_SIZE = 1L << 30;
+
     private volatile FileChannel _channel;
     private volatile FileLock _fileLock;
 
+    /**
+     * Read-only mappings of the volume file, one per
+     * {@link #MAPPING_SEGMENT_SIZE} bytes, or <code>null</code> if the volume
+     * is not mapped.
+     */
+    private volatile MappedByteBuffer[] _mappings;
+
     private volatile Buffer _headBuffer;
 
     private volatile long _nextAvailablePage;
@@ -194,12 +211,13 @@ class VolumeStorageV2 extends VolumeStorage {
         try {
             _channel = new MediatedFileChannel(getPath(), isReadOnly() ? "r" : "rw");
             lockChannel();
+            map();
             _nextAvailablePage = 1; // correct value installed below
             _volume.setId(spec.getId());
 
             _headBuffer = _volume.getStructure().getPool().get(_volume, 0, true, true);
             _headBuffer.setFixed();
-            final byte[] bytes = _headBuffer.getBytes();
+            final byte[] bytes = getHeader();
 
             _nextAvailablePage = VolumeHeader.getNextAvailablePage(bytes);
             _extendedPageCount = _channel.size() / _volume.getStructure().getPageSize();
@@ -334,6 +352,7 @@ class VolumeStorageV2 extends VolumeStorage {
     private void closeChannel() throws IOException {
         final FileChannel channel = _channel;
         _channel = null;
+        _mappings = null;
         if (channel != null) {
             channel.close();
         }
@@ -375,7 +394,9 @@ class VolumeStorageV2 extends VolumeStorage {
             _headBuffer.init(Buffer.PAGE_TYPE_HEAD);
             _headBuffer.setFixed();
 
-            initMetaData(_headBuffer.getBytes());
+            final byte[] bytes = getHeader();
+            initMetaData(bytes);
+            putHeader(bytes);
             //
             // Lay down the initial version of the header page so that the
             // volume file will be valid on restart
@@ -453,14 +474,17 @@ class VolumeStorageV2 extends VolumeStorage {
             try {
                 final ByteBuffer bb = buffer.getByteBuffer();
                 bb.position(0).limit(buffer.getBufferSize());
-                int read = 0;
-                while (read < buffer.getBufferSize()) {
-                    final long position = page * _volume.getStructure().getPageSize() + bb.position();
-                    final int bytesRead = _channel.read(bb, position);
-                    if (bytesRead <= 0) {
-                        throw new PersistitIOException("Unable to read bytes at position " + position + " in " + this);
+                if (!readMapped(page * _volume.getStructure().getPageSize(), bb)) {
+                    int read = 0;
+                    while (read < buffer.getBufferSize()) {
+                        final long position = page * _volume.getStructure().getPageSize() + bb.position();
+                        final int bytesRead = _channel.read(bb, position);
+                        if (bytesRead <= 0) {
+                            throw new PersistitIOException("Unable to read bytes at position " + position + " in "
+                                    + this);
+                        }
+                        read += bytesRead;
                     }
-                    read += bytesRead;
                 }
                 _persistit.getIOMeter().chargeReadPageFromVolume(this._volume, buffer.getPageAddress(),
                         buffer.getBufferSize(), buffer.getIndex());
@@ -477,6 +501,67 @@ class VolumeStorageV2 extends VolumeStorage {
         }
     }
 
+    @Override
+    int readPages(final long page, final ByteBuffer bb) throws PersistitException {
+        if (!claim(false)) {
+            throw new InUseException("Unable to acquire claim on " + this);
+        }
+        try {
+            final int pageSize = _volume.getStructure().getPageSize();
+            final long available = _nextAvailablePage - page;
+            if (page < 0 || available <= 0) {
+                throw new InvalidPageAddressException("Page " + page + " out of bounds [0-" + _nextAvailablePage + "]");
+            }
+            final int count = (int) Math.min(bb.remaining() / pageSize, available);
+            final int start = bb.position();
+            bb.limit(start + count * pageSize);
+            try {
+                readMapped(page * pageSize, bb);
+                while (bb.hasRemaining()) {
+                    final long position = page * pageSize + bb.position() - start;
+                    final int bytesRead = _channel.read(bb, position);
+                    if (bytesRead <= 0) {
+                        throw new PersistitIOException("Unable to read bytes at position " + position + " in " + this);
+                    }
+                }
+            } catch (final IOException ioe) {
+                _persistit.getAlertMonitor().post(
+                        new Event(AlertLevel.ERROR, _persistit.getLogBase().readException, ioe, _volume, page, -1),
+                        AlertMonitor.READ_PAGE_CATEGORY);
+                throw new PersistitIOException(ioe);
+            }
+            for (int index = 0; index < count; index++) {
+                _persistit.getIOMeter().chargeReadPageFromVolume(this._volume, page + index, pageSize, -1);
+                _volume.getStatistics().bumpReadCounter();
+            }
+            return count;
+        } finally {
+            release();
+        }
+    }
+
+    @Override
+    void readPage(final Buffer buffer, final ByteBuffer image) throws PersistitIOException,
+            InvalidPageAddressException, VolumeClosedException, InUseException, PersistitInterruptedException {
+        if (!claim(false)) {
+            throw new InUseException("Unable to acquire claim on " + this);
+        }
+        try {
+            final long page = buffer.getPageAddress();
+            if (page < 0 || page >= _nextAvailablePage) {
+                throw new InvalidPageAddressException("Page " + page + " out of bounds [0-" + _nextAvailablePage + "]");
+            }
+            if (_persistit.getJournalManager().readPageFromJournal(buffer)) {
+                return;
+            }
+            final ByteBuffer bb = buffer.getByteBuffer();
+            bb.position(0).limit(buffer.getBufferSize());
+            bb.put(image.duplicate());
+        } finally {
+            release();
+        }
+    }
+
     @Override
     void writePage(final Buffer buffer) throws PersistitException {
         /*
@@ -515,6 +600,33 @@ class VolumeStorageV2 extends VolumeStorage {
         }
     }
 
+    @Override
+    void writePages(final ByteBuffer bb, final long page) throws PersistitIOException, InvalidPageAddressException,
+            ReadOnlyVolumeException, VolumeClosedException {
+        final int pageSize = _volume.getStructure().getPageSize();
+        final long count = bb.remaining() / pageSize;
+        if (page < 0 || page + count > _nextAvailablePage) {
+            throw new InvalidPageAddressException("Page " + (page + count - 1) + " out of bounds [0-"
+                    + _nextAvailablePage + "]");
+        }
+
+        if (isReadOnly()) {
+            throw new ReadOnlyVolumeException(getPath());
+        }
+
+        final int start = bb.position();
+        try {
+            while (bb.hasRemaining()) {
+                _channel.write(bb, page * pageSize + bb.position() - start);
+            }
+        } catch (final IOException ioe) {
+            _persistit.getAlertMonitor().post(
+                    new Event(AlertLevel.ERROR, _persistit.getLogBase().writeException, ioe, _volume, page),
+                    AlertMonitor.WRITE_PAGE_CATEGORY);
+            throw new PersistitIOException(ioe);
+        }
+    }
+
     @Override
     long allocNewPage() throws PersistitException {
         long page = -1;
@@ -552,7 +664,10 @@ class VolumeStorageV2 extends VolumeStorage {
             final long timestamp = _persistit.getTimestampAllocator().updateTimestamp();
             _volume.getStatistics().setLastGlobalTimestamp(timestamp);
             _headBuffer.writePageOnCheckpoint(timestamp);
-            if (updateMetaData(_headBuffer.getBytes())) {
+            final byte[] bytes = getHeader();
+            final boolean changed = updateMetaData(bytes);
+            putHeader(bytes);
+            if (changed) {
                 _headBuffer.setDirtyAtTimestamp(timestamp);
             }
         }
@@ -578,6 +693,23 @@ class VolumeStorageV2 extends VolumeStorage {
         }
     }
 
+    /**
+     * @return a copy of the volume header held at the start of the head page
+     */
+    private byte[] getHeader() {
+        final byte[] bytes = new byte[VolumeHeader.SIZE];
+        _headBuffer.getBytes(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Write a volume header obtained from {@link #getHeader()} back to the
+     * head page. The caller must hold a writer claim on the head page.
+     */
+    private void putHeader(final byte[] bytes) {
+        _headBuffer.putBytes(0, bytes, 0, bytes.length);
+    }
+
     private void initMetaData(final byte[] bytes) {
         final VolumeStructure struc = _volume.getStructure();
         putSignature(bytes);
@@ -631,6 +763,60 @@ class VolumeStorageV2 extends VolumeStorage {
         resize(pageCount);
     }
 
+    /**
+     * If the volume specification requests it, map every segment of the file
+     * not already mapped in full. Called when the volume is opened and after
+     * each extension. Existing full-size mappings are retained; the last
+     * partial segment is mapped again to cover its new length.
+     */
+    private synchronized void map() throws IOException {
+        if (!_volume.getSpecification().isMapped()) {
+            return;
+        }
+        final long size = _channel.size();
+        final int count = (int) ((size + MAPPING_SEGMENT_SIZE - 1) / MAPPING_SEGMENT_SIZE);
+        final MappedByteBuffer[] mappings = _mappings == null ? new MappedByteBuffer[count] : Arrays.copyOf(
+                _mappings, Math.max(count, _mappings.length));
+        for (int index = 0; index < count; index++) {
+            final long position = index * MAPPING_SEGMENT_SIZE;
+            final long length = Math.min(MAPPING_SEGMENT_SIZE, size - position);
+            if (mappings[index] == null || mappings[index].capacity() < length) {
+                mappings[index] = _channel.map(MapMode.READ_ONLY, position, length);
+            }
+        }
+        _mappings = mappings;
+    }
+
+    /**
+     * Copy bytes from the mapped volume file into the remaining space of the
+     * supplied ByteBuffer.
+     * 
+     * @param position
+     *            file address of the first byte
+     * @param bb
+     *            the destination
+     * @return <code>true</code> if the bytes were copied, or
+     *         <code>false</code> if the volume is not mapped or the range is
+     *         not covered by a single mapping; in that case the caller must
+     *         read the bytes from the channel
+     */
+    private boolean readMapped(final long position, final ByteBuffer bb) {
+        final MappedByteBuffer[] mappings = _mappings;
+        if (mappings == null) {
+            return false;
+        }
+        final int index = (int) (position / MAPPING_SEGMENT_SIZE);
+        final int offset = (int) (position % MAPPING_SEGMENT_SIZE);
+        if (index >= mappings.length || mappings[index] == null
+                || offset + bb.remaining() > mappings[index].capacity()) {
+            return false;
+        }
+        final ByteBuffer source = mappings[index].duplicate();
+        source.limit(offset + bb.remaining()).position(offset);
+        bb.put(source);
+        return true;
+    }
+
     private void resize(final long pageCount) throws PersistitException {
         final long newSize = pageCount * _volume.getStructure().getPageSize();
         long currentSize = -1;
@@ -648,6 +834,7 @@ class VolumeStorageV2 extends VolumeStorage {
                 _persistit.getLogBase().extendNormal.log(this, currentSize, newSize);
             }
 
+            map();
             _volume.getStatistics().setLastExtensionTime(System.currentTimeMillis());
             _extendedPageCount = pageCount;
         } catch (final IOException ioe) {
@@ -0,0 +1,240 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+/**
+ * <p>
+ * A collection of key/value pairs to be stored in one {@link Tree} by a single
+ * call to {@link Exchange#store(WriteBatch)}. Each call to
+ * {@link #put(Key, Value)} copies the encoded bytes of the supplied Key and
+ * Value, so the same Key and Value objects may be modified and reused to add
+ * further pairs.
+ * </p>
+ * <p>
+ * The pairs are applied in ascending key order. When the same key is added
+ * more than once, the value added last is the one stored. A
+ * <code>WriteBatch</code> can be reused after {@link #clear()}. It is not
+ * thread-safe.
+ * </p>
+ */
+public class WriteBatch {
+
+    private final static int INITIAL_BYTES = 4096;
+
+    private final static int INITIAL_ENTRIES = 64;
+
+    private final static int ENTRY_OVERHEAD = 6;
+
+    private byte[] _bytes = new byte[INITIAL_BYTES];
+
+    private int _used;
+
+    private int[] _offsets = new int[INITIAL_ENTRIES];
+
+    /**
+     * The first eight bytes of each key, compared as an unsigned value, decide
+     * the order of most pairs of entries without examining the key bytes
+     */
+    private long[] _prefixes = new long[INITIAL_ENTRIES];
+
+    private int _size;
+
+    private boolean _sorted = true;
+
+    private Key _key;
+
+    private Value _value;
+
+    /**
+     * Add a key/value pair to the batch.
+     *
+     * @param key
+     *            the key
+     * @param value
+     *            the value to store for the key
+     * @return this <code>WriteBatch</code> to permit call chaining
+     */
+    public WriteBatch put(final Key key, final Value value) {
+        final int keySize = key.getEncodedSize();
+        final int valueSize = value.getEncodedSize();
+        final int length = ENTRY_OVERHEAD + keySize + valueSize;
+        if (_used + length > _bytes.length) {
+            final byte[] bytes = new byte[Math.max(_bytes.length * 2, _used + length)];
+            System.arraycopy(_bytes, 0, bytes, 0, _used);
+            _bytes = bytes;
+        }
+        if (_size == _offsets.length) {
+            final int[] offsets = new int[_size * 2];
+            System.arraycopy(_offsets, 0, offsets, 0, _size);
+            _offsets = offsets;
+            final long[] prefixes = new long[_size * 2];
+            System.arraycopy(_prefixes, 0, prefixes, 0, _size);
+            _prefixes = prefixes;
+        }
+        final int offset = _used;
+        putShort(offset, keySize);
+        putShort(offset + 2, valueSize >>> 16);
+        putShort(offset + 4, valueSize);
+        System.arraycopy(key.getEncodedBytes(), 0, _bytes, offset + ENTRY_OVERHEAD, keySize);
+        System.arraycopy(value.getEncodedBytes(), 0, _bytes, offset + ENTRY_OVERHEAD + keySize, valueSize);
+        _used += length;
+        _offsets[_size] = offset;
+        _prefixes[_size] = prefix(offset, keySize);
+        if (_sorted && _size > 0 && compare(_size - 1, _size) > 0) {
+            _sorted = false;
+        }
+        _size++;
+        return this;
+    }
+
+    /**
+     * @return the number of key/value pairs in the batch
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * Remove all key/value pairs from the batch.
+     */
+    public void clear() {
+        _used = 0;
+        _size = 0;
+        _sorted = true;
+    }
+
+    /**
+     * Order the entries by encoded key. The sort is stable so that, of several
+     * entries having the same key, the one added last remains last.
+     */
+    void sort() {
+        if (!_sorted) {
+            final int[] order = new int[_size];
+            for (int index = 0; index < _size; index++) {
+                order[index] = index;
+            }
+            mergeSort(order.clone(), order, 0, _size);
+            final int[] offsets = new int[_offsets.length];
+            final long[] prefixes = new long[_prefixes.length];
+            for (int index = 0; index < _size; index++) {
+                offsets[index] = _offsets[order[index]];
+                prefixes[index] = _prefixes[order[index]];
+            }
+            _offsets = offsets;
+            _prefixes = prefixes;
+            _sorted = true;
+        }
+    }
+
+    /**
+     * Copy the key and value of an entry into the supplied Key and Value.
+     */
+    void load(final int index, final Key key, final Value value) {
+        final int offset = _offsets[index];
+        final int keySize = loadKey(index, key);
+        final int valueSize = getShort(offset + 2) << 16 | getShort(offset + 4);
+        value.putEncodedBytes(_bytes, offset + ENTRY_OVERHEAD + keySize, valueSize);
+    }
+
+    /**
+     * Copy the key of an entry into the supplied Key.
+     *
+     * @return the size of the encoded key
+     */
+    int loadKey(final int index, final Key key) {
+        final int offset = _offsets[index];
+        final int keySize = getShort(offset);
+        System.arraycopy(_bytes, offset + ENTRY_OVERHEAD, key.getEncodedBytes(), 0, keySize);
+        key.setEncodedSize(keySize);
+        return keySize;
+    }
+
+    Key getKey(final Persistit persistit) {
+        if (_key == null) {
+            _key = new Key(persistit);
+        }
+        return _key;
+    }
+
+    Value getValue(final Persistit persistit) {
+        if (_value == null) {
+            _value = new Value(persistit, Value.INITIAL_SIZE, Value.MAXIMUM_SIZE);
+        }
+        return _value;
+    }
+
+    /**
+     * Compare the keys of two entries, identified by their positions in the
+     * order in which they were added.
+     */
+    private int compare(final int entry1, final int entry2) {
+        final long prefix1 = _prefixes[entry1] ^ Long.MIN_VALUE;
+        final long prefix2 = _prefixes[entry2] ^ Long.MIN_VALUE;
+        if (prefix1 != prefix2) {
+            return prefix1 < prefix2 ? -1 : 1;
+        }
+        final int offset1 = _offsets[entry1];
+        final int offset2 = _offsets[entry2];
+        final int size1 = getShort(offset1);
+        final int size2 = getShort(offset2);
+        final int size = Math.min(size1, size2);
+        for (int index = 8; index < size; index++) {
+            final int b1 = _bytes[offset1 + ENTRY_OVERHEAD + index] & 0xFF;
+            final int b2 = _bytes[offset2 + ENTRY_OVERHEAD + index] & 0xFF;
+            if (b1 != b2) {
+                return b1 - b2;
+            }
+        }
+        return size1 - size2;
+    }
+
+    private long prefix(final int offset, final int keySize) {
+        long prefix = 0;
+        for (int index = 0; index < 8; index++) {
+            prefix <<= 8;
+            if (index < keySize) {
+                prefix |= _bytes[offset + ENTRY_OVERHEAD + index] & 0xFF;
+            }
+        }
+        return prefix;
+    }
+
+    private void mergeSort(final int[] from, final int[] to, final int low, final int high) {
+        if (high - low < 2) {
+            return;
+        }
+        final int middle = (low + high) >>> 1;
+        mergeSort(to, from, low, middle);
+        mergeSort(to, from, middle, high);
+        for (int index = low, left = low, right = middle; index < high; index++) {
+            if (right >= high || left < middle && compare(from[left], from[right]) <= 0) {
+                to[index] = from[left++];
+            } else {
+                to[index] = from[right++];
+            }
+        }
+    }
+
+    private int getShort(final int offset) {
+        return (_bytes[offset] & 0xFF) << 8 | (_bytes[offset + 1] & 0xFF);
+    }
+
+    private void putShort(final int offset, final int v) {
+        _bytes[offset] = (byte) (v >>> 8);
+        _bytes[offset + 1] = (byte) v;
+    }
+}
@@ -74,6 +74,9 @@ public class LogBase {
     @Message("INFO| Allocating %,d buffers of size %,d bytes")
     public final LogItem allocateBuffers = PersistitLogMessage.empty();
 
+    @Message("INFO|Resized pool of %,d-byte buffers from %,d to %,d buffers")
+    public final LogItem resizeBuffers = PersistitLogMessage.empty();
+
     @Message("INFO|Opening volume %s (%s)")
     public final LogItem openVolume = PersistitLogMessage.empty();
 
@@ -18,6 +18,8 @@ package com.persistit.mxbeans;
 
 import javax.management.MXBean;
 
+import com.persistit.exception.PersistitException;
+
 /**
  * Management structure holding information about the state of a
  * <code>BufferPool</code>, including counters for events such as physical I/O
@@ -149,4 +151,113 @@ public interface BufferPoolMXBean {
     @Description("Earliest timestamp of any dirty page in this BufferPool.")
     public long getEarliestDirtyTimestamp();
 
+    /**
+     * Return the number of misses for pages the eviction policy remembered as
+     * having been recently evicted. A scan-resistant policy admits such pages
+     * as hot pages.
+     * 
+     * @return The ghost hit count
+     */
+    @Description("The number of misses for pages the eviction policy remembered as recently evicted.")
+    public long getGhostHitCount();
+
+    /**
+     * @return The count of pages the eviction policy currently protects as
+     *         hot pages
+     */
+    @Description("The count of pages the eviction policy currently protects as hot pages.")
+    public int getHotPageCount();
+
+    /**
+     * @return The name of the eviction policy, either CLOCK or CLOCKPRO
+     */
+    @Description("The name of the eviction policy, either CLOCK or CLOCKPRO.")
+    public String getEvictionPolicy();
+
+    /**
+     * Return the number of dirty pages written by the PAGE_CLEANER thread so
+     * that the eviction algorithm finds clean buffers ahead of the clock hand.
+     * Compare with {@link #getForcedWriteCount()}, which counts pages that had
+     * to be written by the thread needing a buffer.
+     * 
+     * @return The count of pages written by PAGE_CLEANER
+     */
+    @Description("The number of dirty pages written by the PAGE_CLEANER thread.")
+    public long getCleanerWriteCount();
+
+    /**
+     * @return The number of clean buffers the PAGE_CLEANER thread tries to
+     *         keep ahead of the clock hand
+     */
+    @Description("The number of clean buffers the PAGE_CLEANER thread tries to keep ahead of the clock hand.")
+    public int getCleanLowWaterMark();
+
+    /**
+     * Return the number of partitions this pool is divided into. Each
+     * partition has its own clock hand, hash table and locks; the counts
+     * reported by the other attributes are totals over all partitions.
+     * 
+     * @return The partition count
+     */
+    @Description("The number of partitions this BufferPool is divided into.")
+    public int getPartitionCount();
+
+    /**
+     * Return the number of pages missing from this <code>BufferPool</code>
+     * that were loaded from its compressed second-tier page cache rather than
+     * read from disk.
+     * 
+     * @return The page cache hit count
+     */
+    @Description("The number of pages missing from this BufferPool that were found in its compressed page cache.")
+    public long getPageCacheHitCount();
+
+    /**
+     * @return The number of pages missing from both this
+     *         <code>BufferPool</code> and its compressed page cache
+     */
+    @Description("The number of pages missing from both this BufferPool and its compressed page cache.")
+    public long getPageCacheMissCount();
+
+    /**
+     * @return The ratio of page cache hits to all page cache lookups
+     */
+    @Description("The ratio of page cache hits to all page cache lookups.")
+    public double getPageCacheHitRatio();
+
+    /**
+     * @return The approximate number of bytes occupied by the compressed page
+     *         cache
+     */
+    @Description("The approximate number of bytes occupied by the compressed page cache.")
+    public long getPageCacheSize();
+
+    /**
+     * @return The maximum size in bytes of the compressed page cache, or zero
+     *         if it is disabled
+     */
+    @Description("The maximum size in bytes of the compressed page cache, or zero if it is disabled.")
+    public long getPageCacheMemory();
+
+    /**
+     * Change the number of buffers in this pool while it is in use. Pages
+     * held by buffers being removed are evicted, and written first if dirty.
+     * A buffer holding a volume's head page cannot be removed, so the pool
+     * may be left larger than requested.
+     * 
+     * @param bufferCount
+     *            the desired number of buffers
+     * @return The number of buffers in the pool after resizing
+     * @throws PersistitException
+     */
+    @Description("Change the number of buffers in this BufferPool and return the resulting count.")
+    public int resize(@PName("bufferCount") int bufferCount) throws PersistitException;
+
+    /**
+     * @return <code>true</code> if the pages of this pool are allocated
+     *         outside the heap
+     */
+    @Description("True if the pages of this pool are allocated outside the heap.")
+    public boolean isOffHeap();
+
 }
@@ -56,14 +56,18 @@ public interface IOMeterMXBean {
      * <dd>Flush journal</dd>
      * <dt>GP</dt>
      * <dd>Get Page</dd>
+     * <dt>PF</dt>
+     * <dd>Prefetch page ahead of a sequential scan. These pages are also
+     * counted by RV or RJ.</dd>
      * </dl>
      * 
      */
     public final static String[] OPERATION_NAMES = { "Unknown", "Read page from Volume", "Read page from Journal",
             "Copy page from journal", "Copy page to volume", "Write page from Journal", "Write Transaction to Journal",
-            "Other", "Evict page from pool", "Flush journal", "Get page" };
+            "Other", "Evict page from pool", "Flush journal", "Get page", "Prefetch page" };
 
-    public final static String[] OPERATIONS = { "??", "RV", "RJ", "CJ", "CV", "WJ", "TJ", "XX", "EV", "FJ", "GP" };
+    public final static String[] OPERATIONS = { "??", "RV", "RJ", "CJ", "CV", "WJ", "TJ", "XX", "EV", "FJ", "GP",
+            "PF" };
 
     public final static String[] SUMMARY_ITEMS = { "CJ", "CV", "RV", "RJ", "WJ", "EV", "FJ" };
 
@@ -88,6 +92,15 @@ public interface IOMeterMXBean {
     @Description("Approximate I/O rate in bytes per second")
     public long getIoRate();
 
+    /**
+     * @return the read-ahead distance, in pages, of the most recent page
+     *         prefetched ahead of a sequential scan. The distance starts small
+     *         and doubles while a scan continues, up to the buffer pool's
+     *         maximum read-ahead.
+     */
+    @Description("Read-ahead distance in pages of the most recent prefetch for a sequential scan")
+    public int getReadAheadDepth();
+
     /**
      * Set the path for file into which IO events should be logged, or
      * <code>null</code> to disable IO logging. Use care when enabling an I/O
@@ -79,6 +79,19 @@ public interface JournalManagerMXBean {
      */
     final static long DEFAULT_FLUSH_INTERVAL_MS = 100;
 
+    /**
+     * Default and maximum number of preallocated spare journal files.
+     */
+    final static int DEFAULT_SPARE_JOURNAL_FILES = 0;
+    final static int MAXIMUM_SPARE_JOURNAL_FILES = 8;
+
+    /**
+     * Default and maximum number of page images retained in the cache of
+     * pages written to or read from the journal.
+     */
+    final static int DEFAULT_PAGE_CACHE_SIZE = 256;
+    final static int MAXIMUM_PAGE_CACHE_SIZE = 65536;
+
     /**
      * Default time interval (in milliseconds) between calls to the journal
      * copier method.
@@ -96,6 +109,13 @@ public interface JournalManagerMXBean {
      */
     final static int DEFAULT_COPIES_PER_CYCLE = 1000;
 
+    /**
+     * Default and maximum number of threads that copy pages to different
+     * volumes concurrently.
+     */
+    final static int DEFAULT_COPIER_THREADS = 4;
+    final static int MAXIMUM_COPIER_THREADS = 32;
+
     /**
      * Default time interval (in milliseconds) for logging repetitive I/O
      * exceptions on attempts to write to the journal. Prevents excessively
@@ -166,12 +186,36 @@ public interface JournalManagerMXBean {
     @Description("Interval between data flush cycles in milliseconds")
     void setFlushInterval(long flushInterval);
 
+    @Description("Number of preallocated, zero-filled journal files to keep ready for use")
+    int getSpareJournalFiles();
+
+    @Description("Number of preallocated, zero-filled journal files to keep ready for use")
+    void setSpareJournalFiles(int spareJournalFiles);
+
+    @Description("Number of preallocated journal files currently ready for use")
+    int getReadySpareJournalFileCount();
+
+    @Description("Number of page images retained in the cache of pages written to or read from the journal")
+    int getPageCacheSize();
+
+    @Description("Number of page images retained in the cache of pages written to or read from the journal")
+    void setPageCacheSize(int pageCacheSize);
+
+    @Description("Number of page images served from the journal page cache rather than read from the journal")
+    long getPageCacheHitCount();
+
     @Description("Interval between page copying cycles")
     long getCopierInterval();
 
     @Description("Interval between page copying cycles")
     void setCopierInterval(long copierInterval);
 
+    @Description("Maximum number of threads that copy pages to different volumes concurrently")
+    int getCopierThreads();
+
+    @Description("Maximum number of threads that copy pages to different volumes concurrently")
+    void setCopierThreads(int copierThreads);
+
     @Description("True if the journal has been closed")
     boolean isClosed();
 
@@ -187,6 +231,21 @@ public interface JournalManagerMXBean {
     @Description("Total number of page images written to the journal")
     long getJournaledPageCount();
 
+    @Description("Number of page images written to the journal as deltas from an earlier full image")
+    long getPageDeltaCount();
+
+    @Description("Number of page images written to the journal in compressed form")
+    long getCompressedPageCount();
+
+    @Description("Ratio of the uncompressed to the compressed size of page images written in compressed form")
+    double getPageCompressionRatio();
+
+    @Description("Total time in milliseconds spent compressing page images written to the journal")
+    long getPageCompressionTime();
+
+    @Description("Total time in milliseconds spent decompressing page images read from the journal")
+    long getPageDecompressionTime();
+
     @Description("Total number of page images copied from the journal to their destination volumes")
     long getCopiedPageCount();
 
@@ -214,6 +273,18 @@ public interface JournalManagerMXBean {
     @Description("True to enable pruning when writing pages to journal")
     boolean isWritePagePruningEnabled();
 
+    @Description("True to write changed byte ranges rather than full page images when possible")
+    void setPageDeltasEnabled(boolean pageDeltas);
+
+    @Description("True to write changed byte ranges rather than full page images when possible")
+    boolean isPageDeltasEnabled();
+
+    @Description("True to write compressed page images when they are smaller than uncompressed images")
+    void setPageCompressionEnabled(boolean pageCompression);
+
+    @Description("True to write compressed page images when they are smaller than uncompressed images")
+    boolean isPageCompressionEnabled();
+
     @Description("Degree of urgency for copying pages: 0-10")
     int urgency();
 
@@ -65,9 +65,9 @@ public interface TransactionIndexMXBean {
 
     /**
      * Refresh the ActiveTransactionCache. This method walks the hashTable to
-     * update the non-current ActiveTransactionCache instance and then makes it
-     * current. This method will acquires an exclusive lock on the
-     * ActiveTransactionCache.
+     * compute a new ActiveTransactionCache instance and then makes it current.
+     * The cache is also refreshed by a pruning thread that needs more recent
+     * information, or that finds the oldest active transaction has finished.
      */
     public abstract void updateActiveTransactionCache();
 
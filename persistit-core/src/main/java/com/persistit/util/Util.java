@@ -18,6 +18,7 @@ package com.persistit.util;
 
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.regex.Pattern;
@@ -34,6 +35,12 @@ import com.persistit.exception.PersistitInterruptedException;
 public class Util {
     final static byte[] NULLS = new byte[1024];
 
+    /**
+     * Transfers of this many bytes or more to or from a ByteBuffer use a bulk
+     * operation on a duplicate of the buffer
+     */
+    private final static int BYTE_BUFFER_BULK_THRESHOLD = 32;
+
     final static String SPACES = "                                                                    ";
     private final static String UTF8 = "UTF-8";
     public final static String NEW_LINE = System.getProperty("line.separator");
@@ -474,6 +481,152 @@ public class Util {
         }
     }
 
+    /*
+     * The ByteBuffer methods below address the buffer at absolute indexes and
+     * work the same way on heap and direct buffers. None of them changes the
+     * position or limit of the supplied buffer, so they may be used
+     * concurrently by threads sharing a page. Short transfers are done byte
+     * by byte to avoid creating a duplicate view of the buffer.
+     */
+
+    /**
+     * Zero the bytes of a ByteBuffer from <code>from</code> (inclusive) to
+     * <code>to</code> (exclusive).
+     */
+    public static void clearBytes(final ByteBuffer bb, final int from, final int to) {
+        for (int offset = from; offset < to; offset += NULLS.length) {
+            int count = to - offset;
+            if (count > NULLS.length)
+                count = NULLS.length;
+            putBytes(bb, offset, NULLS, 0, count);
+        }
+    }
+
+    /**
+     * Copy bytes from a ByteBuffer into a byte array.
+     *
+     * @param bb
+     *            the source buffer
+     * @param index
+     *            absolute index of the first byte in the buffer
+     * @param bytes
+     *            the target array
+     * @param offset
+     *            offset of the first byte in the array
+     * @param length
+     *            number of bytes to copy
+     */
+    public static void getBytes(final ByteBuffer bb, final int index, final byte[] bytes, final int offset,
+            final int length) {
+        if (length < BYTE_BUFFER_BULK_THRESHOLD) {
+            for (int i = 0; i < length; i++) {
+                bytes[offset + i] = bb.get(index + i);
+            }
+        } else {
+            final ByteBuffer source = bb.duplicate();
+            source.limit(index + length).position(index);
+            source.get(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Copy bytes from a byte array into a ByteBuffer.
+     *
+     * @param bb
+     *            the target buffer
+     * @param index
+     *            absolute index of the first byte in the buffer
+     * @param bytes
+     *            the source array
+     * @param offset
+     *            offset of the first byte in the array
+     * @param length
+     *            number of bytes to copy
+     */
+    public static void putBytes(final ByteBuffer bb, final int index, final byte[] bytes, final int offset,
+            final int length) {
+        if (length < BYTE_BUFFER_BULK_THRESHOLD) {
+            for (int i = 0; i < length; i++) {
+                bb.put(index + i, bytes[offset + i]);
+            }
+        } else {
+            final ByteBuffer target = bb.duplicate();
+            target.limit(index + length).position(index);
+            target.put(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Copy bytes from one ByteBuffer to another. The two ranges must not
+     * overlap; use {@link #moveBytes(ByteBuffer, int, int, int)} to move bytes
+     * within one buffer.
+     *
+     * @param from
+     *            the source buffer
+     * @param fromIndex
+     *            absolute index of the first byte in the source
+     * @param to
+     *            the target buffer
+     * @param toIndex
+     *            absolute index of the first byte in the target
+     * @param length
+     *            number of bytes to copy
+     */
+    public static void copyBytes(final ByteBuffer from, final int fromIndex, final ByteBuffer to, final int toIndex,
+            final int length) {
+        if (length < BYTE_BUFFER_BULK_THRESHOLD) {
+            for (int i = 0; i < length; i++) {
+                to.put(toIndex + i, from.get(fromIndex + i));
+            }
+        } else {
+            final ByteBuffer source = from.duplicate();
+            source.limit(fromIndex + length).position(fromIndex);
+            final ByteBuffer target = to.duplicate();
+            target.limit(toIndex + length).position(toIndex);
+            target.put(source);
+        }
+    }
+
+    /**
+     * Move bytes within a ByteBuffer, as {@link System#arraycopy} does within
+     * an array. The source and target ranges may overlap.
+     *
+     * @param bb
+     *            the buffer
+     * @param from
+     *            absolute index of the first byte to move
+     * @param to
+     *            absolute index to which the first byte is moved
+     * @param length
+     *            number of bytes to move
+     */
+    public static void moveBytes(final ByteBuffer bb, final int from, final int to, final int length) {
+        if (from + length <= to || to + length <= from) {
+            copyBytes(bb, from, bb, to, length);
+        } else if (to < from) {
+            //
+            // Overlapping ranges: ByteBuffer.put(ByteBuffer) does not specify
+            // the result, so copy in the direction that reads each byte
+            // before it is overwritten.
+            //
+            int i = 0;
+            for (; i + 8 <= length; i += 8) {
+                bb.putLong(to + i, bb.getLong(from + i));
+            }
+            for (; i < length; i++) {
+                bb.put(to + i, bb.get(from + i));
+            }
+        } else if (to > from) {
+            int i = length;
+            for (; i >= 8; i -= 8) {
+                bb.putLong(to + i - 8, bb.getLong(from + i - 8));
+            }
+            for (; i > 0; i--) {
+                bb.put(to + i - 1, bb.get(from + i - 1));
+            }
+        }
+    }
+
     public static void appendQuotedString(final Appendable sb, final String s, final int start, final int length) {
         final int end = Math.min(start + length, s.length());
         for (int index = start; index < end; index++) {
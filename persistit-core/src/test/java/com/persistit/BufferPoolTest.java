@@ -19,7 +19,10 @@ package com.persistit;
 import com.persistit.BufferPool.BufferHolder;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -184,4 +187,330 @@ public class BufferPoolTest extends PersistitUnitTestCase {
         }
     }
 
+    @Test
+    public void testCleanBuffers() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = new BufferPool(32, volume.getPageSize(), _persistit);
+        pool.setCleanLowWaterMark(8);
+        final long timestamp = _persistit.getTimestampAllocator().updateTimestamp();
+        for (int i = 0; i < pool.getBufferCount(); i++) {
+            final long page = volume.getStorage().allocNewPage();
+            final Buffer buffer = pool.get(volume, page, true, false);
+            buffer.init(Buffer.PAGE_TYPE_DATA);
+            buffer.setDirtyAtTimestamp(timestamp);
+            buffer.release();
+        }
+        assertEquals("All buffers should be dirty", pool.getBufferCount(), pool.getDirtyPageCount());
+
+        final BufferHolder[] holders = new BufferHolder[pool.getCleanLowWaterMark()];
+        for (int i = 0; i < holders.length; i++) {
+            holders[i] = new BufferHolder();
+        }
+        assertEquals("Should write enough pages to reach the low-water mark", 8, pool.cleanBuffers(holders));
+        assertEquals(pool.getBufferCount() - 8, pool.getDirtyPageCount());
+        assertEquals("Low-water mark already satisfied", 0, pool.cleanBuffers(holders));
+
+        final Buffer buffer = pool.get(volume, volume.getStorage().allocNewPage(), true, false);
+        buffer.release();
+        assertEquals("Should have evicted a clean page", 0, pool.getForcedWriteCounter());
+        assertEquals(8, pool.getCleanerWriteCounter());
+    }
+
+    /**
+     * A hot set established under the CLOCKPRO policy should survive a
+     * sequential scan of a much larger set of pages.
+     * 
+     * @throws Exception
+     */
+    @Test
+    public void testScanResistantPolicy() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        ex.getValue().put(RED_FOX);
+        for (int i = 1; volume.getNextAvailablePage() < 200; i++) {
+            ex.to(i).store();
+        }
+        _persistit.flush();
+        final BufferPool pool = new BufferPool(32, volume.getPageSize(), EvictionPolicy.CLOCKPRO, _persistit);
+        final long[] hot = { 1, 2, 3, 4 };
+        /*
+         * Reference the hot pages often enough that each is re-read soon after
+         * its first eviction.
+         */
+        for (long page = hot.length + 1; page < 100; page++) {
+            touch(pool, volume, page);
+            if (page % 4 == 0) {
+                for (final long h : hot) {
+                    touch(pool, volume, h);
+                }
+            }
+        }
+        assertTrue("Hot pages should have been readmitted from ghost table", pool.getGhostHitCounter() >= hot.length);
+        /*
+         * Scan pages never seen before
+         */
+        for (long page = 100; page < 200; page++) {
+            touch(pool, volume, page);
+        }
+        final long misses = pool.getMissCounter();
+        for (final long h : hot) {
+            touch(pool, volume, h);
+        }
+        assertEquals("Hot pages should not have been evicted by a scan", misses, pool.getMissCounter());
+    }
+
+    /**
+     * Under the CLOCKPRO policy a pool whose hot set is at its limit, and
+     * whose cold buffers are all claimed, must still be able to allocate a
+     * buffer by demoting a hot page.
+     *
+     * @throws Exception
+     */
+    @Test
+    public void testScanResistantPolicyFullOfHotPages() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        ex.getValue().put(createString(2000));
+        for (int i = 1; volume.getNextAvailablePage() < 2000; i++) {
+            ex.to(i).store();
+        }
+        _persistit.flush();
+        final BufferPool pool = new BufferPool(32, volume.getPageSize(), EvictionPolicy.CLOCKPRO, _persistit);
+        final int hotLimit = pool.getBufferCount() * 3 / 4;
+        /*
+         * Pages 1 through hotLimit are evicted by a scan of pages never seen
+         * before and then re-read while remembered in the ghost table, until
+         * all of them are hot.
+         */
+        long scan = 100;
+        while (pool.getHotPageCount() < hotLimit && scan < 1900) {
+            for (long page = 1; page <= hotLimit; page++) {
+                touch(pool, volume, page);
+            }
+            for (int i = 0; i < pool.getBufferCount(); i++) {
+                touch(pool, volume, scan++);
+            }
+        }
+        for (long page = 1; page <= hotLimit; page++) {
+            touch(pool, volume, page);
+        }
+        assertEquals("Hot set should be at its limit", hotLimit, pool.getHotPageCount());
+        /*
+         * Make the hot pages dirty and claim every other buffer
+         */
+        final long timestamp = _persistit.getTimestampAllocator().updateTimestamp();
+        for (long page = 1; page <= hotLimit; page++) {
+            final Buffer buffer = pool.get(volume, page, true, true);
+            buffer.setDirtyAtTimestamp(timestamp);
+            buffer.releaseTouched();
+        }
+        final List<Buffer> claimed = new ArrayList<Buffer>();
+        for (long page = hotLimit + 1; page < scan; page++) {
+            if (pool.isResident(volume, page)) {
+                claimed.add(pool.get(volume, page, false, true));
+            }
+        }
+        assertEquals(pool.getBufferCount() - hotLimit, claimed.size());
+        try {
+            final Buffer buffer = pool.get(volume, scan, false, true);
+            buffer.release();
+            assertTrue("A hot page should have been demoted", pool.getHotPageCount() < hotLimit);
+        } finally {
+            for (final Buffer buffer : claimed) {
+                buffer.release();
+            }
+        }
+    }
+
+    @Test
+    public void testPartitionedPool() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        ex.getValue().put(RED_FOX);
+        for (int i = 1; volume.getNextAvailablePage() < 200; i++) {
+            ex.to(i).store();
+        }
+        _persistit.flush();
+        final long pages = volume.getNextAvailablePage();
+
+        assertEquals("Each partition needs a minimum number of buffers", 2, new BufferPool(20,
+                volume.getPageSize(), EvictionPolicy.CLOCK, 8, _persistit).getPartitionCount());
+
+        final BufferPool pool = new BufferPool(64, volume.getPageSize(), EvictionPolicy.CLOCK, 4, _persistit);
+        assertEquals(4, pool.getPartitionCount());
+        for (long page = 1; page < pages; page++) {
+            touch(pool, volume, page);
+        }
+        assertEquals(pages - 1, pool.getMissCounter());
+        assertTrue(pool.getEvictCounter() >= pages - 1 - pool.getBufferCount());
+        touch(pool, volume, pages - 1);
+        assertEquals("Most recently read page should be resident", 1, pool.getHitCounter());
+
+        assertTrue(pool.invalidate(volume));
+        final long evicted = pool.getEvictCounter();
+        for (long page = 1; page <= 8; page++) {
+            touch(pool, volume, page);
+        }
+        assertEquals("Invalidated buffers should be reused without eviction", evicted, pool.getEvictCounter());
+    }
+
+    @Test
+    public void testReadAhead() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = volume.getPool();
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        ex.getValue().put(RED_FOX);
+        int count = 0;
+        while (volume.getNextAvailablePage() < 300) {
+            ex.to(++count).store();
+        }
+        assertTrue(pool.evict(volume));
+
+        pool.setMaximumReadAhead(0);
+        ex.to(Key.BEFORE);
+        for (int i = 1; i <= count / 2; i++) {
+            assertTrue(ex.next());
+            assertEquals(i, ex.getKey().decodeInt());
+        }
+        assertEquals("Read-ahead should be disabled", 0, pool.getPrefetchCounter());
+
+        pool.setMaximumReadAhead(16);
+        for (int i = count / 2 + 1; i <= count; i++) {
+            assertTrue(ex.next());
+            assertEquals(i, ex.getKey().decodeInt());
+        }
+        assertTrue(!ex.next());
+        assertTrue("Pages should have been read ahead of the scan", pool.getPrefetchCounter() > 0);
+        assertEquals(pool.getPrefetchCounter(), _persistit.getIOMeter().totalOperations("PF"));
+    }
+
+    @Test
+    public void testResize() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = volume.getPool();
+        final int initial = pool.getBufferCount();
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        ex.getValue().put(RED_FOX);
+
+        assertEquals(initial * 10, _persistit.resizeBufferPool(volume.getPageSize(), initial * 10));
+        assertEquals(initial * 10, pool.getBufferCount());
+        int count = 0;
+        while (volume.getNextAvailablePage() < initial * 5) {
+            ex.to(++count).store();
+        }
+        final long evicted = pool.getEvictCounter();
+        for (int i = 1; i <= count; i++) {
+            assertTrue(ex.to(i).isValueDefined());
+        }
+        assertEquals("Grown pool should hold every page", evicted, pool.getEvictCounter());
+
+        assertEquals(initial, pool.resize(initial));
+        assertEquals(initial, pool.getBufferCount());
+        for (int i = 1; i <= count; i++) {
+            ex.to(i).fetch();
+            assertEquals(RED_FOX, ex.getValue().getString());
+        }
+        assertTrue(pool.getEvictCounter() > evicted);
+    }
+
+    @Test
+    public void testOffHeapPool() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        ex.getValue().put(RED_FOX);
+        for (int i = 1; volume.getNextAvailablePage() < 100; i++) {
+            ex.to(i).store();
+        }
+        _persistit.flush();
+        final long pages = volume.getNextAvailablePage();
+        final int pageSize = volume.getPageSize();
+
+        final BufferPool heapPool = new BufferPool(32, pageSize, EvictionPolicy.CLOCK, 1, _persistit);
+        final BufferPool pool = new BufferPool(32, pageSize, EvictionPolicy.CLOCK, 1, true, _persistit);
+        assertTrue(!heapPool.isOffHeap());
+        assertTrue(pool.isOffHeap());
+        final byte[] expected = new byte[pageSize];
+        final byte[] actual = new byte[pageSize];
+        for (long page = 1; page < pages; page++) {
+            if (page == pages / 2) {
+                assertEquals(64, pool.resize(64));
+            }
+            final Buffer heapBuffer = heapPool.get(volume, page, false, true);
+            heapBuffer.getBytes(0, expected, 0, pageSize);
+            heapBuffer.release();
+            final Buffer buffer = pool.get(volume, page, false, true);
+            assertTrue("Page memory should be direct", buffer.getByteBuffer().isDirect());
+            buffer.getBytes(0, actual, 0, pageSize);
+            buffer.release();
+            assertTrue("Page " + page + " differs", Arrays.equals(expected, actual));
+        }
+    }
+
+    @Test
+    public void testOffHeapConfiguration() throws Exception {
+        _persistit.close();
+        final Properties properties = getProperties(false);
+        properties.setProperty("buffer.offheap.16384", "true");
+        _persistit = new Persistit(new Configuration(properties));
+        assertTrue(_persistit.getBufferPool(16384).isOffHeap());
+
+        Exchange ex = _persistit.getExchange("persistit", "BufferPoolTest", true);
+        for (int i = 0; i < 5000; i++) {
+            ex.getValue().put(i % 500 == 0 ? createString(50000) : RED_FOX + i);
+            ex.to(i).store();
+        }
+        for (int i = 1001; i < 5000; i++) {
+            ex.to(i).remove();
+        }
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkVolume(_persistit.getVolume("persistit"));
+        assertEquals("Corrupt volume", 0, icheck.getFaults().length);
+
+        _persistit.close();
+        _persistit = new Persistit(new Configuration(properties));
+        ex = _persistit.getExchange("persistit", "BufferPoolTest", false);
+        for (int i = 0; i < 5000; i++) {
+            ex.to(i).fetch();
+            if (i > 1000) {
+                assertTrue(!ex.getValue().isDefined());
+            } else {
+                assertEquals(i % 500 == 0 ? createString(50000) : RED_FOX + i, ex.getValue().getString());
+            }
+        }
+    }
+
+    private void touch(final BufferPool pool, final Volume volume, final long page) throws Exception {
+        final Buffer buffer = pool.get(volume, page, false, true);
+        buffer.releaseTouched();
+    }
+
+
+    @Test
+    public void testPageCache() throws Exception {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = volume.getPool();
+        pool.setPageCacheMemory(16 * 1024 * 1024);
+        final Exchange ex = _persistit.getExchange(volume, "BufferPoolTest", true);
+        int count = 0;
+        while (volume.getNextAvailablePage() < pool.getBufferCount() * 3) {
+            ex.getValue().put(RED_FOX + count);
+            ex.to(count++).store();
+        }
+        assertTrue("Evicted pages should be held in the page cache", pool.getPageCachePageCount() > 0);
+        assertTrue(pool.getPageCacheSize() <= pool.getPageCacheMemory());
+
+        for (int i = 0; i < count; i++) {
+            ex.to(i).fetch();
+            assertEquals(RED_FOX + i, ex.getValue().getString());
+        }
+        assertTrue("Evicted pages should have been found in the page cache", pool.getPageCacheHitCounter() > 0);
+
+        pool.setPageCacheMemory(0);
+        assertEquals(0, pool.getPageCachePageCount());
+        assertEquals(0, pool.getPageCacheHitCounter());
+        for (int i = 0; i < count; i++) {
+            ex.to(i).fetch();
+            assertEquals(RED_FOX + i, ex.getValue().getString());
+        }
+    }
 }
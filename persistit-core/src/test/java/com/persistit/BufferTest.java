@@ -26,6 +26,12 @@ import com.persistit.policy.SplitPolicy;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 public class BufferTest extends PersistitUnitTestCase {
@@ -203,6 +209,88 @@ public class BufferTest extends PersistitUnitTestCase {
         return -1;
     }
 
+    @Test
+    public void testOptimisticStamp() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", "BufferTest", true);
+        ex.getValue().put(RED_FOX);
+        for (int i = 0; i < 5000; i++) {
+            ex.to(i).store();
+        }
+        final Tree tree = ex.getTree();
+        assertTrue("Tree should have index levels", tree.getDepth() > 1);
+        final long rootPage = tree.getRootPageAddr();
+        final Buffer root = ex.getBufferPool().get(ex.getVolume(), rootPage, false, true);
+        root.release();
+        final int level = root.getPageType() - Buffer.PAGE_TYPE_DATA;
+        ex.to(2500);
+
+        final long stamp = root.optimisticStamp();
+        assertTrue(stamp >= 0);
+        assertTrue(root.findChildPageOptimistically(ex.getVolume(), rootPage, level, ex.getKey()) > 0);
+        assertEquals(-1, root.findChildPageOptimistically(ex.getVolume(), rootPage + 1, level, ex.getKey()));
+        assertEquals(-1, root.findChildPageOptimistically(ex.getVolume(), rootPage, level + 1, ex.getKey()));
+
+        root.claim(false);
+        assertTrue("Reader claim should not invalidate stamp", root.validateStamp(stamp));
+        root.release();
+
+        root.claim(true);
+        assertEquals("No stamp while a writer holds a claim", -1, root.optimisticStamp());
+        assertFalse(root.validateStamp(stamp));
+        root.release();
+        assertFalse("Writer claim should invalidate stamp", root.validateStamp(stamp));
+        assertTrue(root.validateStamp(root.optimisticStamp()));
+    }
+
+    @Test
+    public void testOptimisticDescentWithConcurrentSplits() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", "BufferTest", true);
+        for (int i = 0; i < 20000; i += 2) {
+            ex.getValue().put(i);
+            ex.to(i).store();
+        }
+        final AtomicInteger inserted = new AtomicInteger();
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        final Thread[] readers = new Thread[4];
+        for (int t = 0; t < readers.length; t++) {
+            readers[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        final Exchange rx = _persistit.getExchange("persistit", "BufferTest", false);
+                        final Random random = new Random();
+                        while (inserted.get() < 10000) {
+                            final int k = random.nextInt(10000) * 2;
+                            rx.to(k).fetch();
+                            if (!rx.getValue().isDefined() || rx.getValue().getInt() != k) {
+                                throw new AssertionError("Wrong value for key " + k + ": " + rx.getValue());
+                            }
+                        }
+                        _persistit.releaseExchange(rx);
+                    } catch (final Throwable e) {
+                        failure.compareAndSet(null, e);
+                    }
+                }
+            });
+            readers[t].start();
+        }
+        final StringBuilder sb = new StringBuilder();
+        while (sb.length() < 200) {
+            sb.append(RED_FOX);
+        }
+        for (int i = 1; i < 20000; i += 2) {
+            ex.getValue().put(sb.toString());
+            ex.to(i).store();
+            inserted.incrementAndGet();
+        }
+        for (final Thread thread : readers) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+    }
+
     private void joinPages(final Exchange ex, final Buffer b1, final Buffer b2, final int key1, final int key2)
             throws PersistitException {
         ex.getKey().clear().append(String.format(String.format("%05d%" + leftklen + "s", key1, "")));
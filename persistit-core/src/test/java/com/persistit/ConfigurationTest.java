@@ -203,6 +203,149 @@ public class ConfigurationTest extends PersistitUnitTestCase {
         }
     }
 
+    @Test
+    public void testLoadPropertiesEvictionPolicy() throws Exception {
+        final Properties properties = new Properties();
+        properties.put("buffer.count.16384", "500");
+        assertEquals(EvictionPolicy.CLOCK, testLoadPropertiesBufferSpecificationsHelper(properties)
+                .getBufferPoolMap().get(16384).getEvictionPolicy());
+        properties.put("buffer.policy.16384", "clockpro");
+        assertEquals(EvictionPolicy.CLOCKPRO, testLoadPropertiesBufferSpecificationsHelper(properties)
+                .getBufferPoolMap().get(16384).getEvictionPolicy());
+        properties.put("buffer.policy.16384", "lru");
+        try {
+            testLoadPropertiesBufferSpecificationsHelper(properties);
+            fail("Exception not thrown");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLoadPropertiesPartitionCount() throws Exception {
+        final Properties properties = new Properties();
+        properties.put("buffer.count.16384", "500");
+        assertEquals(1, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .getPartitionCount());
+        properties.put("buffer.partitions.16384", "16");
+        assertEquals(16, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .getPartitionCount());
+        properties.put("buffer.partitions.16384", "0");
+        try {
+            testLoadPropertiesBufferSpecificationsHelper(properties);
+            fail("Exception not thrown");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLoadPropertiesMaximumReadAhead() throws Exception {
+        final Properties properties = new Properties();
+        properties.put("buffer.count.16384", "500");
+        assertEquals(-1, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .getMaximumReadAhead());
+        properties.put("buffer.readahead.16384", "0");
+        assertEquals(0, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .getMaximumReadAhead());
+        properties.put("buffer.readahead.16384", "-2");
+        try {
+            testLoadPropertiesBufferSpecificationsHelper(properties);
+            fail("Exception not thrown");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLoadPropertiesPageCache() throws Exception {
+        final Properties properties = new Properties();
+        properties.put("buffer.count.16384", "500");
+        assertEquals(0, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .getPageCacheMemory());
+        properties.put("buffer.pagecache.16384", "64M");
+        assertEquals(64 * MEGA, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap()
+                .get(16384).getPageCacheMemory());
+        properties.put("buffer.pagecache.16384", "-1");
+        try {
+            testLoadPropertiesBufferSpecificationsHelper(properties);
+            fail("Exception not thrown");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLoadPropertiesBufferPreload() throws Exception {
+        final Properties properties = new Properties();
+        Configuration configuration = new Configuration(properties);
+        assertEquals(Configuration.DEFAULT_BUFFER_PRELOAD_THREADS, configuration.getBufferPreloadThreads());
+        assertEquals(false, configuration.isBufferPreloadBackground());
+        properties.put("bufferpreloadthreads", "16");
+        properties.put("bufferpreloadbackground", "true");
+        configuration = new Configuration(properties);
+        assertEquals(16, configuration.getBufferPreloadThreads());
+        assertEquals(true, configuration.isBufferPreloadBackground());
+        properties.put("bufferpreloadthreads", "0");
+        try {
+            new Configuration(properties);
+            fail("Exception not thrown");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLoadPropertiesPageDeltas() throws Exception {
+        final Properties properties = new Properties();
+        assertEquals(false, new Configuration(properties).isPageDeltasEnabled());
+        properties.put("pagedeltas", "true");
+        assertEquals(true, new Configuration(properties).isPageDeltasEnabled());
+    }
+
+    @Test
+    public void testLoadPropertiesJournalSpares() throws Exception {
+        final Properties properties = new Properties();
+        assertEquals(0, new Configuration(properties).getJournalSpares());
+        properties.put("journalspares", "2");
+        assertEquals(2, new Configuration(properties).getJournalSpares());
+    }
+
+    @Test
+    public void testLoadPropertiesJournalPageCache() throws Exception {
+        final Properties properties = new Properties();
+        assertEquals(256, new Configuration(properties).getJournalPageCache());
+        properties.put("journalpagecache", "0");
+        assertEquals(0, new Configuration(properties).getJournalPageCache());
+    }
+
+    @Test
+    public void testLoadPropertiesJournalCopierThreads() throws Exception {
+        final Properties properties = new Properties();
+        assertEquals(4, new Configuration(properties).getJournalCopierThreads());
+        properties.put("journalcopierthreads", "1");
+        assertEquals(1, new Configuration(properties).getJournalCopierThreads());
+    }
+
+    @Test
+    public void testLoadPropertiesPageCompression() throws Exception {
+        final Properties properties = new Properties();
+        assertEquals(false, new Configuration(properties).isPageCompressionEnabled());
+        properties.put("pagecompression", "true");
+        assertEquals(true, new Configuration(properties).isPageCompressionEnabled());
+    }
+
+    @Test
+    public void testLoadPropertiesOffHeap() throws Exception {
+        final Properties properties = new Properties();
+        properties.put("buffer.count.16384", "500");
+        assertEquals(false, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .isOffHeap());
+        properties.put("buffer.offheap.16384", "true");
+        assertEquals(true, testLoadPropertiesBufferSpecificationsHelper(properties).getBufferPoolMap().get(16384)
+                .isOffHeap());
+    }
+
     @Test
     public void testBrokenServerConfiguration() throws Exception {
         final BufferPoolConfiguration bpc = new Configuration().getBufferPoolMap().get(16384);
@@ -20,8 +20,6 @@ import com.persistit.exception.CorruptVolumeException;
 import com.persistit.exception.PersistitException;
 import org.junit.Test;
 
-import java.util.Arrays;
-
 import static org.junit.Assert.fail;
 
 public class CorruptVolumeTest extends PersistitUnitTestCase {
@@ -39,7 +37,7 @@ public class CorruptVolumeTest extends PersistitUnitTestCase {
         // Corrupt the volume by zonking the the index page
         final long pageAddr = exchange.fetchBufferCopy(1).getPageAddress();
         final Buffer buffer = exchange.getBufferPool().get(exchange.getVolume(), pageAddr, true, true);
-        Arrays.fill(buffer.getBytes(), 20, 200, (byte) 0);
+        buffer.clearBytes(20, 200);
         buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
         buffer.releaseTouched();
         //
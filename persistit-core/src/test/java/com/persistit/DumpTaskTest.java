@@ -26,7 +26,6 @@ import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
 import java.util.HashSet;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
@@ -51,14 +50,12 @@ public class DumpTaskTest extends PersistitUnitTestCase {
 
             assertEquals(PA.TYPE, PA.getType(bb));
             assertEquals(page, PA.getPageAddress(bb));
-            Arrays.fill(buffer.getBytes(), (byte) 0);
+            buffer.clear();
             final int left = PA.getLeftSize(bb);
             final int recordSize = PA.getLength(bb);
             final int right = recordSize - left - PA.OVERHEAD;
-            System.arraycopy(bb.array(), bb.position() + PA.OVERHEAD, buffer.getBytes(), 0, left);
-            System.arraycopy(bb.array(), bb.position() + PA.OVERHEAD + left, buffer.getBytes(), buffer.getBufferSize()
-                    - right, right);
-            // System.out.println(Util.dump(buffer.getBytes(), 16292, 16384));
+            buffer.putBytes(0, bb.array(), bb.position() + PA.OVERHEAD, left);
+            buffer.putBytes(buffer.getBufferSize() - right, bb.array(), bb.position() + PA.OVERHEAD + left, right);
             // System.out.println(buffer.toStringDetail());
             bb.clear();
         }
@@ -18,7 +18,7 @@ package com.persistit;
 
 import com.persistit.exception.InUseException;
 import com.persistit.exception.InvalidKeyException;
-import com.persistit.exception.PersistitException;
+import com.persistit.exception.RollbackException;
 import org.junit.Test;
 
 import java.util.Properties;
@@ -58,11 +58,7 @@ public class ExchangeLockTest extends PersistitUnitTestCase {
       }
       ex.append("motor");
       ex.lock();
-      final Tree tree = _persistit.getLockVolume().getTree("ExchangeLockTest", false);
-      assertTrue("Expected tree to be defined", tree != null);
-      final Exchange ex2 = new Exchange(tree);
-      ex2.ignoreMVCCFetch(true);
-      assertTrue("Expect a key in the temp volume", ex2.next(true));
+      assertEquals("Expect a key in the lock table", 1, _persistit.getKeyLockTable().size());
       txn.commit();
     } catch (final Exception e) {
       e.printStackTrace();
@@ -259,22 +255,121 @@ public class ExchangeLockTest extends PersistitUnitTestCase {
       txn.commit();
       txn.end();
     }
-    assertTrue("Too many lock volume pages uses",
-      _persistit.getLockVolume().getStorage().getNextAvailablePage() < 100);
+    assertEquals("Unpruned lock records", 0, _persistit.getKeyLockTable().size());
+  }
 
-    final Exchange lockExchange = new Exchange(_persistit.getLockVolume().getTree("ExchangeLockTest", false));
-    final int count = keyCount(lockExchange);
+  @Test
+  public void committedLockRetainedForConcurrentTransaction() throws Exception {
+    final Exchange ex = _persistit.getExchange("persistit", "ExchangeLockTest", true);
+    final Transaction txn = ex.getTransaction();
+    final Semaphore started = new Semaphore(0);
+    final Semaphore committed = new Semaphore(0);
+    final Exception[] result = new Exception[1];
+    final Thread t = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          final Exchange ex = _persistit.getExchange("persistit", "ExchangeLockTest", true);
+          final Transaction txn = ex.getTransaction();
+          txn.begin();
+          try {
+            started.release();
+            committed.acquire();
+            ex.append("motor").lock();
+            txn.commit();
+          } catch (final Exception e) {
+            result[0] = e;
+          } finally {
+            txn.end();
+          }
+        } catch (final Exception e) {
+          e.printStackTrace();
+        }
+      }
+    });
+    t.start();
+    started.acquire();
+    txn.begin();
+    try {
+      ex.append("motor").lock();
+      txn.commit();
+    } finally {
+      txn.end();
+    }
+    assertEquals("Lock retained for concurrent transaction", 1, _persistit.getKeyLockTable().size());
+    committed.release();
+    t.join();
+    assertTrue("Expected a RollbackException", result[0] instanceof RollbackException);
 
-    assertEquals("Unpruned lock records", 0, count);
+    txn.begin();
+    try {
+      ex.lock();
+      txn.commit();
+    } finally {
+      txn.end();
+    }
+    assertEquals("Unpruned lock records", 0, _persistit.getKeyLockTable().size());
   }
 
-  private int keyCount(final Exchange ex) throws PersistitException {
-    int count = 0;
-    ex.clear();
-    while (ex.next(true)) {
-      count++;
+  @Test
+  public void concurrentLocksOnSharedKeys() throws Exception {
+    final int threadCount = 4;
+    final int keyCount = 20;
+    final Exception[] result = new Exception[threadCount];
+    final Thread[] threads = new Thread[threadCount];
+    for (int t = 0; t < threadCount; t++) {
+      final int index = t;
+      threads[t] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            final Exchange ex = _persistit.getExchange("persistit", "ExchangeLockTest", true);
+            final Transaction txn = ex.getTransaction();
+            final Random random = new Random(index);
+            for (int i = 0; i < 500; i++) {
+              txn.begin();
+              try {
+                for (int j = 0; j < 5; j++) {
+                  ex.clear().append(random.nextInt(keyCount)).lock(ex.getKey(), 0);
+                }
+                txn.commit();
+              } catch (final RollbackException e) {
+                // expected when another transaction holds the lock
+              } finally {
+                txn.end();
+              }
+            }
+          } catch (final Exception e) {
+            result[index] = e;
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (final Thread thread : threads) {
+      thread.join();
+    }
+    for (final Exception e : result) {
+      if (e != null) {
+        throw e;
+      }
+    }
+    /*
+     * Locking every key once more prunes the versions retained for
+     * transactions that have since ended.
+     */
+    final Exchange ex = _persistit.getExchange("persistit", "ExchangeLockTest", true);
+    final Transaction txn = ex.getTransaction();
+    txn.begin();
+    try {
+      for (int k = 0; k < keyCount; k++) {
+        ex.clear().append(k).lock();
+      }
+      txn.commit();
+    } finally {
+      txn.end();
     }
-    return count;
+    assertEquals("Unpruned lock records", 0, _persistit.getKeyLockTable().size());
   }
 
   @Test
@@ -131,6 +131,10 @@ public class IOFailureTest extends PersistitUnitTestCase {
   @Test
   public void testJournalUnreadable() throws Exception {
     final String reason = "Read Failure";
+    /*
+     * Make sure the pages can't be read back from the journal page cache
+     */
+    _persistit.getJournalManager().setPageCacheSize(0);
     store1(0);
     final Volume volume = _persistit.getVolume(_volumeName);
     /*
@@ -275,7 +275,8 @@ public class IntegrityCheckTest extends PersistitUnitTestCase {
         buffer.nextKey(key, buffer.toKeyBlock(0));
         assertTrue(key.getEncodedSize() > 1);
         final int t = (int) (buffer.at(buffer.toKeyBlock(0)) >>> 32);
-        buffer.getBytes()[t - key.getEncodedSize() + 1]++;
+        final int index = t - key.getEncodedSize() + 1;
+        buffer.putByte(index, buffer.getByte(index) + 1);
         buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
         buffer.release();
     }
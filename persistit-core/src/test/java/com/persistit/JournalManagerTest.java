@@ -19,6 +19,8 @@ package com.persistit;
 import com.persistit.Accumulator.SumAccumulator;
 import com.persistit.CheckpointManager.Checkpoint;
 import com.persistit.JournalManager.PageNode;
+import com.persistit.JournalManager.TransactionMapItem;
+import com.persistit.Transaction.CommitPolicy;
 import com.persistit.TransactionPlayer.TransactionPlayerListener;
 import com.persistit.exception.PersistitException;
 import com.persistit.unit.ConcurrentUtil.ThrowingRunnable;
@@ -26,13 +28,14 @@ import com.persistit.util.Util;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
@@ -46,6 +49,7 @@ import static com.persistit.util.ThreadSequencer.disableSequencer;
 import static com.persistit.util.ThreadSequencer.enableSequencer;
 import static com.persistit.util.ThreadSequencer.sequence;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -163,8 +167,8 @@ public class JournalManagerTest extends PersistitUnitTestCase {
         rman.buildRecoveryPlan();
         assertTrue(rman.getKeystoneAddress() != -1);
         assertEquals(checkpoint2.getTimestamp(), rman.getLastValidCheckpoint().getTimestamp());
-        final Map<PageNode, PageNode> pageMap = new HashMap<PageNode, PageNode>();
-        final Map<PageNode, PageNode> branchMap = new HashMap<PageNode, PageNode>();
+        final PageMap pageMap = new PageMap();
+        final PageMap branchMap = new PageMap();
 
         rman.collectRecoveredPages(pageMap, branchMap);
         assertEquals(pages, pageMap.size());
@@ -261,6 +265,192 @@ public class JournalManagerTest extends PersistitUnitTestCase {
         assertTrue(rman.analyze());
     }
 
+    @Test
+    public void spareJournalFilesArePreallocatedAndUsed() throws Exception {
+        store1();
+        _persistit.flush();
+        final Volume volume = _persistit.getVolume(_volumeName);
+        volume.resetHandle();
+        final JournalManager jman = new JournalManager(_persistit);
+        final String path = DATA_PATH + "/JournalManagerTest_journal_";
+        final long blockSize = JournalManager.MINIMUM_BLOCK_SIZE;
+        jman.init(null, path, blockSize);
+        jman.setSpareJournalFiles(2);
+        jman.prepareSpareJournalFiles();
+        assertEquals(2, jman.getReadySpareJournalFileCount());
+
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        final long pages = Math.min(1000, volume.getStorage().getNextAvailablePage() - 1);
+        for (int i = 0; jman.getCurrentAddress() < blockSize + blockSize / 2; i++) {
+            final Buffer buffer = pool.get(volume, i % pages, true, true);
+            buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+            buffer.save();
+            jman.writePageToJournal(buffer);
+            buffer.releaseTouched();
+        }
+        jman.force();
+        assertEquals("Both journal files should have been taken from spares", 0,
+                jman.getReadySpareJournalFileCount());
+        assertEquals(blockSize, jman.addressToFile(jman.getCurrentAddress()).length());
+
+        final Checkpoint checkpoint = _persistit.getCheckpointManager().createCheckpoint();
+        jman.writeCheckpointToJournal(checkpoint);
+        jman.force();
+        /*
+         * Recovery must stop cleanly at the zero-filled remainder of the
+         * preallocated file.
+         */
+        final RecoveryManager rman = new RecoveryManager(_persistit);
+        rman.init(path);
+        rman.buildRecoveryPlan();
+        assertEquals(checkpoint.getTimestamp(), rman.getLastValidCheckpoint().getTimestamp());
+        jman.close();
+    }
+
+    @Test
+    public void copierReadsWrittenPagesFromCache() throws Exception {
+        store1();
+        _persistit.flush();
+        final Volume volume = _persistit.getVolume(_volumeName);
+        volume.resetHandle();
+        final JournalManager jman = new JournalManager(_persistit);
+        final String path = DATA_PATH + "/JournalManagerTest_journal_";
+        jman.init(null, path, 100 * 1000 * 1000);
+        jman.setPageCacheSize(128);
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        final int pages = (int) Math.min(100, volume.getStorage().getNextAvailablePage() - 1);
+        for (int page = 0; page < pages; page++) {
+            final Buffer buffer = pool.get(volume, page, true, true);
+            buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+            buffer.save();
+            jman.writePageToJournal(buffer);
+            buffer.releaseTouched();
+        }
+        final ByteBuffer cached = ByteBuffer.allocate(pages * 16384);
+        jman.readForCopy(pageNodes(jman, volume.getHandle(), pages), cached);
+        assertTrue(jman.getPageCacheHitCount() > pages / 2);
+        /*
+         * Images served from the cache must match those read from the journal
+         */
+        jman.setPageCacheSize(0);
+        final ByteBuffer read = ByteBuffer.allocate(pages * 16384);
+        jman.readForCopy(pageNodes(jman, volume.getHandle(), pages), read);
+        assertEquals(0, jman.getPageCacheHitCount());
+        assertTrue(Arrays.equals(cached.array(), read.array()));
+        jman.close();
+    }
+
+    @Test
+    public void copierWritesRunsOfAdjacentPages() throws Exception {
+        store1();
+        _persistit.flush();
+        final Volume volume = _persistit.getVolume(_volumeName);
+        volume.resetHandle();
+        final JournalManager jman = new JournalManager(_persistit);
+        final String path = DATA_PATH + "/JournalManagerTest_journal_";
+        jman.init(null, path, 100 * 1000 * 1000);
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        final int pages = (int) Math.min(60, volume.getStorage().getNextAvailablePage() - 1);
+        /*
+         * Leave gaps so that the pages are copied in several runs
+         */
+        final List<PageNode> list = new ArrayList<PageNode>();
+        for (int page = 1; page < pages; page++) {
+            if (page % 20 == 0) {
+                continue;
+            }
+            final Buffer buffer = pool.get(volume, page, true, true);
+            buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+            buffer.save();
+            jman.writePageToJournal(buffer);
+            buffer.releaseTouched();
+            list.add(jman.queryPageNode(volume.getHandle(), page));
+        }
+        final ByteBuffer bb = ByteBuffer.allocate(pages * 16384);
+        jman.readForCopy(list, bb);
+        jman.writeForCopy(list, bb);
+        assertEquals(list.size(), jman.getCopiedPageCount());
+
+        final RandomAccessFile raf = new RandomAccessFile(volume.getPath(), "r");
+        try {
+            final byte[] bytes = new byte[16384];
+            for (final PageNode pn : list) {
+                raf.seek(pn.getPageAddress() * 16384);
+                raf.readFully(bytes);
+                assertTrue("Page " + pn.getPageAddress(),
+                        Arrays.equals(Arrays.copyOfRange(bb.array(), pn.getOffset(), pn.getOffset() + 16384), bytes));
+            }
+        } finally {
+            raf.close();
+        }
+        jman.close();
+    }
+
+    private List<PageNode> pageNodes(final JournalManager jman, final int handle, final int pages) {
+        final List<PageNode> list = new ArrayList<PageNode>();
+        for (int page = 0; page < pages; page++) {
+            list.add(jman.queryPageNode(handle, page));
+        }
+        return list;
+    }
+
+    @Test
+    public void incrementalPageMapIsRecovered() throws Exception {
+        store1();
+        _persistit.flush();
+        final Volume volume = _persistit.getVolume(_volumeName);
+        volume.resetHandle();
+        final JournalManager jman = new JournalManager(_persistit);
+        final String path = DATA_PATH + "/JournalManagerTest_journal_";
+        final long blockSize = JournalManager.MINIMUM_BLOCK_SIZE;
+        jman.init(null, path, blockSize);
+        final BufferPool pool = _persistit.getBufferPool(16384);
+        final long pages = Math.min(1000, volume.getStorage().getNextAvailablePage() - 1);
+        /*
+         * Map many pages, then keep rewriting a few of them across several
+         * rollovers so that the later journal files begin with PI records.
+         */
+        for (int i = 0; i < pages || jman.getCurrentAddress() < blockSize * 4; i++) {
+            final Buffer buffer = pool.get(volume, i < pages ? i : i % 10, true, true);
+            buffer.setDirtyAtTimestamp(_persistit.getTimestampAllocator().updateTimestamp());
+            buffer.save();
+            jman.writePageToJournal(buffer);
+            buffer.releaseTouched();
+        }
+        jman.force();
+        final long pageMapAddress = jman.getPageMapAddress();
+        assertTrue(pageMapAddress >= blockSize * 4);
+        final ByteBuffer bb = ByteBuffer.allocate(JournalRecord.OVERHEAD);
+        final RandomAccessFile raf = new RandomAccessFile(jman.addressToFile(pageMapAddress), "r");
+        try {
+            raf.getChannel().read(bb, pageMapAddress % blockSize);
+        } finally {
+            raf.close();
+        }
+        bb.flip();
+        assertEquals(JournalRecord.PI.TYPE, JournalRecord.getType(bb));
+
+        final Checkpoint checkpoint = _persistit.getCheckpointManager().createCheckpoint();
+        jman.writeCheckpointToJournal(checkpoint);
+        jman.force();
+        final RecoveryManager rman = new RecoveryManager(_persistit);
+        rman.init(path);
+        rman.buildRecoveryPlan();
+        final PageMap pageMap = new PageMap();
+        final PageMap branchMap = new PageMap();
+        rman.collectRecoveredPages(pageMap, branchMap);
+        final int handle = volume.getHandle();
+        for (long page = 0; page < pages; page++) {
+            final PageNode expected = jman.queryPageNode(handle, page);
+            final PageNode recovered = pageMap.get(handle, page);
+            assertNotNull(expected);
+            assertNotNull(recovered);
+            assertEquals(expected.getJournalAddress(), recovered.getJournalAddress());
+        }
+        assertEquals(pages, pageMap.size());
+        jman.close();
+    }
+
     @Test
     public void testRollover768048() throws Exception {
         final Transaction txn = _persistit.getTransaction();
@@ -539,6 +729,108 @@ public class JournalManagerTest extends PersistitUnitTestCase {
                 .getIgnoredUpdates() > 0);
     }
 
+    @Test
+    public void pageDeltasReconstructPages() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        jman.setAppendOnly(true);
+        jman.setPageDeltasEnabled(true);
+        final int[] versions = writeVersions();
+        assertTrue("Should have written page deltas", jman.getPageDeltaCount() > 0);
+        checkReconstructedVersions(versions);
+    }
+
+    @Test
+    public void pageDeltasRequireRetainedBase() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        jman.setAppendOnly(true);
+        jman.setPageDeltasEnabled(true);
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "JournalManagerTest", true);
+        for (int i = 0; i < 100; i++) {
+            ex.to(i).getValue().put(RED_FOX + i);
+            ex.store();
+        }
+        _persistit.checkpoint();
+        final long before = jman.getPageDeltaCount();
+        ex.to(2).getValue().put(RED_FOX + "a");
+        ex.store();
+        _persistit.checkpoint();
+        assertTrue("Should have written a page delta", jman.getPageDeltaCount() > before);
+        /*
+         * A page read back into the pool holds no base image, so its next
+         * write is a full image.
+         */
+        final long after = jman.getPageDeltaCount();
+        final Volume volume = ex.getVolume();
+        volume.getStructure().getPool().evict(volume);
+        ex.to(3).getValue().put(RED_FOX + "a");
+        ex.store();
+        _persistit.checkpoint();
+        assertEquals("Should not have written a page delta", after, jman.getPageDeltaCount());
+        ex.to(4).getValue().put(RED_FOX + "a");
+        ex.store();
+        _persistit.checkpoint();
+        assertTrue("Should have written a page delta", jman.getPageDeltaCount() > after);
+    }
+
+    @Test
+    public void compressedPagesReconstructPages() throws Exception {
+        final JournalManager jman = _persistit.getJournalManager();
+        jman.setAppendOnly(true);
+        jman.setPageCompressionEnabled(true);
+        final int[] versions = writeVersions();
+        assertTrue("Should have written compressed pages", jman.getCompressedPageCount() > 0);
+        assertTrue("Pages should compress", jman.getPageCompressionRatio() > 1.0);
+        checkReconstructedVersions(versions);
+    }
+
+    private int[] writeVersions() throws PersistitException {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "JournalManagerTest", true);
+        final int[] versions = new int[2000];
+        for (int i = 0; i < versions.length; i++) {
+            ex.to(i).getValue().put(RED_FOX + i + ":0");
+            ex.store();
+        }
+        _persistit.checkpoint();
+        for (int version = 1; version <= 5; version++) {
+            for (int i = version; i < versions.length; i += 50) {
+                ex.to(i).getValue().put(RED_FOX + i + ":" + version);
+                ex.store();
+                versions[i] = version;
+            }
+            _persistit.checkpoint();
+        }
+        return versions;
+    }
+
+    /**
+     * Verify the versions written by {@link #writeVersions()} after reading
+     * pages back from the journal, after recovery and after copying pages
+     * back to the volume.
+     */
+    private void checkReconstructedVersions(final int[] versions) throws Exception {
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "JournalManagerTest", false);
+        final Volume volume = ex.getVolume();
+        volume.getStructure().getPool().evict(volume);
+        checkVersions(ex, versions);
+
+        _persistit.getJournalManager().force();
+        _persistit.crash();
+        _persistit = new Persistit(_config);
+        checkVersions(_persistit.getExchange(VOLUME_NAME, "JournalManagerTest", false), versions);
+
+        _persistit.copyBackPages();
+        _persistit.close();
+        _persistit = new Persistit(_config);
+        checkVersions(_persistit.getExchange(VOLUME_NAME, "JournalManagerTest", false), versions);
+    }
+
+    private void checkVersions(final Exchange ex, final int[] versions) throws PersistitException {
+        for (int i = 0; i < versions.length; i++) {
+            ex.to(i).fetch();
+            assertEquals(RED_FOX + i + ":" + versions[i], ex.getValue().getString());
+        }
+    }
+
     private List<PageNode> testCleanupPageListSource(final int size) {
         final List<PageNode> source = new ArrayList<PageNode>(size);
         for (int index = 0; index < size; index++) {
@@ -562,6 +854,91 @@ public class JournalManagerTest extends PersistitUnitTestCase {
         assertTrue("Invalidated no page nodes", source.size() > cleaned.size());
     }
 
+    @Test
+    public void concurrentTransactionRecordsArePublished() throws Exception {
+        final int THREADS = 8;
+        final int COUNT = 2000;
+        final long BASE = 1L << 40;
+        disableBackgroundCleanup();
+        final JournalManager jman = _persistit.getJournalManager();
+        jman.setWriteBufferSize(JournalManager.MINIMUM_BUFFER_SIZE);
+        jman.force();
+        final long[] addresses = new long[THREADS * COUNT];
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int from = t * COUNT;
+            threads[t] = createThread("APPEND_THREAD_" + t, new ThrowingRunnable() {
+                @Override
+                public void run() throws PersistitException {
+                    final ByteBuffer bb = ByteBuffer.allocate(256);
+                    for (int i = from; i < from + COUNT; i++) {
+                        bb.position(i % 200);
+                        addresses[i] = jman.writeTransactionToJournal(bb, BASE + 2 * i, BASE + 2 * i + 1, 0);
+                    }
+                }
+            });
+        }
+        startAndJoinAssertSuccess(60000, threads);
+
+        for (int i = 0; i < THREADS * COUNT; i++) {
+            final TransactionMapItem item = jman.queryTransactionMap(BASE + 2 * i);
+            assertNotNull("Missing transaction " + i, item);
+            assertEquals("Start address", addresses[i], item.getStartAddress());
+            assertEquals("Commit timestamp", BASE + 2 * i + 1, item.getCommitTimestamp());
+        }
+        /*
+         * Records must not overlap
+         */
+        final long[] sorted = addresses.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < sorted.length; i++) {
+            assertTrue("Overlapping records at " + sorted[i], sorted[i] - sorted[i - 1] >= JournalRecord.TX.OVERHEAD);
+        }
+        assertTrue("Records not all written", jman.getCurrentAddress() > sorted[sorted.length - 1]);
+    }
+
+    @Test
+    public void groupCommitMakesEveryCommitDurable() throws Exception {
+        final int THREADS = 4;
+        final int COUNT = 200;
+        /*
+         * With the JOURNAL_FLUSHER effectively idle only committing threads
+         * leading a group commit can make their records durable.
+         */
+        _persistit.getJournalManager().setFlushInterval(1000000);
+        final Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int from = t * COUNT;
+            threads[t] = createThread("COMMIT_THREAD_" + t, new ThrowingRunnable() {
+                @Override
+                public void run() throws PersistitException {
+                    final Exchange ex = _persistit.getExchange(VOLUME_NAME, "JournalManagerTest", true);
+                    final Transaction txn = ex.getTransaction();
+                    for (int i = from; i < from + COUNT; i++) {
+                        txn.begin();
+                        try {
+                            ex.getValue().put(RED_FOX + i);
+                            ex.to(i).store();
+                            txn.commit(i % 2 == 0 ? CommitPolicy.HARD : CommitPolicy.GROUP);
+                        } finally {
+                            txn.end();
+                        }
+                    }
+                }
+            });
+        }
+        startAndJoinAssertSuccess(60000, threads);
+        assertTrue("Commits not counted",
+                _persistit.getJournalManager().getTotalCompletedCommits() >= THREADS * COUNT);
+
+        crashWithoutFlushAndRestoreProperties();
+        final Exchange ex = _persistit.getExchange(VOLUME_NAME, "JournalManagerTest", false);
+        for (int i = 0; i < THREADS * COUNT; i++) {
+            ex.to(i).fetch();
+            assertEquals(RED_FOX + i, ex.getValue().getString());
+        }
+    }
+
     @Test
     public void copyBackPagesLeavesOneJournal() throws Exception {
         final int BATCH_SIZE = 1000;
@@ -0,0 +1,82 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class JournalPageCacheTest {
+
+    @Test
+    public void putAndGet() {
+        final JournalPageCache cache = new JournalPageCache(100);
+        assertEquals(128, cache.size());
+        final byte[] image = new byte[1024];
+        Arrays.fill(image, (byte) 7);
+        cache.put(5000, 42, ByteBuffer.wrap(image));
+
+        final ByteBuffer bb = ByteBuffer.allocate(4096);
+        bb.position(2048);
+        assertEquals(-1, cache.get(5001, bb));
+        assertEquals(42, cache.get(5000, bb));
+        assertEquals(2048, bb.position());
+        assertEquals(2048 + 1024, bb.limit());
+        assertArrayEquals(image, Arrays.copyOfRange(bb.array(), 2048, 2048 + 1024));
+        assertEquals(1, cache.getHitCount());
+
+        bb.clear().position(3584);
+        assertEquals("Image does not fit", -1, cache.get(5000, bb));
+    }
+
+    @Test
+    public void writtenImageHasZeroedGap() {
+        final JournalPageCache cache = new JournalPageCache(16);
+        final byte[] page = new byte[1024];
+        Arrays.fill(page, (byte) 9);
+        final Buffer buffer = new Buffer(ByteBuffer.allocateDirect(1024), 0, null, null);
+        buffer.putBytes(0, page, 0, page.length);
+        buffer.setPageAddressAndVolume(3, null);
+        cache.put(777, buffer, 100, 200);
+
+        final ByteBuffer bb = ByteBuffer.allocate(1024);
+        assertEquals(3, cache.get(777, bb));
+        final byte[] expected = page.clone();
+        Arrays.fill(expected, 100, 1024 - 200, (byte) 0);
+        assertArrayEquals(expected, bb.array());
+    }
+
+    @Test
+    public void replacedAndDisabled() {
+        final JournalPageCache cache = new JournalPageCache(1);
+        final ByteBuffer bb = ByteBuffer.allocate(16);
+        cache.put(1000, 1, ByteBuffer.wrap(new byte[16]));
+        cache.put(2000, 2, ByteBuffer.wrap(new byte[8]));
+        assertEquals(-1, cache.get(1000, bb));
+        assertEquals(2, cache.get(2000, bb));
+        assertEquals(8, bb.limit());
+
+        final JournalPageCache disabled = new JournalPageCache(0);
+        assertEquals(0, disabled.size());
+        disabled.put(1000, 1, ByteBuffer.wrap(new byte[16]));
+        assertEquals(-1, disabled.get(1000, bb.clear()));
+    }
+}
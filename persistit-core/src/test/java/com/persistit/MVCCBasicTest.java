@@ -26,6 +26,7 @@ import java.util.List;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class MVCCBasicTest extends MVCCTestBase {
     private static final String KEY1 = "k1";
@@ -109,6 +110,66 @@ public class MVCCBasicTest extends MVCCTestBase {
         }
     }
 
+    @Test
+    public void testReadOnlyTrxRejectsUpdates() throws Exception {
+        trx1.begin();
+        try {
+            store(ex1, KEY1, VALUE1);
+            _persistit.setSessionId(session1);
+            ex1.getTree().getSumAccumulator(0).add(1);
+            trx1.commit();
+        } finally {
+            trx1.end();
+        }
+
+        trx2.beginReadOnly();
+        try {
+            assertTrue("read-only", trx2.isReadOnly());
+            assertEquals("fetch in read-only trx", VALUE1, fetch(ex2, KEY1));
+            try {
+                store(ex2, KEY2, VALUE2);
+                fail("store in read-only trx");
+            } catch (final IllegalStateException e) {
+                // expected
+            }
+            try {
+                remove(ex2, KEY1);
+                fail("remove in read-only trx");
+            } catch (final IllegalStateException e) {
+                // expected
+            }
+            try {
+                ex2.clear().append(KEY1).lock();
+                fail("lock in read-only trx");
+            } catch (final IllegalStateException e) {
+                // expected
+            }
+            _persistit.setSessionId(session2);
+            try {
+                ex2.getTree().getSumAccumulator(0).add(1);
+                fail("accumulator update in read-only trx");
+            } catch (final IllegalStateException e) {
+                // expected
+            }
+            assertEquals("accumulator snapshot in read-only trx", 1, ex2.getTree().getSumAccumulator(0)
+                    .getSnapshotValue());
+            trx2.commit();
+        } finally {
+            trx2.end();
+        }
+        assertFalse("read-only after end", trx2.isReadOnly());
+
+        trx1.begin();
+        try {
+            assertEquals("value after read-only trx", VALUE1, fetch(ex1, KEY1));
+            fetch(ex1, KEY2, false);
+            assertFalse("value stored by read-only trx", ex1.getValue().isDefined());
+            trx1.commit();
+        } finally {
+            trx1.end();
+        }
+    }
+
     @Test
     public void testSingleTrxManyInserts() throws Exception {
         // Enough for a new index level and many splits
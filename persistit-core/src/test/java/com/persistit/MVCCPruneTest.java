@@ -95,6 +95,35 @@ public class MVCCPruneTest extends MVCCTestBase {
         assertEquals("version count after prune", 1, storedVersionCount(ex1, KEY));
     }
 
+    @Test
+    public void testPruneKeepsVersionReadByReadOnlyTrx() throws PersistitException {
+        storePrimordial(ex1, KEY, VALUE);
+
+        trx2.beginReadOnly();
+        try {
+            assertEquals("value from read-only trx2", VALUE, fetch(ex2, KEY));
+
+            trx1.begin();
+            try {
+                store(ex1, KEY, VALUE_TRX1);
+                trx1.commit();
+            } finally {
+                trx1.end();
+            }
+
+            prune(ex1, KEY);
+            assertEquals("value from read-only trx2 after prune", VALUE, fetch(ex2, KEY));
+            assertEquals("version count after prune, trx2 active", 2, storedVersionCount(ex1, KEY));
+            trx2.commit();
+        } finally {
+            trx2.end();
+        }
+
+        prune(ex1, KEY);
+        assertEquals("value from no trx after prune", VALUE_TRX1, fetch(ex1, KEY));
+        assertEquals("version count after trx2 ended", 1, storedVersionCount(ex1, KEY));
+    }
+
     @Test
     public void testPruneManyCommitted() throws PersistitException {
         final int TRX1_COUNT = 5;
@@ -0,0 +1,144 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import com.persistit.exception.PersistitException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MultiFetchTest extends MVCCTestBase {
+
+    @Test
+    public void fetchMatchesIndividualFetches() throws Exception {
+        final Random random = new Random(1);
+        for (int k = 0; k < 20000; k += 2) {
+            store(ex1, k, k % 1000 == 0 ? createString(20000) : RED_FOX + k);
+        }
+        store(ex1, RED_FOX, "string key");
+
+        final Key[] keys = new Key[500];
+        final Value[] values = new Value[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = new Key(_persistit);
+            values[index] = new Value(_persistit);
+            if (index % 50 == 0) {
+                keys[index].append(RED_FOX);
+            } else if (index % 25 == 0) {
+                keys[index].append(1000 * random.nextInt(20));
+            } else {
+                keys[index].append(random.nextInt(22000));
+            }
+        }
+        ex1.to(-1).getValue().put("unchanged");
+        ex1.fetch(keys, values);
+        assertEquals("Key is unchanged", -1, ex1.getKey().decodeInt());
+        assertEquals("Value is unchanged", "unchanged", ex1.getValue().getString());
+
+        final Value expected = new Value(_persistit);
+        for (int index = 0; index < keys.length; index++) {
+            keys[index].copyTo(ex2.getKey());
+            ex2.fetch(expected);
+            assertEquals("Key " + keys[index], expected, values[index]);
+        }
+    }
+
+    @Test
+    public void fetchInTransaction() throws Exception {
+        for (int k = 0; k < 1000; k++) {
+            store(ex1, k, RED_FOX + k);
+        }
+        final Key[] keys = new Key[] { new Key(_persistit).append(999), new Key(_persistit).append(5),
+                new Key(_persistit).append(1500) };
+        final Value[] values = new Value[] { new Value(_persistit), new Value(_persistit), new Value(_persistit) };
+
+        trx1.begin();
+        trx2.begin();
+        try {
+            store(ex1, 5, "trx1");
+            store(ex1, 1500, "trx1");
+            remove(ex1, 999);
+
+            ex1.fetch(keys, values);
+            assertTrue("Removed by trx1", !values[0].isDefined());
+            assertEquals("trx1", values[1].getString());
+            assertEquals("trx1", values[2].getString());
+
+            ex2.fetch(keys, values);
+            assertEquals(RED_FOX + 999, values[0].getString());
+            assertEquals(RED_FOX + 5, values[1].getString());
+            assertTrue("Not visible to trx2", !values[2].isDefined());
+
+            trx1.commit();
+            trx2.commit();
+        } finally {
+            trx1.end();
+            trx2.end();
+        }
+    }
+
+    @Test
+    public void fetchReadsAheadNonResidentPages() throws Exception {
+        final Volume volume = ex1.getVolume();
+        final BufferPool pool = volume.getPool();
+        int count = 0;
+        while (volume.getNextAvailablePage() < 300) {
+            store(ex1, ++count, RED_FOX);
+        }
+        final Key[] keys = new Key[count / 10];
+        final Value[] values = new Value[keys.length];
+        for (int index = 0; index < keys.length; index++) {
+            keys[index] = new Key(_persistit).append(count - index * 10);
+            values[index] = new Value(_persistit);
+        }
+
+        pool.setMaximumReadAhead(0);
+        assertTrue(pool.evict(volume));
+        ex1.fetch(keys, values);
+        assertEquals("Read-ahead should be disabled", 0, pool.getPrefetchCounter());
+
+        /*
+         * The fetching thread may read every page before the prefetcher gets
+         * to it, so allow several attempts.
+         */
+        pool.setMaximumReadAhead(16);
+        for (int attempt = 0; attempt < 10 && pool.getPrefetchCounter() == 0; attempt++) {
+            assertTrue(pool.evict(volume));
+            ex1.fetch(keys, values);
+            for (int index = 0; index < keys.length; index++) {
+                assertEquals(RED_FOX, values[index].getString());
+            }
+            Thread.sleep(10);
+        }
+        assertTrue("Pages should have been read ahead of the fetch", pool.getPrefetchCounter() > 0);
+    }
+
+    @Test
+    public void fetchArguments() throws PersistitException {
+        ex1.fetch(new Key[0], new Value[0]);
+        try {
+            ex1.fetch(new Key[] { new Key(_persistit).append(1) }, new Value[0]);
+            fail("Expected an IllegalArgumentException");
+        } catch (final IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
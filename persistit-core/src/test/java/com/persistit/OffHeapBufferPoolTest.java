@@ -0,0 +1,181 @@
+/**
+ * Copyright 2012 Akiban Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import java.util.Properties;
+
+import com.persistit.Transaction.CommitPolicy;
+import com.persistit.exception.PersistitException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs a buffer pool whose pages are allocated outside the heap through the
+ * paths that read and write page memory: record storage, page splits and
+ * joins, long records, journal writes, copy-back and recovery. The pool is
+ * small so that pages are repeatedly evicted and read back.
+ */
+public class OffHeapBufferPoolTest extends PersistitUnitTestCase {
+
+    private final static String TREE_NAME = "OffHeapBufferPoolTest";
+
+    private final static int COUNT = 5000;
+
+    @Override
+    protected Properties doGetProperties(final boolean cleanup) {
+        final Properties properties = getProperties(cleanup);
+        properties.setProperty("buffer.offheap.16384", "true");
+        return properties;
+    }
+
+    @Test
+    public void testStoreFetchSplitJoin() throws Exception {
+        assertOffHeap();
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        for (int i = 0; i < COUNT; i++) {
+            ex.getValue().put(value(i));
+            ex.to(i).store();
+        }
+        assertTrue("Tree should have split", ex.getTree().getDepth() > 1);
+        verify(ex, 0, COUNT, 1);
+
+        for (int i = 0; i < COUNT; i += 2) {
+            ex.to(i).remove();
+        }
+        verify(ex, 1, COUNT, 2);
+        for (int i = 0; i < COUNT; i += 2) {
+            assertTrue(!ex.to(i).isValueDefined());
+        }
+        ex.removeAll();
+        assertTrue(!ex.to(Key.BEFORE).next());
+        checkIntegrity();
+    }
+
+    @Test
+    public void testLongRecords() throws Exception {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        for (int i = 0; i < 100; i++) {
+            ex.getValue().put(createString(50000 + i));
+            ex.to(i).store();
+        }
+        for (int i = 0; i < 100; i++) {
+            ex.to(i).fetch();
+            assertEquals(createString(50000 + i), ex.getValue().getString());
+        }
+        for (int i = 0; i < 100; i += 2) {
+            ex.getValue().put(value(i));
+            ex.to(i).store();
+        }
+        for (int i = 0; i < 100; i++) {
+            ex.to(i).fetch();
+            assertEquals(i % 2 == 0 ? value(i) : createString(50000 + i), ex.getValue().getString());
+        }
+        checkIntegrity();
+    }
+
+    @Test
+    public void testRecoveryFromJournal() throws Exception {
+        store(0, COUNT);
+        final Transaction txn = _persistit.getTransaction();
+        txn.begin();
+        try {
+            final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+            ex.getValue().put("uncommitted");
+            ex.to(COUNT).store();
+            ex.to(0).remove();
+            txn.rollback();
+        } finally {
+            txn.end();
+        }
+
+        crashWithoutFlushAndRestoreProperties();
+        assertOffHeap();
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        verify(ex, 0, COUNT, 1);
+        assertTrue(!ex.to(COUNT).isValueDefined());
+        checkIntegrity();
+    }
+
+    @Test
+    public void testRecoveryAfterCopyBack() throws Exception {
+        store(0, COUNT / 2);
+        _persistit.checkpoint();
+        _persistit.getJournalManager().copyBack();
+        store(COUNT / 2, COUNT);
+
+        safeCrashAndRestoreProperties();
+        assertOffHeap();
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, false);
+        verify(ex, 0, COUNT, 1);
+        checkIntegrity();
+    }
+
+    private void store(final int from, final int to) throws PersistitException {
+        final Exchange ex = _persistit.getExchange("persistit", TREE_NAME, true);
+        final Transaction txn = _persistit.getTransaction();
+        for (int i = from; i < to; i += 100) {
+            txn.begin();
+            try {
+                for (int j = i; j < Math.min(i + 100, to); j++) {
+                    ex.getValue().put(j % 500 == 0 ? createString(20000) : value(j));
+                    ex.to(j).store();
+                }
+                txn.commit(CommitPolicy.HARD);
+            } finally {
+                txn.end();
+            }
+        }
+        _persistit.releaseExchange(ex);
+    }
+
+    private void verify(final Exchange ex, final int from, final int to, final int step) throws PersistitException {
+        for (int i = from; i < to; i += step) {
+            ex.to(i).fetch();
+            assertTrue("Missing key " + i, ex.getValue().isDefined());
+            final String s = ex.getValue().getString();
+            if (!s.equals(value(i))) {
+                assertEquals(createString(20000), s);
+            }
+        }
+    }
+
+    private void assertOffHeap() throws PersistitException {
+        final Volume volume = _persistit.getVolume("persistit");
+        final BufferPool pool = volume.getPool();
+        assertTrue(pool.isOffHeap());
+        for (long page = 1; page < Math.min(volume.getNextAvailablePage(), 10); page++) {
+            final Buffer buffer = pool.get(volume, page, false, true);
+            try {
+                assertTrue("Page memory should be direct", buffer.getByteBuffer().isDirect());
+            } finally {
+                buffer.release();
+            }
+        }
+    }
+
+    private void checkIntegrity() throws PersistitException {
+        final IntegrityCheck icheck = new IntegrityCheck(_persistit);
+        icheck.checkVolume(_persistit.getVolume("persistit"));
+        assertEquals("Corrupt volume", 0, icheck.getFaults().length);
+    }
+
+    private static String value(final int i) {
+        return "Value " + i + " " + createString(i % 200);
+    }
+}
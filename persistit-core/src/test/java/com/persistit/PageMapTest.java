@@ -0,0 +1,108 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import com.persistit.JournalManager.PageNode;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class PageMapTest {
+
+    @Test
+    public void putGetRemove() {
+        final PageMap map = new PageMap();
+        final PageNode a = new PageNode(1, 42, 1000, 1);
+        final PageNode b = new PageNode(2, 42, 2000, 2);
+        final PageNode c = new PageNode(1, 42, 3000, 3);
+        assertNull(map.put(a));
+        assertNull(map.put(b));
+        assertSame(a, map.put(c));
+        assertEquals(2, map.size());
+        assertSame(c, map.get(1, 42));
+        assertSame(b, map.get(new PageNode(2, 42)));
+        assertNull(map.get(1, 43));
+        assertSame(c, map.remove(a));
+        assertNull(map.remove(a));
+        assertNull(map.get(1, 42));
+        assertSame(b, map.get(2, 42));
+        assertEquals(1, map.size());
+        map.clear();
+        assertEquals(0, map.size());
+        assertNull(map.get(2, 42));
+    }
+
+    @Test
+    public void matchesHashMap() {
+        final PageMap map = new PageMap();
+        final Map<PageNode, PageNode> expected = new HashMap<PageNode, PageNode>();
+        final Random random = new Random(1);
+        for (int i = 0; i < 500000; i++) {
+            final PageNode pn = new PageNode(random.nextInt(4), random.nextInt(20000), i, i);
+            switch (random.nextInt(4)) {
+            case 0:
+                assertSame(expected.remove(pn), map.remove(pn));
+                break;
+            case 1:
+                assertSame(expected.get(pn), map.get(pn.getVolumeHandle(), pn.getPageAddress()));
+                break;
+            default:
+                assertSame(expected.put(pn, pn), map.put(pn));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        int count = 0;
+        for (final PageNode pn : map.values()) {
+            assertSame(expected.get(pn), pn);
+            count++;
+        }
+        assertEquals(expected.size(), count);
+    }
+
+    @Test
+    public void iteratorRemove() {
+        final PageMap map = new PageMap();
+        for (int page = 0; page < 10000; page++) {
+            map.put(new PageNode(page % 3, page, page, page));
+        }
+        for (final Iterator<PageNode> iterator = map.values().iterator(); iterator.hasNext();) {
+            if (iterator.next().getPageAddress() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+        assertEquals(5000, map.size());
+        for (int page = 0; page < 10000; page++) {
+            final PageNode pn = map.get(page % 3, page);
+            if (page % 2 == 0) {
+                assertNull(pn);
+            } else {
+                assertEquals(page, pn.getJournalAddress());
+            }
+        }
+        for (int page = 0; page < 10000; page += 2) {
+            assertNull(map.put(new PageNode(page % 3, page, page, page)));
+        }
+        assertEquals(10000, map.size());
+    }
+}
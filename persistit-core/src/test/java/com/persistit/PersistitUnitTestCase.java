@@ -198,7 +198,7 @@ public abstract class PersistitUnitTestCase {
   }
 
   private final static String[] PERSISTIT_THREAD_NAMES = {"CHECKPOINT_WRITER", "JOURNAL_COPIER", "JOURNAL_FLUSHER",
-    "PAGE_WRITER", "TXN_UPDATE"};
+    "PAGE_WRITER", "PAGE_CLEANER", "PAGE_PREFETCHER", "BUFFER_PRELOADER"};
 
   protected boolean checkNoPersistitThreads() {
     boolean alive = false;
@@ -342,8 +342,8 @@ public class RecoveryTest extends PersistitUnitTestCase {
     rman.init(path);
     rman.buildRecoveryPlan();
     assertTrue(rman.getKeystoneAddress() != -1);
-    final Map<PageNode, PageNode> pageMapCopy = new HashMap<PageNode, PageNode>();
-    final Map<PageNode, PageNode> branchMapCopy = new HashMap<PageNode, PageNode>();
+    final PageMap pageMapCopy = new PageMap();
+    final PageMap branchMapCopy = new PageMap();
     rman.collectRecoveredPages(pageMapCopy, branchMapCopy);
     assertEquals(pageMap.size(), pageMapCopy.size());
     final PageNode key = new PageNode(1, 42, -1, -1);
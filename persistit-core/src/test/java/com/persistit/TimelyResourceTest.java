@@ -41,6 +41,7 @@ import static com.persistit.unit.ConcurrentUtil.start;
 import static com.persistit.util.Util.NS_PER_S;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TimelyResourceTest extends PersistitUnitTestCase {
 
@@ -287,4 +288,48 @@ public class TimelyResourceTest extends PersistitUnitTestCase {
         assertEquals("Surviving primordial version should be last one committed", 10, tr.getVersion(null)._id);
     }
 
+    @Test
+    public void readOnlyTransactionSharesUnregisteredVersion() throws Exception {
+        final TimelyResource<TestVersion> tr = new TimelyResource<TestVersion>(_persistit);
+        _idCounter = 0;
+        final VersionCreator<TestVersion> creator = new VersionCreator<TestVersion>() {
+
+            @Override
+            public TestVersion createVersion(final TimelyResource<? extends TestVersion> resource)
+                    throws PersistitException {
+                return new TestVersion(++_idCounter, TimelyResourceTest.this);
+            }
+        };
+        final Transaction txn = _persistit.getTransaction();
+        for (int i = 0; i < 3; i++) {
+            txn.beginReadOnly();
+            try {
+                final TestVersion v1 = tr.getVersion(creator);
+                final TestVersion v2 = tr.getVersion(creator);
+                assertTrue("Read-only transaction should reuse the version", v1 == v2);
+                assertEquals(1, v1._id);
+                try {
+                    tr.addVersion(new TestVersion(-1, this), txn);
+                    fail("addVersion in read-only transaction");
+                } catch (final IllegalStateException e) {
+                    // expected
+                }
+                txn.commit();
+            } finally {
+                txn.end();
+            }
+        }
+        assertEquals(1, _idCounter);
+        assertEquals(0, tr.getVersionCount());
+
+        txn.begin();
+        try {
+            assertEquals("Regular transaction should add a version", 2, tr.getVersion(creator)._id);
+            txn.commit();
+        } finally {
+            txn.end();
+        }
+        assertEquals(1, tr.getVersionCount());
+    }
+
 }
@@ -327,6 +327,85 @@ public class TransactionIndexTest extends TestCase {
         ti.notifyCompleted(ts1, commitTimestamp);
     }
 
+    @Test
+    public void testActiveTransactionCacheRefreshesOnDemand() throws Exception {
+        final TransactionIndex ti = new TransactionIndex(_tsa, 4);
+        ti._activeTransactionCacheRefreshInterval = 0;
+        final TransactionStatus ts1 = ti.registerTransaction();
+        final TransactionStatus ts2 = ti.registerTransaction();
+        /*
+         * No explicit update: pruning a version newer than the cache's
+         * ceiling must refresh the cache and see both transactions.
+         */
+        assertTrue(ti.hasConcurrentTransaction(0, ts2.getTs() + 1));
+        assertEquals(2, ti.getActiveTransactionCount());
+        assertEquals(ts1.getTs(), ti.getActiveTransactionFloor());
+
+        ts2.commit(_tsa.updateTimestamp());
+        ti.notifyCompleted(ts2, _tsa.getCurrentTimestamp());
+        assertEquals(ts1.getTs(), ti.getActiveTransactionFloor());
+        /*
+         * Completing the oldest transaction lets the floor advance once the
+         * next reader has rebuilt the cache.
+         */
+        ts1.commit(_tsa.updateTimestamp());
+        ti.notifyCompleted(ts1, _tsa.getCurrentTimestamp());
+        assertEquals(ts1.getTs(), ti.getActiveTransactionFloor());
+        assertFalse(ti.hasConcurrentTransaction(0, ts2.getTs()));
+        assertTrue(ti.getActiveTransactionFloor() > ts2.getTs());
+        assertEquals(0, ti.getActiveTransactionCount());
+        assertFalse(ti.hasConcurrentTransaction(0, _tsa.getCurrentTimestamp()));
+    }
+
+    @Test
+    public void testActiveTransactionCacheRefreshInterval() throws Exception {
+        final TransactionIndex ti = new TransactionIndex(_tsa, 4);
+        ti._activeTransactionCacheRefreshInterval = 60000;
+        final TransactionStatus ts1 = ti.registerTransaction();
+        /*
+         * Within the refresh interval a timestamp beyond the ceiling is
+         * reported as concurrent without rebuilding the cache.
+         */
+        final long ceiling = ti.getActiveTransactionCeiling();
+        assertTrue(ti.hasConcurrentTransaction(0, ts1.getTs() + 1));
+        assertEquals(ceiling, ti.getActiveTransactionCeiling());
+        assertEquals(0, ti.getActiveTransactionCount());
+
+        ti._activeTransactionCacheRefreshInterval = 0;
+        assertTrue(ti.hasConcurrentTransaction(0, ts1.getTs() + 1));
+        assertTrue(ti.getActiveTransactionCeiling() > ts1.getTs());
+        assertEquals(1, ti.getActiveTransactionCount());
+        ts1.commit(_tsa.updateTimestamp());
+        ti.notifyCompleted(ts1, _tsa.getCurrentTimestamp());
+    }
+
+    @Test
+    public void testReadOnlySnapshotHoldsFloor() throws Exception {
+        final TransactionIndex ti = new TransactionIndex(_tsa, 1);
+        ti._activeTransactionCacheRefreshInterval = 0;
+        final int slot = ti.claimSnapshotSlot(-1);
+        assertEquals(0, slot);
+        final long ts = ti.startSnapshot(slot);
+        /*
+         * A slot that is in use is not handed out again.
+         */
+        final int other = ti.claimSnapshotSlot(slot);
+        assertEquals(1, other);
+        ti.releaseSnapshotSlot(other);
+
+        final TransactionStatus ts1 = ti.registerTransaction();
+        ts1.commit(_tsa.updateTimestamp());
+        ti.notifyCompleted(ts1, _tsa.getCurrentTimestamp());
+        assertTrue(ti.hasConcurrentTransaction(0, ts + 1));
+        assertEquals(ts, ti.getActiveTransactionFloor());
+        assertEquals(1, ti.getActiveTransactionCount());
+
+        ti.releaseSnapshotSlot(slot);
+        assertFalse(ti.hasConcurrentTransaction(0, _tsa.getCurrentTimestamp()));
+        assertTrue(ti.getActiveTransactionFloor() > ts);
+        assertEquals(slot, ti.claimSnapshotSlot(-1));
+    }
+
     /**
      * Bug 914474 is an isolation failure in Stress8txn when run with 10
      * threads. Hypothesis is that a TransactionStatus for a committed
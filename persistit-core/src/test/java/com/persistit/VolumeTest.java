@@ -153,9 +153,18 @@ public class VolumeTest extends PersistitUnitTestCase {
     assertFalse(vs.isCreate());
     assertFalse(vs.isCreateOnly());
     assertFalse(vs.isReadOnly());
+    assertFalse(vs.isMapped());
     vs2 = validVolumeSpecification(vs.toString());
     assertEquals("Parse of toString should be equal", vs, vs2);
 
+    vs = validVolumeSpecification("/a/b/c,readOnly,mapped");
+    assertTrue(vs.isReadOnly());
+    assertTrue(vs.isMapped());
+    vs2 = validVolumeSpecification(vs.toString());
+    assertEquals("Parse of toString should be equal", vs, vs2);
+    vs2.setMapped(false);
+    assertFalse("Mapped attribute should be significant", vs.equals(vs2));
+
     vs = validVolumeSpecification("/a/b/c.v01");
     assertEquals("c", vs.getName());
     vs2 = validVolumeSpecification(vs.toString());
@@ -264,6 +273,28 @@ public class VolumeTest extends PersistitUnitTestCase {
     }
   }
 
+  @Test
+  public void testMappedVolume() throws Exception {
+    final VolumeSpecification vs = validVolumeSpecification("${datapath}/vtest, pageSize:16k, initialPages:4, maximumSize:10m, extensionPages:3, create, mapped");
+    final Volume volume = _persistit.loadVolume(vs);
+    final Exchange ex = _persistit.getExchange("vtest", "MappedVolumeTest", true);
+    for (int i = 0; i < 5000; i++) {
+      ex.to(i).getValue().put(RED_FOX + i);
+      ex.store();
+    }
+    final long extended = volume.getStorage().getExtentedPageCount();
+    assertTrue("Volume should have been extended", extended > 4);
+    _persistit.flush();
+    _persistit.copyBackPages();
+    volume.getStructure().getPool().evict(volume);
+    final long reads = volume.getStatistics().getReadCounter();
+    for (int i = 0; i < 5000; i++) {
+      ex.to(i).fetch();
+      assertEquals(RED_FOX + i, ex.getValue().getString());
+    }
+    assertTrue("Pages should have been read from the mapped file", volume.getStatistics().getReadCounter() > reads);
+  }
+
   private VolumeSpecification validVolumeSpecification(final String specification) throws Exception {
     try {
       return _persistit.getConfiguration().volumeSpecification(specification);
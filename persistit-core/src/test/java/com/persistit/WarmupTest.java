@@ -19,6 +19,8 @@ package com.persistit;
 import org.junit.Test;
 
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -35,31 +37,50 @@ public class WarmupTest extends PersistitUnitTestCase {
 
   @Test
   public void testWarmup() throws Exception {
-    Exchange ex = _persistit.getExchange("persistit", "WarmupTest", true);
-    BufferPool pool = ex.getBufferPool();
+    final Set<String> before = loadAndRecord();
+
+    _persistit = new Persistit(_config);
+    final Exchange ex = _persistit.getExchange("persistit", "WarmupTest", false);
+    assertEquals(before, residentPages(ex.getBufferPool()));
+  }
+
+  @Test
+  public void testWarmupInBackground() throws Exception {
+    final Set<String> before = loadAndRecord();
+
+    _config.setBufferPreloadBackground(true);
+    _config.setBufferPreloadThreads(4);
+    _persistit = new Persistit(_config);
+    final Exchange ex = _persistit.getExchange("persistit", "WarmupTest", false);
+    final BufferPool pool = ex.getBufferPool();
+    pool.waitForPreload();
+    assertEquals(before, residentPages(pool));
+  }
+
+  private Set<String> loadAndRecord() throws Exception {
+    final Exchange ex = _persistit.getExchange("persistit", "WarmupTest", true);
     for (int i = 1; i <= 1000; i++) {
       ex.getValue().put(RED_FOX);
       ex.clear().append(i).store();
     }
-
-    final Buffer[] buff = new Buffer[100];
-    for (int i = 0; i < pool.getBufferCount(); ++i) {
-      buff[i] = pool.getBufferCopy(i);
-    }
-
-    ex = null;
+    final Set<String> pages = residentPages(ex.getBufferPool());
     _persistit.close();
+    return pages;
+  }
 
-    _persistit = new Persistit(_config);
-    ex = _persistit.getExchange("persistit", "WarmupTest", false);
-    pool = ex.getBufferPool();
-
+  /*
+   * Pages are preloaded in address order by several threads, so compare the
+   * set of resident pages rather than the buffer each page occupies.
+   */
+  private Set<String> residentPages(final BufferPool pool) {
+    final Set<String> pages = new TreeSet<String>();
     for (int i = 0; i < pool.getBufferCount(); ++i) {
-      final Buffer bufferCopy = pool.getBufferCopy(i);
-      assertEquals(bufferCopy.getPageAddress(), buff[i].getPageAddress());
-      assertEquals(bufferCopy.getPageType(), buff[i].getPageType());
-      assertEquals(bufferCopy.getBufferSize(), buff[i].getBufferSize());
+      final Buffer buffer = pool.getBufferCopy(i);
+      if (buffer.isValid()) {
+        pages.add(buffer.getPageAddress() + ":" + buffer.getPageType());
+      }
     }
+    return pages;
   }
 
   @Test
@@ -116,7 +137,7 @@ public class WarmupTest extends PersistitUnitTestCase {
     final TrackingFileChannel tfc = new TrackingFileChannel();
     mfc.injectChannelForTests(tfc);
     pool = volume.getStructure().getPool();
-    pool.preloadBufferInventory();
+    pool.preloadBufferInventory(1, false);
     assertTrue("Preload should have loaded pages from journal file", tfc.getReadPositionList().size() > 0);
     tfc.assertOrdered(true, true);
   }
@@ -0,0 +1,156 @@
+/**
+ * Copyright 2026 ForgeRock AS
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.persistit;
+
+import com.persistit.exception.PersistitException;
+import com.persistit.exception.RollbackException;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WriteBatchTest extends MVCCTestBase {
+
+    private final static String OTHER_TREE_NAME = "writebatchtest";
+
+    @Test
+    public void batchMatchesIndividualStores() throws Exception {
+        final Exchange other = _persistit.getExchange(TEST_VOLUME_NAME, OTHER_TREE_NAME, true);
+        final Random random = new Random(1);
+        final WriteBatch batch = new WriteBatch();
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int i = 0; i < 20000; i++) {
+            final int k = random.nextInt(10000);
+            final String v = i % 1000 == 0 ? createString(20000) : createString(random.nextInt(200)) + i;
+            key.clear().append(k);
+            value.put(v);
+            batch.put(key, value);
+            store(other, k, v);
+        }
+        ex1.store(batch);
+        assertEquals(traverseAllFoward(other, true), traverseAllFoward(ex1, true));
+
+        batch.clear();
+        for (int k = 20000; k < 30000; k++) {
+            key.clear().append(k);
+            value.put(RED_FOX + k);
+            batch.put(key, value);
+            store(other, k, RED_FOX + k);
+        }
+        ex1.store(batch);
+        assertEquals(traverseAllFoward(other, true), traverseAllFoward(ex1, true));
+    }
+
+    @Test
+    public void longKeysAndDuplicates() throws Exception {
+        final Exchange other = _persistit.getExchange(TEST_VOLUME_NAME, OTHER_TREE_NAME, true);
+        final Random random = new Random(2);
+        final WriteBatch batch = new WriteBatch();
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int i = 0; i < 5000; i++) {
+            final String k = RED_FOX.substring(0, random.nextInt(RED_FOX.length())) + random.nextInt(100);
+            final int k2 = random.nextInt(3);
+            key.clear().append(k).append(k2);
+            value.put(i);
+            batch.put(key, value);
+            store(other, k, k2, i);
+        }
+        ex1.store(batch);
+        assertEquals(traverseAllFoward(other, true), traverseAllFoward(ex1, true));
+    }
+
+    @Test
+    public void batchInTransaction() throws Exception {
+        final WriteBatch batch = new WriteBatch();
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int k = 1000; --k >= 0;) {
+            key.clear().append(k);
+            value.put(RED_FOX + k);
+            batch.put(key, value);
+        }
+
+        trx1.begin();
+        try {
+            ex1.store(batch);
+            assertEquals(RED_FOX + 500, fetch(ex1, 500));
+            trx1.rollback();
+        } finally {
+            trx1.end();
+        }
+        assertEquals("Rolled back batch", 0, traverseAllFoward(ex1, true).size());
+
+        trx2.begin();
+        try {
+            trx1.begin();
+            try {
+                ex1.store(batch);
+                trx1.commit();
+            } finally {
+                trx1.end();
+            }
+            assertEquals("Batch committed after trx2 started", 0, traverseAllFoward(ex2, true).size());
+            trx2.commit();
+        } finally {
+            trx2.end();
+        }
+        assertEquals(1000, traverseAllFoward(ex2, true).size());
+        assertEquals(RED_FOX + 999, fetch(ex2, 999));
+    }
+
+    @Test
+    public void batchConflictsWithConcurrentTransaction() throws Exception {
+        final WriteBatch batch = new WriteBatch();
+        final Key key = new Key(_persistit);
+        final Value value = new Value(_persistit);
+        for (int k = 0; k < 100; k++) {
+            key.clear().append(k);
+            value.put(k);
+            batch.put(key, value);
+        }
+        trx1.begin();
+        trx2.begin();
+        try {
+            store(ex1, 50, "trx1");
+            ex2.setTimeoutMillis(100);
+            try {
+                ex2.store(batch);
+                fail("Expected a RollbackException");
+            } catch (final RollbackException e) {
+                // expected
+            }
+            assertTrue("trx2 rolled back", trx2.isRollbackPending());
+            trx1.commit();
+        } finally {
+            trx2.end();
+            trx1.end();
+        }
+        assertEquals("trx1", fetch(ex1, 50));
+        assertEquals(1, traverseAllFoward(ex1, true).size());
+    }
+
+    @Test
+    public void emptyBatch() throws PersistitException {
+        ex1.store(new WriteBatch());
+        assertEquals(0, ex1.getTree().getChangeCount());
+    }
+}